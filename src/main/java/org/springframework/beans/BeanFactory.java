@@ -26,4 +26,9 @@ public interface BeanFactory {
 
     <T> Map<String, T> getBeansOfType(Class<T> type) throws BeansException;
 
+    /**
+     * 是否存在这个名称的bean（BeanDefinition或者手动注册的单例），有父BeanFactory时也会到父BeanFactory查找
+     */
+    boolean containsBean(String name);
+
 }
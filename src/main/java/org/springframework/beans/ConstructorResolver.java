@@ -0,0 +1,303 @@
+package org.springframework.beans;
+
+import cn.hutool.core.util.ClassUtil;
+import org.springframework.beans.beandefinition.definition.BeanDefinition;
+import org.springframework.beans.beandefinition.definition.BeanReference;
+import org.springframework.beans.beandefinition.definition.ConstructorArgumentValues;
+import org.springframework.beans.beandefinition.definition.ConstructorArgumentValues.ValueHolder;
+import org.springframework.core.exception.BeansException;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 构造器解析：决定用哪个构造器实例化bean，以及每个构造器参数从哪里来
+ * <p>
+ * 选择构造器的优先级：
+ * 1. xml中配置了{@code <constructor-arg>}：找参数个数、类型都能匹配上的构造器；
+ * 2. 后置处理器指定的构造器，比如标注了@Autowired的构造器；
+ * 3. 只有一个构造器且带参数：按类型注入它的参数；
+ * 4. 无参构造器。
+ * <p>
+ * 解析结果（构造器 + 参数描述）缓存在BeanDefinition中，同一个BeanDefinition只解析一次。
+ * 之后每次创建bean只需要按缓存的描述取出参数，调用一次构造器即可，final字段的不可变bean也能这样创建
+ */
+class ConstructorResolver {
+
+    /**
+     * 参数值无法赋给构造器参数
+     */
+    private static final Object NO_MATCH = new Object();
+
+    private final DefaultListableBeanFactory beanFactory;
+
+    ConstructorResolver(DefaultListableBeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    /**
+     * 实例化bean：使用缓存的构造器和参数描述，只有第一次需要解析
+     */
+    Object instantiate(String beanName, BeanDefinition beanDefinition) throws BeansException {
+        resolveConstructor(beanName, beanDefinition);
+        // 先读构造器再读参数，与BeanDefinition#setResolvedConstructor的写入顺序相反
+        Constructor<?> constructor = beanDefinition.getResolvedConstructor();
+        Object[] prepared = beanDefinition.getPreparedConstructorArguments();
+
+        Object[] args = new Object[prepared.length];
+        for (int i = 0; i < prepared.length; i++) {
+            args[i] = resolvePreparedArgument(beanName, prepared[i]);
+        }
+        try {
+            return constructor.newInstance(args);
+        } catch (InvocationTargetException e) {
+            throw new BeansException("Failed to instantiate [" + constructor.getDeclaringClass().getName() + "]: constructor threw exception", e.getTargetException());
+        } catch (Exception e) {
+            throw new BeansException("Failed to instantiate [" + constructor.getDeclaringClass().getName() + "]", e);
+        }
+    }
+
+    /**
+     * 预测构造器参数依赖的bean，用于构建依赖图（不会触发bean的创建）。
+     * 解析失败时返回空数组，真正创建bean时会报错
+     */
+    String[] predictDependencies(String beanName, BeanDefinition beanDefinition) {
+        try {
+            resolveConstructor(beanName, beanDefinition);
+        } catch (BeansException ex) {
+            return new String[0];
+        }
+        List<String> dependencies = new ArrayList<>();
+        for (Object prepared : beanDefinition.getPreparedConstructorArguments()) {
+            if (prepared instanceof BeanReference) {
+                dependencies.add(((BeanReference) prepared).getBeanName());
+            } else if (prepared instanceof DependencyDescriptor) {
+                dependencies.addAll(Arrays.asList(beanFactory.predictDependencyCandidates((DependencyDescriptor) prepared, beanName)));
+            }
+        }
+        return dependencies.toArray(new String[0]);
+    }
+
+    void resolveConstructor(String beanName, BeanDefinition beanDefinition) throws BeansException {
+        if (beanDefinition.getResolvedConstructor() != null) {
+            return;
+        }
+        synchronized (beanDefinition) {
+            if (beanDefinition.getResolvedConstructor() != null) {
+                return;
+            }
+            Class<?> beanClass = beanFactory.resolveBeanClass(beanName, beanDefinition);
+            Constructor<?> constructor;
+            Object[] prepared;
+            if (beanDefinition.hasConstructorArgumentValues()) {
+                Object[][] argsHolder = new Object[1][];
+                constructor = resolveExplicitConstructor(beanName, beanDefinition, argsHolder);
+                prepared = argsHolder[0];
+            } else {
+                constructor = determineAutowireConstructor(beanClass, beanName);
+                prepared = constructor != null ? prepareAutowiredArguments(constructor) : new Object[0];
+                if (constructor == null) {
+                    try {
+                        constructor = beanClass.getDeclaredConstructor();
+                    } catch (NoSuchMethodException e) {
+                        throw new BeansException("Failed to instantiate [" + beanClass.getName() + "]: no default constructor found", e);
+                    }
+                }
+            }
+            constructor.setAccessible(true);
+            beanDefinition.setResolvedConstructor(constructor, prepared);
+        }
+    }
+
+    /**
+     * 先问后置处理器（比如@Autowired构造器），再看是否只有唯一一个带参构造器
+     */
+    private Constructor<?> determineAutowireConstructor(Class<?> beanClass, String beanName) {
+        Constructor<?>[] candidates = beanFactory.determineConstructorsFromBeanPostProcessors(beanClass, beanName);
+        if (candidates != null && candidates.length > 0) {
+            if (candidates.length > 1) {
+                throw new BeansException("Ambiguous autowired constructors on bean class [" + beanClass.getName() + "]: " + Arrays.toString(candidates));
+            }
+            return candidates[0];
+        }
+        Constructor<?>[] declared = beanClass.getDeclaredConstructors();
+        if (declared.length == 1 && declared[0].getParameterCount() > 0) {
+            return declared[0];
+        }
+        return null;
+    }
+
+    private Object[] prepareAutowiredArguments(Constructor<?> constructor) {
+        Parameter[] parameters = constructor.getParameters();
+        Object[] prepared = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            prepared[i] = DependencyDescriptor.forAnnotatedElement(parameter.getType(), parameter.getParameterizedType(),
+                    parameter.getAnnotations(), "parameter " + i + " of " + constructor);
+        }
+        return prepared;
+    }
+
+    /**
+     * 在参数个数相同的构造器中，找到所有参数都能匹配上的那一个；匹配上多个时要求用type或index消除歧义
+     */
+    private Constructor<?> resolveExplicitConstructor(String beanName, BeanDefinition beanDefinition, Object[][] argsHolder) {
+        Class<?> beanClass = beanFactory.resolveBeanClass(beanName, beanDefinition);
+        ConstructorArgumentValues argumentValues = beanDefinition.getConstructorArgumentValues();
+        int argumentCount = argumentValues.getArgumentCount();
+        for (Integer index : argumentValues.getIndexedArgumentValues().keySet()) {
+            if (index >= argumentCount) {
+                throw new BeansException("Constructor argument index " + index + " out of range for bean '" + beanName
+                        + "': " + argumentCount + " constructor arguments configured");
+            }
+        }
+
+        Constructor<?> matched = null;
+        for (Constructor<?> candidate : beanClass.getDeclaredConstructors()) {
+            if (candidate.getParameterCount() != argumentCount) {
+                continue;
+            }
+            Object[] args = matchArguments(candidate, argumentValues);
+            if (args == null) {
+                continue;
+            }
+            if (matched != null) {
+                throw new BeansException("Ambiguous constructor matches found for bean '" + beanName + "': " + matched + " and " + candidate
+                        + " (hint: specify index/type attributes of <constructor-arg>)");
+            }
+            matched = candidate;
+            argsHolder[0] = args;
+        }
+        if (matched == null) {
+            throw new BeansException("Could not resolve matching constructor on bean class [" + beanClass.getName() + "] for bean '"
+                    + beanName + "' with " + argumentCount + " constructor arguments");
+        }
+        return matched;
+    }
+
+    private Object[] matchArguments(Constructor<?> constructor, ConstructorArgumentValues argumentValues) {
+        Parameter[] parameters = constructor.getParameters();
+        ValueHolder[] holders = new ValueHolder[parameters.length];
+        for (Map.Entry<Integer, ValueHolder> entry : argumentValues.getIndexedArgumentValues().entrySet()) {
+            holders[entry.getKey()] = entry.getValue();
+        }
+
+        // 没有index的参数：编译时保留了参数名（-parameters）就按name匹配，剩下的按顺序填入空位
+        List<ValueHolder> unassigned = new ArrayList<>();
+        for (ValueHolder holder : argumentValues.getGenericArgumentValues()) {
+            int index = holder.getName() != null ? indexOfParameter(parameters, holder.getName()) : -1;
+            if (index >= 0 && holders[index] == null) {
+                holders[index] = holder;
+            } else if (holder.getName() != null && parameters.length > 0 && parameters[0].isNamePresent()) {
+                return null;
+            } else {
+                unassigned.add(holder);
+            }
+        }
+        int next = 0;
+        for (int i = 0; i < holders.length && next < unassigned.size(); i++) {
+            if (holders[i] == null) {
+                holders[i] = unassigned.get(next++);
+            }
+        }
+
+        Object[] args = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            if (holders[i] == null) {
+                return null;
+            }
+            Object arg = matchArgument(holders[i], parameters[i]);
+            if (arg == NO_MATCH) {
+                return null;
+            }
+            args[i] = arg;
+        }
+        return args;
+    }
+
+    private static int indexOfParameter(Parameter[] parameters, String name) {
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i].isNamePresent() && parameters[i].getName().equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 检查参数值能否赋给构造器参数：字面量在这里就转换成参数类型（只转换一次），bean引用只检查类型。
+     * 转换出的数组、集合是可变的，不能在多个实例之间共享，只缓存转换方式，每次创建实例时重新转换
+     */
+    private Object matchArgument(ValueHolder holder, Parameter parameter) {
+        Class<?> parameterType = parameter.getType();
+        String type = holder.getType();
+        if (type != null && !type.equals(parameterType.getName()) && !type.equals(parameterType.getSimpleName())) {
+            return NO_MATCH;
+        }
+        Object value = holder.getValue();
+        if (value instanceof BeanReference) {
+            String refName = ((BeanReference) value).getBeanName();
+            if (beanFactory.containsBeanDefinition(refName)
+                    && !ClassUtil.isAssignable(parameterType, beanFactory.resolveBeanClass(refName, beanFactory.getBeanDefinition(refName)))) {
+                return NO_MATCH;
+            }
+            return value;
+        }
+        try {
+            // 转换失败说明这个构造器不匹配
+            Object converted = beanFactory.getConversionService().convert(value, parameterType, parameter.getParameterizedType());
+            if (converted != value && isMutableContainer(converted)) {
+                return new LiteralConversion(value, parameterType, parameter.getParameterizedType());
+            }
+            return converted;
+        } catch (BeansException ex) {
+            return NO_MATCH;
+        }
+    }
+
+    private static boolean isMutableContainer(Object value) {
+        return value != null && (value.getClass().isArray() || value instanceof Collection || value instanceof Map);
+    }
+
+    private Object resolvePreparedArgument(String beanName, Object prepared) {
+        if (prepared instanceof BeanReference) {
+            String refName = ((BeanReference) prepared).getBeanName();
+            Object bean = beanFactory.getBean(refName);
+            beanFactory.registerDependentBean(refName, beanName);
+            return bean;
+        }
+        if (prepared instanceof DependencyDescriptor) {
+            return beanFactory.resolveDependency((DependencyDescriptor) prepared, beanName);
+        }
+        if (prepared instanceof LiteralConversion) {
+            LiteralConversion conversion = (LiteralConversion) prepared;
+            return beanFactory.getConversionService().convert(conversion.value, conversion.targetType, conversion.genericTargetType);
+        }
+        return prepared;
+    }
+
+    /**
+     * 转换结果是可变容器的字面量参数：记录原始值和目标类型，每个实例各自转换一份
+     */
+    private static final class LiteralConversion {
+
+        private final Object value;
+
+        private final Class<?> targetType;
+
+        private final Type genericTargetType;
+
+        private LiteralConversion(Object value, Class<?> targetType, Type genericTargetType) {
+            this.value = value;
+            this.targetType = targetType;
+            this.genericTargetType = genericTargetType;
+        }
+    }
+}
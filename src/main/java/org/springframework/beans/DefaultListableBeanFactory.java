@@ -3,30 +3,57 @@ package org.springframework.beans;
 
 import cn.hutool.core.util.ClassUtil;
 import cn.hutool.core.util.StrUtil;
-import org.apache.commons.beanutils.BeanUtils;
 import org.springframework.beans.aware.Aware;
 import org.springframework.beans.aware.BeanFactoryAware;
 import org.springframework.beans.beandefinition.definition.BeanDefinition;
 import org.springframework.beans.beandefinition.definition.BeanReference;
+import org.springframework.beans.beandefinition.definition.InstanceSupplier;
+import org.springframework.beans.beandefinition.definition.PropertyPopulator;
 import org.springframework.beans.beandefinition.definition.PropertyValue;
 import org.springframework.beans.beandefinition.definition.PropertyValues;
 import org.springframework.beans.beandefinition.registry.BeanDefinitionRegistry;
+import org.springframework.beans.graph.DependencyGraph;
 import org.springframework.beans.lifecycle.DisposableBean;
 import org.springframework.beans.lifecycle.DisposableBeanAdapter;
 import org.springframework.beans.lifecycle.InitializingBean;
+import org.springframework.beans.lifecycle.SingletonDestroyer;
+import org.springframework.beans.metrics.BeanFactoryMetrics;
 import org.springframework.beans.processor.bean.BeanPostProcessor;
+import org.springframework.beans.processor.bean.DestructionAwareBeanPostProcessor;
 import org.springframework.beans.processor.bean.InstantiationAwareBeanPostProcessor;
+import org.springframework.beans.processor.bean.OverlayAwareBeanPostProcessor;
+import org.springframework.beans.scope.PooledBean;
+import org.springframework.beans.scope.PooledScope;
+import org.springframework.beans.scope.Scope;
+import org.springframework.beans.scope.ThreadScope;
+import org.springframework.core.OrderComparator;
 import org.springframework.core.StringValueResolver;
+import org.springframework.core.common.Nullable;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.core.jfr.ContainerFlightRecorder;
 import org.springframework.core.exception.BeansException;
 
+import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 
 /**
  * Spring核心组件、IoC核心实现。
@@ -40,7 +67,7 @@ import java.util.concurrent.ConcurrentHashMap;
  * 所以你会看到我在它内部定义了beanDefinitionMap、设计了bean创建流程/生命周期/扩展点、singletonObjects，
  * 这些都是DefaultListableBeanFactory整合以上3个接口的痕迹。
  */
-public class DefaultListableBeanFactory implements BeanDefinitionRegistry, BeanFactory, SingletonBeanRegistry {
+public class DefaultListableBeanFactory implements BeanDefinitionRegistry, HierarchicalBeanFactory, SingletonBeanRegistry {
     /**
      * BeanDefinitionMap，根据BeanDefinition创建Bean
      */
@@ -53,6 +80,15 @@ public class DefaultListableBeanFactory implements BeanDefinitionRegistry, BeanF
      * BeanPostProcessor扩展点：在Bean生命周期中做一些扩展操作
      */
     private final List<BeanPostProcessor> beanPostProcessors = new ArrayList<>();
+    /**
+     * getBeanPostProcessors返回的只读视图
+     */
+    private final List<BeanPostProcessor> beanPostProcessorsView = Collections.unmodifiableList(beanPostProcessors);
+    /**
+     * bean的类 -> 声明处理该类型的InstantiationAwareBeanPostProcessor（见{@link #resolveBeforeInstantiation}），
+     * 添加后置处理器时失效。大多数类没有这样的处理器，对应空数组，创建bean时不再遍历所有后置处理器
+     */
+    private final Map<Class<?>, InstantiationAwareBeanPostProcessor[]> beforeInstantiationProcessorCache = new ConcurrentHashMap<>(64);
     /**
      * 生命周期方法：Bean销毁时调用
      */
@@ -61,17 +97,144 @@ public class DefaultListableBeanFactory implements BeanDefinitionRegistry, BeanF
      * 解析${}占位符
      */
     private final List<StringValueResolver> embeddedValueResolvers = new ArrayList<>();
+    /**
+     * 运行时记录的依赖关系：bean名称 -> 依赖它的bean名称
+     */
+    private final Map<String, Set<String>> dependentBeanMap = new ConcurrentHashMap<>(64);
+    /**
+     * 运行时记录的依赖关系：bean名称 -> 它依赖的bean名称
+     */
+    private final Map<String, Set<String>> dependenciesForBeanMap = new ConcurrentHashMap<>(64);
+    /**
+     * 自定义作用域：作用域名称 -> Scope，默认注册了thread和pooled作用域
+     */
+    private final Map<String, Scope> scopes = new ConcurrentHashMap<>(8);
+    /**
+     * 依赖图缓存，BeanDefinition、后置处理器或运行时依赖变化时失效
+     */
+    private volatile DependencyGraph dependencyGraph;
+    /**
+     * 当前线程正在创建的bean（按创建顺序），用于在运行时发现循环依赖
+     */
+    private final ThreadLocal<List<String>> beansCurrentlyInCreation = ThreadLocal.withInitial(ArrayList::new);
+    /**
+     * 容器关闭时销毁单例的并行度，默认1（串行）
+     */
+    private int destroyParallelism = 1;
+    /**
+     * 单个bean销毁的超时时间（毫秒），0表示不限
+     */
+    private long destroyTimeoutMillis;
+    /**
+     * 整个销毁过程的超时时间（毫秒），0表示不限
+     */
+    private long shutdownTimeoutMillis;
+
+    /**
+     * 构造器解析，解析结果缓存在BeanDefinition中
+     */
+    private final ConstructorResolver constructorResolver = new ConstructorResolver(this);
+
+    /**
+     * 类型索引：类型 -> 该类型的bean名称，BeanDefinition变化时清空
+     */
+    private final Map<Class<?>, String[]> beanNamesByType = new ConcurrentHashMap<>(64);
+    /**
+     * 已解析的集合类依赖（List<T>、T[]、Map<String, T>）：(注入点, 请求的bean) -> 候选bean及结果，候选bean都是单例时才缓存。
+     * 候选bean会排除请求的bean自己，所以结果和请求的bean有关，不能只按注入点缓存
+     */
+    private final Map<MultipleBeansKey, ResolvedMultipleBeans> resolvedMultipleBeansCache = new ConcurrentHashMap<>(64);
+
+    /**
+     * getBeansOfType的结果：类型 -> 不可变的 beanName->bean，匹配的bean都是单例时才缓存
+     */
+    private final Map<Class<?>, Map<String, ?>> beansOfTypeCache = new ConcurrentHashMap<>(16);
+
+    /**
+     * 每次清空beansOfTypeCache都加1。计算结果期间如果有变化（比如另一个线程注册了单例），结果就不放进缓存
+     */
+    private final AtomicLong beansOfTypeGeneration = new AtomicLong();
+
+    /**
+     * 冻结后的bean表（名称、BeanDefinition、单例），未冻结时为null，见{@link #freezeConfiguration()}
+     */
+    private volatile FrozenBeanTable frozenBeanTable;
+
+    /**
+     * 类型转换：XML中的属性值、<constructor-arg>字面量、@Value
+     */
+    private ConversionService conversionService = new DefaultConversionService();
+
+    /**
+     * 运行指标：getBean各路径的次数、bean创建耗时、后置处理器耗时
+     */
+    private final BeanFactoryMetrics metrics = new BeanFactoryMetrics();
+
+    /**
+     * 加载只有类名的BeanDefinition，默认是创建BeanFactory的线程的上下文类加载器
+     */
+    private ClassLoader beanClassLoader = defaultClassLoader();
+
+    /**
+     * 父BeanFactory：本地找不到的bean交给它，见{@link HierarchicalBeanFactory}
+     */
+    private volatile BeanFactory parentBeanFactory;
+
+    /**
+     * 覆盖层读取的模板快照，普通BeanFactory为null，见{@link #createOverlay()}
+     */
+    private OverlayTemplate overlaySource;
+
+    /**
+     * 作为模板时，为覆盖层准备的快照：第一次createOverlay时创建，冻结状态变化时失效
+     */
+    private volatile OverlayTemplate overlayTemplate;
+
+    public DefaultListableBeanFactory() {
+        registerScope(ThreadScope.SCOPE_NAME, new ThreadScope());
+        registerScope(PooledScope.SCOPE_NAME, new PooledScope());
+    }
+
+    public DefaultListableBeanFactory(BeanFactory parentBeanFactory) {
+        this();
+        setParentBeanFactory(parentBeanFactory);
+    }
 
     /************* 实现BeanDefinitionRegistry ************/
 
     @Override
     public void registerBeanDefinition(String beanName, BeanDefinition beanDefinition) {
+        assertNotFrozen("register bean definition '" + beanName + "'");
         this.beanDefinitionMap.put(beanName, beanDefinition);
+        this.dependencyGraph = null;
+        clearTypeCaches();
+    }
+
+    @Override
+    public void removeBeanDefinition(String beanName) throws BeansException {
+        assertNotFrozen("remove bean definition '" + beanName + "'");
+        if (this.beanDefinitionMap.remove(beanName) == null) {
+            if (overlaySource != null && overlaySource.getBeanDefinition(beanName) != null) {
+                throw new BeansException("Cannot remove bean definition '" + beanName + "' inherited from the overlay template, override it instead");
+            }
+            throw new BeansException("No bean named '" + beanName + "' is defined");
+        }
+        this.dependencyGraph = null;
+        clearTypeCaches();
+        // 对应的单例（以及依赖它的单例）也一并销毁
+        destroySingleton(beanName);
     }
 
     @Override
     public BeanDefinition getBeanDefinition(String beanName) throws BeansException {
-        BeanDefinition beanDefinition = beanDefinitionMap.get(beanName);
+        FrozenBeanTable frozen = this.frozenBeanTable;
+        BeanDefinition beanDefinition;
+        if (frozen != null) {
+            int index = frozen.indexOf(beanName);
+            beanDefinition = index >= 0 ? frozen.getBeanDefinition(index) : null;
+        } else {
+            beanDefinition = findBeanDefinition(beanName);
+        }
         if (beanDefinition == null) {
             throw new BeansException("No bean named '" + beanName + "' is defined");
         }
@@ -80,51 +243,214 @@ public class DefaultListableBeanFactory implements BeanDefinitionRegistry, BeanF
 
     @Override
     public boolean containsBeanDefinition(String beanName) {
-        return beanDefinitionMap.containsKey(beanName);
+        FrozenBeanTable frozen = this.frozenBeanTable;
+        if (frozen != null) {
+            int index = frozen.indexOf(beanName);
+            return index >= 0 && frozen.getBeanDefinition(index) != null;
+        }
+        return findBeanDefinition(beanName) != null;
     }
 
     @Override
     public String[] getBeanDefinitionNames() {
-        Set<String> beanNames = beanDefinitionMap.keySet();
+        Set<String> beanNames = allBeanDefinitions().keySet();
         return beanNames.toArray(new String[0]);
     }
 
+    /**
+     * 本地的BeanDefinition优先，覆盖层再到模板中查找
+     */
+    private BeanDefinition findBeanDefinition(String beanName) {
+        BeanDefinition beanDefinition = beanDefinitionMap.get(beanName);
+        if (beanDefinition == null && overlaySource != null) {
+            beanDefinition = overlaySource.getBeanDefinition(beanName);
+        }
+        return beanDefinition;
+    }
+
+    /**
+     * 所有BeanDefinition。覆盖层需要合并模板和本地覆盖的定义，只在构建依赖图、冻结等不频繁的操作中使用
+     */
+    private Map<String, BeanDefinition> allBeanDefinitions() {
+        OverlayTemplate source = this.overlaySource;
+        if (source == null) {
+            return beanDefinitionMap;
+        }
+        Map<String, BeanDefinition> merged = new LinkedHashMap<>();
+        for (String beanName : source.getBeanNames()) {
+            merged.put(beanName, source.getBeanDefinition(beanName));
+        }
+        merged.putAll(beanDefinitionMap);
+        return merged;
+    }
+
     /************* 实现BeanFactory ************/
 
     @Override
     public Object getBean(String name) throws BeansException {
+        // 冻结后：一次探测拿到单例或BeanDefinition
+        FrozenBeanTable frozen = this.frozenBeanTable;
+        if (frozen != null) {
+            int index = frozen.indexOf(name);
+            if (index >= 0) {
+                Object sharedInstance = frozen.getSingleton(index);
+                if (sharedInstance != null) {
+                    metrics.recordSingletonHit();
+                    return sharedInstance;
+                }
+                BeanDefinition beanDefinition = frozen.getBeanDefinition(index);
+                if (beanDefinition != null) {
+                    return doGetBean(name, beanDefinition);
+                }
+            }
+            return getBeanFromParent(name);
+        }
+
         Object sharedInstance = getSingleton(name);
         if (sharedInstance != null) {
+            metrics.recordSingletonHit();
             return sharedInstance;
         }
+        BeanDefinition beanDefinition = findBeanDefinition(name);
+        if (beanDefinition == null) {
+            return getBeanFromParent(name);
+        }
+        return doGetBean(name, beanDefinition);
+    }
+
+    /**
+     * 本地没有这个bean：交给父BeanFactory，没有父BeanFactory时报错
+     */
+    private Object getBeanFromParent(String name) throws BeansException {
+        BeanFactory parent = this.parentBeanFactory;
+        if (parent == null) {
+            throw new BeansException("No bean named '" + name + "' is defined");
+        }
+        return parent.getBean(name);
+    }
+
+    private Object doGetBean(String name, BeanDefinition beanDefinition) throws BeansException {
+        if (beanDefinition.isSingleton() || beanDefinition.isPrototype()) {
+            return createBean(name, beanDefinition);
+        }
 
-        BeanDefinition beanDefinition = getBeanDefinition(name);
-        return createBean(name, beanDefinition);
+        // 自定义作用域：由Scope决定是复用已有实例还是创建新实例
+        metrics.recordScopedBeanRequest();
+        String scopeName = beanDefinition.getScope();
+        Scope scope = this.scopes.get(scopeName);
+        if (scope == null) {
+            throw new BeansException("No Scope registered for scope name '" + scopeName + "'");
+        }
+        return scope.get(name, () -> createBean(name, beanDefinition));
     }
 
     protected Object createBean(String beanName, BeanDefinition beanDefinition) throws BeansException {
-//        Object bean = resolveBeforeInstantiation(beanName, beanDefinition);
-//        if (bean != null) {
-//            return bean;
-//        }
+        // dummy-ioc不支持循环依赖，与其等到栈溢出，不如在这里给出完整的依赖路径
+        List<String> creationPath = beansCurrentlyInCreation.get();
+        if (creationPath.contains(beanName)) {
+            List<String> cycle = new ArrayList<>(creationPath.subList(creationPath.indexOf(beanName), creationPath.size()));
+            cycle.add(beanName);
+            throw new BeansException("Circular dependency detected: " + String.join(" -> ", cycle));
+        }
+        // 只有类名的BeanDefinition在这里才真正加载类
+        resolveBeanClass(beanName, beanDefinition);
+        creationPath.add(beanName);
+        long start = System.nanoTime();
+        boolean created = false;
+        try {
+            // 【扩展点】后置处理器可以直接提供实例（缓存的、池化的），跳过实例化、属性填充和初始化
+            Object bean = resolveBeforeInstantiation(beanName, beanDefinition);
+            if (bean == null) {
+                bean = doCreateBean(beanName, beanDefinition);
+            } else if (beanDefinition.isSingleton()) {
+                addSingleton(beanName, bean);
+            }
+            created = true;
+            return bean;
+        } finally {
+            if (created) {
+                metrics.recordCreation(beanName, beanDefinition, System.nanoTime() - start);
+            } else {
+                metrics.recordCreationFailure();
+            }
+            creationPath.remove(creationPath.size() - 1);
+        }
+    }
+
+    /**
+     * 询问声明处理该类型的{@link InstantiationAwareBeanPostProcessor#postProcessBeforeInstantiation}，
+     * 第一个返回非null的实例就是bean：不再实例化、填充属性、调用初始化方法，也不注册销毁方法（实例归提供它的处理器管理），
+     * 但仍然执行postProcessAfterInitialization，单例仍然放入单例池
+     */
+    protected Object resolveBeforeInstantiation(String beanName, BeanDefinition beanDefinition) throws BeansException {
+        // AOT生成的代码自己创建实例
+        if (beanDefinition.getInstanceSupplier() != null) {
+            return null;
+        }
+        Class<?> beanClass = beanDefinition.getBeanClass();
+        for (InstantiationAwareBeanPostProcessor processor : getBeforeInstantiationProcessors(beanClass)) {
+            long start = System.nanoTime();
+            Object bean = processor.postProcessBeforeInstantiation(beanClass, beanName);
+            metrics.recordPostProcessor(processor, System.nanoTime() - start);
+            if (bean != null) {
+                return applyBeanPostProcessorsAfterInitialization(bean, beanName);
+            }
+        }
+        return null;
+    }
 
-        return doCreateBean(beanName, beanDefinition);
+    private InstantiationAwareBeanPostProcessor[] getBeforeInstantiationProcessors(Class<?> beanClass) {
+        InstantiationAwareBeanPostProcessor[] processors = beforeInstantiationProcessorCache.get(beanClass);
+        if (processors == null) {
+            List<InstantiationAwareBeanPostProcessor> candidates = new ArrayList<>();
+            for (BeanPostProcessor beanPostProcessor : getBeanPostProcessors()) {
+                if (beanPostProcessor instanceof InstantiationAwareBeanPostProcessor
+                        && ((InstantiationAwareBeanPostProcessor) beanPostProcessor).supportsBeforeInstantiation(beanClass)) {
+                    candidates.add((InstantiationAwareBeanPostProcessor) beanPostProcessor);
+                }
+            }
+            processors = candidates.toArray(new InstantiationAwareBeanPostProcessor[0]);
+            beforeInstantiationProcessorCache.put(beanClass, processors);
+        }
+        return processors;
     }
 
     protected Object doCreateBean(String beanName, BeanDefinition beanDefinition) {
+        // JFR事件关闭时jfrEvent为null，下面不会多调用System.nanoTime()
+        Object jfrEvent = ContainerFlightRecorder.beginBeanCreation();
+        long phaseStart = jfrEvent != null ? System.nanoTime() : 0L;
+        long instantiationTime = 0L;
+        long populationTime = 0L;
         Object bean;
         try {
             // 实例化bean
-            bean = createBeanInstance(beanDefinition);
+            bean = createBeanInstance(beanName, beanDefinition);
+            if (jfrEvent != null) {
+                long now = System.nanoTime();
+                instantiationTime = now - phaseStart;
+                phaseStart = now;
+            }
 
             // 属性填充
             populateBean(beanName, beanDefinition, bean);
+            if (jfrEvent != null) {
+                long now = System.nanoTime();
+                populationTime = now - phaseStart;
+                phaseStart = now;
+            }
 
             // 初始化bean
             bean = initializeBean(beanName, bean, beanDefinition);
         } catch (Exception e) {
+            // 失败时只记录已完成阶段的耗时，失败阶段的耗时 = 事件总时长 - 已完成阶段
+            ContainerFlightRecorder.commitBeanCreation(jfrEvent, beanName, beanDefinition.getBeanClass(), beanDefinition.getScope(),
+                    instantiationTime, populationTime, 0L, true);
             throw new BeansException("Instantiation of bean '" + beanName + "' failed", e);
         }
+        if (jfrEvent != null) {
+            ContainerFlightRecorder.commitBeanCreation(jfrEvent, beanName, beanDefinition.getBeanClass(), beanDefinition.getScope(),
+                    instantiationTime, populationTime, System.nanoTime() - phaseStart, false);
+        }
 
         // 注册有销毁方法的bean
         registerDisposableBeanIfNecessary(beanName, bean, beanDefinition);
@@ -136,13 +462,240 @@ public class DefaultListableBeanFactory implements BeanDefinitionRegistry, BeanF
         return bean;
     }
 
-    protected Object createBeanInstance(BeanDefinition beanDefinition) {
-        Class<?> beanClass = beanDefinition.getBeanClass();
-        try {
-            Constructor<?> constructor = beanClass.getDeclaredConstructor();
-            return constructor.newInstance();
-        } catch (Exception e) {
-            throw new BeansException("Failed to instantiate [" + beanClass.getName() + "]", e);
+    /**
+     * 实例化bean：可能是无参构造器，也可能是构造器注入（<constructor-arg>、@Autowired构造器等），见{@link ConstructorResolver}
+     */
+    protected Object createBeanInstance(String beanName, BeanDefinition beanDefinition) {
+        // AOT生成的代码直接new，不需要解析构造器
+        InstanceSupplier instanceSupplier = beanDefinition.getInstanceSupplier();
+        if (instanceSupplier != null) {
+            try {
+                return instanceSupplier.get(this, beanName);
+            } catch (BeansException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new BeansException("Instance supplier of bean '" + beanName + "' threw an exception", ex);
+            }
+        }
+        return constructorResolver.instantiate(beanName, beanDefinition);
+    }
+
+    /**
+     * 解析（并缓存）bean将使用的构造器和参数描述，不会创建bean。
+     * 结果见{@link BeanDefinition#getResolvedConstructor()}、{@link BeanDefinition#getPreparedConstructorArguments()}，AOT生成代码时使用
+     */
+    public void resolveConstructor(String beanName, BeanDefinition beanDefinition) throws BeansException {
+        constructorResolver.resolveConstructor(beanName, beanDefinition);
+    }
+
+    /**
+     * 询问后置处理器，bean应该使用哪些候选构造器（比如标注了@Autowired的构造器）
+     */
+    protected Constructor<?>[] determineConstructorsFromBeanPostProcessors(Class<?> beanClass, String beanName) throws BeansException {
+        for (BeanPostProcessor beanPostProcessor : getBeanPostProcessors()) {
+            if (beanPostProcessor instanceof InstantiationAwareBeanPostProcessor) {
+                Constructor<?>[] candidates = ((InstantiationAwareBeanPostProcessor) beanPostProcessor)
+                        .determineCandidateConstructors(beanClass, beanName);
+                if (candidates != null) {
+                    return candidates;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 解析一个依赖：
+     * - @Value表达式解析占位符后转换成目标类型；
+     * - List<T>、Set<T>、Collection<T>、T[]、Map<String, T>：注入所有T类型的bean，按{@link OrderComparator}排序；
+     * - 否则按@Qualifier指定的名称或按类型查找唯一的bean。
+     * 注入bean时会记录beanName依赖了它
+     */
+    public Object resolveDependency(DependencyDescriptor descriptor, String beanName) throws BeansException {
+        if (descriptor.getValueExpression() != null) {
+            String value = resolveEmbeddedValue(descriptor.getValueExpression());
+            return conversionService.convert(value, descriptor.getDependencyType(), descriptor.getGenericType());
+        }
+        if (descriptor.getQualifier() == null && isMultipleBeansType(descriptor.getDependencyType())) {
+            return resolveMultipleBeans(descriptor, beanName);
+        }
+        BeanFactory parent = this.parentBeanFactory;
+        if (descriptor.getQualifier() == null && parent != null && doGetBeanNamesForType(descriptor.getDependencyType()).length == 0) {
+            // 本地没有候选bean，注入父BeanFactory里的bean。父容器的生命周期比子容器长，不需要记录依赖关系
+            return parent.getBean(descriptor.getDependencyType());
+        }
+        String candidateName = descriptor.getQualifier() != null
+                ? descriptor.getQualifier()
+                : resolveUniqueBeanName(descriptor.getDependencyType());
+        Object candidate = getBean(candidateName);
+        if (beanName != null) {
+            registerDependentBean(candidateName, beanName);
+        }
+        return candidate;
+    }
+
+    /**
+     * 预测一个依赖会注入哪些bean（不会触发bean的创建），用于构建依赖图；找不到唯一候选bean时返回空数组
+     */
+    public String[] predictDependencyCandidates(DependencyDescriptor descriptor, String beanName) {
+        if (descriptor.getValueExpression() != null) {
+            return new String[0];
+        }
+        if (descriptor.getQualifier() != null) {
+            return new String[]{descriptor.getQualifier()};
+        }
+        if (isMultipleBeansType(descriptor.getDependencyType())) {
+            try {
+                return findMultipleBeanCandidates(descriptor, beanName);
+            } catch (BeansException ex) {
+                return new String[0];
+            }
+        }
+        String[] candidates = doGetBeanNamesForType(descriptor.getDependencyType());
+        return candidates.length == 1 ? candidates.clone() : new String[0];
+    }
+
+    private static boolean isMultipleBeansType(Class<?> type) {
+        return type.isArray() || type == List.class || type == Collection.class || type == Set.class || type == Map.class;
+    }
+
+    private Object resolveMultipleBeans(DependencyDescriptor descriptor, String beanName) {
+        metrics.recordByTypeLookup();
+        MultipleBeansKey cacheKey = new MultipleBeansKey(descriptor, beanName);
+        ResolvedMultipleBeans resolved = this.resolvedMultipleBeansCache.get(cacheKey);
+        if (resolved == null) {
+            String[] candidateNames = findMultipleBeanCandidates(descriptor, beanName);
+            List<Map.Entry<String, Object>> candidates = new ArrayList<>(candidateNames.length);
+            boolean allSingletons = true;
+            for (String candidateName : candidateNames) {
+                candidates.add(new AbstractMap.SimpleImmutableEntry<>(candidateName, getBean(candidateName)));
+                allSingletons &= getBeanDefinition(candidateName).isSingleton();
+            }
+            candidates.sort((e1, e2) -> OrderComparator.INSTANCE.compare(e1.getValue(), e2.getValue()));
+            resolved = new ResolvedMultipleBeans(candidates, materialize(descriptor, candidates));
+            // 候选bean都是单例时，结果不会变化，同一个注入点之后直接复用
+            if (allSingletons) {
+                this.resolvedMultipleBeansCache.put(cacheKey, resolved);
+            }
+        }
+        if (beanName != null) {
+            for (String candidateName : resolved.beanNames) {
+                registerDependentBean(candidateName, beanName);
+            }
+        }
+        // 数组是可变的，不能在多个bean之间共享
+        return resolved.value.getClass().isArray() ? cloneArray(resolved.value) : resolved.value;
+    }
+
+    /**
+     * 集合元素类型的所有bean（排除当前bean自己，比如一个实现了Handler接口的Handler注册表）
+     */
+    private String[] findMultipleBeanCandidates(DependencyDescriptor descriptor, String beanName) {
+        Class<?> elementType = resolveElementType(descriptor);
+        List<String> candidateNames = new ArrayList<>();
+        for (String candidateName : doGetBeanNamesForType(elementType)) {
+            if (!candidateName.equals(beanName)) {
+                candidateNames.add(candidateName);
+            }
+        }
+        return candidateNames.toArray(new String[0]);
+    }
+
+    private Class<?> resolveElementType(DependencyDescriptor descriptor) {
+        Class<?> type = descriptor.getDependencyType();
+        if (type.isArray()) {
+            return type.getComponentType();
+        }
+        Type genericType = descriptor.getGenericType();
+        Type[] typeArguments = genericType instanceof ParameterizedType
+                ? ((ParameterizedType) genericType).getActualTypeArguments() : new Type[0];
+        if (type == Map.class) {
+            if (typeArguments.length != 2 || typeArguments[0] != String.class || !(typeArguments[1] instanceof Class)) {
+                throw new BeansException("Cannot inject " + descriptor + ": Map injection requires Map<String, T> with a concrete value type");
+            }
+            return (Class<?>) typeArguments[1];
+        }
+        if (typeArguments.length != 1 || !(typeArguments[0] instanceof Class)) {
+            throw new BeansException("Cannot inject " + descriptor + ": collection injection requires a concrete element type");
+        }
+        return (Class<?>) typeArguments[0];
+    }
+
+    private static Object materialize(DependencyDescriptor descriptor, List<Map.Entry<String, Object>> candidates) {
+        Class<?> type = descriptor.getDependencyType();
+        if (type.isArray()) {
+            Object array = Array.newInstance(type.getComponentType(), candidates.size());
+            for (int i = 0; i < candidates.size(); i++) {
+                Array.set(array, i, candidates.get(i).getValue());
+            }
+            return array;
+        }
+        if (type == Map.class) {
+            Map<String, Object> map = new LinkedHashMap<>(candidates.size() * 2);
+            for (Map.Entry<String, Object> candidate : candidates) {
+                map.put(candidate.getKey(), candidate.getValue());
+            }
+            return Collections.unmodifiableMap(map);
+        }
+        List<Object> beans = new ArrayList<>(candidates.size());
+        for (Map.Entry<String, Object> candidate : candidates) {
+            beans.add(candidate.getValue());
+        }
+        return type == Set.class ? Collections.unmodifiableSet(new LinkedHashSet<>(beans)) : Collections.unmodifiableList(beans);
+    }
+
+    private static Object cloneArray(Object array) {
+        int length = Array.getLength(array);
+        Object copy = Array.newInstance(array.getClass().getComponentType(), length);
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+
+    /**
+     * DependencyDescriptor没有重写equals，注入点按同一个实例比较
+     */
+    private static final class MultipleBeansKey {
+
+        private final DependencyDescriptor descriptor;
+
+        @Nullable
+        private final String beanName;
+
+        private MultipleBeansKey(DependencyDescriptor descriptor, @Nullable String beanName) {
+            this.descriptor = descriptor;
+            this.beanName = beanName;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof MultipleBeansKey)) {
+                return false;
+            }
+            MultipleBeansKey that = (MultipleBeansKey) other;
+            return this.descriptor == that.descriptor && Objects.equals(this.beanName, that.beanName);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(descriptor) + Objects.hashCode(beanName);
+        }
+    }
+
+    private static final class ResolvedMultipleBeans {
+
+        private final String[] beanNames;
+
+        private final Object value;
+
+        private ResolvedMultipleBeans(List<Map.Entry<String, Object>> candidates, Object value) {
+            this.beanNames = new String[candidates.size()];
+            for (int i = 0; i < beanNames.length; i++) {
+                this.beanNames[i] = candidates.get(i).getKey();
+            }
+            this.value = value;
         }
     }
 
@@ -150,7 +703,10 @@ public class DefaultListableBeanFactory implements BeanDefinitionRegistry, BeanF
         // bean实例化后置处理：postProcessAfterInstantiation
         for (BeanPostProcessor beanPostProcessor : getBeanPostProcessors()) {
             if (beanPostProcessor instanceof InstantiationAwareBeanPostProcessor) {
-                if (!((InstantiationAwareBeanPostProcessor) beanPostProcessor).postProcessAfterInstantiation(bean, beanName)) {
+                long start = System.nanoTime();
+                boolean continueWithPropertyPopulation = ((InstantiationAwareBeanPostProcessor) beanPostProcessor).postProcessAfterInstantiation(bean, beanName);
+                metrics.recordPostProcessor(beanPostProcessor, System.nanoTime() - start);
+                if (!continueWithPropertyPopulation) {
                     return;
                 }
             }
@@ -161,7 +717,9 @@ public class DefaultListableBeanFactory implements BeanDefinitionRegistry, BeanF
         // bean属性处理：在这里解析@Autowired和@Value，完成依赖注入和值注入
         for (BeanPostProcessor beanPostProcessor : getBeanPostProcessors()) {
             if (beanPostProcessor instanceof InstantiationAwareBeanPostProcessor) {
+                long start = System.nanoTime();
                 ((InstantiationAwareBeanPostProcessor) beanPostProcessor).postProcessProperties(pvs, bean, beanName);
+                metrics.recordPostProcessor(beanPostProcessor, System.nanoTime() - start);
             }
         }
 
@@ -171,6 +729,18 @@ public class DefaultListableBeanFactory implements BeanDefinitionRegistry, BeanF
             autowireByName(beanName, beanDefinition, bean, pvs);
         }
 
+        // AOT生成的代码直接调用setter
+        PropertyPopulator propertyPopulator = beanDefinition.getPropertyPopulator();
+        if (propertyPopulator != null) {
+            try {
+                propertyPopulator.populate(this, beanName, bean);
+            } catch (BeansException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new BeansException("Error setting property values for bean: " + beanName, ex);
+            }
+        }
+
         // bean属性处理：把BeanDefinition里的值设置进去
         // 比如：<bean id="car" class="Car"><property name="brand" value="porsche"/></bean>
         applyPropertyValues(beanName, bean, beanDefinition, pvs);
@@ -179,10 +749,10 @@ public class DefaultListableBeanFactory implements BeanDefinitionRegistry, BeanF
     private void autowireByName(String beanName, BeanDefinition beanDefinition, Object bean, PropertyValues pvs) {
         try {
             Map<String, String> property2DependentBean = new HashMap<>();
-            for (PropertyValue propertyValue : pvs.getPropertyValues()) {
+            for (PropertyValue propertyValue : pvs.asList()) {
                 if (propertyValue.getValue() instanceof BeanReference) {
                     BeanReference reference = (BeanReference) propertyValue.getValue();
-                    if (beanDefinitionMap.containsKey(reference.getBeanName())) {
+                    if (containsBeanDefinition(reference.getBeanName()) || containsBeanInParent(reference.getBeanName())) {
                         // <property name="bookRef" ref="book"/>
                         property2DependentBean.put(propertyValue.getName(), reference.getBeanName());
                     }
@@ -191,6 +761,7 @@ public class DefaultListableBeanFactory implements BeanDefinitionRegistry, BeanF
             for (Map.Entry<String, String> entry : property2DependentBean.entrySet()) {
                 // 从容器获取依赖的bean
                 Object dependentBean = getBean(entry.getValue());
+                registerDependentBean(entry.getValue(), beanName);
                 pvs.addPropertyValue(new PropertyValue(entry.getKey(), dependentBean));
             }
         } catch (Exception ex) {
@@ -199,17 +770,23 @@ public class DefaultListableBeanFactory implements BeanDefinitionRegistry, BeanF
     }
 
     protected void applyPropertyValues(String beanName, Object bean, BeanDefinition beanDefinition, PropertyValues pvs) {
+        Class<?> beanClass = bean.getClass();
         try {
-            for (PropertyValue propertyValue : pvs.getPropertyValues()) {
+            for (int i = 0; i < pvs.size(); i++) {
+                PropertyValue propertyValue = pvs.get(i);
                 String name = propertyValue.getName();
                 Object value = propertyValue.getValue();
                 // 如果propertyValue到这里还没有被替换成实际的值，说明找不到，这里就不注入了
                 boolean notReplacedYet = value instanceof BeanReference;
                 if (!notReplacedYet) {
-                    BeanUtils.setProperty(bean, name, value);
+                    // 没有对应setter的属性忽略；字符串由ConversionService转换成属性类型
+                    PropertySetter setter = PropertySetter.forProperty(beanClass, name);
+                    if (setter != null) {
+                        setter.setValue(bean, value, conversionService);
+                    }
                 }
             }
-        } catch (Exception ex) {
+        } catch (Throwable ex) {
             throw new BeansException("Error setting property values for bean: " + beanName, ex);
         }
     }
@@ -235,7 +812,9 @@ public class DefaultListableBeanFactory implements BeanDefinitionRegistry, BeanF
     public Object applyBeanPostProcessorsBeforeInitialization(Object existingBean, String beanName) throws BeansException {
         Object result = existingBean;
         for (BeanPostProcessor processor : getBeanPostProcessors()) {
+            long start = System.nanoTime();
             Object current = processor.postProcessBeforeInitialization(result, beanName);
+            metrics.recordPostProcessor(processor, System.nanoTime() - start);
             if (current == null) {
                 return result;
             }
@@ -247,7 +826,9 @@ public class DefaultListableBeanFactory implements BeanDefinitionRegistry, BeanF
     public Object applyBeanPostProcessorsAfterInitialization(Object existingBean, String beanName) throws BeansException {
         Object result = existingBean;
         for (BeanPostProcessor bp : getBeanPostProcessors()) {
+            long start = System.nanoTime();
             Object current = bp.postProcessAfterInitialization(result, beanName);
+            metrics.recordPostProcessor(bp, System.nanoTime() - start);
             if (current == null) {
                 return result;
             }
@@ -283,16 +864,203 @@ public class DefaultListableBeanFactory implements BeanDefinitionRegistry, BeanF
         }
     }
 
+    /**
+     * 注册单例bean的销毁回调，容器关闭时调用（比如通过addSingleton注册的外部单例）
+     */
+    public void registerDisposableBean(String beanName, DisposableBean disposableBean) {
+        this.disposableBeans.put(beanName, disposableBean);
+    }
+
     /**
      * 注册有销毁方法的bean，即bean继承自DisposableBean或有自定义的销毁方法
      */
     protected void registerDisposableBeanIfNecessary(String beanName, Object bean, BeanDefinition beanDefinition) {
-        // 只有singleton类型bean会执行销毁方法
-        if (beanDefinition.isSingleton()) {
-            if (bean instanceof DisposableBean || StrUtil.isNotEmpty(beanDefinition.getDestroyMethodName())) {
-                disposableBeans.put(beanName, new DisposableBeanAdapter(bean, beanName, beanDefinition));
+        // prototype类型的bean，容器不负责销毁
+        if (beanDefinition.isPrototype()) {
+            return;
+        }
+        DisposableBeanAdapter disposableBean = createDestructionCallback(beanName, bean, beanDefinition);
+        if (disposableBean != null) {
+            if (beanDefinition.isSingleton()) {
+                registerDisposableBean(beanName, disposableBean);
+            } else {
+                // 自定义作用域的bean，由Scope在作用域结束时执行销毁回调
+                Scope scope = this.scopes.get(beanDefinition.getScope());
+                if (scope != null) {
+                    scope.registerDestructionCallback(beanName, disposableBean);
+                }
+            }
+        }
+    }
+
+    /**
+     * 生成bean的销毁回调，没有需要执行的销毁逻辑时返回null
+     */
+    @Nullable
+    private DisposableBeanAdapter createDestructionCallback(String beanName, Object bean, BeanDefinition beanDefinition) {
+        List<DestructionAwareBeanPostProcessor> destructionAwareProcessors = null;
+        for (BeanPostProcessor beanPostProcessor : getBeanPostProcessors()) {
+            if (beanPostProcessor instanceof DestructionAwareBeanPostProcessor
+                    && ((DestructionAwareBeanPostProcessor) beanPostProcessor).requiresDestruction(bean)) {
+                if (destructionAwareProcessors == null) {
+                    destructionAwareProcessors = new ArrayList<>(1);
+                }
+                destructionAwareProcessors.add((DestructionAwareBeanPostProcessor) beanPostProcessor);
             }
         }
+        if (!DisposableBeanAdapter.hasDestroyMethod(bean, beanDefinition) && destructionAwareProcessors == null) {
+            return null;
+        }
+        return new DisposableBeanAdapter(bean, beanName, beanDefinition,
+                destructionAwareProcessors != null ? destructionAwareProcessors : Collections.emptyList());
+    }
+
+    /**
+     * 注册自定义作用域，singleton和prototype是内置作用域，不允许覆盖
+     */
+    public void registerScope(String scopeName, Scope scope) {
+        if (BeanDefinition.SCOPE_SINGLETON.equals(scopeName) || BeanDefinition.SCOPE_PROTOTYPE.equals(scopeName)) {
+            throw new IllegalArgumentException("Cannot replace existing scopes 'singleton' and 'prototype'");
+        }
+        this.scopes.put(scopeName, scope);
+    }
+
+    public Scope getRegisteredScope(String scopeName) {
+        return this.scopes.get(scopeName);
+    }
+
+    public String[] getRegisteredScopeNames() {
+        return this.scopes.keySet().toArray(new String[0]);
+    }
+
+    /**
+     * 从池化作用域借出一个bean实例，返回的句柄close时自动归还
+     */
+    public <T> PooledBean<T> borrowBean(String name, Class<T> requiredType) throws BeansException {
+        // 先检查作用域，不是池化bean时不会创建实例
+        getPooledScope(name);
+        T bean = getBean(name, requiredType);
+        return new PooledBean<>(this, name, bean);
+    }
+
+    /**
+     * 归还通过getBean借出的池化bean实例。池化作用域不持有借出的实例，销毁回调在这里根据BeanDefinition重新生成
+     */
+    public void releaseBean(String name, Object bean) throws BeansException {
+        PooledScope pooledScope = getPooledScope(name);
+        pooledScope.release(name, bean, createDestructionCallback(name, bean, getBeanDefinition(name)));
+    }
+
+    private PooledScope getPooledScope(String name) {
+        Scope scope = this.scopes.get(getBeanDefinition(name).getScope());
+        if (!(scope instanceof PooledScope)) {
+            throw new BeansException("Bean '" + name + "' is not defined in a pooled scope");
+        }
+        return (PooledScope) scope;
+    }
+
+    public BeanFactoryMetrics getMetrics() {
+        return metrics;
+    }
+
+    public ConversionService getConversionService() {
+        return conversionService;
+    }
+
+    /**
+     * 替换类型转换服务，比如注册了自定义Converter的DefaultConversionService
+     */
+    public void setConversionService(ConversionService conversionService) {
+        this.conversionService = conversionService;
+    }
+
+    @Override
+    public BeanFactory getParentBeanFactory() {
+        return parentBeanFactory;
+    }
+
+    /**
+     * 只能设置一次，不能在运行中把BeanFactory挂到另一个父BeanFactory下面
+     */
+    public void setParentBeanFactory(BeanFactory parentBeanFactory) {
+        if (parentBeanFactory == this) {
+            throw new BeansException("BeanFactory cannot be its own parent");
+        }
+        if (this.parentBeanFactory != null && this.parentBeanFactory != parentBeanFactory) {
+            throw new BeansException("Already associated with parent BeanFactory: " + this.parentBeanFactory);
+        }
+        this.parentBeanFactory = parentBeanFactory;
+    }
+
+    @Override
+    public boolean containsLocalBean(String name) {
+        return containsSingleton(name) || containsBeanDefinition(name);
+    }
+
+    @Override
+    public boolean containsBean(String name) {
+        return containsLocalBean(name) || containsBeanInParent(name);
+    }
+
+    private boolean containsBeanInParent(String name) {
+        BeanFactory parent = this.parentBeanFactory;
+        return parent != null && parent.containsBean(name);
+    }
+
+    public ClassLoader getBeanClassLoader() {
+        return beanClassLoader;
+    }
+
+    public void setBeanClassLoader(ClassLoader beanClassLoader) {
+        this.beanClassLoader = beanClassLoader != null ? beanClassLoader : defaultClassLoader();
+    }
+
+    /**
+     * 返回bean的类，BeanDefinition只有类名时用{@link #getBeanClassLoader()}加载（不初始化）
+     */
+    public Class<?> resolveBeanClass(String beanName, BeanDefinition beanDefinition) throws BeansException {
+        if (beanDefinition.hasBeanClass()) {
+            return beanDefinition.getBeanClass();
+        }
+        try {
+            return beanDefinition.resolveBeanClass(beanClassLoader);
+        } catch (BeansException ex) {
+            throw new BeansException("Cannot load class of bean '" + beanName + "': " + ex.getMessage(), ex.getCause());
+        }
+    }
+
+    /**
+     * 并行加载所有非懒加载BeanDefinition的类，懒加载的bean不会被预加载。
+     * 在refresh中后台调用：BeanFactoryPostProcessor执行之后、创建bean之前，多核上类加载和后置处理器、监听器的创建可以重叠。
+     * 加载失败的类忽略，等真正创建bean时再报错
+     *
+     * @return 本次加载的类的数量
+     */
+    public int preloadBeanClasses() {
+        return preloadBeanClasses(() -> false);
+    }
+
+    /**
+     * 同{@link #preloadBeanClasses()}，cancelled返回true后不再加载剩下的类
+     */
+    public int preloadBeanClasses(BooleanSupplier cancelled) {
+        return (int) beanDefinitionMap.values().parallelStream()
+                .filter(beanDefinition -> !cancelled.getAsBoolean())
+                .filter(beanDefinition -> !beanDefinition.hasBeanClass() && !beanDefinition.isLazyInit())
+                .filter(beanDefinition -> {
+                    try {
+                        beanDefinition.resolveBeanClass(beanClassLoader);
+                        return true;
+                    } catch (BeansException ex) {
+                        return false;
+                    }
+                })
+                .count();
+    }
+
+    private static ClassLoader defaultClassLoader() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        return classLoader != null ? classLoader : DefaultListableBeanFactory.class.getClassLoader();
     }
 
     public void addEmbeddedValueResolver(StringValueResolver valueResolver) {
@@ -309,18 +1077,100 @@ public class DefaultListableBeanFactory implements BeanDefinitionRegistry, BeanF
 
     @Override
     public <T> T getBean(Class<T> requiredType) throws BeansException {
+        BeanFactory parent = this.parentBeanFactory;
+        if (parent != null && doGetBeanNamesForType(requiredType).length == 0) {
+            return parent.getBean(requiredType);
+        }
+        return getBean(resolveUniqueBeanName(requiredType), requiredType);
+    }
+
+    /**
+     * 按类型查找唯一的bean名称，找不到或找到多个都会抛异常
+     */
+    public String resolveUniqueBeanName(Class<?> requiredType) throws BeansException {
+        metrics.recordByTypeLookup();
+        String[] beanNames = doGetBeanNamesForType(requiredType);
+        if (beanNames.length == 1) {
+            return beanNames[0];
+        }
+        throw new BeansException(requiredType + "expected single bean but found " +
+                beanNames.length + ": " + Arrays.toString(beanNames));
+    }
+
+    /**
+     * 返回所有类型匹配的bean名称（只看BeanDefinition，不会触发bean的创建）
+     */
+    public String[] getBeanNamesForType(Class<?> type) {
+        metrics.recordByTypeLookup();
+        return doGetBeanNamesForType(type).clone();
+    }
+
+    /**
+     * 查类型索引，未命中时扫描一遍BeanDefinition。返回的数组是共享的，不能修改
+     */
+    private String[] doGetBeanNamesForType(Class<?> type) {
+        return doGetBeanNamesForType(type, true);
+    }
+
+    /**
+     * allowLazyClassLoading为false时跳过类还没有加载的懒加载bean（不为了匹配类型去加载它们的类），结果不放入类型索引
+     */
+    private String[] doGetBeanNamesForType(Class<?> type, boolean allowLazyClassLoading) {
+        String[] cached = this.beanNamesByType.get(type);
+        if (cached != null) {
+            return cached;
+        }
         List<String> beanNames = new ArrayList<>();
+        OverlayTemplate source = this.overlaySource;
+        if (source != null) {
+            // 覆盖层：模板的类型索引是共享的，只需剔除被覆盖的bean，再检查本地覆盖的定义
+            for (String beanName : source.getBeanNamesForType(type)) {
+                if (!beanDefinitionMap.containsKey(beanName)) {
+                    beanNames.add(beanName);
+                }
+            }
+        }
         for (Map.Entry<String, BeanDefinition> entry : beanDefinitionMap.entrySet()) {
-            Class<?> beanClass = entry.getValue().getBeanClass();
-            if (requiredType.isAssignableFrom(beanClass)) {
+            if (!allowLazyClassLoading && isUnloadedLazyBean(entry.getValue())) {
+                continue;
+            }
+            Class<?> beanClass;
+            try {
+                beanClass = resolveBeanClass(entry.getKey(), entry.getValue());
+            } catch (BeansException ex) {
+                // 类加载失败的bean不参与按类型查找，真正创建它时才报错（懒加载的bean可能永远不会被创建）
+                continue;
+            }
+            if (type.isAssignableFrom(beanClass)) {
                 beanNames.add(entry.getKey());
             }
         }
-        if (beanNames.size() == 1) {
-            return getBean(beanNames.get(0), requiredType);
+        String[] result = beanNames.toArray(new String[0]);
+        if (allowLazyClassLoading) {
+            this.beanNamesByType.put(type, result);
         }
-        throw new BeansException(requiredType + "expected single bean but found " +
-                beanNames.size() + ": " + beanNames);
+        return result;
+    }
+
+    /**
+     * 懒加载、而且类还没有加载的bean：refresh期间不应该因为它加载类（类可能根本不存在）
+     */
+    private static boolean isUnloadedLazyBean(BeanDefinition beanDefinition) {
+        return beanDefinition.isLazyInit() && !beanDefinition.hasBeanClass();
+    }
+
+    /**
+     * BeanDefinition或单例变化时，类型索引和已解析的集合依赖都要失效
+     */
+    private void clearTypeCaches() {
+        this.beanNamesByType.clear();
+        this.resolvedMultipleBeansCache.clear();
+        clearBeansOfTypeCache();
+    }
+
+    private void clearBeansOfTypeCache() {
+        this.beansOfTypeGeneration.incrementAndGet();
+        this.beansOfTypeCache.clear();
     }
 
     @SuppressWarnings("unchecked")
@@ -329,33 +1179,348 @@ public class DefaultListableBeanFactory implements BeanDefinitionRegistry, BeanF
         return ((T) getBean(name));
     }
 
+    /**
+     * 返回所有该类型的bean（不可修改）。
+     * refresh时invokeBeanFactoryPostProcessors、registerBeanPostProcessors、registerListeners都会调用，运行期业务代码也会调用，
+     * 所以匹配的bean都是单例时，把结果缓存起来，下次直接返回同一个Map。
+     * 注册/移除BeanDefinition、注册/销毁单例时缓存失效
+     */
     @SuppressWarnings("unchecked")
     @Override
     public <T> Map<String, T> getBeansOfType(Class<T> type) throws BeansException {
-        Map<String, T> result = new HashMap<>();
-        beanDefinitionMap.forEach((beanName, beanDefinition) -> {
-            Class<?> beanClass = beanDefinition.getBeanClass();
-            if (type.isAssignableFrom(beanClass)) {
-                T bean = (T) getBean(beanName);
-                result.put(beanName, bean);
+        metrics.recordByTypeLookup();
+        Map<String, ?> cached = this.beansOfTypeCache.get(type);
+        if (cached != null) {
+            return (Map<String, T>) cached;
+        }
+
+        // 第一次查询时可能顺带创建了懒加载的单例（addSingleton会让缓存失效），所以再算一遍：这次bean都已存在，结果可以缓存
+        Map<String, T> beansOfType = null;
+        for (int attempt = 0; attempt < 2; attempt++) {
+            long generation = this.beansOfTypeGeneration.get();
+            String[] beanNames = doGetBeanNamesForType(type);
+            Map<String, T> result = new LinkedHashMap<>(beanNames.length * 2);
+            boolean allSingletons = true;
+            for (String beanName : beanNames) {
+                result.put(beanName, (T) getBean(beanName));
+                allSingletons &= getBeanDefinition(beanName).isSingleton();
             }
-        });
-        return result;
+            beansOfType = Collections.unmodifiableMap(result);
+            if (!allSingletons) {
+                break;
+            }
+            if (this.beansOfTypeGeneration.get() == generation) {
+                this.beansOfTypeCache.put(type, beansOfType);
+                // put之后再检查一次，防止放进去的是失效前算出来的结果
+                if (this.beansOfTypeGeneration.get() != generation) {
+                    this.beansOfTypeCache.remove(type, beansOfType);
+                }
+                break;
+            }
+        }
+        return beansOfType;
+    }
+
+    /**
+     * 容器基础设施（BeanFactoryPostProcessor、BeanPostProcessor、监听器）的按类型查找：
+     * allowLazyClassLoading为false时不会为了匹配类型加载懒加载bean的类，所以类还没有加载的lazy-init基础设施bean不会被发现。
+     * 结果不缓存
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Map<String, T> getBeansOfType(Class<T> type, boolean allowLazyClassLoading) throws BeansException {
+        if (allowLazyClassLoading) {
+            return getBeansOfType(type);
+        }
+        metrics.recordByTypeLookup();
+        String[] beanNames = doGetBeanNamesForType(type, false);
+        Map<String, T> result = new LinkedHashMap<>(beanNames.length * 2);
+        for (String beanName : beanNames) {
+            result.put(beanName, (T) getBean(beanName));
+        }
+        return Collections.unmodifiableMap(result);
     }
 
     public void preInstantiateSingletons() throws BeansException {
-        beanDefinitionMap.forEach((beanName, beanDefinition) -> {
+        // 先检查循环依赖，再按依赖顺序（被依赖的bean在前）实例化
+        DependencyGraph graph = getDependencyGraph();
+        graph.assertNoCycles();
+        for (String beanName : graph.getCreationOrder()) {
+            BeanDefinition beanDefinition = findBeanDefinition(beanName);
+            if (beanDefinition == null) {
+                continue;
+            }
             // 单例 && 非延迟加载的bean，提前实例化
             if (beanDefinition.isSingleton() && !beanDefinition.isLazyInit()) {
                 getBean(beanName);
+            } else if (!beanDefinition.isLazyInit()) {
+                // 池化bean按配置预热
+                Scope scope = this.scopes.get(beanDefinition.getScope());
+                if (scope instanceof PooledScope) {
+                    ((PooledScope) scope).prewarm(beanName, () -> createBean(beanName, beanDefinition));
+                }
             }
-        });
+        }
+    }
+
+    /**
+     * 返回当前的依赖图，由BeanDefinition中的引用、后置处理器预测的依赖（比如@Autowired字段）以及运行时记录的依赖构成
+     */
+    public DependencyGraph getDependencyGraph() {
+        DependencyGraph graph = this.dependencyGraph;
+        if (graph == null) {
+            graph = buildDependencyGraph();
+            this.dependencyGraph = graph;
+        }
+        return graph;
     }
 
+    private DependencyGraph buildDependencyGraph() {
+        DependencyGraph.Builder builder = DependencyGraph.builder();
+        for (Map.Entry<String, BeanDefinition> entry : allBeanDefinitions().entrySet()) {
+            String beanName = entry.getKey();
+            BeanDefinition beanDefinition = entry.getValue();
+            builder.addBean(beanName);
+            // 类还没有加载的懒加载bean不预测依赖：既不为它加载类，类不存在也不影响refresh。
+            // 它被创建之后，运行时记录的依赖（dependenciesForBeanMap）会进入依赖图
+            if (isUnloadedLazyBean(beanDefinition)) {
+                continue;
+            }
+            // 只有autowire="byName"的bean才会解析ref引用
+            if (beanDefinition.getAutowireMode() == BeanDefinition.AUTOWIRE_BY_NAME) {
+                for (PropertyValue propertyValue : beanDefinition.getPropertyValues().asList()) {
+                    if (propertyValue.getValue() instanceof BeanReference) {
+                        String reference = ((BeanReference) propertyValue.getValue()).getBeanName();
+                        if (containsBeanDefinition(reference)) {
+                            builder.addDependency(beanName, reference);
+                        }
+                    }
+                }
+            }
+            String[] dependsOn = beanDefinition.getDependsOn();
+            if (dependsOn != null) {
+                for (String dependency : dependsOn) {
+                    builder.addDependency(beanName, dependency);
+                }
+            }
+            // 构造器参数：<constructor-arg ref="..."/>、@Autowired构造器。有InstanceSupplier的bean不用构造器，依赖由dependsOn声明
+            if (beanDefinition.getInstanceSupplier() == null) {
+                for (String dependency : constructorResolver.predictDependencies(beanName, beanDefinition)) {
+                    builder.addDependency(beanName, dependency);
+                }
+            }
+            Class<?> beanClass;
+            try {
+                beanClass = resolveBeanClass(beanName, beanDefinition);
+            } catch (BeansException ex) {
+                // 类不存在：真正创建时才报错
+                continue;
+            }
+            for (BeanPostProcessor beanPostProcessor : getBeanPostProcessors()) {
+                if (beanPostProcessor instanceof InstantiationAwareBeanPostProcessor) {
+                    String[] dependencies = ((InstantiationAwareBeanPostProcessor) beanPostProcessor)
+                            .predictDependencies(beanClass, beanName);
+                    for (String dependency : dependencies) {
+                        builder.addDependency(beanName, dependency);
+                    }
+                }
+            }
+        }
+        for (Map.Entry<String, Set<String>> entry : dependenciesForBeanMap.entrySet()) {
+            for (String dependency : entry.getValue()) {
+                builder.addDependency(entry.getKey(), dependency);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * 冻结配置：refresh完成后BeanDefinition不会再变化，把名称、BeanDefinition、单例编译成不可变的完美哈希表，
+     * 之后getBean(String)只需要一次探测、不分配对象。冻结后注册/移除BeanDefinition、注册新的单例都会失败
+     */
+    public void freezeConfiguration() {
+        // BeanDefinition的属性值也一并冻结，之后创建bean时的写时复制副本就可以放心地共享数组
+        for (BeanDefinition beanDefinition : this.beanDefinitionMap.values()) {
+            beanDefinition.freeze();
+        }
+        this.frozenBeanTable = FrozenBeanTable.build(allBeanDefinitions(), this.singletonObjects);
+        this.overlayTemplate = null;
+    }
+
+    /**
+     * 解除冻结，比如增量刷新需要替换BeanDefinition
+     */
+    public void unfreezeConfiguration() {
+        this.frozenBeanTable = null;
+        this.overlayTemplate = null;
+    }
+
+    /**
+     * 创建一个覆盖层：共享当前BeanFactory（模板）的BeanDefinition，只存放自己覆盖的定义和创建的bean。
+     * <p>
+     * 适合成千上万个租户各自一个BeanFactory、只有少数bean不同的场景：不用为每个租户重新解析XML、重建BeanDefinition，
+     * 创建一个覆盖层只需要分配几个空的Map，再创建模板里作为bean注册的后置处理器。
+     * 覆盖层里所有bean都是自己的实例（依赖被覆盖bean的bean也必须重新创建），按需懒创建；要共享的基础设施bean请放在父BeanFactory中。
+     * <p>
+     * 模板必须先冻结（{@link #freezeConfiguration()}），保证共享的BeanDefinition不再变化。
+     * 覆盖层可以随时用registerBeanDefinition覆盖或新增定义，但不能移除模板中的定义
+     */
+    public DefaultListableBeanFactory createOverlay() {
+        FrozenBeanTable frozen = this.frozenBeanTable;
+        if (frozen == null) {
+            throw new BeansException("Cannot create overlay: bean factory configuration must be frozen first");
+        }
+        OverlayTemplate template = this.overlayTemplate;
+        if (template == null) {
+            synchronized (this) {
+                template = this.overlayTemplate;
+                if (template == null) {
+                    template = new OverlayTemplate(frozen, allBeanDefinitions(), this.singletonObjects,
+                            this.beanPostProcessors, this.embeddedValueResolvers, this.beanClassLoader);
+                    this.overlayTemplate = template;
+                }
+            }
+        }
+
+        DefaultListableBeanFactory overlay = new DefaultListableBeanFactory();
+        overlay.overlaySource = template;
+        overlay.parentBeanFactory = this.parentBeanFactory;
+        overlay.conversionService = this.conversionService;
+        overlay.beanClassLoader = this.beanClassLoader;
+        overlay.destroyParallelism = this.destroyParallelism;
+        overlay.destroyTimeoutMillis = this.destroyTimeoutMillis;
+        overlay.shutdownTimeoutMillis = this.shutdownTimeoutMillis;
+        overlay.embeddedValueResolvers.addAll(template.getEmbeddedValueResolvers());
+        for (Object postProcessor : template.getPostProcessors()) {
+            BeanPostProcessor beanPostProcessor;
+            if (postProcessor instanceof String) {
+                beanPostProcessor = (BeanPostProcessor) overlay.getBean((String) postProcessor);
+            } else if (postProcessor instanceof OverlayAwareBeanPostProcessor) {
+                // 与模板（或模板所在的上下文）绑定的处理器，由它自己决定覆盖层用什么
+                beanPostProcessor = ((OverlayAwareBeanPostProcessor) postProcessor).forOverlay(overlay);
+            } else {
+                beanPostProcessor = (BeanPostProcessor) postProcessor;
+            }
+            if (beanPostProcessor != null) {
+                overlay.addBeanPostProcessor(beanPostProcessor);
+            }
+        }
+        return overlay;
+    }
+
+    /**
+     * 是否是{@link #createOverlay()}创建的覆盖层
+     */
+    public boolean isOverlay() {
+        return overlaySource != null;
+    }
+
+    public boolean isConfigurationFrozen() {
+        return this.frozenBeanTable != null;
+    }
+
+    private void assertNotFrozen(String action) {
+        if (this.frozenBeanTable != null) {
+            throw new BeansException("Cannot " + action + ": bean factory configuration is frozen");
+        }
+    }
+
+    /**
+     * 按依赖关系的逆序销毁单例：依赖方先销毁，互不依赖的bean可以并行销毁（见{@link #setDestroyParallelism}）。
+     * 某个bean销毁失败或超时不会影响其他bean，所有失败在最后统一抛出。
+     * 依赖图构建失败时（比如某个bean的类加载不了）退化成不分先后地销毁，这个失败也在最后一起抛出
+     */
     public void destroySingletons() {
-        ArrayList<String> beanNames = new ArrayList<>(disposableBeans.keySet());
-        for (String beanName : beanNames) {
-            DisposableBean disposableBean = disposableBeans.remove(beanName);
+        Map<String, DisposableBean> beansToDestroy = new HashMap<>(disposableBeans);
+        disposableBeans.clear();
+
+        BeansException failure = null;
+        try {
+            DependencyGraph graph = null;
+            try {
+                graph = getDependencyGraph();
+            } catch (BeansException e) {
+                failure = e;
+            }
+            new SingletonDestroyer(destroyParallelism, destroyTimeoutMillis, shutdownTimeoutMillis)
+                    .destroy(beansToDestroy, graph);
+        } catch (BeansException e) {
+            failure = addFailure(failure, e);
+        }
+
+        clearSingletonCache();
+        for (BeansException scopeFailure : destroyScopes()) {
+            failure = addFailure(failure, scopeFailure);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * 销毁的失败只抛出第一个，后面的作为它的suppressed异常
+     */
+    private static BeansException addFailure(BeansException failure, BeansException next) {
+        if (failure == null) {
+            return next;
+        }
+        failure.addSuppressed(next);
+        return failure;
+    }
+
+    public void setDestroyParallelism(int destroyParallelism) {
+        this.destroyParallelism = destroyParallelism;
+    }
+
+    public void setDestroyTimeoutMillis(long destroyTimeoutMillis) {
+        this.destroyTimeoutMillis = destroyTimeoutMillis;
+    }
+
+    public void setShutdownTimeoutMillis(long shutdownTimeoutMillis) {
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+    }
+
+    /**
+     * 容器关闭时，自定义作用域中的实例也要销毁（比如各个线程持有的thread作用域bean）。
+     * 一个作用域销毁失败不影响其他作用域，返回所有失败
+     */
+    private List<BeansException> destroyScopes() {
+        List<BeansException> failures = new ArrayList<>();
+        for (Map.Entry<String, Scope> entry : this.scopes.entrySet()) {
+            if (entry.getValue() instanceof DisposableBean) {
+                try {
+                    ((DisposableBean) entry.getValue()).destroy();
+                } catch (Exception e) {
+                    failures.add(new BeansException("Destroy of scope '" + entry.getKey() + "' threw an exception", e));
+                }
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * 销毁单个单例bean。依赖它的bean持有的是旧实例，所以要先（递归地）销毁它们
+     */
+    public void destroySingleton(String beanName) {
+        this.singletonObjects.remove(beanName);
+        FrozenBeanTable frozen = this.frozenBeanTable;
+        if (frozen != null) {
+            int index = frozen.indexOf(beanName);
+            if (index >= 0) {
+                frozen.setSingleton(index, null);
+            }
+        }
+        this.resolvedMultipleBeansCache.clear();
+        clearBeansOfTypeCache();
+        DisposableBean disposableBean = this.disposableBeans.remove(beanName);
+
+        Set<String> dependents = this.dependentBeanMap.remove(beanName);
+        if (dependents != null) {
+            for (String dependentBeanName : dependents) {
+                destroySingleton(dependentBeanName);
+            }
+        }
+
+        if (disposableBean != null) {
             try {
                 disposableBean.destroy();
             } catch (Exception e) {
@@ -363,41 +1528,121 @@ public class DefaultListableBeanFactory implements BeanDefinitionRegistry, BeanF
             }
         }
 
-        clearSingletonCache();
+        // 清理依赖关系：当前bean不再依赖任何bean
+        this.dependencyGraph = null;
+        Set<String> dependencies = this.dependenciesForBeanMap.remove(beanName);
+        if (dependencies != null) {
+            for (String dependency : dependencies) {
+                Set<String> dependentsOfDependency = this.dependentBeanMap.get(dependency);
+                if (dependentsOfDependency != null) {
+                    dependentsOfDependency.remove(beanName);
+                }
+            }
+        }
     }
 
     private void clearSingletonCache() {
+        // 容器关闭，单例全部清空，冻结的bean表也不再有意义
+        this.frozenBeanTable = null;
         this.singletonObjects.clear();
+        this.resolvedMultipleBeansCache.clear();
+        clearBeansOfTypeCache();
+        this.dependentBeanMap.clear();
+        this.dependenciesForBeanMap.clear();
+        this.dependencyGraph = null;
+    }
+
+    /**
+     * 记录依赖关系：dependentBeanName依赖beanName
+     */
+    public void registerDependentBean(String beanName, String dependentBeanName) {
+        boolean added = this.dependentBeanMap.computeIfAbsent(beanName, k -> Collections.newSetFromMap(new ConcurrentHashMap<>(8)))
+                .add(dependentBeanName);
+        this.dependenciesForBeanMap.computeIfAbsent(dependentBeanName, k -> Collections.newSetFromMap(new ConcurrentHashMap<>(8)))
+                .add(beanName);
+        if (added) {
+            this.dependencyGraph = null;
+        }
+    }
+
+    /**
+     * 返回直接依赖beanName的bean名称
+     */
+    public String[] getDependentBeans(String beanName) {
+        Set<String> dependents = this.dependentBeanMap.get(beanName);
+        return dependents != null ? dependents.toArray(new String[0]) : new String[0];
+    }
+
+    /**
+     * 返回beanName直接依赖的bean名称
+     */
+    public String[] getDependenciesForBean(String beanName) {
+        Set<String> dependencies = this.dependenciesForBeanMap.get(beanName);
+        return dependencies != null ? dependencies.toArray(new String[0]) : new String[0];
+    }
+
+    /**
+     * 返回依赖beanName的所有bean名称（包括间接依赖），依据是依赖图
+     */
+    public Set<String> getTransitiveDependentBeans(String beanName) {
+        return getDependencyGraph().getTransitiveDependents(beanName);
     }
 
     public void addBeanPostProcessor(BeanPostProcessor beanPostProcessor) {
         // 有则覆盖
         this.beanPostProcessors.remove(beanPostProcessor);
         this.beanPostProcessors.add(beanPostProcessor);
+        this.beforeInstantiationProcessorCache.clear();
+        this.dependencyGraph = null;
     }
 
+    /**
+     * 只读视图：按类型缓存的处理器（见{@link #getBeforeInstantiationProcessors}）依赖这个列表，
+     * 只能通过{@link #addBeanPostProcessor}修改
+     */
     public List<BeanPostProcessor> getBeanPostProcessors() {
-        return this.beanPostProcessors;
+        return this.beanPostProcessorsView;
     }
 
+    /**
+     * 写时复制：与BeanDefinition共享属性数组，只有后置处理器或autowire真的添加属性时才复制
+     */
     private PropertyValues clonePvs(PropertyValues propertyValues) {
-        PropertyValues pvs = new PropertyValues();
-        for (PropertyValue propertyValue : propertyValues.getPropertyValues()) {
-            pvs.addPropertyValue(propertyValue);
-        }
-        return pvs;
+        return new PropertyValues(propertyValues);
     }
 
     /************* 实现SingletonBeanRegistry ************/
 
     @Override
     public Object getSingleton(String beanName) {
+        FrozenBeanTable frozen = this.frozenBeanTable;
+        if (frozen != null) {
+            int index = frozen.indexOf(beanName);
+            return index >= 0 ? frozen.getSingleton(index) : null;
+        }
         return singletonObjects.get(beanName);
     }
 
     @Override
     public void addSingleton(String beanName, Object singletonObject) {
-        singletonObjects.put(beanName, singletonObject);
+        FrozenBeanTable frozen = this.frozenBeanTable;
+        if (frozen != null) {
+            // 冻结后只能填充已知bean的单例槽位（比如懒加载的单例），不能注册新的单例
+            int index = frozen.indexOf(beanName);
+            if (index < 0) {
+                throw new BeansException("Cannot register singleton '" + beanName + "': bean factory configuration is frozen");
+            }
+            frozen.setSingleton(index, singletonObject);
+        }
+        Object previous = singletonObjects.put(beanName, singletonObject);
+        // 替换了已有的单例，已解析的集合依赖里可能还是旧实例
+        if (previous != null && previous != singletonObject) {
+            this.resolvedMultipleBeansCache.clear();
+        }
+        // 新的单例可能是某个缓存结果里的bean（比如被销毁后重建），保守起见全部失效
+        if (previous != singletonObject) {
+            clearBeansOfTypeCache();
+        }
     }
 
     @Override
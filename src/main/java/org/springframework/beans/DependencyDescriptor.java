@@ -0,0 +1,78 @@
+package org.springframework.beans;
+
+import org.springframework.beans.annotation.Qualifier;
+import org.springframework.beans.annotation.Value;
+import org.springframework.core.common.Nullable;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * 描述一个待注入的依赖：类型、泛型类型、@Qualifier指定的bean名称、@Value表达式。
+ * <p>
+ * 在解析构造器（或注入点）时创建一次并缓存起来，之后每次创建bean只需要交给
+ * {@link DefaultListableBeanFactory#resolveDependency}解析，不再重复读取注解
+ */
+public class DependencyDescriptor {
+
+    private final Class<?> dependencyType;
+
+    private final Type genericType;
+
+    @Nullable
+    private final String qualifier;
+
+    @Nullable
+    private final String valueExpression;
+
+    private final String description;
+
+    public DependencyDescriptor(Class<?> dependencyType, Type genericType, @Nullable String qualifier,
+                                @Nullable String valueExpression, String description) {
+        this.dependencyType = dependencyType;
+        this.genericType = genericType;
+        this.qualifier = qualifier;
+        this.valueExpression = valueExpression;
+        this.description = description;
+    }
+
+    /**
+     * 根据参数（或字段）上的注解创建DependencyDescriptor
+     */
+    public static DependencyDescriptor forAnnotatedElement(Class<?> dependencyType, Type genericType,
+                                                           Annotation[] annotations, String description) {
+        String qualifier = null;
+        String valueExpression = null;
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof Qualifier && !((Qualifier) annotation).value().isEmpty()) {
+                qualifier = ((Qualifier) annotation).value();
+            } else if (annotation instanceof Value) {
+                valueExpression = ((Value) annotation).value();
+            }
+        }
+        return new DependencyDescriptor(dependencyType, genericType, qualifier, valueExpression, description);
+    }
+
+    public Class<?> getDependencyType() {
+        return dependencyType;
+    }
+
+    public Type getGenericType() {
+        return genericType;
+    }
+
+    @Nullable
+    public String getQualifier() {
+        return qualifier;
+    }
+
+    @Nullable
+    public String getValueExpression() {
+        return valueExpression;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -0,0 +1,216 @@
+package org.springframework.beans;
+
+import org.springframework.beans.beandefinition.definition.BeanDefinition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 冻结后的bean表：bean名称、BeanDefinition、单例都编译进数组，按名称查找只需要一次探测，不分配任何对象
+ * <p>
+ * 用的是“hash and displace”式的完美哈希：先按名称的hashCode把bean分到若干个桶里，再为每个桶找一个偏移量，
+ * 使得桶内每个名称都落到一个空的槽位上。查找时：桶 -> 偏移量 -> 槽位，比较一次名称即可。
+ * <p>
+ * hashCode完全相同的名称（比如"Aa"和"BB"）无法用完美哈希区分，第二个及以后的名称放在溢出区，查找时多查一次HashMap，
+ * 实际中极少出现。
+ * <p>
+ * 名称和BeanDefinition冻结后不再变化；单例槽位可以写入（懒加载的单例在冻结之后才创建），用AtomicReferenceArray保证可见性
+ */
+final class FrozenBeanTable {
+
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+
+    private static final int MAX_DISPLACEMENT = 1 << 16;
+
+    private final String[] names;
+
+    private final BeanDefinition[] definitions;
+
+    private final AtomicReferenceArray<Object> singletons;
+
+    private final int[] displacements;
+
+    private final int bucketMask;
+
+    private final int slotMask;
+
+    /**
+     * hashCode冲突的名称 -> 下标（位于完美哈希槽位之后），一般为空
+     */
+    private final Map<String, Integer> overflow;
+
+    private FrozenBeanTable(String[] names, BeanDefinition[] definitions, Object[] singletons,
+                            int[] displacements, int slotMask, Map<String, Integer> overflow) {
+        this.names = names;
+        this.definitions = definitions;
+        this.singletons = new AtomicReferenceArray<>(singletons);
+        this.displacements = displacements;
+        this.bucketMask = displacements.length - 1;
+        this.slotMask = slotMask;
+        this.overflow = overflow;
+    }
+
+    /**
+     * 返回名称对应的下标，不存在时返回-1
+     */
+    int indexOf(String name) {
+        int hash = name.hashCode();
+        int index = slot(hash, displacements[bucket(hash, bucketMask)], slotMask);
+        if (name.equals(names[index])) {
+            return index;
+        }
+        Integer overflowIndex = overflow.get(name);
+        return overflowIndex != null ? overflowIndex : -1;
+    }
+
+    BeanDefinition getBeanDefinition(int index) {
+        return definitions[index];
+    }
+
+    Object getSingleton(int index) {
+        return singletons.get(index);
+    }
+
+    void setSingleton(int index, Object singleton) {
+        singletons.set(index, singleton);
+    }
+
+    static FrozenBeanTable build(Map<String, BeanDefinition> beanDefinitions, Map<String, Object> singletonObjects) {
+        Map<String, BeanDefinition> entries = new LinkedHashMap<>(beanDefinitions);
+        for (String singletonName : singletonObjects.keySet()) {
+            if (!entries.containsKey(singletonName)) {
+                entries.put(singletonName, null);
+            }
+        }
+
+        // hashCode相同的名称只有第一个参与完美哈希
+        Map<Integer, String> byHash = new HashMap<>(entries.size() * 2);
+        List<String> hashed = new ArrayList<>(entries.size());
+        List<String> overflowNames = new ArrayList<>();
+        for (String name : entries.keySet()) {
+            if (byHash.putIfAbsent(name.hashCode(), name) == null) {
+                hashed.add(name);
+            } else {
+                overflowNames.add(name);
+            }
+        }
+
+        int slotCount = tableSizeFor(Math.max(2, hashed.size() * 2));
+        int[] displacements;
+        String[] slots;
+        while (true) {
+            slots = new String[slotCount];
+            displacements = new int[tableSizeFor(Math.max(1, hashed.size() / 4))];
+            if (place(hashed, slots, displacements, slotCount - 1)) {
+                break;
+            }
+            slotCount <<= 1;
+        }
+
+        String[] names = Arrays.copyOf(slots, slotCount + overflowNames.size());
+        Map<String, Integer> overflow = overflowNames.isEmpty() ? Collections.emptyMap() : new HashMap<>();
+        for (int i = 0; i < overflowNames.size(); i++) {
+            names[slotCount + i] = overflowNames.get(i);
+            overflow.put(overflowNames.get(i), slotCount + i);
+        }
+        BeanDefinition[] definitions = new BeanDefinition[names.length];
+        Object[] singletons = new Object[names.length];
+        for (int i = 0; i < names.length; i++) {
+            if (names[i] != null) {
+                definitions[i] = entries.get(names[i]);
+                singletons[i] = singletonObjects.get(names[i]);
+            }
+        }
+        return new FrozenBeanTable(names, definitions, singletons, displacements, slotCount - 1, overflow);
+    }
+
+    /**
+     * 从最大的桶开始，为每个桶找一个让桶内名称全部落到空槽位的偏移量
+     */
+    private static boolean place(List<String> names, String[] slots, int[] displacements, int slotMask) {
+        int bucketMask = displacements.length - 1;
+        List<List<String>> buckets = new ArrayList<>(displacements.length);
+        for (int i = 0; i < displacements.length; i++) {
+            buckets.add(new ArrayList<>(4));
+        }
+        for (String name : names) {
+            buckets.get(bucket(name.hashCode(), bucketMask)).add(name);
+        }
+        Integer[] order = new Integer[displacements.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (b1, b2) -> buckets.get(b2).size() - buckets.get(b1).size());
+
+        int[] candidateSlots = new int[16];
+        for (int bucketIndex : order) {
+            List<String> bucket = buckets.get(bucketIndex);
+            if (bucket.isEmpty()) {
+                break;
+            }
+            if (candidateSlots.length < bucket.size()) {
+                candidateSlots = new int[bucket.size()];
+            }
+            boolean placed = false;
+            for (int displacement = 0; displacement < MAX_DISPLACEMENT && !placed; displacement++) {
+                placed = true;
+                for (int i = 0; i < bucket.size() && placed; i++) {
+                    int slot = slot(bucket.get(i).hashCode(), displacement, slotMask);
+                    if (slots[slot] != null) {
+                        placed = false;
+                    }
+                    for (int j = 0; j < i && placed; j++) {
+                        if (candidateSlots[j] == slot) {
+                            placed = false;
+                        }
+                    }
+                    candidateSlots[i] = slot;
+                }
+                if (placed) {
+                    displacements[bucketIndex] = displacement;
+                    for (int i = 0; i < bucket.size(); i++) {
+                        slots[candidateSlots[i]] = bucket.get(i);
+                    }
+                }
+            }
+            if (!placed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int bucket(int hash, int bucketMask) {
+        return mix(hash ^ 0x85EBCA6B) & bucketMask;
+    }
+
+    private static int slot(int hash, int displacement, int slotMask) {
+        return mix(hash + displacement * GOLDEN_RATIO) & slotMask;
+    }
+
+    /**
+     * MurmurHash3的finalizer，把hashCode的每一位充分打散
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int tableSizeFor(int n) {
+        int size = 1;
+        while (size < n) {
+            size <<= 1;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,23 @@
+package org.springframework.beans;
+
+/**
+ * 有父子层级的BeanFactory。
+ * <p>
+ * 本地找不到的bean会交给父BeanFactory查找，于是连接池、编解码器这类重量级的基础设施bean只需要在父容器里创建一份，
+ * 多个子容器（比如每个租户模块一个）共享它们，而各自的业务bean互相隔离。
+ * <p>
+ * 注意方向是单向的：子容器能看到父容器的bean，父容器看不到子容器的bean。
+ * getBeansOfType只返回本地的bean，父容器的BeanPostProcessor、监听器等不会被子容器重复注册。
+ */
+public interface HierarchicalBeanFactory extends BeanFactory {
+
+    /**
+     * 父BeanFactory，没有时返回null
+     */
+    BeanFactory getParentBeanFactory();
+
+    /**
+     * 只在本地查找，不看父BeanFactory
+     */
+    boolean containsLocalBean(String name);
+}
@@ -0,0 +1,111 @@
+package org.springframework.beans;
+
+import org.springframework.beans.beandefinition.definition.BeanDefinition;
+import org.springframework.beans.processor.bean.BeanPostProcessor;
+import org.springframework.core.StringValueResolver;
+import org.springframework.core.exception.BeansException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 覆盖层（overlay）共享的模板：一个冻结后的BeanFactory的快照，见{@link DefaultListableBeanFactory#createOverlay()}。
+ * <p>
+ * 成千上万个覆盖层共享同一个OverlayTemplate：
+ * - BeanDefinition（冻结后不可变，构造器解析结果也缓存在BeanDefinition里）；
+ * - 按名称查找用模板的{@link FrozenBeanTable}，按类型查找用这里的类型索引，每个类型只计算一次；
+ * - 不是bean的后置处理器、占位符解析器直接共享实例；是bean的后置处理器每个覆盖层创建自己的实例（它们通常持有BeanFactory）；
+ *   与模板上下文绑定的{@link org.springframework.beans.processor.bean.OverlayAwareBeanPostProcessor}由它自己决定给覆盖层用什么。
+ * 覆盖层自己只存放覆盖的BeanDefinition和创建出来的bean。
+ * <p>
+ * 快照创建后与模板BeanFactory再无关联：模板解冻、修改之后，已经创建的覆盖层仍然使用旧的快照
+ */
+final class OverlayTemplate {
+
+    private final FrozenBeanTable beanTable;
+
+    /**
+     * 有BeanDefinition的bean名称，按注册顺序
+     */
+    private final String[] beanNames;
+
+    private final ClassLoader beanClassLoader;
+
+    /**
+     * 模板的后置处理器，按原来的顺序：BeanPostProcessor实例（共享）或者bean名称（覆盖层各自创建）
+     */
+    private final List<Object> postProcessors;
+
+    private final List<StringValueResolver> embeddedValueResolvers;
+
+    private final Map<Class<?>, String[]> beanNamesByType = new ConcurrentHashMap<>(64);
+
+    OverlayTemplate(FrozenBeanTable beanTable, Map<String, BeanDefinition> beanDefinitions, Map<String, Object> singletonObjects,
+                    List<BeanPostProcessor> beanPostProcessors, List<StringValueResolver> embeddedValueResolvers,
+                    ClassLoader beanClassLoader) {
+        this.beanTable = beanTable;
+        this.beanNames = beanDefinitions.keySet().toArray(new String[0]);
+        this.beanClassLoader = beanClassLoader;
+        this.embeddedValueResolvers = Collections.unmodifiableList(new ArrayList<>(embeddedValueResolvers));
+
+        Map<Object, String> singletonNames = new IdentityHashMap<>();
+        for (Map.Entry<String, Object> entry : singletonObjects.entrySet()) {
+            if (beanDefinitions.containsKey(entry.getKey())) {
+                singletonNames.put(entry.getValue(), entry.getKey());
+            }
+        }
+        List<Object> postProcessors = new ArrayList<>(beanPostProcessors.size());
+        for (BeanPostProcessor beanPostProcessor : beanPostProcessors) {
+            String beanName = singletonNames.get(beanPostProcessor);
+            postProcessors.add(beanName != null ? beanName : beanPostProcessor);
+        }
+        this.postProcessors = Collections.unmodifiableList(postProcessors);
+    }
+
+    /**
+     * 不存在时返回null
+     */
+    BeanDefinition getBeanDefinition(String beanName) {
+        int index = beanTable.indexOf(beanName);
+        return index >= 0 ? beanTable.getBeanDefinition(index) : null;
+    }
+
+    String[] getBeanNames() {
+        return beanNames;
+    }
+
+    /**
+     * 类型匹配的bean名称（按注册顺序），返回的数组是共享的，不能修改。类加载失败的bean跳过
+     */
+    String[] getBeanNamesForType(Class<?> type) {
+        String[] cached = beanNamesByType.get(type);
+        if (cached != null) {
+            return cached;
+        }
+        List<String> result = new ArrayList<>();
+        for (String beanName : beanNames) {
+            try {
+                if (type.isAssignableFrom(getBeanDefinition(beanName).resolveBeanClass(beanClassLoader))) {
+                    result.add(beanName);
+                }
+            } catch (BeansException ex) {
+                // 与DefaultListableBeanFactory一致：真正创建时才报错
+            }
+        }
+        String[] names = result.toArray(new String[0]);
+        beanNamesByType.put(type, names);
+        return names;
+    }
+
+    List<Object> getPostProcessors() {
+        return postProcessors;
+    }
+
+    List<StringValueResolver> getEmbeddedValueResolvers() {
+        return embeddedValueResolvers;
+    }
+}
@@ -0,0 +1,140 @@
+package org.springframework.beans;
+
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.exception.BeansException;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 给bean设置属性值（调用setter），替代BeanUtils.setProperty
+ * <p>
+ * 每个类的setter只内省一次，按属性名缓存；setter转换成MethodHandle，int、long、double类型的属性
+ * 直接以基本类型调用，字符串解析成数字后不经过装箱
+ */
+abstract class PropertySetter {
+
+    private static final ClassValue<Map<String, PropertySetter>> SETTERS = new ClassValue<Map<String, PropertySetter>>() {
+        @Override
+        protected Map<String, PropertySetter> computeValue(Class<?> type) {
+            return introspect(type);
+        }
+    };
+
+    /**
+     * 返回属性对应的setter，没有可写属性时返回null（与BeanUtils一样，忽略不存在的属性）
+     */
+    static PropertySetter forProperty(Class<?> beanClass, String propertyName) {
+        return SETTERS.get(beanClass).get(propertyName);
+    }
+
+    abstract void setValue(Object bean, Object value, ConversionService conversionService) throws Throwable;
+
+    private static Map<String, PropertySetter> introspect(Class<?> beanClass) {
+        BeanInfo beanInfo;
+        try {
+            beanInfo = Introspector.getBeanInfo(beanClass);
+        } catch (IntrospectionException ex) {
+            throw new BeansException("Failed to introspect bean class [" + beanClass.getName() + "]", ex);
+        }
+        Map<String, PropertySetter> setters = new HashMap<>();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (PropertyDescriptor descriptor : beanInfo.getPropertyDescriptors()) {
+            Method writeMethod = descriptor.getWriteMethod();
+            if (writeMethod == null) {
+                continue;
+            }
+            try {
+                writeMethod.setAccessible(true);
+                MethodHandle handle = lookup.unreflect(writeMethod);
+                Class<?> propertyType = writeMethod.getParameterTypes()[0];
+                PropertySetter setter;
+                if (propertyType == int.class) {
+                    setter = new IntSetter(handle);
+                } else if (propertyType == long.class) {
+                    setter = new LongSetter(handle);
+                } else if (propertyType == double.class) {
+                    setter = new DoubleSetter(handle);
+                } else {
+                    setter = new ObjectSetter(handle, propertyType, writeMethod.getGenericParameterTypes()[0]);
+                }
+                setters.put(descriptor.getName(), setter);
+            } catch (IllegalAccessException | RuntimeException ex) {
+                // 无法访问的setter（比如非public类中的方法）忽略
+            }
+        }
+        return Collections.unmodifiableMap(setters);
+    }
+
+    private static final class IntSetter extends PropertySetter {
+
+        private final MethodHandle handle;
+
+        private IntSetter(MethodHandle handle) {
+            this.handle = handle.asType(MethodType.methodType(void.class, Object.class, int.class));
+        }
+
+        @Override
+        void setValue(Object bean, Object value, ConversionService conversionService) throws Throwable {
+            handle.invokeExact(bean, conversionService.convertToInt(value));
+        }
+    }
+
+    private static final class LongSetter extends PropertySetter {
+
+        private final MethodHandle handle;
+
+        private LongSetter(MethodHandle handle) {
+            this.handle = handle.asType(MethodType.methodType(void.class, Object.class, long.class));
+        }
+
+        @Override
+        void setValue(Object bean, Object value, ConversionService conversionService) throws Throwable {
+            handle.invokeExact(bean, conversionService.convertToLong(value));
+        }
+    }
+
+    private static final class DoubleSetter extends PropertySetter {
+
+        private final MethodHandle handle;
+
+        private DoubleSetter(MethodHandle handle) {
+            this.handle = handle.asType(MethodType.methodType(void.class, Object.class, double.class));
+        }
+
+        @Override
+        void setValue(Object bean, Object value, ConversionService conversionService) throws Throwable {
+            handle.invokeExact(bean, conversionService.convertToDouble(value));
+        }
+    }
+
+    private static final class ObjectSetter extends PropertySetter {
+
+        private final MethodHandle handle;
+
+        private final Class<?> propertyType;
+
+        private final Type genericType;
+
+        private ObjectSetter(MethodHandle handle, Class<?> propertyType, Type genericType) {
+            this.handle = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            this.propertyType = propertyType;
+            this.genericType = genericType;
+        }
+
+        @Override
+        void setValue(Object bean, Object value, ConversionService conversionService) throws Throwable {
+            handle.invokeExact(bean, conversionService.convert(value, propertyType, genericType));
+        }
+    }
+}
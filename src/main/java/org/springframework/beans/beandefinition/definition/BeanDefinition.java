@@ -1,5 +1,8 @@
 package org.springframework.beans.beandefinition.definition;
 
+import org.springframework.core.exception.BeansException;
+
+import java.lang.reflect.Constructor;
 import java.util.Objects;
 
 /**
@@ -22,18 +25,39 @@ public class BeanDefinition {
     public static final int AUTOWIRE_BY_NAME = 1;
     public static final int AUTOWIRE_BY_TYPE = 2;
 
+    /******* 紧凑存储：singleton/prototype/lazyInit/autowireMode打包进一个int，注册表里有上百万个BeanDefinition时能省下不少内存 *******/
+    private static final int FLAG_SINGLETON = 1;
+    private static final int FLAG_PROTOTYPE = 1 << 1;
+    private static final int FLAG_LAZY_INIT = 1 << 2;
+    private static final int AUTOWIRE_MODE_SHIFT = 3;
+    private static final int AUTOWIRE_MODE_MASK = 0b11 << AUTOWIRE_MODE_SHIFT;
+
     /******* attribute：比如指定beanClass、initMethodName、scope等 *******/
-    private Class<?> beanClass;
-    private boolean singleton = true;
-    private boolean prototype = false;
-    private boolean lazyInit = false;
+    // 可以只有类名：第一次需要Class时才加载（且不做静态初始化），懒加载、从未用到的bean不必在解析配置时就加载类
+    private volatile Class<?> beanClass;
+    private volatile String beanClassName;
+    // scope、initMethodName、destroyMethodName在大量BeanDefinition之间高度重复，都intern过
+    private String scope = SCOPE_SINGLETON;
+    private int flags = FLAG_SINGLETON;
     private String initMethodName;
     private String destroyMethodName;
-    private int autowireMode = AUTOWIRE_NO;
 
     /******* properties：属性值，比如Person.name=bravo *******/
     private PropertyValues propertyValues;
 
+    /******* 构造器参数：<constructor-arg>，大部分bean没有，用到时才创建 *******/
+    private ConstructorArgumentValues constructorArgumentValues;
+
+    /******* AOT：生成的代码直接创建bean、设置属性，不走反射 *******/
+    private InstanceSupplier instanceSupplier;
+    private PropertyPopulator propertyPopulator;
+    // 显式声明的依赖，参与依赖图的构建（创建顺序、销毁顺序、循环依赖检测）
+    private String[] dependsOn;
+
+    /******* 缓存：第一次创建bean时解析出的构造器和参数，后续直接使用 *******/
+    private volatile Constructor<?> resolvedConstructor;
+    private volatile Object[] preparedConstructorArguments;
+
     public BeanDefinition(Class<?> beanClass) {
         this(beanClass, null);
     }
@@ -43,33 +67,110 @@ public class BeanDefinition {
         this.propertyValues = propertyValues != null ? propertyValues : new PropertyValues();
     }
 
+    /**
+     * 只记录类名，类在{@link #resolveBeanClass(ClassLoader)}或第一次{@link #getBeanClass()}时才加载
+     */
+    public BeanDefinition(String beanClassName) {
+        this.beanClassName = beanClassName;
+        this.propertyValues = new PropertyValues();
+    }
+
+    /**
+     * 还没加载过时用线程上下文类加载器加载。BeanFactory会先用自己的类加载器调用{@link #resolveBeanClass(ClassLoader)}
+     */
     public Class<?> getBeanClass() {
-        return beanClass;
+        Class<?> clazz = this.beanClass;
+        return clazz != null ? clazz : resolveBeanClass(null);
     }
 
-    public void setBeanClass(Class<?> beanClass) {
+    public synchronized void setBeanClass(Class<?> beanClass) {
         this.beanClass = beanClass;
+        this.beanClassName = null;
+    }
+
+    /**
+     * 类是否已经加载
+     */
+    public boolean hasBeanClass() {
+        return this.beanClass != null;
     }
 
+    /**
+     * 不会触发类加载
+     */
+    public String getBeanClassName() {
+        Class<?> clazz = this.beanClass;
+        return clazz != null ? clazz.getName() : beanClassName;
+    }
+
+    public synchronized void setBeanClassName(String beanClassName) {
+        this.beanClassName = beanClassName;
+        this.beanClass = null;
+    }
+
+    /**
+     * 加载bean的类。只加载不初始化（Class.forName的initialize=false），静态代码块推迟到第一次创建实例时执行。
+     * 多个线程同时解析同一个BeanDefinition是安全的：类加载器保证拿到的是同一个Class。
+     * 加载期间类名被修改（比如BeanFactoryPostProcessor调用了setBeanClassName）时，加载的结果不会覆盖新的类名，按新的类名重新加载
+     *
+     * @param classLoader 为null时使用线程上下文类加载器
+     */
+    public Class<?> resolveBeanClass(ClassLoader classLoader) throws BeansException {
+        Class<?> clazz = this.beanClass;
+        if (clazz != null) {
+            return clazz;
+        }
+        String className = this.beanClassName;
+        if (className == null) {
+            throw new BeansException("No bean class specified on bean definition");
+        }
+        if (classLoader == null) {
+            classLoader = Thread.currentThread().getContextClassLoader();
+            if (classLoader == null) {
+                classLoader = BeanDefinition.class.getClassLoader();
+            }
+        }
+        try {
+            clazz = Class.forName(className, false, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new BeansException("Cannot find class [" + className + "]", e);
+        }
+        synchronized (this) {
+            if (this.beanClass == null && className.equals(this.beanClassName)) {
+                this.beanClass = clazz;
+                return clazz;
+            }
+        }
+        return resolveBeanClass(classLoader);
+    }
+
+    /**
+     * 除了singleton和prototype，还可以是注册到BeanFactory的自定义作用域，比如thread
+     */
     public void setScope(String scope) {
-        this.singleton = SCOPE_SINGLETON.equals(scope);
-        this.prototype = SCOPE_PROTOTYPE.equals(scope);
+        this.scope = intern(scope);
+        int scopeFlags = SCOPE_SINGLETON.equals(scope) ? FLAG_SINGLETON : SCOPE_PROTOTYPE.equals(scope) ? FLAG_PROTOTYPE : 0;
+        this.flags = (this.flags & ~(FLAG_SINGLETON | FLAG_PROTOTYPE)) | scopeFlags;
+    }
+
+    public String getScope() {
+        return scope;
     }
 
     public boolean isSingleton() {
-        return this.singleton;
+        return (this.flags & FLAG_SINGLETON) != 0;
     }
 
     public boolean isPrototype() {
-        return this.prototype;
+        return (this.flags & FLAG_PROTOTYPE) != 0;
     }
 
     public void setLazyInit(boolean b) {
-        lazyInit = b;
+        this.flags = b ? this.flags | FLAG_LAZY_INIT : this.flags & ~FLAG_LAZY_INIT;
     }
 
     public boolean isLazyInit() {
-        return lazyInit;
+        return (this.flags & FLAG_LAZY_INIT) != 0;
     }
 
     public String getInitMethodName() {
@@ -77,7 +178,7 @@ public class BeanDefinition {
     }
 
     public void setInitMethodName(String initMethodName) {
-        this.initMethodName = initMethodName;
+        this.initMethodName = intern(initMethodName);
     }
 
     public String getDestroyMethodName() {
@@ -85,15 +186,18 @@ public class BeanDefinition {
     }
 
     public void setDestroyMethodName(String destroyMethodName) {
-        this.destroyMethodName = destroyMethodName;
+        this.destroyMethodName = intern(destroyMethodName);
     }
 
     public int getAutowireMode() {
-        return autowireMode;
+        return (this.flags & AUTOWIRE_MODE_MASK) >>> AUTOWIRE_MODE_SHIFT;
     }
 
     public void setAutowireMode(int autowireMode) {
-        this.autowireMode = autowireMode;
+        if (autowireMode < AUTOWIRE_NO || autowireMode > AUTOWIRE_BY_TYPE) {
+            throw new IllegalArgumentException("Invalid autowire mode: " + autowireMode);
+        }
+        this.flags = (this.flags & ~AUTOWIRE_MODE_MASK) | (autowireMode << AUTOWIRE_MODE_SHIFT);
     }
 
     public PropertyValues getPropertyValues() {
@@ -101,7 +205,88 @@ public class BeanDefinition {
     }
 
     public void setPropertyValues(PropertyValues propertyValues) {
-        this.propertyValues = propertyValues;
+        this.propertyValues = propertyValues != null ? propertyValues : new PropertyValues();
+    }
+
+    /**
+     * 第一次调用时才创建；只读的场景先用{@link #hasConstructorArgumentValues()}判断，避免给每个BeanDefinition都创建一个空对象
+     */
+    public ConstructorArgumentValues getConstructorArgumentValues() {
+        if (constructorArgumentValues == null) {
+            constructorArgumentValues = new ConstructorArgumentValues();
+        }
+        return constructorArgumentValues;
+    }
+
+    public void setConstructorArgumentValues(ConstructorArgumentValues constructorArgumentValues) {
+        this.constructorArgumentValues = constructorArgumentValues;
+    }
+
+    public boolean hasConstructorArgumentValues() {
+        return constructorArgumentValues != null && !constructorArgumentValues.isEmpty();
+    }
+
+    public String[] getDependsOn() {
+        return dependsOn;
+    }
+
+    public void setDependsOn(String... dependsOn) {
+        this.dependsOn = dependsOn;
+    }
+
+    public InstanceSupplier getInstanceSupplier() {
+        return instanceSupplier;
+    }
+
+    /**
+     * 设置后实例化bean直接调用它，不再解析构造器
+     */
+    public void setInstanceSupplier(InstanceSupplier instanceSupplier) {
+        this.instanceSupplier = instanceSupplier;
+    }
+
+    public PropertyPopulator getPropertyPopulator() {
+        return propertyPopulator;
+    }
+
+    public void setPropertyPopulator(PropertyPopulator propertyPopulator) {
+        this.propertyPopulator = propertyPopulator;
+    }
+
+    /**
+     * 冻结属性值，之后不能再修改（BeanFactory冻结配置时调用）
+     */
+    public void freeze() {
+        propertyValues.freeze();
+    }
+
+    private static String intern(String value) {
+        return value != null ? value.intern() : null;
+    }
+
+    /**
+     * 已解析的构造器，没解析过时返回null
+     */
+    public Constructor<?> getResolvedConstructor() {
+        return resolvedConstructor;
+    }
+
+    /**
+     * 已解析的构造器参数，每个元素是以下三者之一：
+     * - {@link BeanReference}：创建bean时getBean；
+     * - {@link org.springframework.beans.DependencyDescriptor}：创建bean时由BeanFactory解析；
+     * - 其他：已经转换成参数类型的字面量，直接使用。
+     */
+    public Object[] getPreparedConstructorArguments() {
+        return preparedConstructorArguments;
+    }
+
+    /**
+     * 缓存解析结果。先写参数再写构造器，其他线程读到构造器时一定能读到参数
+     */
+    public void setResolvedConstructor(Constructor<?> constructor, Object[] preparedArguments) {
+        this.preparedConstructorArguments = preparedArguments;
+        this.resolvedConstructor = constructor;
     }
 
     @Override
@@ -109,11 +294,20 @@ public class BeanDefinition {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         BeanDefinition that = (BeanDefinition) o;
-        return beanClass.equals(that.beanClass);
+        // 比较完整的定义内容，增量刷新时据此判断BeanDefinition是否发生了变化
+        // 按类名比较，不会因为比较而加载类
+        return Objects.equals(getBeanClassName(), that.getBeanClassName())
+                && Objects.equals(scope, that.scope)
+                && flags == that.flags
+                && Objects.equals(initMethodName, that.initMethodName)
+                && Objects.equals(destroyMethodName, that.destroyMethodName)
+                && Objects.equals(propertyValues, that.propertyValues)
+                && hasConstructorArgumentValues() == that.hasConstructorArgumentValues()
+                && (!hasConstructorArgumentValues() || constructorArgumentValues.equals(that.constructorArgumentValues));
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(beanClass);
+        return Objects.hash(getBeanClassName());
     }
 }
@@ -1,5 +1,7 @@
 package org.springframework.beans.beandefinition.definition;
 
+import java.util.Objects;
+
 /**
  * 一个bean对另一个bean的引用
  */
@@ -15,4 +17,21 @@ public class BeanReference {
     public String getBeanName() {
         return beanName;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Objects.equals(beanName, ((BeanReference) o).beanName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(beanName);
+    }
+
+    @Override
+    public String toString() {
+        return "<" + beanName + ">";
+    }
 }
@@ -0,0 +1,118 @@
+package org.springframework.beans.beandefinition.definition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 构造器参数，对应xml中的{@code <constructor-arg>}
+ * <p>
+ * - 指定了index的参数按下标匹配；
+ * - 没有指定index的参数（generic）先按name匹配，再按声明顺序依次匹配剩下的构造器参数。
+ * <p>
+ * 参数值可以是字符串字面量（创建bean时转换成构造器参数类型），也可以是{@link BeanReference}
+ */
+public class ConstructorArgumentValues {
+
+    private final Map<Integer, ValueHolder> indexedArgumentValues = new LinkedHashMap<>();
+
+    private final List<ValueHolder> genericArgumentValues = new ArrayList<>();
+
+    public void addIndexedArgumentValue(int index, ValueHolder valueHolder) {
+        if (index < 0) {
+            throw new IllegalArgumentException("Index must not be negative");
+        }
+        this.indexedArgumentValues.put(index, valueHolder);
+    }
+
+    public void addGenericArgumentValue(ValueHolder valueHolder) {
+        this.genericArgumentValues.add(valueHolder);
+    }
+
+    public Map<Integer, ValueHolder> getIndexedArgumentValues() {
+        return Collections.unmodifiableMap(indexedArgumentValues);
+    }
+
+    public List<ValueHolder> getGenericArgumentValues() {
+        return Collections.unmodifiableList(genericArgumentValues);
+    }
+
+    public int getArgumentCount() {
+        return indexedArgumentValues.size() + genericArgumentValues.size();
+    }
+
+    public boolean isEmpty() {
+        return indexedArgumentValues.isEmpty() && genericArgumentValues.isEmpty();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ConstructorArgumentValues that = (ConstructorArgumentValues) o;
+        return indexedArgumentValues.equals(that.indexedArgumentValues)
+                && genericArgumentValues.equals(that.genericArgumentValues);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(indexedArgumentValues, genericArgumentValues);
+    }
+
+    /**
+     * 一个构造器参数：值 + 可选的类型（全限定类名或简单类名，用于区分重载的构造器）+ 可选的参数名
+     */
+    public static class ValueHolder {
+
+        private Object value;
+
+        private final String type;
+
+        private final String name;
+
+        public ValueHolder(Object value) {
+            this(value, null, null);
+        }
+
+        public ValueHolder(Object value, String type, String name) {
+            this.value = value;
+            this.type = type;
+            this.name = name;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * 允许BeanFactoryPostProcessor替换参数值，比如解析${}占位符
+         */
+        public void setValue(Object value) {
+            this.value = value;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ValueHolder that = (ValueHolder) o;
+            return Objects.equals(value, that.value) && Objects.equals(type, that.type) && Objects.equals(name, that.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(value, type, name);
+        }
+    }
+}
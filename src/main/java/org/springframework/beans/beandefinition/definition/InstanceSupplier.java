@@ -0,0 +1,15 @@
+package org.springframework.beans.beandefinition.definition;
+
+import org.springframework.beans.DefaultListableBeanFactory;
+
+/**
+ * 直接创建bean实例的回调，设置后BeanFactory不再通过反射解析、调用构造器。
+ * <p>
+ * 主要给AOT生成的代码使用：构建期已经确定了用哪个构造器、参数从哪来，生成的代码里直接 new Xxx(...)，
+ * 见{@link org.springframework.context.aot.ContextAotGenerator}
+ */
+@FunctionalInterface
+public interface InstanceSupplier {
+
+    Object get(DefaultListableBeanFactory beanFactory, String beanName) throws Exception;
+}
@@ -0,0 +1,15 @@
+package org.springframework.beans.beandefinition.definition;
+
+import org.springframework.beans.DefaultListableBeanFactory;
+
+/**
+ * 直接给bean设置属性的回调，在后置处理器处理完@Autowired/@Value之后、应用BeanDefinition里剩余的属性值之前调用。
+ * <p>
+ * 主要给AOT生成的代码使用：XML里的属性在构建期就转换成了字面量，生成的代码里直接调用setter，
+ * 见{@link org.springframework.context.aot.ContextAotGenerator}
+ */
+@FunctionalInterface
+public interface PropertyPopulator {
+
+    void populate(DefaultListableBeanFactory beanFactory, String beanName, Object bean) throws Exception;
+}
@@ -1,5 +1,7 @@
 package org.springframework.beans.beandefinition.definition;
 
+import java.util.Objects;
+
 /**
  * bean属性信息
  */
@@ -10,7 +12,8 @@ public class PropertyValue {
     private final Object value;
 
     public PropertyValue(String name, Object value) {
-        this.name = name;
+        // 属性名在大量BeanDefinition之间高度重复，intern后只保留一份，按名称查找时也可以先比较引用
+        this.name = name.intern();
         this.value = value;
     }
 
@@ -21,4 +24,17 @@ public class PropertyValue {
     public Object getValue() {
         return value;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PropertyValue that = (PropertyValue) o;
+        return name.equals(that.name) && Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, value);
+    }
 }
@@ -1,34 +1,218 @@
 package org.springframework.beans.beandefinition.definition;
 
-import java.util.ArrayList;
+import org.springframework.core.exception.BeansException;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * bean的属性值集合。
+ * <p>
+ * 注册表里可能有上百万个BeanDefinition，大部分只有几个属性甚至没有属性，所以这里用数组而不是ArrayList：
+ * - 没有属性时共享同一个空数组，不占额外内存；
+ * - 属性名在{@link PropertyValue}里已经intern过，按名称查找时先比较引用，几乎不用走equals；
+ * - 属性较多时才懒建一个 名称->下标 的索引，addPropertyValue不再是O(n)；
+ * - 读取用{@link #size()}/{@link #get(int)}或{@link #asList()}，都不会复制数组。
+ * <p>
+ * {@link #freeze()}之后不可再修改（BeanFactory冻结配置时会冻结所有BeanDefinition的属性值）。
+ * 创建bean时需要一份可修改的副本，用{@link #PropertyValues(PropertyValues)}：副本与原件共享数组，第一次修改时才复制（写时复制）。
+ */
 public class PropertyValues {
 
-    private final List<PropertyValue> propertyValueList = new ArrayList<>();
+    private static final PropertyValue[] EMPTY = new PropertyValue[0];
 
-    public void addPropertyValue(PropertyValue pv) {
-        for (int i = 0; i < this.propertyValueList.size(); i++) {
-            PropertyValue currentPv = this.propertyValueList.get(i);
-            if (currentPv.getName().equals(pv.getName())) {
-                // 覆盖原有的属性值
-                this.propertyValueList.set(i, pv);
-                return;
+    /**
+     * 属性个数超过这个值才建索引，几个属性时线性扫描更快也更省内存
+     */
+    private static final int INDEX_THRESHOLD = 8;
+
+    private PropertyValue[] propertyValues = EMPTY;
+
+    private int size;
+
+    /**
+     * 数组是否与其他PropertyValues共享，共享时修改前要先复制
+     */
+    private boolean shared;
+
+    private boolean frozen;
+
+    private Map<String, Integer> index;
+
+    private List<PropertyValue> listView;
+
+    public PropertyValues() {
+    }
+
+    /**
+     * 写时复制的副本：共享原件的数组，副本第一次修改时才真正复制，原件不受影响
+     */
+    public PropertyValues(PropertyValues original) {
+        if (original.size > 0) {
+            this.propertyValues = original.propertyValues;
+            this.size = original.size;
+            this.shared = true;
+            if (!original.frozen) {
+                // 原件还可以修改，它下次修改时也要先复制，否则会改到副本
+                original.shared = true;
             }
         }
-        this.propertyValueList.add(pv);
     }
 
+    public void addPropertyValue(PropertyValue pv) {
+        assertNotFrozen();
+        int i = indexOf(pv.getName());
+        ensureExclusive(i >= 0 ? size : size + 1);
+        if (i >= 0) {
+            // 覆盖原有的属性值
+            this.propertyValues[i] = pv;
+            return;
+        }
+        this.propertyValues[size] = pv;
+        if (index != null) {
+            index.put(pv.getName(), size);
+        } else if (size + 1 > INDEX_THRESHOLD) {
+            buildIndex(size + 1);
+        }
+        size++;
+    }
+
+    /**
+     * 返回属性值数组的副本。遍历时优先用{@link #size()}/{@link #get(int)}，不会分配新数组
+     */
     public PropertyValue[] getPropertyValues() {
-        return this.propertyValueList.toArray(new PropertyValue[0]);
+        return size == 0 ? EMPTY : Arrays.copyOf(this.propertyValues, size);
     }
 
     public PropertyValue getPropertyValue(String propertyName) {
-        for (PropertyValue pv : this.propertyValueList) {
-            if (pv.getName().equals(propertyName)) {
-                return pv;
+        int i = indexOf(propertyName);
+        return i >= 0 ? this.propertyValues[i] : null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public PropertyValue get(int i) {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+        }
+        return this.propertyValues[i];
+    }
+
+    /**
+     * 只读视图，直接读底层数组，每个实例只创建一次
+     */
+    public List<PropertyValue> asList() {
+        List<PropertyValue> view = this.listView;
+        if (view == null) {
+            view = new AbstractList<PropertyValue>() {
+                @Override
+                public PropertyValue get(int i) {
+                    return PropertyValues.this.get(i);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+            this.listView = view;
+        }
+        return view;
+    }
+
+    /**
+     * 冻结：之后的修改会抛异常。顺便把数组裁剪到实际大小
+     */
+    public void freeze() {
+        if (frozen) {
+            return;
+        }
+        if (propertyValues.length != size) {
+            propertyValues = size == 0 ? EMPTY : Arrays.copyOf(propertyValues, size);
+        }
+        frozen = true;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private int indexOf(String propertyName) {
+        if (index != null) {
+            Integer i = index.get(propertyName);
+            return i != null ? i : -1;
+        }
+        PropertyValue[] values = this.propertyValues;
+        // 属性名都是intern过的，先按引用比较
+        for (int i = 0; i < size; i++) {
+            if (values[i].getName() == propertyName) {
+                return i;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (values[i].getName().equals(propertyName)) {
+                return i;
             }
         }
-        return null;
+        return -1;
+    }
+
+    /**
+     * 保证数组是自己独占的，且容量至少为minCapacity
+     */
+    private void ensureExclusive(int minCapacity) {
+        if (shared || propertyValues.length < minCapacity) {
+            int capacity = propertyValues.length < minCapacity ? Math.max(minCapacity, Math.max(4, size * 2)) : propertyValues.length;
+            propertyValues = Arrays.copyOf(propertyValues, capacity);
+            shared = false;
+        }
+    }
+
+    private void buildIndex(int count) {
+        Map<String, Integer> map = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            map.put(propertyValues[i].getName(), i);
+        }
+        this.index = map;
+    }
+
+    private void assertNotFrozen() {
+        if (frozen) {
+            throw new BeansException("Cannot modify frozen property values, copy them with new PropertyValues(original) first");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PropertyValues that = (PropertyValues) o;
+        if (size != that.size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (!propertyValues[i].equals(that.propertyValues[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < size; i++) {
+            result = 31 * result + propertyValues[i].hashCode();
+        }
+        return result;
     }
 }
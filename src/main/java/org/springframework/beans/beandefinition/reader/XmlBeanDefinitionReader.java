@@ -8,6 +8,7 @@ import org.dom4j.Element;
 import org.dom4j.io.SAXReader;
 import org.springframework.beans.beandefinition.definition.BeanDefinition;
 import org.springframework.beans.beandefinition.definition.BeanReference;
+import org.springframework.beans.beandefinition.definition.ConstructorArgumentValues;
 import org.springframework.beans.beandefinition.definition.PropertyValue;
 import org.springframework.beans.beandefinition.registry.BeanDefinitionRegistry;
 import org.springframework.context.annotation.ClassPathBeanDefinitionScanner;
@@ -26,6 +27,9 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
 
     public static final String BEAN_ELEMENT = "bean";
     public static final String PROPERTY_ELEMENT = "property";
+    public static final String CONSTRUCTOR_ARG_ELEMENT = "constructor-arg";
+    public static final String INDEX_ATTRIBUTE = "index";
+    public static final String TYPE_ATTRIBUTE = "type";
     public static final String ID_ATTRIBUTE = "id";
     public static final String NAME_ATTRIBUTE = "name";
     public static final String CLASS_ATTRIBUTE = "class";
@@ -103,20 +107,18 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
             String beanScope = bean.attributeValue(SCOPE_ATTRIBUTE);
             String lazyInit = bean.attributeValue(LAZY_INIT_ATTRIBUTE);
             String autowire = bean.attributeValue(AUTOWIRE_ATTRIBUTE);
-            Class<?> clazz;
-            try {
-                clazz = Class.forName(className);
-            } catch (ClassNotFoundException e) {
-                throw new BeansException("Cannot find class [" + className + "]");
+            if (StrUtil.isEmpty(className)) {
+                throw new BeansException("The class attribute cannot be null or empty");
             }
             // id优先于name
             beanName = StrUtil.isNotEmpty(beanId) ? beanId : beanName;
             if (StrUtil.isEmpty(beanName)) {
                 // 如果id和name都为空，将类名的第一个字母转为小写后作为bean的名称
-                beanName = StrUtil.lowerFirst(clazz.getSimpleName());
+                beanName = StrUtil.lowerFirst(simpleClassName(className));
             }
 
-            BeanDefinition beanDefinition = new BeanDefinition(clazz);
+            // 这里只记录类名，不加载类：懒加载或从未用到的bean，解析配置时不会触发类加载和静态初始化
+            BeanDefinition beanDefinition = new BeanDefinition(className);
             beanDefinition.setInitMethodName(initMethodName);
             beanDefinition.setDestroyMethodName(destroyMethodName);
             beanDefinition.setLazyInit(Boolean.parseBoolean(lazyInit));
@@ -142,6 +144,7 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
                 PropertyValue propertyValue = new PropertyValue(propertyNameAttribute, value);
                 beanDefinition.getPropertyValues().addPropertyValue(propertyValue);
             }
+            parseConstructorArgElements(bean, beanDefinition);
             if (getRegistry().containsBeanDefinition(beanName)) {
                 throw new BeansException("Duplicate beanName[" + beanName + "] is not allowed");
             }
@@ -150,6 +153,46 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
         }
     }
 
+    /**
+     * 解析<constructor-arg index="0" name="brand" type="java.lang.String" value="porsche" ref="engine"/>
+     */
+    private void parseConstructorArgElements(Element bean, BeanDefinition beanDefinition) {
+        List<Element> constructorArgList = bean.elements(CONSTRUCTOR_ARG_ELEMENT);
+        if (constructorArgList.isEmpty()) {
+            return;
+        }
+        ConstructorArgumentValues argumentValues = beanDefinition.getConstructorArgumentValues();
+        for (Element constructorArg : constructorArgList) {
+            String indexAttribute = constructorArg.attributeValue(INDEX_ATTRIBUTE);
+            String nameAttribute = constructorArg.attributeValue(NAME_ATTRIBUTE);
+            String typeAttribute = constructorArg.attributeValue(TYPE_ATTRIBUTE);
+            String valueAttribute = constructorArg.attributeValue(VALUE_ATTRIBUTE);
+            String refAttribute = constructorArg.attributeValue(REF_ATTRIBUTE);
+
+            if (StrUtil.isNotEmpty(valueAttribute) == StrUtil.isNotEmpty(refAttribute)) {
+                throw new BeansException("<constructor-arg> element must specify exactly one of 'value' or 'ref'");
+            }
+            Object value = StrUtil.isNotEmpty(refAttribute) ? new BeanReference(refAttribute) : valueAttribute;
+            ConstructorArgumentValues.ValueHolder valueHolder = new ConstructorArgumentValues.ValueHolder(value,
+                    StrUtil.emptyToNull(typeAttribute), StrUtil.emptyToNull(nameAttribute));
+
+            if (StrUtil.isNotEmpty(indexAttribute)) {
+                int index;
+                try {
+                    index = Integer.parseInt(indexAttribute);
+                } catch (NumberFormatException ex) {
+                    throw new BeansException("Attribute 'index' of tag 'constructor-arg' must be an integer");
+                }
+                if (index < 0 || argumentValues.getIndexedArgumentValues().containsKey(index)) {
+                    throw new BeansException("Invalid or duplicate 'index' [" + index + "] of tag 'constructor-arg'");
+                }
+                argumentValues.addIndexedArgumentValue(index, valueHolder);
+            } else {
+                argumentValues.addGenericArgumentValue(valueHolder);
+            }
+        }
+    }
+
     /**
      * 扫描注解Component的类，提取信息，组装成BeanDefinition
      */
@@ -170,4 +213,12 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
             return BeanDefinition.AUTOWIRE_NO;
         }
     }
+
+    /**
+     * 不加载类，从全限定名得到与Class.getSimpleName()相同的简单类名，比如 a.b.Outer$Inner -> Inner
+     */
+    private static String simpleClassName(String className) {
+        String name = className.substring(className.lastIndexOf('.') + 1);
+        return name.substring(name.lastIndexOf('$') + 1);
+    }
 }
@@ -26,6 +26,11 @@ public interface BeanDefinitionRegistry {
      */
     void registerBeanDefinition(String beanName, BeanDefinition beanDefinition);
 
+    /**
+     * 移除BeanDefinition
+     */
+    void removeBeanDefinition(String beanName) throws BeansException;
+
     /**
      * 根据名称查找BeanDefinition
      */
@@ -0,0 +1,215 @@
+package org.springframework.beans.graph;
+
+import org.springframework.core.exception.BeansException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * bean之间的依赖关系图（有向图，边 a -> b 表示a依赖b），不可变。
+ * <p>
+ * 依赖来源有三类：
+ * - BeanDefinition中的BeanReference（比如autowire="byName"时的ref属性）；
+ * - 后置处理器预测的依赖，比如@Autowired字段；
+ * - 运行时记录的依赖（{@link org.springframework.beans.DefaultListableBeanFactory#registerDependentBean}）。
+ * <p>
+ * 有了依赖图，就可以在创建bean之前发现循环依赖，并给出完整的依赖路径；
+ * 还可以得到拓扑序：创建时先创建被依赖的bean，销毁时先销毁依赖方。
+ */
+public class DependencyGraph {
+
+    private static final int VISITING = 1;
+
+    private static final int VISITED = 2;
+
+    /**
+     * bean名称 -> 它依赖的bean名称
+     */
+    private final Map<String, Set<String>> dependencies;
+
+    /**
+     * bean名称 -> 依赖它的bean名称
+     */
+    private final Map<String, Set<String>> dependents;
+
+    private DependencyGraph(Map<String, Set<String>> dependencies) {
+        Map<String, Set<String>> dependentsMap = new LinkedHashMap<>();
+        for (String beanName : dependencies.keySet()) {
+            dependentsMap.put(beanName, new LinkedHashSet<>());
+        }
+        for (Map.Entry<String, Set<String>> entry : dependencies.entrySet()) {
+            for (String dependency : entry.getValue()) {
+                dependentsMap.get(dependency).add(entry.getKey());
+            }
+        }
+        this.dependencies = freeze(dependencies);
+        this.dependents = freeze(dependentsMap);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Set<String> getBeanNames() {
+        return dependencies.keySet();
+    }
+
+    public boolean containsBean(String beanName) {
+        return dependencies.containsKey(beanName);
+    }
+
+    /**
+     * beanName直接依赖的bean
+     */
+    public Set<String> getDependencies(String beanName) {
+        Set<String> result = dependencies.get(beanName);
+        return result != null ? result : Collections.emptySet();
+    }
+
+    /**
+     * 直接依赖beanName的bean
+     */
+    public Set<String> getDependents(String beanName) {
+        Set<String> result = dependents.get(beanName);
+        return result != null ? result : Collections.emptySet();
+    }
+
+    /**
+     * 直接或间接依赖beanName的bean
+     */
+    public Set<String> getTransitiveDependents(String beanName) {
+        Set<String> result = new LinkedHashSet<>();
+        Deque<String> queue = new ArrayDeque<>(getDependents(beanName));
+        while (!queue.isEmpty()) {
+            String dependent = queue.poll();
+            if (result.add(dependent)) {
+                queue.addAll(getDependents(dependent));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 查找一个循环依赖，返回依赖路径（首尾相同，比如[a, b, a]），没有循环依赖时返回null
+     */
+    public List<String> findCycle() {
+        Map<String, Integer> states = new HashMap<>();
+        for (String beanName : dependencies.keySet()) {
+            List<String> cycle = findCycle(beanName, states, new ArrayList<>());
+            if (cycle != null) {
+                return cycle;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 存在循环依赖时抛出异常，异常信息中包含完整的依赖路径
+     */
+    public void assertNoCycles() throws BeansException {
+        List<String> cycle = findCycle();
+        if (cycle != null) {
+            throw new BeansException("Circular dependency detected: " + String.join(" -> ", cycle));
+        }
+    }
+
+    /**
+     * 创建顺序：被依赖的bean排在前面
+     */
+    public List<String> getCreationOrder() throws BeansException {
+        assertNoCycles();
+        List<String> order = new ArrayList<>(dependencies.size());
+        Set<String> visited = new HashSet<>();
+        for (String beanName : dependencies.keySet()) {
+            visitDependenciesFirst(beanName, visited, order);
+        }
+        return order;
+    }
+
+    /**
+     * 销毁顺序：依赖方排在前面，即创建顺序的逆序
+     */
+    public List<String> getDestructionOrder() throws BeansException {
+        List<String> order = getCreationOrder();
+        Collections.reverse(order);
+        return order;
+    }
+
+    private void visitDependenciesFirst(String beanName, Set<String> visited, List<String> order) {
+        if (!visited.add(beanName)) {
+            return;
+        }
+        for (String dependency : getDependencies(beanName)) {
+            visitDependenciesFirst(dependency, visited, order);
+        }
+        order.add(beanName);
+    }
+
+    private List<String> findCycle(String beanName, Map<String, Integer> states, List<String> path) {
+        Integer state = states.get(beanName);
+        if (state != null && state == VISITED) {
+            return null;
+        }
+        if (state != null && state == VISITING) {
+            List<String> cycle = new ArrayList<>(path.subList(path.indexOf(beanName), path.size()));
+            cycle.add(beanName);
+            return cycle;
+        }
+        states.put(beanName, VISITING);
+        path.add(beanName);
+        for (String dependency : getDependencies(beanName)) {
+            List<String> cycle = findCycle(dependency, states, path);
+            if (cycle != null) {
+                return cycle;
+            }
+        }
+        path.remove(path.size() - 1);
+        states.put(beanName, VISITED);
+        return null;
+    }
+
+    private static Map<String, Set<String>> freeze(Map<String, Set<String>> source) {
+        Map<String, Set<String>> result = new LinkedHashMap<>(source.size() * 2);
+        for (Map.Entry<String, Set<String>> entry : source.entrySet()) {
+            result.put(entry.getKey(), Collections.unmodifiableSet(new LinkedHashSet<>(entry.getValue())));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Override
+    public String toString() {
+        return "DependencyGraph" + dependencies;
+    }
+
+    public static class Builder {
+
+        private final Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+
+        public Builder addBean(String beanName) {
+            dependencies.computeIfAbsent(beanName, k -> new LinkedHashSet<>());
+            return this;
+        }
+
+        /**
+         * beanName依赖dependsOn
+         */
+        public Builder addDependency(String beanName, String dependsOn) {
+            addBean(dependsOn);
+            dependencies.computeIfAbsent(beanName, k -> new LinkedHashSet<>()).add(dependsOn);
+            return this;
+        }
+
+        public DependencyGraph build() {
+            return new DependencyGraph(dependencies);
+        }
+    }
+}
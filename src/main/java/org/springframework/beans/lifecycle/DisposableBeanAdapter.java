@@ -3,14 +3,19 @@ package org.springframework.beans.lifecycle;
 import cn.hutool.core.util.ClassUtil;
 import cn.hutool.core.util.StrUtil;
 import org.springframework.beans.beandefinition.definition.BeanDefinition;
+import org.springframework.beans.processor.bean.DestructionAwareBeanPostProcessor;
 import org.springframework.core.exception.BeansException;
 
 import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
 
 /**
- * 适配器模式，无论是实现DisposableBean接口还是使用destroy-method属性，都包装成DisposableBean
+ * 适配器模式，无论是实现DisposableBean接口还是使用destroy-method属性，都包装成DisposableBean；
+ * 销毁前先执行{@link DestructionAwareBeanPostProcessor}
+ * 同时实现Runnable，可以直接作为{@link org.springframework.beans.scope.Scope}的销毁回调
  */
-public class DisposableBeanAdapter implements DisposableBean {
+public class DisposableBeanAdapter implements DisposableBean, Runnable {
 
 	private final Object bean;
 
@@ -18,14 +23,43 @@ public class DisposableBeanAdapter implements DisposableBean {
 
 	private final String destroyMethodName;
 
+	private final List<DestructionAwareBeanPostProcessor> beanPostProcessors;
+
 	public DisposableBeanAdapter(Object bean, String beanName, BeanDefinition beanDefinition) {
+		this(bean, beanName, beanDefinition, Collections.emptyList());
+	}
+
+	public DisposableBeanAdapter(Object bean, String beanName, BeanDefinition beanDefinition,
+								 List<DestructionAwareBeanPostProcessor> beanPostProcessors) {
 		this.bean = bean;
 		this.beanName = beanName;
 		this.destroyMethodName = beanDefinition.getDestroyMethodName();
+		this.beanPostProcessors = beanPostProcessors;
+	}
+
+	/**
+	 * 是否需要销毁回调：实现了DisposableBean、配置了destroy-method，或者有后置处理器需要销毁回调
+	 */
+	public static boolean hasDestroyMethod(Object bean, BeanDefinition beanDefinition) {
+		return bean instanceof DisposableBean || StrUtil.isNotEmpty(beanDefinition.getDestroyMethodName());
+	}
+
+	@Override
+	public void run() {
+		try {
+			destroy();
+		} catch (BeansException ex) {
+			throw ex;
+		} catch (Exception ex) {
+			throw new BeansException("Destroy method on bean with name '" + beanName + "' threw an exception", ex);
+		}
 	}
 
 	@Override
 	public void destroy() throws Exception {
+		for (DestructionAwareBeanPostProcessor beanPostProcessor : beanPostProcessors) {
+			beanPostProcessor.postProcessBeforeDestruction(bean, beanName);
+		}
 		if (bean instanceof DisposableBean) {
 			((DisposableBean) bean).destroy();
 		}
@@ -0,0 +1,304 @@
+package org.springframework.beans.lifecycle;
+
+import org.springframework.beans.graph.DependencyGraph;
+import org.springframework.core.exception.BeansException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单例bean的销毁引擎
+ * <p>
+ * - 按依赖关系的逆序销毁：一个bean只有在所有依赖它的bean都销毁之后才会被销毁；
+ * - 互不依赖的bean并行销毁（parallelism > 1 时）；
+ * - 支持单个bean的超时和整体超时：超时的bean记为失败，不再阻塞它依赖的bean；
+ * - 收集所有失败，全部处理完之后再统一抛出，而不是遇到第一个异常就放弃剩下的bean。
+ */
+public class SingletonDestroyer {
+
+    private final int parallelism;
+
+    private final long beanTimeoutMillis;
+
+    private final long totalTimeoutMillis;
+
+    /**
+     * @param parallelism        并行度，1表示串行
+     * @param beanTimeoutMillis  单个bean销毁的超时时间，0表示不限
+     * @param totalTimeoutMillis 整体销毁的超时时间，0表示不限
+     */
+    public SingletonDestroyer(int parallelism, long beanTimeoutMillis, long totalTimeoutMillis) {
+        this.parallelism = Math.max(1, parallelism);
+        this.beanTimeoutMillis = beanTimeoutMillis;
+        this.totalTimeoutMillis = totalTimeoutMillis;
+    }
+
+    /**
+     * 销毁给定的bean，全部处理完毕后如果有失败，抛出一个BeansException（其余失败作为suppressed异常附加）
+     *
+     * @param disposableBeans bean名称 -> 销毁回调
+     * @param graph           依赖图，为null时认为bean之间互不依赖
+     */
+    public void destroy(Map<String, DisposableBean> disposableBeans, DependencyGraph graph) throws BeansException {
+        Schedule schedule = new Schedule(disposableBeans, graph);
+        Map<String, Throwable> failures = new LinkedHashMap<>();
+        if (parallelism == 1 && beanTimeoutMillis <= 0 && totalTimeoutMillis <= 0) {
+            destroySequentially(schedule, failures);
+        } else {
+            destroyConcurrently(schedule, failures);
+        }
+        if (!failures.isEmpty()) {
+            throw toException(failures);
+        }
+    }
+
+    private void destroySequentially(Schedule schedule, Map<String, Throwable> failures) {
+        while (!schedule.isFinished()) {
+            String beanName = schedule.ready.poll();
+            if (beanName == null) {
+                schedule.releaseCycle();
+                continue;
+            }
+            DisposableBean disposableBean = schedule.disposableBeans.get(beanName);
+            if (disposableBean != null) {
+                Throwable failure = invokeDestroy(disposableBean);
+                if (failure != null) {
+                    failures.put(beanName, failure);
+                }
+            }
+            schedule.complete(beanName);
+        }
+    }
+
+    private void destroyConcurrently(Schedule schedule, Map<String, Throwable> failures) {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, new DestroyThreadFactory());
+        BlockingQueue<Completion> completions = new LinkedBlockingQueue<>();
+        Map<String, Future<?>> running = new HashMap<>();
+        Map<String, Long> deadlines = new HashMap<>();
+        long totalDeadline = totalTimeoutMillis > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(totalTimeoutMillis) : Long.MAX_VALUE;
+        try {
+            while (!schedule.isFinished()) {
+                // 提交所有已就绪的bean，不需要销毁的bean直接完成
+                String beanName;
+                while ((beanName = schedule.ready.poll()) != null) {
+                    DisposableBean disposableBean = schedule.disposableBeans.get(beanName);
+                    if (disposableBean == null) {
+                        schedule.complete(beanName);
+                        continue;
+                    }
+                    String name = beanName;
+                    running.put(name, executor.submit(() -> completions.add(new Completion(name, invokeDestroy(disposableBean)))));
+                    if (beanTimeoutMillis > 0) {
+                        deadlines.put(name, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(beanTimeoutMillis));
+                    }
+                }
+                if (schedule.isFinished()) {
+                    break;
+                }
+                if (running.isEmpty()) {
+                    schedule.releaseCycle();
+                    continue;
+                }
+
+                long now = System.nanoTime();
+                if (now >= totalDeadline) {
+                    for (String pending : schedule.remaining()) {
+                        failures.put(pending, new TimeoutException("Bean '" + pending + "' was not destroyed within the shutdown timeout of " + totalTimeoutMillis + "ms"));
+                    }
+                    return;
+                }
+                long waitUntil = totalDeadline;
+                for (long deadline : deadlines.values()) {
+                    waitUntil = Math.min(waitUntil, deadline);
+                }
+
+                Completion completion = waitUntil == Long.MAX_VALUE
+                        ? completions.take()
+                        : completions.poll(Math.max(0, waitUntil - now), TimeUnit.NANOSECONDS);
+                if (completion != null) {
+                    if (running.remove(completion.beanName) != null) {
+                        deadlines.remove(completion.beanName);
+                        if (completion.failure != null) {
+                            failures.put(completion.beanName, completion.failure);
+                        }
+                        schedule.complete(completion.beanName);
+                    }
+                    continue;
+                }
+
+                // 单个bean超时：记为失败并尝试中断，它依赖的bean可以继续销毁
+                now = System.nanoTime();
+                for (String expired : expiredBeans(deadlines, now)) {
+                    deadlines.remove(expired);
+                    running.remove(expired).cancel(true);
+                    failures.put(expired, new TimeoutException("Destroy method on bean with name '" + expired + "' did not complete within " + beanTimeoutMillis + "ms"));
+                    schedule.complete(expired);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            for (String pending : schedule.remaining()) {
+                failures.put(pending, ex);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<String> expiredBeans(Map<String, Long> deadlines, long now) {
+        List<String> expired = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : deadlines.entrySet()) {
+            if (entry.getValue() <= now) {
+                expired.add(entry.getKey());
+            }
+        }
+        return expired;
+    }
+
+    private Throwable invokeDestroy(DisposableBean disposableBean) {
+        try {
+            disposableBean.destroy();
+            return null;
+        } catch (Throwable ex) {
+            return ex;
+        }
+    }
+
+    private BeansException toException(Map<String, Throwable> failures) {
+        Map.Entry<String, Throwable> first = failures.entrySet().iterator().next();
+        BeansException exception;
+        if (failures.size() == 1) {
+            exception = new BeansException("Destroy method on bean with name '" + first.getKey() + "' threw an exception", first.getValue());
+        } else {
+            exception = new BeansException(failures.size() + " beans failed to destroy: " + failures.keySet(), first.getValue());
+            for (Throwable failure : failures.values()) {
+                if (failure != first.getValue()) {
+                    exception.addSuppressed(failure);
+                }
+            }
+        }
+        return exception;
+    }
+
+    /**
+     * 销毁计划：记录每个bean还有多少依赖方未销毁，归零即就绪
+     */
+    private static final class Schedule {
+
+        private final Map<String, DisposableBean> disposableBeans;
+
+        private final DependencyGraph graph;
+
+        private final Map<String, Integer> pendingDependents = new HashMap<>();
+
+        private final Deque<String> ready = new ArrayDeque<>();
+
+        private final Set<String> unfinished = new LinkedHashSet<>();
+
+        private Schedule(Map<String, DisposableBean> disposableBeans, DependencyGraph graph) {
+            this.disposableBeans = disposableBeans;
+            this.graph = graph;
+            Set<String> beanNames = new LinkedHashSet<>(disposableBeans.keySet());
+            if (graph != null) {
+                beanNames.addAll(graph.getBeanNames());
+            }
+            for (String beanName : beanNames) {
+                int dependents = graph != null ? countIn(graph.getDependents(beanName), beanNames) : 0;
+                pendingDependents.put(beanName, dependents);
+                unfinished.add(beanName);
+                if (dependents == 0) {
+                    ready.add(beanName);
+                }
+            }
+        }
+
+        void complete(String beanName) {
+            if (!unfinished.remove(beanName) || graph == null) {
+                return;
+            }
+            for (String dependency : graph.getDependencies(beanName)) {
+                Integer pending = pendingDependents.get(dependency);
+                if (pending != null) {
+                    pendingDependents.put(dependency, pending - 1);
+                    if (pending == 1) {
+                        ready.add(dependency);
+                    }
+                }
+            }
+        }
+
+        /**
+         * 没有就绪的bean却还有bean没销毁，说明剩下的bean之间存在循环依赖（比如运行时记录的依赖），
+         * 此时放开其中一个，避免销毁流程卡死
+         */
+        void releaseCycle() {
+            String beanName = unfinished.iterator().next();
+            pendingDependents.put(beanName, 0);
+            ready.add(beanName);
+        }
+
+        boolean isFinished() {
+            return unfinished.isEmpty();
+        }
+
+        Set<String> remaining() {
+            Set<String> remaining = new LinkedHashSet<>();
+            for (String beanName : unfinished) {
+                if (disposableBeans.containsKey(beanName)) {
+                    remaining.add(beanName);
+                }
+            }
+            return remaining;
+        }
+
+        private static int countIn(Set<String> candidates, Set<String> beanNames) {
+            int count = 0;
+            for (String candidate : candidates) {
+                if (beanNames.contains(candidate)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    private static final class Completion {
+
+        private final String beanName;
+
+        private final Throwable failure;
+
+        private Completion(String beanName, Throwable failure) {
+            this.beanName = beanName;
+            this.failure = failure;
+        }
+    }
+
+    private static final class DestroyThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "dummy-ioc-destroy-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.springframework.beans.metrics;
+
+import org.springframework.beans.beandefinition.definition.BeanDefinition;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BeanFactory的运行指标，由{@link org.springframework.beans.DefaultListableBeanFactory}在getBean/createBean的各条路径上打点。
+ * <p>
+ * getBean按路径计数：
+ * - singletonHits：直接命中单例池
+ * - singletonCreations：单例第一次创建
+ * - prototypeCreations：原型bean每次getBean都会创建
+ * - scopedBeanRequests：自定义作用域（thread、pooled等）的getBean，是否创建由Scope决定
+ * - scopedBeanCreations：Scope决定创建新实例的次数
+ * - byTypeLookups：getBean(Class)、getBeansOfType等按类型查找
+ * <p>
+ * 耗时：
+ * - 每个bean的创建耗时直方图（包含创建它的依赖所花的时间，因为依赖是在populateBean里递归创建的）
+ * - 每个BeanPostProcessor的耗时直方图
+ * <p>
+ * 计数器都是LongAdder，热路径上只有一次无竞争的累加；直方图按名称懒创建，创建后不再有锁。
+ */
+public class BeanFactoryMetrics {
+
+    private final LongAdder singletonHits = new LongAdder();
+
+    private final LongAdder singletonCreations = new LongAdder();
+
+    private final LongAdder prototypeCreations = new LongAdder();
+
+    private final LongAdder scopedBeanRequests = new LongAdder();
+
+    private final LongAdder scopedBeanCreations = new LongAdder();
+
+    private final LongAdder byTypeLookups = new LongAdder();
+
+    private final LongAdder creationFailures = new LongAdder();
+
+    private final LongAdder postProcessorNanos = new LongAdder();
+
+    private final Map<String, LatencyHistogram> creationTimes = new ConcurrentHashMap<>(64);
+
+    private final Map<String, LatencyHistogram> postProcessorTimes = new ConcurrentHashMap<>(16);
+
+    public void recordSingletonHit() {
+        singletonHits.increment();
+    }
+
+    public void recordScopedBeanRequest() {
+        scopedBeanRequests.increment();
+    }
+
+    public void recordByTypeLookup() {
+        byTypeLookups.increment();
+    }
+
+    public void recordCreationFailure() {
+        creationFailures.increment();
+    }
+
+    /**
+     * 记录一次bean创建及其耗时
+     */
+    public void recordCreation(String beanName, BeanDefinition beanDefinition, long nanos) {
+        if (beanDefinition.isSingleton()) {
+            singletonCreations.increment();
+        } else if (beanDefinition.isPrototype()) {
+            prototypeCreations.increment();
+        } else {
+            scopedBeanCreations.increment();
+        }
+        histogram(creationTimes, beanName).record(nanos);
+    }
+
+    /**
+     * 记录一次BeanPostProcessor回调的耗时
+     */
+    public void recordPostProcessor(Object postProcessor, long nanos) {
+        postProcessorNanos.add(nanos);
+        histogram(postProcessorTimes, postProcessor.getClass().getName()).record(nanos);
+    }
+
+    private static LatencyHistogram histogram(Map<String, LatencyHistogram> histograms, String name) {
+        // 先get：绝大多数情况下直方图已存在，避免computeIfAbsent在Java 8上对已存在的key也加锁
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+        }
+        return histogram;
+    }
+
+    public long getSingletonHits() {
+        return singletonHits.sum();
+    }
+
+    public long getSingletonCreations() {
+        return singletonCreations.sum();
+    }
+
+    public long getPrototypeCreations() {
+        return prototypeCreations.sum();
+    }
+
+    public long getScopedBeanRequests() {
+        return scopedBeanRequests.sum();
+    }
+
+    public long getScopedBeanCreations() {
+        return scopedBeanCreations.sum();
+    }
+
+    public long getByTypeLookups() {
+        return byTypeLookups.sum();
+    }
+
+    public long getCreationFailures() {
+        return creationFailures.sum();
+    }
+
+    public long getPostProcessorNanos() {
+        return postProcessorNanos.sum();
+    }
+
+    /**
+     * 每个bean的创建耗时，key是beanName
+     */
+    public Map<String, LatencyHistogram> getCreationTimes() {
+        return Collections.unmodifiableMap(creationTimes);
+    }
+
+    /**
+     * 每个BeanPostProcessor的耗时，key是后置处理器的类名
+     */
+    public Map<String, LatencyHistogram> getPostProcessorTimes() {
+        return Collections.unmodifiableMap(postProcessorTimes);
+    }
+
+    /**
+     * 所有计数器的快照，方便打日志或者导出到其他监控系统
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        snapshot.put("singletonHits", getSingletonHits());
+        snapshot.put("singletonCreations", getSingletonCreations());
+        snapshot.put("prototypeCreations", getPrototypeCreations());
+        snapshot.put("scopedBeanRequests", getScopedBeanRequests());
+        snapshot.put("scopedBeanCreations", getScopedBeanCreations());
+        snapshot.put("byTypeLookups", getByTypeLookups());
+        snapshot.put("creationFailures", getCreationFailures());
+        snapshot.put("postProcessorNanos", getPostProcessorNanos());
+        return snapshot;
+    }
+
+    public void reset() {
+        singletonHits.reset();
+        singletonCreations.reset();
+        prototypeCreations.reset();
+        scopedBeanRequests.reset();
+        scopedBeanCreations.reset();
+        byTypeLookups.reset();
+        creationFailures.reset();
+        postProcessorNanos.reset();
+        creationTimes.clear();
+        postProcessorTimes.clear();
+    }
+}
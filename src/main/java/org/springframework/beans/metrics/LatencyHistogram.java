@@ -0,0 +1,114 @@
+package org.springframework.beans.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 耗时直方图：次数、总耗时、最大耗时，以及按固定区间分桶的次数。
+ * <p>
+ * 全部基于LongAdder/LongAccumulator，多线程并发record时不会争抢同一个CAS，开销只有几次数组写入。
+ * 读到的各项值不是同一时刻的快照（比如count和totalNanos可能差一次），对监控来说足够了。
+ */
+public final class LatencyHistogram {
+
+    /**
+     * 桶的上界（不含）：<0.1ms、<1ms、<10ms、<100ms、<1s，最后一个桶是>=1s
+     */
+    private static final long[] BUCKET_BOUNDS_NANOS = {
+            TimeUnit.MICROSECONDS.toNanos(100),
+            TimeUnit.MILLISECONDS.toNanos(1),
+            TimeUnit.MILLISECONDS.toNanos(10),
+            TimeUnit.MILLISECONDS.toNanos(100),
+            TimeUnit.SECONDS.toNanos(1)
+    };
+
+    private static final String[] BUCKET_LABELS = {"<0.1ms", "<1ms", "<10ms", "<100ms", "<1s", ">=1s"};
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_LABELS.length];
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_NANOS.length && nanos >= BUCKET_BOUNDS_NANOS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public long getMeanNanos() {
+        long n = getCount();
+        return n == 0 ? 0 : getTotalNanos() / n;
+    }
+
+    /**
+     * 各桶的次数，顺序与{@link #getBucketLabels()}一致
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    public static String[] getBucketLabels() {
+        return BUCKET_LABELS.clone();
+    }
+
+    public void reset() {
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("count=").append(getCount())
+                .append(", mean=").append(toMillis(getMeanNanos())).append("ms")
+                .append(", max=").append(toMillis(getMaxNanos())).append("ms")
+                .append(", buckets={");
+        long[] counts = getBucketCounts();
+        for (int i = 0; i < counts.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(BUCKET_LABELS[i]).append('=').append(counts[i]);
+        }
+        return sb.append('}').toString();
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format("%.3f", nanos / 1_000_000.0);
+    }
+}
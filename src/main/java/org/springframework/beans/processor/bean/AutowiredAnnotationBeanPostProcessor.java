@@ -1,27 +1,43 @@
 package org.springframework.beans.processor.bean;
 
-import org.apache.commons.beanutils.BeanUtils;
 import org.springframework.beans.BeanFactory;
 import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.beans.DependencyDescriptor;
 import org.springframework.beans.annotation.Autowired;
-import org.springframework.beans.annotation.Qualifier;
 import org.springframework.beans.annotation.Value;
 import org.springframework.beans.aware.BeanFactoryAware;
-import org.springframework.beans.beandefinition.definition.PropertyValue;
 import org.springframework.beans.beandefinition.definition.PropertyValues;
 import org.springframework.core.exception.BeansException;
 
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
- * 处理@Autowired和@Value注解的BeanPostProcessor
+ * 处理@Autowired和@Value注解的BeanPostProcessor：字段注入、方法注入（setter或任意多参数方法，参数上可以标注@Qualifier/@Value）、构造器注入
  * Spring原版处理方式十分复杂，支持的autowiredAnnotationTypes详见AutowiredAnnotationBeanPostProcessor无参构造
  */
 public class AutowiredAnnotationBeanPostProcessor implements InstantiationAwareBeanPostProcessor, BeanFactoryAware {
 
     private DefaultListableBeanFactory beanFactory;
 
+    /**
+     * 类 -> 注入点，所有同类型的bean共用。注入点只取决于类本身，所以是全局共享的：
+     * 每个BeanFactory（比如成千上万个覆盖层）都有自己的后置处理器实例，但同一个类只解析一次。
+     * 用ClassValue而不是静态Map，类被卸载时缓存随之回收
+     */
+    private static final ClassValue<InjectionMetadata> INJECTION_METADATA = new ClassValue<InjectionMetadata>() {
+        @Override
+        protected InjectionMetadata computeValue(Class<?> type) {
+            return buildInjectionMetadata(type);
+        }
+    };
+
     @Override
     public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
         this.beanFactory = (DefaultListableBeanFactory) beanFactory;
@@ -29,56 +45,82 @@ public class AutowiredAnnotationBeanPostProcessor implements InstantiationAwareB
 
     @Override
     public PropertyValues postProcessProperties(PropertyValues pvs, Object bean, String beanName) throws BeansException {
-
-        Class<?> clazz = bean.getClass();
-        Field[] fields = clazz.getDeclaredFields();
-
-        // 处理@Value注解
+        InjectionMetadata metadata = findInjectionMetadata(bean.getClass());
         try {
-            injectByValue(bean, fields);
-        } catch (Exception ex) {
+            metadata.inject(beanFactory, bean, beanName, pvs);
+        } catch (Throwable ex) {
             throw new BeansException("Error setting property values for bean: " + beanName, ex);
         }
+        return pvs;
+    }
+
+    /**
+     * 每个类的注入点只解析一次：字段和方法上的@Autowired、@Value（包括父类中声明的）
+     */
+    public InjectionMetadata findInjectionMetadata(Class<?> clazz) throws BeansException {
+        return INJECTION_METADATA.get(clazz);
+    }
 
-        // 处理@Autowired注解
+    private static InjectionMetadata buildInjectionMetadata(Class<?> clazz) throws BeansException {
+        List<InjectionMetadata.InjectedElement> elements = new ArrayList<>();
+        Class<?> targetClass = clazz;
         try {
-            injectByAutowired(bean, fields, pvs);
-        } catch (Exception ex) {
-            throw new BeansException("Error setting property values for bean: " + beanName, ex);
+            // 父类的注入点先注入
+            while (targetClass != null && targetClass != Object.class) {
+                List<InjectionMetadata.InjectedElement> currentElements = new ArrayList<>();
+                for (Field field : targetClass.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && isInjectionPoint(field)) {
+                        currentElements.add(new InjectionMetadata.FieldElement(field));
+                    }
+                }
+                for (Method method : targetClass.getDeclaredMethods()) {
+                    if (!Modifier.isStatic(method.getModifiers()) && !method.isBridge() && isInjectionPoint(method)) {
+                        currentElements.add(new InjectionMetadata.MethodElement(method));
+                    }
+                }
+                elements.addAll(0, currentElements);
+                targetClass = targetClass.getSuperclass();
+            }
+        } catch (IllegalAccessException ex) {
+            throw new BeansException("Failed to introspect injection points of class [" + clazz.getName() + "]", ex);
         }
+        return elements.isEmpty() ? InjectionMetadata.EMPTY : new InjectionMetadata(elements);
+    }
 
-        return pvs;
+    private static boolean isInjectionPoint(AnnotatedElement element) {
+        return element.isAnnotationPresent(Autowired.class) || element.isAnnotationPresent(Value.class);
     }
 
-    private void injectByValue(Object bean, Field[] fields) throws InvocationTargetException, IllegalAccessException {
-        for (Field field : fields) {
-            Value valueAnnotation = field.getAnnotation(Value.class);
-            if (valueAnnotation != null) {
-                String value = valueAnnotation.value();
-                value = beanFactory.resolveEmbeddedValue(value);
-                BeanUtils.setProperty(bean, field.getName(), value);
+    /**
+     * 根据@Autowired字段和方法参数预测依赖的bean，找不到唯一候选bean的注入点忽略（真正注入时会报错）
+     */
+    @Override
+    public String[] predictDependencies(Class<?> beanClass, String beanName) throws BeansException {
+        List<String> dependencies = new ArrayList<>();
+        for (InjectionMetadata.InjectedElement element : findInjectionMetadata(beanClass).getInjectedElements()) {
+            for (DependencyDescriptor descriptor : element.getDescriptors()) {
+                dependencies.addAll(Arrays.asList(beanFactory.predictDependencyCandidates(descriptor, beanName)));
             }
         }
+        return dependencies.toArray(new String[0]);
     }
 
-    private void injectByAutowired(Object bean, Field[] fields, PropertyValues pvs) throws InvocationTargetException, IllegalAccessException {
-        for (Field field : fields) {
-            Autowired autowiredAnnotation = field.getAnnotation(Autowired.class);
-            if (autowiredAnnotation != null) {
-                Class<?> fieldType = field.getType();
-                Qualifier qualifierAnnotation = field.getAnnotation(Qualifier.class);
-                Object dependentBean;
-                if (qualifierAnnotation != null) {
-                    String dependentBeanName = qualifierAnnotation.value();
-                    dependentBean = beanFactory.getBean(dependentBeanName, fieldType);
-                } else {
-                    dependentBean = beanFactory.getBean(fieldType);
-                }
-
-                BeanUtils.setProperty(bean, field.getName(), dependentBean);
-                pvs.addPropertyValue(new PropertyValue(field.getName(), dependentBean));
+    /**
+     * 标注了@Autowired的构造器，由BeanFactory按类型（或@Qualifier、@Value）解析参数后调用
+     */
+    @Override
+    public Constructor<?>[] determineCandidateConstructors(Class<?> beanClass, String beanName) throws BeansException {
+        List<Constructor<?>> candidates = new ArrayList<>();
+        for (Constructor<?> constructor : beanClass.getDeclaredConstructors()) {
+            if (constructor.getAnnotation(Autowired.class) != null) {
+                candidates.add(constructor);
             }
         }
+        if (candidates.size() > 1) {
+            throw new BeansException("Invalid autowire-marked constructors on bean class [" + beanClass.getName()
+                    + "]: only one constructor may be annotated with @Autowired, found " + candidates);
+        }
+        return candidates.isEmpty() ? null : candidates.toArray(new Constructor<?>[0]);
     }
 
     @Override
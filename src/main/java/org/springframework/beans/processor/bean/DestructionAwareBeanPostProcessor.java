@@ -0,0 +1,22 @@
+package org.springframework.beans.processor.bean;
+
+import org.springframework.core.exception.BeansException;
+
+/**
+ * BeanPostProcessor扩展，额外关注【bean销毁】：在bean的destroy方法之前执行，
+ * 用于撤销后置处理器在初始化阶段为bean做的登记（比如注册到事件发布器上的监听器）
+ */
+public interface DestructionAwareBeanPostProcessor extends BeanPostProcessor {
+
+    /**
+     * 在bean销毁之前执行（单例销毁、自定义作用域结束）
+     */
+    void postProcessBeforeDestruction(Object bean, String beanName) throws BeansException;
+
+    /**
+     * 该bean是否需要本处理器的销毁回调，返回false时不会为它登记销毁回调
+     */
+    default boolean requiresDestruction(Object bean) {
+        return true;
+    }
+}
@@ -0,0 +1,179 @@
+package org.springframework.beans.processor.bean;
+
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.beans.DependencyDescriptor;
+import org.springframework.beans.annotation.Value;
+import org.springframework.beans.beandefinition.definition.PropertyValue;
+import org.springframework.beans.beandefinition.definition.PropertyValues;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 一个类的注入点（@Autowired/@Value字段和方法），每个类只解析一次，之后所有该类型的bean共用
+ * <p>
+ * 解析时就把字段/方法转换成MethodHandle、把参数注解转换成{@link DependencyDescriptor}，
+ * 注入时不再做任何反射查找和注解读取，方法注入和字段注入的开销基本一样
+ */
+public class InjectionMetadata {
+
+    public static final InjectionMetadata EMPTY = new InjectionMetadata(Collections.emptyList());
+
+    private final List<InjectedElement> injectedElements;
+
+    public InjectionMetadata(List<InjectedElement> injectedElements) {
+        this.injectedElements = Collections.unmodifiableList(new ArrayList<>(injectedElements));
+    }
+
+    public List<InjectedElement> getInjectedElements() {
+        return injectedElements;
+    }
+
+    public boolean isEmpty() {
+        return injectedElements.isEmpty();
+    }
+
+    public void inject(DefaultListableBeanFactory beanFactory, Object bean, String beanName, PropertyValues pvs) throws Throwable {
+        for (InjectedElement element : injectedElements) {
+            element.inject(beanFactory, bean, beanName, pvs);
+        }
+    }
+
+    /**
+     * 一个注入点：字段或方法
+     */
+    public abstract static class InjectedElement {
+
+        /**
+         * 注入点需要的依赖，字段只有一个，方法每个参数一个
+         */
+        public abstract DependencyDescriptor[] getDescriptors();
+
+        protected abstract void inject(DefaultListableBeanFactory beanFactory, Object bean, String beanName, PropertyValues pvs) throws Throwable;
+    }
+
+    /**
+     * 字段注入：setter形式的MethodHandle，类型已适配为(Object, Object)void，可以直接invokeExact。
+     * int、long、double类型的@Value字段走基本类型的快速路径：字符串直接解析成基本类型写入，不经过装箱
+     */
+    public static class FieldElement extends InjectedElement {
+
+        private static final int OBJECT = 0;
+
+        private static final int INT = 1;
+
+        private static final int LONG = 2;
+
+        private static final int DOUBLE = 3;
+
+        private final Field field;
+
+        private final MethodHandle setter;
+
+        private final int primitiveKind;
+
+        private final DependencyDescriptor[] descriptors;
+
+        public FieldElement(Field field) throws IllegalAccessException {
+            this.field = field;
+            field.setAccessible(true);
+            this.descriptors = new DependencyDescriptor[]{DependencyDescriptor.forAnnotatedElement(field.getType(),
+                    field.getGenericType(), field.getAnnotations(), "field '" + field.getName() + "' of " + field.getDeclaringClass().getName())};
+            MethodHandle handle = MethodHandles.lookup().unreflectSetter(field);
+            Class<?> fieldType = field.getType();
+            boolean valueInjection = descriptors[0].getValueExpression() != null;
+            if (valueInjection && fieldType == int.class) {
+                this.primitiveKind = INT;
+            } else if (valueInjection && fieldType == long.class) {
+                this.primitiveKind = LONG;
+            } else if (valueInjection && fieldType == double.class) {
+                this.primitiveKind = DOUBLE;
+            } else {
+                this.primitiveKind = OBJECT;
+            }
+            Class<?> setterValueType = primitiveKind == OBJECT ? Object.class : fieldType;
+            this.setter = handle.asType(MethodType.methodType(void.class, Object.class, setterValueType));
+        }
+
+        @Override
+        public DependencyDescriptor[] getDescriptors() {
+            return descriptors;
+        }
+
+        @Override
+        protected void inject(DefaultListableBeanFactory beanFactory, Object bean, String beanName, PropertyValues pvs) throws Throwable {
+            DependencyDescriptor descriptor = descriptors[0];
+            switch (primitiveKind) {
+                case INT:
+                    setter.invokeExact(bean, beanFactory.getConversionService().convertToInt(beanFactory.resolveEmbeddedValue(descriptor.getValueExpression())));
+                    return;
+                case LONG:
+                    setter.invokeExact(bean, beanFactory.getConversionService().convertToLong(beanFactory.resolveEmbeddedValue(descriptor.getValueExpression())));
+                    return;
+                case DOUBLE:
+                    setter.invokeExact(bean, beanFactory.getConversionService().convertToDouble(beanFactory.resolveEmbeddedValue(descriptor.getValueExpression())));
+                    return;
+                default:
+                    Object value = beanFactory.resolveDependency(descriptor, beanName);
+                    setter.invokeExact(bean, value);
+                    if (descriptor.getValueExpression() == null) {
+                        pvs.addPropertyValue(new PropertyValue(field.getName(), value));
+                    }
+            }
+        }
+    }
+
+    /**
+     * 方法注入：任意参数个数的方法，MethodHandle已展开为(Object, Object[])Object
+     */
+    public static class MethodElement extends InjectedElement {
+
+        private final MethodHandle invoker;
+
+        private final DependencyDescriptor[] descriptors;
+
+        public MethodElement(Method method) throws IllegalAccessException {
+            method.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            this.invoker = handle.asType(handle.type().generic())
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+
+            // 方法上的@Value作用于唯一的参数，参数上的注解优先
+            Value methodValue = method.getAnnotation(Value.class);
+            Parameter[] parameters = method.getParameters();
+            this.descriptors = new DependencyDescriptor[parameters.length];
+            for (int i = 0; i < parameters.length; i++) {
+                Parameter parameter = parameters[i];
+                DependencyDescriptor descriptor = DependencyDescriptor.forAnnotatedElement(parameter.getType(), parameter.getParameterizedType(),
+                        parameter.getAnnotations(), "parameter " + i + " of method '" + method.getName() + "' of " + method.getDeclaringClass().getName());
+                if (methodValue != null && descriptor.getValueExpression() == null) {
+                    descriptor = new DependencyDescriptor(descriptor.getDependencyType(), descriptor.getGenericType(),
+                            descriptor.getQualifier(), methodValue.value(), descriptor.toString());
+                }
+                this.descriptors[i] = descriptor;
+            }
+        }
+
+        @Override
+        public DependencyDescriptor[] getDescriptors() {
+            return descriptors;
+        }
+
+        @Override
+        protected void inject(DefaultListableBeanFactory beanFactory, Object bean, String beanName, PropertyValues pvs) throws Throwable {
+            Object[] args = new Object[descriptors.length];
+            for (int i = 0; i < descriptors.length; i++) {
+                args[i] = beanFactory.resolveDependency(descriptors[i], beanName);
+            }
+            Object ignored = invoker.invokeExact(bean, args);
+        }
+    }
+}
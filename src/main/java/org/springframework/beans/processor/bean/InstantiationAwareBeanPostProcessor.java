@@ -4,19 +4,39 @@ import org.springframework.beans.beandefinition.definition.PropertyValues;
 import org.springframework.core.common.Nullable;
 import org.springframework.core.exception.BeansException;
 
+import java.lang.reflect.Constructor;
+
 /**
  * BeanPostProcessor扩展，额外关注【bean实例化】前后的操作，以及Bean属性操作
  */
 public interface InstantiationAwareBeanPostProcessor extends BeanPostProcessor {
 
     /**
-     * 在bean实例化之前执行
+     * 是否处理该类型的bean的{@link #postProcessBeforeInstantiation}。BeanFactory按类缓存结果，
+     * 只会对返回true的类型调用postProcessBeforeInstantiation。默认不处理：提供实例的处理器需要覆盖该方法，
+     * 并且只对自己关心的类型返回true
+     */
+    default boolean supportsBeforeInstantiation(Class<?> beanClass) {
+        return false;
+    }
+
+    /**
+     * 在bean实例化之前执行，返回非null时该对象直接作为bean（比如缓存、池化的实例），跳过实例化、属性填充和初始化方法，
+     * 只会再执行postProcessAfterInitialization
      */
     @Nullable
     default Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) throws BeansException {
         return null;
     }
 
+    /**
+     * 决定bean实例化时使用的候选构造器，返回null表示不干预（交给BeanFactory决定）
+     */
+    @Nullable
+    default Constructor<?>[] determineCandidateConstructors(Class<?> beanClass, String beanName) throws BeansException {
+        return null;
+    }
+
     /**
      * bean实例化之后，设置属性之前执行
      */
@@ -32,4 +52,11 @@ public interface InstantiationAwareBeanPostProcessor extends BeanPostProcessor {
         return null;
     }
 
+    /**
+     * 预测bean在属性填充阶段会依赖哪些bean，用于构建依赖图（不会触发bean的创建）
+     */
+    default String[] predictDependencies(Class<?> beanClass, String beanName) throws BeansException {
+        return new String[0];
+    }
+
 }
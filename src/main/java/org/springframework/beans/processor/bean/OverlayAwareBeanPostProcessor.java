@@ -0,0 +1,18 @@
+package org.springframework.beans.processor.bean;
+
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.core.common.Nullable;
+
+/**
+ * 与所在BeanFactory（或上下文）绑定的后置处理器。
+ * 覆盖层（{@link DefaultListableBeanFactory#createOverlay()}）默认直接共享模板里不是bean的后置处理器实例，
+ * 实现该接口的处理器改为由它自己决定给覆盖层用什么
+ */
+public interface OverlayAwareBeanPostProcessor extends BeanPostProcessor {
+
+    /**
+     * 返回覆盖层使用的处理器（可以是新的实例），返回null表示覆盖层不使用该处理器
+     */
+    @Nullable
+    BeanPostProcessor forOverlay(DefaultListableBeanFactory overlay);
+}
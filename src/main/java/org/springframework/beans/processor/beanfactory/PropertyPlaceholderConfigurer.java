@@ -2,14 +2,19 @@ package org.springframework.beans.processor.beanfactory;
 
 import org.springframework.beans.DefaultListableBeanFactory;
 import org.springframework.beans.beandefinition.definition.BeanDefinition;
+import org.springframework.beans.beandefinition.definition.ConstructorArgumentValues;
 import org.springframework.beans.beandefinition.definition.PropertyValue;
 import org.springframework.beans.beandefinition.definition.PropertyValues;
 import org.springframework.core.StringValueResolver;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.env.PropertyResolver;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.PropertySourcesPropertyResolver;
+import org.springframework.core.env.ResourcePropertySource;
+import org.springframework.core.env.SystemEnvironmentPropertySource;
 import org.springframework.core.exception.BeansException;
-import org.springframework.core.io.DefaultResourceLoader;
-import org.springframework.core.io.Resource;
 
-import java.io.IOException;
 import java.util.Properties;
 
 /**
@@ -18,116 +23,203 @@ import java.util.Properties;
  * 在Spring中这个类已经废弃，被PropertyPlaceholderBeanDefinitionParser取代。
  * 基于XML开发时，可以使用<context:property-placeholder>标签来加载属性文件，本质上就是注册一个
  * PropertyPlaceholderBeanDefinitionParser（详见ContextNamespaceHandler）
+ * <p>
+ * 占位符的值来自一个有序的属性源栈{@link MutablePropertySources}，默认优先级从高到低为：
+ * - 内存中的properties（setProperties）
+ * - properties文件（setLocations，后面的文件覆盖前面的文件）
+ * - 系统属性（System.getProperties()）
+ * - 环境变量（System.getenv()）
+ * 系统属性的优先级可以通过{@link #setSystemPropertiesMode(int)}调整。
  */
 public class PropertyPlaceholderConfigurer implements BeanFactoryPostProcessor {
 
-    public static final String PLACEHOLDER_PREFIX = "${";
+    public static final String PLACEHOLDER_PREFIX = PropertySourcesPropertyResolver.PLACEHOLDER_PREFIX;
+
+    public static final String PLACEHOLDER_SUFFIX = PropertySourcesPropertyResolver.PLACEHOLDER_SUFFIX;
 
-    public static final String PLACEHOLDER_SUFFIX = "}";
+    public static final String LOCAL_PROPERTIES_PROPERTY_SOURCE_NAME = "localProperties";
+
+    /**
+     * 不使用系统属性
+     */
+    public static final int SYSTEM_PROPERTIES_MODE_NEVER = 0;
+
+    /**
+     * 系统属性作为兜底（默认）
+     */
+    public static final int SYSTEM_PROPERTIES_MODE_FALLBACK = 1;
+
+    /**
+     * 系统属性覆盖配置文件
+     */
+    public static final int SYSTEM_PROPERTIES_MODE_OVERRIDE = 2;
 
     /**
      * properties文件路径
      */
-    private String location;
+    private String[] locations;
+
+    /**
+     * 内存中的属性，优先级高于properties文件
+     */
+    private Properties localProperties;
+
+    private int systemPropertiesMode = SYSTEM_PROPERTIES_MODE_FALLBACK;
+
+    private boolean searchSystemEnvironment = true;
+
+    /**
+     * 外部直接指定的属性源栈，指定后忽略上面的配置
+     */
+    private MutablePropertySources propertySources;
+
+    private PropertySourcesPropertyResolver propertyResolver;
 
     @Override
     public void postProcessBeanFactory(DefaultListableBeanFactory beanFactory) throws BeansException {
-        // 加载指定的properties配置文件
-        Properties properties = loadProperties();
+        // 再次执行时（比如增量刷新）properties文件可能已经修改，重新读取。属性源栈是共享的，
+        // 之前注册到BeanFactory中的StringValueResolver也会看到新的值
+        boolean reload = this.propertySources != null;
+        MutablePropertySources sources = getPropertySources();
+        if (reload) {
+            for (PropertySource<?> propertySource : sources) {
+                if (propertySource instanceof ResourcePropertySource) {
+                    ((ResourcePropertySource) propertySource).reload();
+                }
+            }
+        }
+        // 组装属性源栈，并合并成索引（之后每个占位符只需一次哈希查找）
+        PropertySourcesPropertyResolver resolver = new PropertySourcesPropertyResolver(sources);
+        resolver.buildIndex();
+        this.propertyResolver = resolver;
 
         // 遍历BeanDefinition，将BeanDefinition.property中的${}占位符替换成实际值，比如 author=${author} 替换成 author=Rod Johnson
-        processProperties(beanFactory, properties);
-        
+        processProperties(beanFactory, resolver);
+
         // 上面的功能牛逼吧？
         // 但当前方法仅在ApplicationContext#refresh时执行一次，后面想用也没法用了
         // 所以，Spring把整个解析逻辑封装到PlaceholderResolvingStringValueResolver（内部类），注册到BeanFactory中，后续想用就可以用
-        StringValueResolver valueResolver = new PlaceholderResolvingStringValueResolver(properties);
+        StringValueResolver valueResolver = new PlaceholderResolvingStringValueResolver(resolver);
         beanFactory.addEmbeddedValueResolver(valueResolver);
     }
 
-    private void processProperties(DefaultListableBeanFactory beanFactory, Properties properties) {
+    private void processProperties(DefaultListableBeanFactory beanFactory, PropertyResolver resolver) {
         String[] beanDefinitionNames = beanFactory.getBeanDefinitionNames();
         for (String beanDefinitionName : beanDefinitionNames) {
             BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanDefinitionName);
-            resolvePropertyValues(beanDefinition, properties);
+            resolvePropertyValues(beanDefinition, resolver);
         }
     }
 
-    private void resolvePropertyValues(BeanDefinition beanDefinition, Properties properties) {
+    private void resolvePropertyValues(BeanDefinition beanDefinition, PropertyResolver resolver) {
         PropertyValues propertyValues = beanDefinition.getPropertyValues();
-        for (PropertyValue propertyValue : propertyValues.getPropertyValues()) {
+        for (int i = 0; i < propertyValues.size(); i++) {
+            PropertyValue propertyValue = propertyValues.get(i);
             Object value = propertyValue.getValue();
             if (value instanceof String) {
-                value = resolvePlaceholders((String)value, properties);
-                propertyValues.addPropertyValue(new PropertyValue(propertyValue.getName(), value));
+                String resolved = resolver.resolveRequiredPlaceholders((String) value);
+                if (!resolved.equals(value)) {
+                    propertyValues.addPropertyValue(new PropertyValue(propertyValue.getName(), resolved));
+                }
             }
         }
+        // <constructor-arg value="${...}"/>
+        if (!beanDefinition.hasConstructorArgumentValues()) {
+            return;
+        }
+        ConstructorArgumentValues argumentValues = beanDefinition.getConstructorArgumentValues();
+        for (ConstructorArgumentValues.ValueHolder valueHolder : argumentValues.getIndexedArgumentValues().values()) {
+            resolveArgumentValue(valueHolder, resolver);
+        }
+        for (ConstructorArgumentValues.ValueHolder valueHolder : argumentValues.getGenericArgumentValues()) {
+            resolveArgumentValue(valueHolder, resolver);
+        }
     }
 
-    /**
-     * 先解析属性值中的占位符：比如解析${author}得到author 再把author作为key，从properties配置中获取对应的值 最后返回真实的value
-     */
-    private Object resolvePlaceholders(String value, Properties properties) {
-        StringBuilder buf = new StringBuilder(value);
-        int startIndex = value.indexOf(PLACEHOLDER_PREFIX);
-        int endIndex = value.indexOf(PLACEHOLDER_SUFFIX);
-        if (startIndex != -1 && endIndex != -1 && startIndex < endIndex) {
-            String placeholder = value.substring(startIndex + PLACEHOLDER_PREFIX.length(), endIndex);
-            String propVal = properties.getProperty(placeholder);
-            buf.replace(startIndex, endIndex + PLACEHOLDER_SUFFIX.length(), propVal);
+    private void resolveArgumentValue(ConstructorArgumentValues.ValueHolder valueHolder, PropertyResolver resolver) {
+        if (valueHolder.getValue() instanceof String) {
+            valueHolder.setValue(resolver.resolveRequiredPlaceholders((String) valueHolder.getValue()));
         }
-        return buf.toString();
     }
 
     public void setLocation(String location) {
-        this.location = location;
+        this.locations = new String[]{location};
+    }
+
+    public void setLocations(String[] locations) {
+        this.locations = locations;
+    }
+
+    public void setProperties(Properties properties) {
+        this.localProperties = properties;
+    }
+
+    public void setSystemPropertiesMode(int systemPropertiesMode) {
+        this.systemPropertiesMode = systemPropertiesMode;
+    }
+
+    public void setSearchSystemEnvironment(boolean searchSystemEnvironment) {
+        this.searchSystemEnvironment = searchSystemEnvironment;
+    }
+
+    public void setPropertySources(MutablePropertySources propertySources) {
+        this.propertySources = propertySources;
     }
 
     /**
-     * 加载属性配置文件
+     * 返回属性源栈，调用方可以继续添加或修改属性源，索引会在下一次解析时自动重建
      */
-    private Properties loadProperties() {
-        try {
-            DefaultResourceLoader resourceLoader = new DefaultResourceLoader();
-            Resource resource = resourceLoader.getResource(location);
-            Properties properties = new Properties();
-            properties.load(resource.getInputStream());
-            return properties;
-        } catch (IOException e) {
-            throw new BeansException("Could not load properties", e);
+    public MutablePropertySources getPropertySources() {
+        if (this.propertySources == null) {
+            this.propertySources = createPropertySources();
         }
+        return this.propertySources;
     }
 
     /**
-     * 将PropertyPlaceholderConfigurer.this.resolvePlaceholder的逻辑封装成一个StringValueResolver
+     * postProcessBeanFactory执行之后才可用
      */
-    private class PlaceholderResolvingStringValueResolver implements StringValueResolver {
-
-        private final Properties properties;
+    public PropertyResolver getPropertyResolver() {
+        return propertyResolver;
+    }
 
-        public PlaceholderResolvingStringValueResolver(Properties properties) {
-            this.properties = properties;
+    private MutablePropertySources createPropertySources() {
+        MutablePropertySources sources = new MutablePropertySources();
+        PropertiesPropertySource systemProperties = PropertiesPropertySource.forSystemProperties();
+        if (systemPropertiesMode == SYSTEM_PROPERTIES_MODE_OVERRIDE) {
+            sources.addLast(systemProperties);
         }
-
-        public String resolveStringValue(String strVal) throws BeansException {
-            return PropertyPlaceholderConfigurer.this.resolvePlaceholder(strVal, properties);
+        if (localProperties != null) {
+            sources.addLast(new PropertiesPropertySource(LOCAL_PROPERTIES_PROPERTY_SOURCE_NAME, localProperties));
+        }
+        if (locations != null) {
+            // 后面的文件覆盖前面的文件
+            for (int i = locations.length - 1; i >= 0; i--) {
+                sources.addLast(new ResourcePropertySource(locations[i]));
+            }
+        }
+        if (systemPropertiesMode == SYSTEM_PROPERTIES_MODE_FALLBACK) {
+            sources.addLast(systemProperties);
         }
+        if (searchSystemEnvironment) {
+            sources.addLast(new SystemEnvironmentPropertySource());
+        }
+        return sources;
     }
 
     /**
-     * 先解析属性值中的占位符：比如解析${author}得到author
-     * 再把author作为key，从properties配置中获取对应的值
-     * 最后返回真实的value
+     * 将属性源栈的占位符解析逻辑封装成一个StringValueResolver
      */
-    private String resolvePlaceholder(String value, Properties properties) {
-        StringBuilder buf = new StringBuilder(value);
-        int startIndex = value.indexOf(PLACEHOLDER_PREFIX);
-        int endIndex = value.indexOf(PLACEHOLDER_SUFFIX);
-        if (startIndex != -1 && endIndex != -1 && startIndex < endIndex) {
-            String propKey = value.substring(startIndex + 2, endIndex);
-            String propVal = properties.getProperty(propKey);
-            buf.replace(startIndex, endIndex + 1, propVal);
+    private static class PlaceholderResolvingStringValueResolver implements StringValueResolver {
+
+        private final PropertyResolver resolver;
+
+        public PlaceholderResolvingStringValueResolver(PropertyResolver resolver) {
+            this.resolver = resolver;
+        }
+
+        public String resolveStringValue(String strVal) throws BeansException {
+            return resolver.resolveRequiredPlaceholders(strVal);
         }
-        return buf.toString();
     }
 }
@@ -0,0 +1,14 @@
+package org.springframework.beans.scope;
+
+import org.springframework.core.exception.BeansException;
+
+/**
+ * 对象工厂：延迟创建对象。{@link Scope}通过它向BeanFactory请求创建一个新的bean实例
+ *
+ * @param <T> 对象类型
+ */
+@FunctionalInterface
+public interface ObjectFactory<T> {
+
+    T getObject() throws BeansException;
+}
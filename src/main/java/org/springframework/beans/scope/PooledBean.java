@@ -0,0 +1,51 @@
+package org.springframework.beans.scope;
+
+import org.springframework.beans.DefaultListableBeanFactory;
+
+/**
+ * 从{@link PooledScope}借出的实例句柄，close时归还到池中，配合try-with-resources使用：
+ * <pre>
+ * try (PooledBean&lt;Parser&gt; parser = beanFactory.borrowBean("parser", Parser.class)) {
+ *     parser.get().parse(input);
+ * }
+ * </pre>
+ *
+ * @param <T> bean类型
+ */
+public final class PooledBean<T> implements AutoCloseable {
+
+    private final DefaultListableBeanFactory beanFactory;
+
+    private final String beanName;
+
+    private T bean;
+
+    public PooledBean(DefaultListableBeanFactory beanFactory, String beanName, T bean) {
+        this.beanFactory = beanFactory;
+        this.beanName = beanName;
+        this.bean = bean;
+    }
+
+    public T get() {
+        if (bean == null) {
+            throw new IllegalStateException("Pooled bean '" + beanName + "' has already been released");
+        }
+        return bean;
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+
+    /**
+     * 归还实例，重复调用无副作用
+     */
+    @Override
+    public void close() {
+        if (bean != null) {
+            T released = bean;
+            bean = null;
+            beanFactory.releaseBean(beanName, released);
+        }
+    }
+}
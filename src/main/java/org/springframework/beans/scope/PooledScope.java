@@ -0,0 +1,247 @@
+package org.springframework.beans.scope;
+
+import org.springframework.beans.lifecycle.DisposableBean;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 池化作用域：每个bean维护一个有界的空闲实例池，getBean从池中借出实例，用完后归还，适合持有本地缓冲区、解析器这类构建成本高的对象。
+ * <p>
+ * - 借出/归还：通过{@link org.springframework.beans.DefaultListableBeanFactory#borrowBean(String, Class)}获得一个{@link PooledBean}，
+ *   配合try-with-resources自动归还；也可以直接getBean，用完后调用releaseBean归还；
+ * - 无锁：空闲实例存放在固定长度的数组槽位中，借出和归还都只是一次CAS，池空时才创建新实例；
+ * - 预热：容器refresh时为每个池化bean预先创建minIdle个实例；
+ * - 驱逐：归还时池已满，或者容器关闭时，实例会被驱逐并执行销毁回调（DisposableBean、destroy-method）；
+ * - 不持有借出的实例：销毁回调和实例一起存放在空闲槽位里，借出时一并取走，归还时由调用方重新提供
+ *   （BeanFactory根据BeanDefinition重新生成）。借出后没有归还的实例不会被作用域引用，可以被正常回收，但也不会执行销毁回调。
+ * <p>
+ * minIdle/maxIdle默认对作用域中的所有bean生效（minIdle默认为0，即不预热），
+ * 需要为某个bean单独配置时，在创建它的池之前调用{@link #setPoolSize(String, int, int)}。
+ */
+public class PooledScope implements Scope, DisposableBean {
+
+    public static final String SCOPE_NAME = "pooled";
+
+    public static final int DEFAULT_MIN_IDLE = 0;
+
+    public static final int DEFAULT_MAX_IDLE = 8;
+
+    private final int minIdle;
+
+    private final int maxIdle;
+
+    private final Map<String, BeanPool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * 单独配置的池大小：bean名称 -> {minIdle, maxIdle}
+     */
+    private final Map<String, int[]> poolSizes = new ConcurrentHashMap<>();
+
+    /**
+     * 创建实例时，BeanFactory在同一线程内回调registerDestructionCallback，先暂存在这里
+     */
+    private final ThreadLocal<Runnable> pendingDestructionCallback = new ThreadLocal<>();
+
+    public PooledScope() {
+        this(DEFAULT_MIN_IDLE, DEFAULT_MAX_IDLE);
+    }
+
+    /**
+     * @param minIdle 容器refresh时预热的实例数
+     * @param maxIdle 池中最多保留的空闲实例数，超出的实例归还时被销毁
+     */
+    public PooledScope(int minIdle, int maxIdle) {
+        checkPoolSize(minIdle, maxIdle);
+        this.minIdle = minIdle;
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * 为单个bean配置池大小，覆盖作用域的默认值。必须在该bean的池创建之前（第一次getBean或预热之前）调用
+     */
+    public void setPoolSize(String name, int minIdle, int maxIdle) {
+        checkPoolSize(minIdle, maxIdle);
+        if (pools.containsKey(name)) {
+            throw new IllegalStateException("Pool of bean '" + name + "' has already been created");
+        }
+        poolSizes.put(name, new int[]{minIdle, maxIdle});
+    }
+
+    private static void checkPoolSize(int minIdle, int maxIdle) {
+        if (maxIdle < 1 || minIdle < 0 || minIdle > maxIdle) {
+            throw new IllegalArgumentException("Invalid pool size: minIdle=" + minIdle + ", maxIdle=" + maxIdle);
+        }
+    }
+
+    /**
+     * 借出一个实例，池空时创建新实例。借出的实例连同销毁回调一起离开池子
+     */
+    @Override
+    public Object get(String name, ObjectFactory<?> objectFactory) {
+        IdleInstance idle = getPool(name).poll();
+        return idle != null ? idle.bean : create(objectFactory).bean;
+    }
+
+    /**
+     * 归还实例，池已满时驱逐（销毁）该实例
+     *
+     * @param destructionCallback 实例的销毁回调，没有时为null
+     */
+    public void release(String name, Object bean, Runnable destructionCallback) {
+        IdleInstance instance = new IdleInstance(bean, destructionCallback);
+        if (!getPool(name).offer(instance)) {
+            instance.evict();
+        }
+    }
+
+    /**
+     * 预热：补足minIdle个空闲实例
+     */
+    public void prewarm(String name, ObjectFactory<?> objectFactory) {
+        BeanPool pool = getPool(name);
+        while (pool.idleCount() < pool.minIdle) {
+            IdleInstance instance = create(objectFactory);
+            if (!pool.offer(instance)) {
+                instance.evict();
+                return;
+            }
+        }
+    }
+
+    public int getIdleCount(String name) {
+        BeanPool pool = pools.get(name);
+        return pool != null ? pool.idleCount() : 0;
+    }
+
+    /**
+     * 丢弃该bean的池（不执行销毁回调）
+     */
+    @Override
+    public Object remove(String name) {
+        pools.remove(name);
+        return null;
+    }
+
+    @Override
+    public void registerDestructionCallback(String name, Runnable callback) {
+        pendingDestructionCallback.set(callback);
+    }
+
+    /**
+     * 驱逐所有空闲实例，一般在容器关闭时调用。仍被借出的实例会在归还时销毁
+     */
+    @Override
+    public void destroy() {
+        RuntimeException failure = null;
+        for (BeanPool pool : pools.values()) {
+            pool.closed = true;
+            IdleInstance instance;
+            while ((instance = pool.poll()) != null) {
+                try {
+                    instance.evict();
+                } catch (RuntimeException ex) {
+                    if (failure == null) {
+                        failure = ex;
+                    }
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private BeanPool getPool(String name) {
+        BeanPool pool = pools.get(name);
+        if (pool == null) {
+            pool = pools.computeIfAbsent(name, k -> {
+                int[] size = poolSizes.get(k);
+                return size != null ? new BeanPool(size[0], size[1]) : new BeanPool(minIdle, maxIdle);
+            });
+        }
+        return pool;
+    }
+
+    private IdleInstance create(ObjectFactory<?> objectFactory) {
+        pendingDestructionCallback.remove();
+        try {
+            Object bean = objectFactory.getObject();
+            // 销毁回调在doCreateBean的最后登记，依赖的其他池化bean此时已创建完毕，不会互相覆盖
+            return new IdleInstance(bean, pendingDestructionCallback.get());
+        } finally {
+            pendingDestructionCallback.remove();
+        }
+    }
+
+    /**
+     * 单个bean的实例池
+     */
+    private static final class BeanPool {
+
+        private final int minIdle;
+
+        private final AtomicReferenceArray<IdleInstance> slots;
+
+        private volatile boolean closed;
+
+        private BeanPool(int minIdle, int maxIdle) {
+            this.minIdle = minIdle;
+            this.slots = new AtomicReferenceArray<>(maxIdle);
+        }
+
+        IdleInstance poll() {
+            for (int i = 0; i < slots.length(); i++) {
+                IdleInstance instance = slots.get(i);
+                if (instance != null && slots.compareAndSet(i, instance, null)) {
+                    return instance;
+                }
+            }
+            return null;
+        }
+
+        boolean offer(IdleInstance instance) {
+            if (closed) {
+                return false;
+            }
+            for (int i = 0; i < slots.length(); i++) {
+                if (slots.get(i) == null && slots.compareAndSet(i, null, instance)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int idleCount() {
+            int count = 0;
+            for (int i = 0; i < slots.length(); i++) {
+                if (slots.get(i) != null) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * 空闲实例及其销毁回调
+     */
+    private static final class IdleInstance {
+
+        private final Object bean;
+
+        private final Runnable destructionCallback;
+
+        private IdleInstance(Object bean, Runnable destructionCallback) {
+            this.bean = bean;
+            this.destructionCallback = destructionCallback;
+        }
+
+        void evict() {
+            if (destructionCallback != null) {
+                destructionCallback.run();
+            }
+        }
+    }
+}
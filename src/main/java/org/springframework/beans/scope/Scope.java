@@ -0,0 +1,30 @@
+package org.springframework.beans.scope;
+
+import org.springframework.beans.DefaultListableBeanFactory;
+
+/**
+ * 作用域SPI
+ * <p>
+ * singleton和prototype是BeanFactory内置的两种作用域：前者全局共享一个实例，后者每次getBean都创建新实例。
+ * 除此之外的作用域都通过Scope扩展，由Scope自己决定实例的存放位置和生命周期（比如每个线程一个实例、对象池等），
+ * 然后通过{@link DefaultListableBeanFactory#registerScope(String, Scope)}注册到BeanFactory。
+ * BeanDefinition的scope属性（XML的scope="thread"或@Scope("thread")）与注册的名称对应。
+ */
+public interface Scope {
+
+    /**
+     * 获取当前作用域内的bean实例，不存在时通过objectFactory创建
+     */
+    Object get(String name, ObjectFactory<?> objectFactory);
+
+    /**
+     * 从当前作用域内移除bean实例，返回被移除的实例（不会执行销毁回调）
+     */
+    Object remove(String name);
+
+    /**
+     * 注册bean的销毁回调，在作用域结束时（比如线程结束）执行。
+     * BeanFactory在创建bean实例的过程中调用该方法，调用线程与{@link #get}相同
+     */
+    void registerDestructionCallback(String name, Runnable callback);
+}
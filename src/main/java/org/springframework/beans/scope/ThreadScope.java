@@ -0,0 +1,373 @@
+package org.springframework.beans.scope;
+
+import org.springframework.beans.lifecycle.DisposableBean;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 线程作用域：每个线程持有一份bean实例，适合SimpleDateFormat、缓冲区、编解码器这类非线程安全、创建成本又高的对象。
+ * <p>
+ * 实现要点：
+ * - 存储紧凑：每个bean名称分配一个槽位，线程内的实例存放在按槽位索引的数组中，查找不需要哈希；
+ * - 线程结束后释放：Java没有线程结束的回调，持有实例的线程被记录下来，新线程登记时顺带检查已结束的线程，
+ *   执行它们的销毁回调。检查的间隔与存活的线程数成正比，摊到每次登记上的开销是常数；
+ *   没有新线程登记时，已结束线程的实例会一直保留，可以调用{@link #purgeTerminatedThreads()}主动清理；
+ * - 线程之间的可见性：线程只在自己的数组里读写实例，清理和销毁由其他线程执行，所以写入和释放都在
+ *   线程自己的ThreadBeans上加锁；释放后的ThreadBeans被标记失效，线程下一次访问时重新登记，不会拿到已销毁的实例；
+ * - 回收模式：大量短命线程（比如虚拟线程、每个任务一个线程）场景下，每个线程都新建一份昂贵的对象得不偿失。
+ *   开启回收后，线程结束时实例不销毁，而是放回共享的空闲队列，供后来的线程直接复用，超过上限的实例才会销毁。
+ */
+public class ThreadScope implements Scope, DisposableBean {
+
+    public static final String SCOPE_NAME = "thread";
+
+    private final boolean recycleInstances;
+
+    private final int maxRecycledPerBean;
+
+    /**
+     * bean名称 -> 槽位
+     */
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextSlot = new AtomicInteger();
+
+    private final ThreadLocal<ThreadBeans> threadBeans = new ThreadLocal<>();
+
+    /**
+     * 持有过实例、还未清理的线程
+     */
+    private final Queue<ThreadBeans> registeredThreads = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 上次清理之后登记的线程数，达到{@link #purgeThreshold}时清理一次
+     */
+    private final AtomicInteger registrationsSincePurge = new AtomicInteger();
+
+    /**
+     * 上次清理后仍然存活的线程数（至少为1）
+     */
+    private volatile int purgeThreshold = 1;
+
+    /**
+     * 回收模式下的空闲实例：bean名称 -> 空闲实例
+     */
+    private final Map<String, Queue<ScopedInstance>> recycledInstances = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicInteger> recycledCounts = new ConcurrentHashMap<>();
+
+    public ThreadScope() {
+        this(false, 0);
+    }
+
+    /**
+     * @param recycleInstances   线程结束时是否回收实例给后续线程复用
+     * @param maxRecycledPerBean 每个bean最多保留的空闲实例数
+     */
+    public ThreadScope(boolean recycleInstances, int maxRecycledPerBean) {
+        this.recycleInstances = recycleInstances;
+        this.maxRecycledPerBean = maxRecycledPerBean;
+    }
+
+    @Override
+    public Object get(String name, ObjectFactory<?> objectFactory) {
+        int slot = slotOf(name);
+        ThreadBeans beans = currentThreadBeans();
+        Object bean = beans.getBean(slot);
+        if (bean != null) {
+            return bean;
+        }
+        ScopedInstance recycled = pollRecycled(name);
+        if (recycled != null) {
+            bean = recycled.bean;
+            if (!beans.put(slot, bean, recycled.destructionCallback)) {
+                // 期间作用域被销毁了，实例不再归任何线程持有
+                recycled.destroy();
+            }
+            return bean;
+        }
+        bean = objectFactory.getObject();
+        // 创建过程中可能已经通过registerDestructionCallback登记了销毁回调，这里只补上实例
+        Runnable callback = beans.getCallback(slot);
+        if (!beans.put(slot, bean, callback)) {
+            new ScopedInstance(bean, callback).destroy();
+        }
+        return bean;
+    }
+
+    /**
+     * 当前线程没有持有实例时直接返回null，不会因此登记线程
+     */
+    @Override
+    public Object remove(String name) {
+        Integer slot = slots.get(name);
+        ThreadBeans beans = threadBeans.get();
+        if (slot == null || beans == null || beans.isReleased()) {
+            return null;
+        }
+        return beans.remove(slot);
+    }
+
+    @Override
+    public void registerDestructionCallback(String name, Runnable callback) {
+        currentThreadBeans().putCallback(slotOf(name), callback);
+    }
+
+    /**
+     * 清理已结束的线程：执行销毁回调，或者在回收模式下放回空闲队列
+     */
+    public void purgeTerminatedThreads() {
+        int alive = 0;
+        Iterator<ThreadBeans> iterator = registeredThreads.iterator();
+        while (iterator.hasNext()) {
+            ThreadBeans beans = iterator.next();
+            if (beans.isOwnerAlive()) {
+                alive++;
+            } else if (beans.claim()) {
+                iterator.remove();
+                // 清理发生在其他线程的getBean过程中，销毁失败不应该影响调用方
+                release(beans, recycleInstances);
+            }
+        }
+        this.purgeThreshold = Math.max(alive, 1);
+    }
+
+    /**
+     * 销毁所有线程持有的实例以及空闲实例，一般在容器关闭时调用
+     */
+    @Override
+    public void destroy() {
+        RuntimeException failure = null;
+        Iterator<ThreadBeans> iterator = registeredThreads.iterator();
+        while (iterator.hasNext()) {
+            ThreadBeans beans = iterator.next();
+            if (beans.claim()) {
+                iterator.remove();
+                failure = firstFailure(failure, release(beans, false));
+            }
+        }
+        for (Queue<ScopedInstance> queue : recycledInstances.values()) {
+            ScopedInstance instance;
+            while ((instance = queue.poll()) != null) {
+                failure = firstFailure(failure, instance.destroy());
+            }
+        }
+        recycledCounts.clear();
+        // 其他线程的ThreadBeans已经标记失效，下一次访问时重新登记；当前线程直接清掉
+        threadBeans.remove();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static RuntimeException firstFailure(RuntimeException current, RuntimeException candidate) {
+        return current != null ? current : candidate;
+    }
+
+    private int slotOf(String name) {
+        Integer slot = slots.get(name);
+        if (slot == null) {
+            slot = slots.computeIfAbsent(name, k -> nextSlot.getAndIncrement());
+        }
+        return slot;
+    }
+
+    private ThreadBeans currentThreadBeans() {
+        ThreadBeans beans = threadBeans.get();
+        if (beans == null || beans.isReleased()) {
+            beans = registerCurrentThread();
+            threadBeans.set(beans);
+        }
+        return beans;
+    }
+
+    private ThreadBeans registerCurrentThread() {
+        // 每登记与存活线程数相当的新线程清理一次：线程少时几乎每次都清理，线程多时清理的开销被摊薄
+        if (registrationsSincePurge.incrementAndGet() >= purgeThreshold) {
+            registrationsSincePurge.set(0);
+            purgeTerminatedThreads();
+        }
+        ThreadBeans beans = new ThreadBeans(Thread.currentThread(), Math.max(nextSlot.get(), 4));
+        registeredThreads.add(beans);
+        return beans;
+    }
+
+    /**
+     * 释放线程持有的实例，返回第一个销毁失败的异常
+     */
+    private RuntimeException release(ThreadBeans beans, boolean recycle) {
+        RuntimeException failure = null;
+        String[] names = new String[nextSlot.get()];
+        for (Map.Entry<String, Integer> entry : slots.entrySet()) {
+            if (entry.getValue() < names.length) {
+                names[entry.getValue()] = entry.getKey();
+            }
+        }
+        ScopedInstance[] instances = beans.drain();
+        for (int slot = 0; slot < instances.length; slot++) {
+            ScopedInstance instance = instances[slot];
+            if (instance == null) {
+                continue;
+            }
+            if (!recycle || slot >= names.length || names[slot] == null || !offerRecycled(names[slot], instance)) {
+                failure = firstFailure(failure, instance.destroy());
+            }
+        }
+        return failure;
+    }
+
+    private ScopedInstance pollRecycled(String name) {
+        if (!recycleInstances) {
+            return null;
+        }
+        Queue<ScopedInstance> queue = recycledInstances.get(name);
+        ScopedInstance instance = queue != null ? queue.poll() : null;
+        if (instance != null) {
+            recycledCounts.get(name).decrementAndGet();
+        }
+        return instance;
+    }
+
+    private boolean offerRecycled(String name, ScopedInstance instance) {
+        AtomicInteger count = recycledCounts.computeIfAbsent(name, k -> new AtomicInteger());
+        if (count.incrementAndGet() > maxRecycledPerBean) {
+            count.decrementAndGet();
+            return false;
+        }
+        recycledInstances.computeIfAbsent(name, k -> new ConcurrentLinkedQueue<>()).add(instance);
+        return true;
+    }
+
+    /**
+     * 单个线程持有的实例，按槽位存放。
+     * 只有所属线程会写入，读取也不加锁；写入和{@link #drain()}在this上同步，
+     * 保证其他线程清理时看到完整的数组，并且清理之后所属线程不会再写入
+     */
+    private static final class ThreadBeans {
+
+        private final WeakReference<Thread> owner;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Object[] beans;
+
+        private Runnable[] callbacks;
+
+        /**
+         * drain之后为true，所属线程看到后重新登记
+         */
+        private volatile boolean drained;
+
+        private ThreadBeans(Thread owner, int capacity) {
+            this.owner = new WeakReference<>(owner);
+            this.beans = new Object[capacity];
+            this.callbacks = new Runnable[capacity];
+        }
+
+        Object getBean(int slot) {
+            return slot < beans.length ? beans[slot] : null;
+        }
+
+        Runnable getCallback(int slot) {
+            return slot < callbacks.length ? callbacks[slot] : null;
+        }
+
+        /**
+         * 已经被清理时返回false，实例没有放进来
+         */
+        synchronized boolean put(int slot, Object bean, Runnable callback) {
+            if (drained) {
+                return false;
+            }
+            ensureCapacity(slot);
+            beans[slot] = bean;
+            callbacks[slot] = callback;
+            return true;
+        }
+
+        synchronized void putCallback(int slot, Runnable callback) {
+            if (!drained) {
+                ensureCapacity(slot);
+                callbacks[slot] = callback;
+            }
+        }
+
+        synchronized Object remove(int slot) {
+            if (slot >= beans.length) {
+                return null;
+            }
+            Object bean = beans[slot];
+            beans[slot] = null;
+            callbacks[slot] = null;
+            return bean;
+        }
+
+        /**
+         * 取出所有实例并标记失效
+         */
+        synchronized ScopedInstance[] drain() {
+            drained = true;
+            ScopedInstance[] instances = new ScopedInstance[beans.length];
+            for (int slot = 0; slot < beans.length; slot++) {
+                if (beans[slot] != null) {
+                    instances[slot] = new ScopedInstance(beans[slot], callbacks[slot]);
+                }
+            }
+            Arrays.fill(beans, null);
+            Arrays.fill(callbacks, null);
+            return instances;
+        }
+
+        boolean isReleased() {
+            return drained;
+        }
+
+        boolean isOwnerAlive() {
+            Thread thread = owner.get();
+            return thread != null && thread.isAlive();
+        }
+
+        boolean claim() {
+            return released.compareAndSet(false, true);
+        }
+
+        private void ensureCapacity(int slot) {
+            if (slot >= beans.length) {
+                int newLength = Math.max(slot + 1, beans.length * 2);
+                beans = Arrays.copyOf(beans, newLength);
+                callbacks = Arrays.copyOf(callbacks, newLength);
+            }
+        }
+    }
+
+    private static final class ScopedInstance {
+
+        private final Object bean;
+
+        private final Runnable destructionCallback;
+
+        private ScopedInstance(Object bean, Runnable destructionCallback) {
+            this.bean = bean;
+            this.destructionCallback = destructionCallback;
+        }
+
+        RuntimeException destroy() {
+            if (destructionCallback != null) {
+                try {
+                    destructionCallback.run();
+                } catch (RuntimeException ex) {
+                    return ex;
+                }
+            }
+            return null;
+        }
+    }
+}
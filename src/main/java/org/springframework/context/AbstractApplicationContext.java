@@ -7,13 +7,30 @@ import org.springframework.context.aware.ApplicationContextAwareProcessor;
 import org.springframework.context.event.event.ApplicationEvent;
 import org.springframework.context.event.event.ContextRefreshedEvent;
 import org.springframework.context.event.listener.ApplicationListener;
+import org.springframework.context.event.listener.EventListenerMethodProcessor;
+import org.springframework.context.event.multicaster.AbstractApplicationEventMulticaster;
 import org.springframework.context.event.multicaster.ApplicationEventMulticaster;
+import org.springframework.context.event.multicaster.MulticasterMetrics;
 import org.springframework.context.event.multicaster.SimpleApplicationEventMulticaster;
+import org.springframework.context.event.reactive.ApplicationEventFlowPublisher;
+import org.springframework.context.event.reactive.OverflowStrategy;
+import org.springframework.context.metrics.ApplicationContextMetrics;
 import org.springframework.core.exception.BeansException;
+import org.springframework.core.jfr.ContainerFlightRecorder;
 import org.springframework.core.io.DefaultResourceLoader;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 /**
  * 抽象ApplicationContext，模板方法模式，规划了整个容器的启动流程。
@@ -22,63 +39,220 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
 
     public static final String APPLICATION_EVENT_MULTICASTER_BEAN_NAME = "applicationEventMulticaster";
 
+    /**
+     * 指标MBean的ObjectName前缀，后面拼上上下文的类名和identityHashCode，保证同一个JVM里多个上下文互不冲突
+     */
+    public static final String METRICS_OBJECT_NAME_PREFIX = "dummy-ioc:type=ApplicationContextMetrics,name=";
+
     private ApplicationEventMulticaster applicationEventMulticaster;
 
+    private ApplicationContext parent;
+
+    /**
+     * 保护事件发布器、earlyApplicationListeners和earlyApplicationEvents的切换
+     */
+    private final Object eventMonitor = new Object();
+
+    /**
+     * 事件发布器初始化之前通过{@link #addApplicationListener}添加的监听器，registerListeners时注册
+     */
+    private final List<ApplicationListener<?>> earlyApplicationListeners = new ArrayList<>();
+
+    /**
+     * refresh完成之前发布的事件，finishRefresh时一次性发布；为null表示不需要缓存。
+     * 第一次refresh之前（比如构造器里）发布的事件也会缓存
+     */
+    private List<ApplicationEvent> earlyApplicationEvents = new ArrayList<>();
+
+    /**
+     * 当前线程打开的批量发布作用域，见{@link #beginEventBatch()}
+     */
+    private final ThreadLocal<EventBatch> currentEventBatch = new ThreadLocal<>();
+
+    /**
+     * 通过{@link #getEventFlowPublisher}创建的Publisher，容器关闭时通知订阅者onComplete
+     */
+    private final List<ApplicationEventFlowPublisher<?>> eventFlowPublishers = new CopyOnWriteArrayList<>();
+
+    private final ApplicationContextMetrics metrics = new ApplicationContextMetrics(this);
+
+    private boolean registerMetricsMBean = true;
+
+    private boolean preloadBeanClasses = true;
+
+    /**
+     * 正在进行的后台类预加载，refresh失败或容器关闭时取消
+     */
+    private volatile CompletableFuture<Integer> preloadFuture;
+
+    private ObjectName metricsObjectName;
+
     @Override
     public void refresh() throws BeansException {
+        synchronized (eventMonitor) {
+            // 再次refresh时，新BeanFactory里的bean不能把监听器注册到上一次的事件发布器上
+            applicationEventMulticaster = null;
+            // 事件发布器和监听器都准备好之前发布的事件先缓存起来
+            if (earlyApplicationEvents == null) {
+                earlyApplicationEvents = new ArrayList<>();
+            }
+        }
+
         // 创建BeanFactory，并加载BeanDefinition
-        DefaultListableBeanFactory beanFactory = obtainFreshBeanFactory();
+        DefaultListableBeanFactory beanFactory = refreshPhase("obtainFreshBeanFactory", this::obtainFreshBeanFactory);
 
         // 做一些准备工作
-        prepareBeanFactory(beanFactory);
+        refreshPhase("prepareBeanFactory", () -> prepareBeanFactory(beanFactory));
 
         try {
             // 【扩展点】执行BeanFactoryPostProcessor：在实例化Bean之前，允许BFP修改BeanDefinition
-            invokeBeanFactoryPostProcessors(beanFactory);
+            refreshPhase("invokeBeanFactoryPostProcessors", () -> invokeBeanFactoryPostProcessors(beanFactory));
+
+            // 后台并行加载bean的类，与下面创建后置处理器、监听器等阶段重叠。
+            // 放在BeanFactoryPostProcessor之后：它们可能修改BeanDefinition的类名
+            preloadBeanClasses(beanFactory);
 
             // 【扩展点】注册BeanPostProcessor：创建BP并加入单例池，后续可以通过BP干预Bean的创建过程
-            registerBeanPostProcessors(beanFactory);
+            refreshPhase("registerBeanPostProcessors", () -> registerBeanPostProcessors(beanFactory));
 
             // 初始化事件发布者
-            initApplicationEventMulticaster();
+            refreshPhase("initApplicationEventMulticaster", this::initApplicationEventMulticaster);
 
             // 注册事件监听器
-            registerListeners();
+            refreshPhase("registerListeners", this::registerListeners);
 
             // 完成Bean的初始化
-            finishBeanFactoryInitialization(beanFactory);
+            refreshPhase("finishBeanFactoryInitialization", () -> finishBeanFactoryInitialization(beanFactory));
 
             // 发布容器刷新完成事件
-            finishRefresh();
+            refreshPhase("finishRefresh", this::finishRefresh);
         } catch (BeansException ex) {
-            // 创建过程中发生异常，销毁已创建的单例bean，并执行destroy生命周期钩子
-            destroyBeans();
+            cancelPreload();
+            // 创建过程中发生异常，销毁已创建的单例bean，并执行destroy生命周期钩子。
+            // 销毁本身的失败附加在原来的异常上，不能把它替换掉
+            try {
+                destroyBeans();
+            } catch (BeansException destroyEx) {
+                ex.addSuppressed(destroyEx);
+            }
+            // 缓存的事件不会再有机会发布
+            synchronized (eventMonitor) {
+                earlyApplicationEvents = null;
+            }
             throw ex;
         }
     }
 
+    /**
+     * 执行refresh的一个阶段，开启JFR的dummyioc.RefreshPhase事件后，每个阶段都会产生一个事件
+     */
+    protected <T> T refreshPhase(String phase, Supplier<T> action) {
+        Object jfrEvent = ContainerFlightRecorder.beginRefreshPhase();
+        boolean failed = true;
+        try {
+            T result = action.get();
+            failed = false;
+            return result;
+        } finally {
+            if (jfrEvent != null) {
+                ContainerFlightRecorder.commitRefreshPhase(jfrEvent, getDisplayName(), phase, failed);
+            }
+        }
+    }
+
+    protected void refreshPhase(String phase, Runnable action) {
+        refreshPhase(phase, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * 上下文的展示名称：类名@identityHashCode，用于JMX的ObjectName和JFR事件
+     */
+    public String getDisplayName() {
+        return getClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(this));
+    }
+
     protected DefaultListableBeanFactory obtainFreshBeanFactory() {
         refreshBeanFactory();
-        return getBeanFactory();
+        DefaultListableBeanFactory beanFactory = getBeanFactory();
+        if (parent != null) {
+            // 父BeanFactory设为父上下文本身（而不是它当前的BeanFactory），父上下文refresh之后子上下文依然能找到新的bean
+            beanFactory.setParentBeanFactory(parent);
+        }
+        return beanFactory;
+    }
+
+    @Override
+    public ApplicationContext getParent() {
+        return parent;
+    }
+
+    /**
+     * 设置父上下文，要在refresh之前调用。
+     * 父上下文里的bean（连接池、编解码器等基础设施）被所有子上下文共享，子上下文发布的事件也会传给父上下文的监听器
+     */
+    public void setParent(ApplicationContext parent) {
+        this.parent = parent;
     }
 
     protected abstract void refreshBeanFactory() throws BeansException;
 
     public abstract DefaultListableBeanFactory getBeanFactory();
 
+    /**
+     * 配置里的bean只记录了类名，这里在后台线程池里并行加载（不初始化）非懒加载bean的类。
+     * 不等待它完成：后面的阶段用到某个类时如果还没加载，就在当前线程自己加载，结果相同。
+     * 取消后还没开始加载的类不再加载
+     */
+    protected void preloadBeanClasses(DefaultListableBeanFactory beanFactory) {
+        cancelPreload();
+        if (preloadBeanClasses) {
+            CompletableFuture<Integer> future = new CompletableFuture<>();
+            this.preloadFuture = future;
+            ForkJoinPool.commonPool().execute(() -> {
+                try {
+                    future.complete(beanFactory.preloadBeanClasses(future::isDone));
+                } catch (Throwable ex) {
+                    future.completeExceptionally(ex);
+                }
+            });
+        }
+    }
+
+    private void cancelPreload() {
+        CompletableFuture<Integer> future = this.preloadFuture;
+        if (future != null) {
+            future.cancel(false);
+            this.preloadFuture = null;
+        }
+    }
+
+    /**
+     * 是否在refresh时后台预加载bean的类，默认开启
+     */
+    public void setPreloadBeanClasses(boolean preloadBeanClasses) {
+        this.preloadBeanClasses = preloadBeanClasses;
+    }
+
     protected void prepareBeanFactory(DefaultListableBeanFactory beanFactory) {
         // 这里先添加ApplicationContextAwareProcessor，后续用于处理继承自ApplicationContextAware的bean（为其注入applicationContext）
         beanFactory.addBeanPostProcessor(new ApplicationContextAwareProcessor(this));
+        // 把单例bean上的@EventListener方法注册成监听器
+        beanFactory.addBeanPostProcessor(new EventListenerMethodProcessor(this));
         // 省略其他工作...
     }
 
     protected void finishBeanFactoryInitialization(DefaultListableBeanFactory beanFactory) {
         beanFactory.preInstantiateSingletons();
+        // 所有非懒加载的单例都已创建，BeanDefinition不会再变化，冻结配置以加速后续的getBean
+        beanFactory.freezeConfiguration();
     }
 
     protected void invokeBeanFactoryPostProcessors(DefaultListableBeanFactory beanFactory) {
         // 这里会执行一个叫PropertyPlaceholderConfigurer的BeanFactoryPostProcessor，负责把${}占位符替换成实际的value
-        Map<String, BeanFactoryPostProcessor> beanFactoryPostProcessorMap = beanFactory.getBeansOfType(BeanFactoryPostProcessor.class);
+        Map<String, BeanFactoryPostProcessor> beanFactoryPostProcessorMap = beanFactory.getBeansOfType(BeanFactoryPostProcessor.class, false);
         for (BeanFactoryPostProcessor beanFactoryPostProcessor : beanFactoryPostProcessorMap.values()) {
             beanFactoryPostProcessor.postProcessBeanFactory(beanFactory);
         }
@@ -86,7 +260,7 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
 
     protected void registerBeanPostProcessors(DefaultListableBeanFactory beanFactory) {
         // 获取对应类型的BeanPostProcessor（如果未创建，则createBean，并把bp加入到singletonObjects）
-        Map<String, BeanPostProcessor> beanPostProcessorMap = beanFactory.getBeansOfType(BeanPostProcessor.class);
+        Map<String, BeanPostProcessor> beanPostProcessorMap = beanFactory.getBeansOfType(BeanPostProcessor.class, false);
         for (BeanPostProcessor beanPostProcessor : beanPostProcessorMap.values()) {
             beanFactory.addBeanPostProcessor(beanPostProcessor);
         }
@@ -97,8 +271,15 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
      */
     protected void initApplicationEventMulticaster() {
         DefaultListableBeanFactory beanFactory = getBeanFactory();
-        applicationEventMulticaster = new SimpleApplicationEventMulticaster(beanFactory);
-        beanFactory.addSingleton(APPLICATION_EVENT_MULTICASTER_BEAN_NAME, applicationEventMulticaster);
+        SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster(beanFactory);
+        synchronized (eventMonitor) {
+            applicationEventMulticaster = multicaster;
+        }
+        beanFactory.addSingleton(APPLICATION_EVENT_MULTICASTER_BEAN_NAME, multicaster);
+    }
+
+    protected ApplicationEventMulticaster getApplicationEventMulticaster() {
+        return applicationEventMulticaster;
     }
 
     /**
@@ -106,22 +287,213 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
      */
     @SuppressWarnings("rawtypes")
     protected void registerListeners() {
-        Collection<ApplicationListener> applicationListeners = getBeansOfType(ApplicationListener.class).values();
+        synchronized (eventMonitor) {
+            for (ApplicationListener<?> applicationListener : earlyApplicationListeners) {
+                applicationEventMulticaster.addApplicationListener(applicationListener);
+            }
+            earlyApplicationListeners.clear();
+        }
+        Collection<ApplicationListener> applicationListeners = getBeanFactory().getBeansOfType(ApplicationListener.class, false).values();
         for (ApplicationListener applicationListener : applicationListeners) {
             applicationEventMulticaster.addApplicationListener(applicationListener);
         }
     }
 
+    /**
+     * 添加一个不是bean的监听器（比如@EventListener方法的适配器）。事件发布器还没初始化时先暂存，registerListeners时再注册
+     */
+    public void addApplicationListener(ApplicationListener<?> listener) {
+        synchronized (eventMonitor) {
+            if (applicationEventMulticaster == null) {
+                earlyApplicationListeners.add(listener);
+                return;
+            }
+        }
+        applicationEventMulticaster.addApplicationListener(listener);
+    }
+
+    /**
+     * 移除通过{@link #addApplicationListener}添加的监听器
+     */
+    public void removeApplicationListener(ApplicationListener<?> listener) {
+        synchronized (eventMonitor) {
+            if (applicationEventMulticaster == null) {
+                earlyApplicationListeners.remove(listener);
+                return;
+            }
+        }
+        applicationEventMulticaster.removeApplicationListener(listener);
+    }
+
     /**
      * 发布容器刷新完成事件
      */
     protected void finishRefresh() {
+        registerMetricsMBean();
+        // refresh期间缓存的事件，此时所有监听器都已注册，一次性发布
+        List<ApplicationEvent> earlyEvents;
+        synchronized (eventMonitor) {
+            earlyEvents = earlyApplicationEvents;
+            earlyApplicationEvents = null;
+        }
+        if (earlyEvents != null && !earlyEvents.isEmpty()) {
+            applicationEventMulticaster.multicastEvents(earlyEvents);
+        }
         publishEvent(new ContextRefreshedEvent(this));
     }
 
+    /**
+     * 容器运行指标：getBean各路径的次数、bean创建耗时、后置处理器耗时、事件发布次数等
+     */
+    public ApplicationContextMetrics getMetrics() {
+        return metrics;
+    }
+
+    public MulticasterMetrics getMulticasterMetrics() {
+        if (applicationEventMulticaster instanceof AbstractApplicationEventMulticaster) {
+            return ((AbstractApplicationEventMulticaster) applicationEventMulticaster).getMetrics();
+        }
+        return null;
+    }
+
+    /**
+     * 是否把指标注册成JMX MBean，默认开启；需要在refresh之前设置
+     */
+    public void setRegisterMetricsMBean(boolean registerMetricsMBean) {
+        this.registerMetricsMBean = registerMetricsMBean;
+    }
+
+    public ObjectName getMetricsObjectName() {
+        return metricsObjectName;
+    }
+
+    /**
+     * 把指标注册到平台MBeanServer。再次refresh时不会重复注册（指标对象每次都读当前的BeanFactory）。
+     * JMX不可用（比如安全策略限制、ObjectName已被占用）不应该影响容器启动，所以注册失败直接忽略，
+     * 此时{@link #getMetricsObjectName()}返回null，指标仍然可以通过{@link #getMetrics()}访问
+     */
+    protected void registerMetricsMBean() {
+        if (!registerMetricsMBean || metricsObjectName != null) {
+            return;
+        }
+        try {
+            ObjectName objectName = new ObjectName(METRICS_OBJECT_NAME_PREFIX + getDisplayName());
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            mBeanServer.registerMBean(metrics, objectName);
+            metricsObjectName = objectName;
+        } catch (Exception | LinkageError ex) {
+            // 忽略：只是少了一个JMX入口
+        }
+    }
+
+    protected void unregisterMetricsMBean() {
+        ObjectName objectName = metricsObjectName;
+        if (objectName == null) {
+            return;
+        }
+        metricsObjectName = null;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (Exception ex) {
+            // 忽略：MBean可能已经被别人注销
+        }
+    }
+
+    /**
+     * 发布事件。当前线程有打开的{@link EventBatch}时先放进批次，提交时再发布；refresh完成之前发布的事件先缓存，finishRefresh时发布
+     */
     @Override
     public void publishEvent(ApplicationEvent event) {
-        applicationEventMulticaster.multicastEvent(event);
+        EventBatch batch = currentEventBatch.get();
+        if (batch != null) {
+            batch.add(event);
+            return;
+        }
+        publishEvents(Collections.singletonList(event));
+    }
+
+    /**
+     * 按顺序发布一批事件
+     */
+    protected void publishEvents(List<ApplicationEvent> events) {
+        ApplicationEventMulticaster multicaster;
+        synchronized (eventMonitor) {
+            if (earlyApplicationEvents != null) {
+                earlyApplicationEvents.addAll(events);
+                multicaster = null;
+            } else {
+                multicaster = applicationEventMulticaster;
+            }
+        }
+        if (multicaster != null) {
+            if (events.size() == 1) {
+                multicaster.multicastEvent(events.get(0));
+            } else {
+                multicaster.multicastEvents(events);
+            }
+        }
+        // 事件继续向上传播：父上下文的监听器也能收到子上下文的事件，反过来则不会
+        if (parent != null) {
+            for (ApplicationEvent event : events) {
+                parent.publishEvent(event);
+            }
+        }
+    }
+
+    /**
+     * 打开一个批量发布作用域：当前线程在作用域内发布的事件先缓存，{@link EventBatch#commit()}并关闭时一次性发布，
+     * 没有提交就关闭则全部丢弃（比如事务回滚时，已经发布的"订单已创建"事件不应该被监听器收到）。
+     * 作用域可以嵌套，内层提交的事件并入外层，由最外层统一发布。用法：
+     * <pre>
+     * try (EventBatch batch = context.beginEventBatch()) {
+     *     context.publishEvent(...);
+     *     batch.commit();
+     * }
+     * </pre>
+     */
+    public EventBatch beginEventBatch() {
+        EventBatch batch = new EventBatch(this, currentEventBatch.get());
+        currentEventBatch.set(batch);
+        return batch;
+    }
+
+    /**
+     * 某一类事件的{@link org.springframework.context.event.reactive.Flow.Publisher}视图，订阅者带背压地消费事件。
+     * 要在refresh之后调用（事件发布器每次refresh都会重建）；容器关闭时所有订阅者收到onComplete
+     */
+    public <E extends ApplicationEvent> ApplicationEventFlowPublisher<E> getEventFlowPublisher(Class<E> eventType, int bufferSize,
+                                                                                                OverflowStrategy overflowStrategy) {
+        ApplicationEventMulticaster multicaster;
+        synchronized (eventMonitor) {
+            multicaster = applicationEventMulticaster;
+        }
+        if (multicaster == null) {
+            throw new IllegalStateException("ApplicationEventMulticaster not initialized - call 'refresh' first: " + getDisplayName());
+        }
+        ApplicationEventFlowPublisher<E> publisher = new ApplicationEventFlowPublisher<>(multicaster, eventType, bufferSize, overflowStrategy);
+        eventFlowPublishers.add(publisher);
+        return publisher;
+    }
+
+    void endEventBatch(EventBatch batch) {
+        if (currentEventBatch.get() != batch) {
+            throw new IllegalStateException("Event batches must be closed in reverse order on the thread that opened them");
+        }
+        batch.markClosed();
+        EventBatch outer = batch.getOuter();
+        if (outer != null) {
+            currentEventBatch.set(outer);
+        } else {
+            currentEventBatch.remove();
+        }
+        if (!batch.isCommitted() || batch.getEvents().isEmpty()) {
+            return;
+        }
+        if (outer != null) {
+            outer.addAll(batch.getEvents());
+        } else {
+            publishEvents(batch.getEvents());
+        }
     }
 
     @Override
@@ -143,6 +515,11 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
         return getBeanFactory().getBeansOfType(type);
     }
 
+    @Override
+    public boolean containsBean(String name) {
+        return getBeanFactory().containsBean(name);
+    }
+
     public void close() {
         doClose();
     }
@@ -157,8 +534,17 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
     }
 
     protected void doClose() {
+        cancelPreload();
+        for (ApplicationEventFlowPublisher<?> publisher : eventFlowPublishers) {
+            publisher.close();
+        }
+        eventFlowPublishers.clear();
         //执行单例bean的销毁方法
-        destroyBeans();
+        try {
+            destroyBeans();
+        } finally {
+            unregisterMetricsMBean();
+        }
     }
 
     protected void destroyBeans() {
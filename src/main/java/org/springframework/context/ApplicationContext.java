@@ -12,6 +12,11 @@ import org.springframework.core.io.ResourceLoader;
  */
 public interface ApplicationContext extends BeanFactory, ResourceLoader, ApplicationEventPublisher {
 
+    /**
+     * 父上下文，没有时返回null。本地找不到的bean会到父上下文查找，发布的事件也会传给父上下文
+     */
+    ApplicationContext getParent();
+
     /**
      * 刷新容器
      */
@@ -1,11 +1,28 @@
 package org.springframework.context;
 
 import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.beans.beandefinition.definition.BeanDefinition;
 import org.springframework.beans.beandefinition.reader.XmlBeanDefinitionReader;
+import org.springframework.beans.processor.bean.BeanPostProcessor;
+import org.springframework.beans.processor.beanfactory.BeanFactoryPostProcessor;
+import org.springframework.context.event.listener.ApplicationListener;
+import org.springframework.context.event.multicaster.ApplicationEventMulticaster;
 import org.springframework.core.exception.BeansException;
 
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * xml文件的应用上下文
+ * <p>
+ * 默认每次refresh都会创建一个全新的BeanFactory，重新实例化所有bean。
+ * 开启增量刷新（{@link #setIncrementalRefresh(boolean)}）后，再次refresh时只会重新解析XML，
+ * 与当前的BeanDefinition做对比，然后只销毁并重建发生变化的bean以及（直接或间接）依赖它们的bean，其余单例保持不变。
+ * <p>
+ * 注意：
+ * - 如果BeanFactoryPostProcessor或BeanPostProcessor的定义发生变化，它们会影响所有bean，此时退化为完整刷新；
+ * - 增量刷新只对比XML和组件扫描得到的BeanDefinition，properties文件的变化不会被感知。
  */
 public class ClassPathXmlApplicationContext extends AbstractApplicationContext {
 
@@ -13,15 +30,45 @@ public class ClassPathXmlApplicationContext extends AbstractApplicationContext {
 
     private DefaultListableBeanFactory beanFactory;
 
+    private boolean incrementalRefresh = false;
+
     public ClassPathXmlApplicationContext(String configLocation) throws BeansException {
         this(new String[]{configLocation});
     }
 
     public ClassPathXmlApplicationContext(String[] configLocations) throws BeansException {
+        this(configLocations, null);
+    }
+
+    public ClassPathXmlApplicationContext(String configLocation, ApplicationContext parent) throws BeansException {
+        this(new String[]{configLocation}, parent);
+    }
+
+    /**
+     * 创建子上下文：本地找不到的bean到parent中查找，发布的事件也会传给parent
+     */
+    public ClassPathXmlApplicationContext(String[] configLocations, ApplicationContext parent) throws BeansException {
         this.configLocations = configLocations;
+        setParent(parent);
         refresh();
     }
 
+    /**
+     * 开启后，再次调用refresh()只重建发生变化的bean
+     */
+    public void setIncrementalRefresh(boolean incrementalRefresh) {
+        this.incrementalRefresh = incrementalRefresh;
+    }
+
+    @Override
+    public void refresh() throws BeansException {
+        if (incrementalRefresh && beanFactory != null) {
+            refreshIncrementally();
+        } else {
+            super.refresh();
+        }
+    }
+
     @Override
     protected void refreshBeanFactory() throws BeansException {
         // 创建BeanFactory
@@ -50,4 +97,113 @@ public class ClassPathXmlApplicationContext extends AbstractApplicationContext {
         }
     }
 
+    /**
+     * 增量刷新：重新解析XML，只重建发生变化的bean及其依赖方
+     */
+    protected void refreshIncrementally() throws BeansException {
+        DefaultListableBeanFactory currentFactory = this.beanFactory;
+
+        // 1.把XML重新解析到一个临时BeanFactory中
+        DefaultListableBeanFactory freshFactory = createBeanFactory();
+        loadBeanDefinitions(freshFactory);
+
+        // 2.用当前的BeanFactoryPostProcessor处理新的BeanDefinition（比如替换${}占位符），这样才能和当前的定义做比较
+        Map<String, BeanFactoryPostProcessor> beanFactoryPostProcessors = currentFactory.getBeansOfType(BeanFactoryPostProcessor.class, false);
+        for (BeanFactoryPostProcessor beanFactoryPostProcessor : beanFactoryPostProcessors.values()) {
+            beanFactoryPostProcessor.postProcessBeanFactory(freshFactory);
+        }
+
+        // 3.对比新旧BeanDefinition
+        Set<String> changedBeanNames = new LinkedHashSet<>();
+        for (String beanName : freshFactory.getBeanDefinitionNames()) {
+            if (!currentFactory.containsBeanDefinition(beanName)
+                    || !currentFactory.getBeanDefinition(beanName).equals(freshFactory.getBeanDefinition(beanName))) {
+                changedBeanNames.add(beanName);
+            }
+        }
+        for (String beanName : currentFactory.getBeanDefinitionNames()) {
+            if (!freshFactory.containsBeanDefinition(beanName)) {
+                changedBeanNames.add(beanName);
+            }
+        }
+        if (changedBeanNames.isEmpty()) {
+            return;
+        }
+
+        // 后置处理器会影响所有bean，只能完整刷新
+        for (String beanName : changedBeanNames) {
+            if (isInfrastructureBean(currentFactory, beanName) || isInfrastructureBean(freshFactory, beanName)) {
+                destroyBeans();
+                super.refresh();
+                return;
+            }
+        }
+
+        // 4.受影响的bean = 变化的bean + 直接或间接依赖它们的bean
+        Set<String> affectedBeanNames = new LinkedHashSet<>(changedBeanNames);
+        for (String beanName : changedBeanNames) {
+            affectedBeanNames.addAll(currentFactory.getTransitiveDependentBeans(beanName));
+        }
+
+        try {
+            // 5.销毁受影响的单例（destroySingleton会先销毁依赖方），监听器也要从事件发布器中摘除
+            ApplicationEventMulticaster multicaster = getApplicationEventMulticaster();
+            for (String beanName : affectedBeanNames) {
+                Object singleton = currentFactory.getSingleton(beanName);
+                if (singleton instanceof ApplicationListener) {
+                    multicaster.removeApplicationListener((ApplicationListener<?>) singleton);
+                }
+            }
+            for (String beanName : changedBeanNames) {
+                currentFactory.destroySingleton(beanName);
+            }
+
+            // 6.用新的BeanDefinition替换旧的（先解除冻结）
+            currentFactory.unfreezeConfiguration();
+            for (String beanName : changedBeanNames) {
+                if (freshFactory.containsBeanDefinition(beanName)) {
+                    currentFactory.registerBeanDefinition(beanName, freshFactory.getBeanDefinition(beanName));
+                } else {
+                    currentFactory.removeBeanDefinition(beanName);
+                }
+            }
+
+            // 7.重新实例化缺失的单例（未受影响的单例已经在单例池中，不会重复创建）并重新冻结，再重新注册监听器
+            finishBeanFactoryInitialization(currentFactory);
+            for (String beanName : affectedBeanNames) {
+                if (currentFactory.containsBeanDefinition(beanName)
+                        && !isUnloadedLazyBean(currentFactory.getBeanDefinition(beanName))
+                        && ApplicationListener.class.isAssignableFrom(currentFactory.resolveBeanClass(beanName, currentFactory.getBeanDefinition(beanName)))) {
+                    multicaster.addApplicationListener((ApplicationListener<?>) currentFactory.getBean(beanName));
+                }
+            }
+
+            finishRefresh();
+        } catch (BeansException ex) {
+            destroyBeans();
+            throw ex;
+        }
+    }
+
+    /**
+     * 与refresh一致：类还没有加载的懒加载bean不参与监听器的注册
+     */
+    private static boolean isUnloadedLazyBean(BeanDefinition beanDefinition) {
+        return beanDefinition.isLazyInit() && !beanDefinition.hasBeanClass();
+    }
+
+    private boolean isInfrastructureBean(DefaultListableBeanFactory factory, String beanName) {
+        if (!factory.containsBeanDefinition(beanName)) {
+            return false;
+        }
+        Class<?> beanClass;
+        try {
+            beanClass = factory.resolveBeanClass(beanName, factory.getBeanDefinition(beanName));
+        } catch (BeansException ex) {
+            // 类不存在的bean（比如从未用到的懒加载bean）不可能是后置处理器
+            return false;
+        }
+        return BeanFactoryPostProcessor.class.isAssignableFrom(beanClass) || BeanPostProcessor.class.isAssignableFrom(beanClass);
+    }
+
 }
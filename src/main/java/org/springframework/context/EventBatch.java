@@ -0,0 +1,86 @@
+package org.springframework.context;
+
+import org.springframework.context.event.event.ApplicationEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 批量发布作用域，由{@link AbstractApplicationContext#beginEventBatch()}打开，只属于打开它的线程。
+ * 作用域内发布的事件先缓存：提交后关闭时一次性发布（嵌套时并入外层），没有提交就关闭则丢弃
+ */
+public final class EventBatch implements AutoCloseable {
+
+    private final AbstractApplicationContext applicationContext;
+
+    private final EventBatch outer;
+
+    private final List<ApplicationEvent> events = new ArrayList<>();
+
+    private boolean committed;
+
+    private boolean closed;
+
+    EventBatch(AbstractApplicationContext applicationContext, EventBatch outer) {
+        this.applicationContext = applicationContext;
+        this.outer = outer;
+    }
+
+    void add(ApplicationEvent event) {
+        checkOpen();
+        events.add(event);
+    }
+
+    void addAll(Collection<ApplicationEvent> events) {
+        checkOpen();
+        this.events.addAll(events);
+    }
+
+    /**
+     * 标记为提交，事件在关闭时发布
+     */
+    public void commit() {
+        checkOpen();
+        committed = true;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        // 关闭顺序不对时抛出异常，作用域保持打开
+        applicationContext.endEventBatch(this);
+    }
+
+    void markClosed() {
+        closed = true;
+    }
+
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    /**
+     * 已经缓存的事件个数
+     */
+    public int size() {
+        return events.size();
+    }
+
+    EventBatch getOuter() {
+        return outer;
+    }
+
+    List<ApplicationEvent> getEvents() {
+        return Collections.unmodifiableList(events);
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Event batch already closed");
+        }
+    }
+}
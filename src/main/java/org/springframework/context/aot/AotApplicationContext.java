@@ -0,0 +1,43 @@
+package org.springframework.context.aot;
+
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.context.AbstractApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.exception.BeansException;
+
+/**
+ * 使用AOT生成代码的应用上下文。
+ * <p>
+ * 与{@link org.springframework.context.ClassPathXmlApplicationContext}的区别只在refreshBeanFactory：
+ * 不再解析XML、扫描组件，而是由生成的{@link GeneratedContextInitializer}直接注册BeanDefinition，
+ * 这些BeanDefinition带有生成的InstanceSupplier/PropertyPopulator，bean通过直接调用构造器和setter创建。
+ * 其余流程（后置处理器、事件、生命周期）完全相同。
+ */
+public class AotApplicationContext extends AbstractApplicationContext {
+
+    private final GeneratedContextInitializer initializer;
+
+    private DefaultListableBeanFactory beanFactory;
+
+    public AotApplicationContext(GeneratedContextInitializer initializer) throws BeansException {
+        this(initializer, null);
+    }
+
+    public AotApplicationContext(GeneratedContextInitializer initializer, ApplicationContext parent) throws BeansException {
+        this.initializer = initializer;
+        setParent(parent);
+        refresh();
+    }
+
+    @Override
+    protected void refreshBeanFactory() throws BeansException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        initializer.initialize(beanFactory);
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public DefaultListableBeanFactory getBeanFactory() {
+        return beanFactory;
+    }
+}
@@ -0,0 +1,566 @@
+package org.springframework.context.aot;
+
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.beans.DependencyDescriptor;
+import org.springframework.beans.beandefinition.definition.BeanDefinition;
+import org.springframework.beans.beandefinition.definition.BeanReference;
+import org.springframework.beans.beandefinition.definition.ConstructorArgumentValues;
+import org.springframework.beans.beandefinition.definition.PropertyValue;
+import org.springframework.beans.beandefinition.reader.XmlBeanDefinitionReader;
+import org.springframework.beans.processor.bean.BeanPostProcessor;
+import org.springframework.beans.processor.beanfactory.BeanFactoryPostProcessor;
+import org.springframework.core.exception.BeansException;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * AOT（Ahead-Of-Time）代码生成器：在构建期把XML配置"编译"成普通的Java代码。
+ * <p>
+ * 每次启动ClassPathXmlApplicationContext都要重复同样的工作：解析XML、扫描classpath、反射选择构造器、反射调用setter并做类型转换。
+ * 而这些在构建期就已经确定了。生成器在构建期执行一遍"定义阶段"：
+ * 1. 解析XML、扫描组件，得到所有BeanDefinition；
+ * 2. 执行BeanFactoryPostProcessor（比如替换${}占位符）；
+ * 3. 注册BeanPostProcessor（解析@Autowired构造器需要它们）；
+ * 然后为每个BeanDefinition生成：
+ * - 一个注册BeanDefinition的方法（scope、lazy-init、init/destroy方法等）；
+ * - 一个InstanceSupplier：直接new构造器，参数是字面量、getBean(..)或resolveDependency(..)；
+ * - 一个PropertyPopulator：XML里的属性值在构建期就转换成了字面量，直接调用setter。
+ * 运行时用{@link AotApplicationContext}加载生成的{@link GeneratedContextInitializer}即可。
+ * <p>
+ * 生成的代码只能访问public的类、构造器和setter，另外泛型依赖（比如List&lt;Handler&gt;构造器参数）也无法用字面量表达，
+ * 遇到这些情况该bean退回到运行时的反射路径：原样保留它的构造器参数和属性值。
+ * 字段上的@Autowired/@Value仍由AutowiredAnnotationBeanPostProcessor在运行时注入（私有字段无法直接赋值）。
+ * <p>
+ * 用法：
+ * <pre>
+ * java org.springframework.context.aot.ContextAotGenerator &lt;输出目录&gt; &lt;生成的类的全限定名&gt; &lt;配置文件&gt;...
+ * </pre>
+ */
+public class ContextAotGenerator {
+
+    private final String className;
+
+    private final String[] configLocations;
+
+    public ContextAotGenerator(String className, String... configLocations) {
+        if (!className.contains(".")) {
+            throw new IllegalArgumentException("Class name must be fully qualified: " + className);
+        }
+        this.className = className;
+        this.configLocations = configLocations;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: ContextAotGenerator <outputDir> <className> <configLocation>...");
+            System.exit(1);
+        }
+        Path file = new ContextAotGenerator(args[1], Arrays.copyOfRange(args, 2, args.length)).generate(Paths.get(args[0]));
+        System.out.println("Generated " + file);
+    }
+
+    /**
+     * 生成源码并写到outputDir下对应包路径的.java文件，返回文件路径
+     */
+    public Path generate(Path outputDir) throws IOException {
+        Path file = outputDir.resolve(className.replace('.', '/') + ".java");
+        Files.createDirectories(file.getParent());
+        Files.write(file, generateSource().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    public String generateSource() {
+        DefaultListableBeanFactory beanFactory = prepareBeanFactory();
+        String[] beanNames = beanFactory.getBeanDefinitionNames();
+        Arrays.sort(beanNames);
+        return new SourceWriter(beanFactory).write(beanNames);
+    }
+
+    /**
+     * 定义阶段：与refresh的前半段相同，但不实例化普通的bean
+     */
+    private DefaultListableBeanFactory prepareBeanFactory() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        new XmlBeanDefinitionReader(beanFactory, new DefaultResourceLoader()).loadBeanDefinitions(configLocations);
+        for (BeanFactoryPostProcessor beanFactoryPostProcessor : beanFactory.getBeansOfType(BeanFactoryPostProcessor.class).values()) {
+            beanFactoryPostProcessor.postProcessBeanFactory(beanFactory);
+        }
+        for (BeanPostProcessor beanPostProcessor : beanFactory.getBeansOfType(BeanPostProcessor.class).values()) {
+            beanFactory.addBeanPostProcessor(beanPostProcessor);
+        }
+        return beanFactory;
+    }
+
+    /**
+     * 拼装一个生成类的源码
+     */
+    private final class SourceWriter {
+
+        private final DefaultListableBeanFactory beanFactory;
+
+        private final String simpleName = className.substring(className.lastIndexOf('.') + 1);
+
+        private final StringBuilder fields = new StringBuilder();
+
+        private final StringBuilder registrations = new StringBuilder();
+
+        private final StringBuilder methods = new StringBuilder();
+
+        /**
+         * 当前bean的InstanceSupplier/PropertyPopulator方法，排在它的BeanDefinition方法之后
+         */
+        private final StringBuilder beanMethods = new StringBuilder();
+
+        private final Set<String> usedNames = new HashSet<>();
+
+        private SourceWriter(DefaultListableBeanFactory beanFactory) {
+            this.beanFactory = beanFactory;
+        }
+
+        String write(String[] beanNames) {
+            for (String beanName : beanNames) {
+                writeBean(beanName, beanFactory.getBeanDefinition(beanName));
+            }
+
+            StringBuilder source = new StringBuilder();
+            source.append("package ").append(className, 0, className.lastIndexOf('.')).append(";\n\n");
+            source.append("import org.springframework.beans.DefaultListableBeanFactory;\n");
+            source.append("import org.springframework.beans.DependencyDescriptor;\n");
+            source.append("import org.springframework.beans.beandefinition.definition.BeanDefinition;\n");
+            source.append("import org.springframework.beans.beandefinition.definition.BeanReference;\n");
+            source.append("import org.springframework.beans.beandefinition.definition.ConstructorArgumentValues;\n");
+            source.append("import org.springframework.beans.beandefinition.definition.PropertyValue;\n");
+            source.append("import org.springframework.context.aot.GeneratedContextInitializer;\n\n");
+            source.append("/**\n");
+            source.append(" * 由ContextAotGenerator根据").append(Arrays.toString(configLocations)).append("生成，不要手动修改\n");
+            source.append(" */\n");
+            source.append("public class ").append(simpleName).append(" implements GeneratedContextInitializer {\n\n");
+            source.append(fields);
+            if (fields.length() > 0) {
+                source.append('\n');
+            }
+            source.append("    @Override\n");
+            source.append("    public void initialize(DefaultListableBeanFactory beanFactory) {\n");
+            source.append(registrations);
+            source.append("    }\n");
+            source.append(methods);
+            source.append("}\n");
+            return source.toString();
+        }
+
+        private void writeBean(String beanName, BeanDefinition beanDefinition) {
+            String base = uniqueName(identifier(beanName));
+            String capitalized = Character.toUpperCase(base.charAt(0)) + base.substring(1);
+            Set<String> dependsOn = new LinkedHashSet<>();
+
+            String instantiateMethod = writeInstanceSupplier(beanName, beanDefinition, capitalized, dependsOn);
+            List<PropertyValue> remainingPropertyValues = new ArrayList<>();
+            String populateMethod = writePropertyPopulator(beanName, beanDefinition, capitalized, dependsOn, remainingPropertyValues);
+
+            String definitionMethod = base + "Definition";
+            registrations.append("        beanFactory.registerBeanDefinition(").append(quote(beanName)).append(", ")
+                    .append(definitionMethod).append("());\n");
+
+            methods.append('\n');
+            methods.append("    /**\n     * ").append(beanName.replace("*/", "*\\/")).append("\n     */\n");
+            methods.append("    private static BeanDefinition ").append(definitionMethod).append("() {\n");
+            methods.append("        BeanDefinition beanDefinition = new BeanDefinition(").append(classReference(beanDefinition)).append(");\n");
+            if (!beanDefinition.isSingleton()) {
+                methods.append("        beanDefinition.setScope(").append(quote(beanDefinition.getScope())).append(");\n");
+            }
+            if (beanDefinition.isLazyInit()) {
+                methods.append("        beanDefinition.setLazyInit(true);\n");
+            }
+            if (beanDefinition.getAutowireMode() != BeanDefinition.AUTOWIRE_NO) {
+                methods.append("        beanDefinition.setAutowireMode(").append(beanDefinition.getAutowireMode()).append(");\n");
+            }
+            if (beanDefinition.getInitMethodName() != null) {
+                methods.append("        beanDefinition.setInitMethodName(").append(quote(beanDefinition.getInitMethodName())).append(");\n");
+            }
+            if (beanDefinition.getDestroyMethodName() != null) {
+                methods.append("        beanDefinition.setDestroyMethodName(").append(quote(beanDefinition.getDestroyMethodName())).append(");\n");
+            }
+            for (PropertyValue propertyValue : remainingPropertyValues) {
+                methods.append("        beanDefinition.getPropertyValues().addPropertyValue(new PropertyValue(")
+                        .append(quote(propertyValue.getName())).append(", ").append(definitionValue(beanName, propertyValue.getValue())).append("));\n");
+            }
+            if (instantiateMethod == null && beanDefinition.hasConstructorArgumentValues()) {
+                writeConstructorArgumentValues(beanName, beanDefinition.getConstructorArgumentValues());
+            }
+            if (!dependsOn.isEmpty()) {
+                methods.append("        beanDefinition.setDependsOn(");
+                int i = 0;
+                for (String dependency : dependsOn) {
+                    methods.append(i++ > 0 ? ", " : "").append(quote(dependency));
+                }
+                methods.append(");\n");
+            }
+            if (instantiateMethod != null) {
+                methods.append("        beanDefinition.setInstanceSupplier(").append(simpleName).append("::").append(instantiateMethod).append(");\n");
+            }
+            if (populateMethod != null) {
+                methods.append("        beanDefinition.setPropertyPopulator(").append(simpleName).append("::").append(populateMethod).append(");\n");
+            }
+            methods.append("        return beanDefinition;\n");
+            methods.append("    }\n");
+            methods.append(beanMethods);
+            beanMethods.setLength(0);
+        }
+
+        /**
+         * 生成直接调用构造器的方法，无法生成时返回null（运行时走反射）
+         */
+        private String writeInstanceSupplier(String beanName, BeanDefinition beanDefinition, String capitalized, Set<String> dependsOn) {
+            Class<?> beanClass = beanDefinition.getBeanClass();
+            String beanType = typeName(beanClass);
+            if (beanType == null || Modifier.isAbstract(beanClass.getModifiers())) {
+                return null;
+            }
+            try {
+                beanFactory.resolveConstructor(beanName, beanDefinition);
+            } catch (BeansException ex) {
+                return null;
+            }
+            Constructor<?> constructor = beanDefinition.getResolvedConstructor();
+            if (!Modifier.isPublic(constructor.getModifiers())) {
+                return null;
+            }
+            Object[] prepared = beanDefinition.getPreparedConstructorArguments();
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+
+            StringBuilder body = new StringBuilder();
+            StringBuilder descriptorFields = new StringBuilder();
+            List<String> arguments = new ArrayList<>();
+            Set<String> argumentDependencies = new LinkedHashSet<>();
+            for (int i = 0; i < prepared.length; i++) {
+                String parameterType = typeName(boxed(parameterTypes[i]));
+                if (parameterType == null) {
+                    return null;
+                }
+                Object argument = prepared[i];
+                if (argument instanceof BeanReference) {
+                    String refName = ((BeanReference) argument).getBeanName();
+                    body.append("        Object arg").append(i).append(" = beanFactory.getBean(").append(quote(refName)).append(");\n");
+                    body.append("        beanFactory.registerDependentBean(").append(quote(refName)).append(", beanName);\n");
+                    arguments.add("(" + parameterType + ") arg" + i);
+                    argumentDependencies.add(refName);
+                } else if (argument instanceof DependencyDescriptor) {
+                    DependencyDescriptor descriptor = (DependencyDescriptor) argument;
+                    String dependencyType = typeName(descriptor.getDependencyType());
+                    if (dependencyType == null || descriptor.getGenericType() != descriptor.getDependencyType()) {
+                        return null;
+                    }
+                    String field = constantName(capitalized) + "_ARG" + i;
+                    descriptorFields.append("    private static final DependencyDescriptor ").append(field)
+                            .append(" = new DependencyDescriptor(").append(dependencyType).append(".class, ")
+                            .append(dependencyType).append(".class, ").append(quote(descriptor.getQualifier())).append(", ")
+                            .append(quote(descriptor.getValueExpression())).append(", ").append(quote(descriptor.toString())).append(");\n");
+                    body.append("        Object arg").append(i).append(" = beanFactory.resolveDependency(").append(field).append(", beanName);\n");
+                    arguments.add("(" + parameterType + ") arg" + i);
+                    argumentDependencies.addAll(Arrays.asList(beanFactory.predictDependencyCandidates(descriptor, beanName)));
+                } else {
+                    String literal = literal(argument, parameterTypes[i]);
+                    if (literal == null) {
+                        return null;
+                    }
+                    arguments.add(literal);
+                }
+            }
+
+            fields.append(descriptorFields);
+            dependsOn.addAll(argumentDependencies);
+            String method = "instantiate" + capitalized;
+            beanMethods.append('\n');
+            beanMethods.append("    private static Object ").append(method).append("(DefaultListableBeanFactory beanFactory, String beanName) {\n");
+            beanMethods.append(body);
+            beanMethods.append("        return new ").append(beanType).append('(').append(String.join(", ", arguments)).append(");\n");
+            beanMethods.append("    }\n");
+            return method;
+        }
+
+        /**
+         * 能在构建期确定的属性（字面量、autowire="byName"的ref）生成直接的setter调用，其余的留在remaining里由运行时处理
+         */
+        private String writePropertyPopulator(String beanName, BeanDefinition beanDefinition, String capitalized,
+                                              Set<String> dependsOn, List<PropertyValue> remaining) {
+            Class<?> beanClass = beanDefinition.getBeanClass();
+            String beanType = typeName(beanClass);
+            Map<String, Method> setters = beanType != null ? findPublicSetters(beanClass) : new HashMap<>();
+
+            StringBuilder body = new StringBuilder();
+            for (PropertyValue propertyValue : beanDefinition.getPropertyValues().asList()) {
+                Method setter = setters.get(propertyValue.getName());
+                Class<?> propertyType = setter != null ? setter.getParameterTypes()[0] : null;
+                String propertyTypeName = propertyType != null ? typeName(boxed(propertyType)) : null;
+                Object value = propertyValue.getValue();
+                if (propertyTypeName == null) {
+                    remaining.add(propertyValue);
+                } else if (value instanceof BeanReference) {
+                    String refName = ((BeanReference) value).getBeanName();
+                    // 与运行时一致：只有autowire="byName"且被引用的bean存在时才注入
+                    if (beanDefinition.getAutowireMode() == BeanDefinition.AUTOWIRE_BY_NAME && beanFactory.containsBeanDefinition(refName)) {
+                        body.append("        target.").append(setter.getName()).append("((").append(propertyTypeName)
+                                .append(") beanFactory.getBean(").append(quote(refName)).append("));\n");
+                        body.append("        beanFactory.registerDependentBean(").append(quote(refName)).append(", beanName);\n");
+                        dependsOn.add(refName);
+                    } else {
+                        remaining.add(propertyValue);
+                    }
+                } else {
+                    String literal = convertedLiteral(value, propertyType);
+                    if (literal != null) {
+                        body.append("        target.").append(setter.getName()).append('(').append(literal).append(");\n");
+                    } else {
+                        remaining.add(propertyValue);
+                    }
+                }
+            }
+            if (body.length() == 0) {
+                return null;
+            }
+            String method = "populate" + capitalized;
+            beanMethods.append('\n');
+            beanMethods.append("    private static void ").append(method).append("(DefaultListableBeanFactory beanFactory, String beanName, Object bean) {\n");
+            beanMethods.append("        ").append(beanType).append(" target = (").append(beanType).append(") bean;\n");
+            beanMethods.append(body);
+            beanMethods.append("    }\n");
+            return method;
+        }
+
+        /**
+         * 构建期用ConversionService把字符串转换成属性类型，再写成字面量。复杂类型（Duration、List等）返回null，留给运行时转换
+         */
+        private String convertedLiteral(Object value, Class<?> propertyType) {
+            if (!(value instanceof String) || !isLiteralType(propertyType)) {
+                return null;
+            }
+            try {
+                return literal(beanFactory.getConversionService().convert(value, propertyType), propertyType);
+            } catch (BeansException ex) {
+                return null;
+            }
+        }
+
+        private void writeConstructorArgumentValues(String beanName, ConstructorArgumentValues argumentValues) {
+            for (Map.Entry<Integer, ConstructorArgumentValues.ValueHolder> entry : argumentValues.getIndexedArgumentValues().entrySet()) {
+                methods.append("        beanDefinition.getConstructorArgumentValues().addIndexedArgumentValue(").append(entry.getKey())
+                        .append(", ").append(valueHolder(beanName, entry.getValue())).append(");\n");
+            }
+            for (ConstructorArgumentValues.ValueHolder valueHolder : argumentValues.getGenericArgumentValues()) {
+                methods.append("        beanDefinition.getConstructorArgumentValues().addGenericArgumentValue(")
+                        .append(valueHolder(beanName, valueHolder)).append(");\n");
+            }
+        }
+
+        private String valueHolder(String beanName, ConstructorArgumentValues.ValueHolder valueHolder) {
+            return "new ConstructorArgumentValues.ValueHolder(" + definitionValue(beanName, valueHolder.getValue()) + ", "
+                    + quote(valueHolder.getType()) + ", " + quote(valueHolder.getName()) + ")";
+        }
+
+        /**
+         * 原样保留在BeanDefinition里的值：字符串或者BeanReference
+         */
+        private String definitionValue(String beanName, Object value) {
+            if (value instanceof BeanReference) {
+                return "new BeanReference(" + quote(((BeanReference) value).getBeanName()) + ")";
+            }
+            String literal = value != null ? literal(value, value.getClass()) : "null";
+            if (literal == null) {
+                throw new BeansException("Cannot generate code for value [" + value + "] of bean '" + beanName + "'");
+            }
+            return literal;
+        }
+
+        /**
+         * 能直接引用的类写成类字面量，否则只写类名，运行时由BeanFactory加载
+         */
+        private String classReference(BeanDefinition beanDefinition) {
+            String typeName = typeName(beanDefinition.getBeanClass());
+            return typeName != null ? typeName + ".class" : quote(beanDefinition.getBeanClassName());
+        }
+
+        private String uniqueName(String name) {
+            String candidate = name;
+            for (int i = 2; !usedNames.add(candidate); i++) {
+                candidate = name + i;
+            }
+            return candidate;
+        }
+    }
+
+    private static Map<String, Method> findPublicSetters(Class<?> beanClass) {
+        Map<String, Method> setters = new HashMap<>();
+        try {
+            for (PropertyDescriptor descriptor : Introspector.getBeanInfo(beanClass).getPropertyDescriptors()) {
+                Method writeMethod = descriptor.getWriteMethod();
+                if (writeMethod != null && Modifier.isPublic(writeMethod.getModifiers())) {
+                    setters.put(descriptor.getName(), writeMethod);
+                }
+            }
+        } catch (IntrospectionException ex) {
+            // 拿不到setter，属性全部留给运行时处理
+        }
+        return setters;
+    }
+
+    /**
+     * 生成的代码里能直接引用的类型名，不能引用（非public、匿名类、局部类）时返回null
+     */
+    static String typeName(Class<?> type) {
+        if (type.isPrimitive()) {
+            return type.getName();
+        }
+        if (type.isArray()) {
+            String componentType = typeName(type.getComponentType());
+            return componentType != null ? componentType + "[]" : null;
+        }
+        for (Class<?> current = type; current != null; current = current.getEnclosingClass()) {
+            if (!Modifier.isPublic(current.getModifiers()) || current.isAnonymousClass() || current.isLocalClass()) {
+                return null;
+            }
+        }
+        return type.getCanonicalName();
+    }
+
+    private static Class<?> boxed(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == int.class) return Integer.class;
+        if (type == long.class) return Long.class;
+        if (type == double.class) return Double.class;
+        if (type == float.class) return Float.class;
+        if (type == boolean.class) return Boolean.class;
+        if (type == char.class) return Character.class;
+        if (type == byte.class) return Byte.class;
+        if (type == short.class) return Short.class;
+        return Void.class;
+    }
+
+    private static boolean isLiteralType(Class<?> type) {
+        Class<?> boxed = boxed(type);
+        return boxed == String.class || boxed == Boolean.class || boxed == Character.class || Number.class.isAssignableFrom(boxed)
+                && (boxed == Integer.class || boxed == Long.class || boxed == Double.class || boxed == Float.class
+                || boxed == Short.class || boxed == Byte.class)
+                || boxed.isEnum() && typeName(boxed) != null;
+    }
+
+    /**
+     * 把值写成可以赋给targetType的Java表达式，不支持的值返回null
+     */
+    private static String literal(Object value, Class<?> targetType) {
+        if (value == null) {
+            return targetType.isPrimitive() ? null : "null";
+        }
+        if (value instanceof String) {
+            return quote((String) value);
+        }
+        if (value instanceof Boolean) {
+            return value.toString();
+        }
+        if (value instanceof Character) {
+            char c = (Character) value;
+            return c == '\'' ? "'\\''" : "'" + escape(String.valueOf(c)) + "'";
+        }
+        if (value instanceof Integer) {
+            return value.toString();
+        }
+        if (value instanceof Long) {
+            return value + "L";
+        }
+        if (value instanceof Short) {
+            return "(short) " + value;
+        }
+        if (value instanceof Byte) {
+            return "(byte) " + value;
+        }
+        if (value instanceof Double) {
+            double d = (Double) value;
+            return Double.isNaN(d) ? "Double.NaN" : Double.isInfinite(d) ? (d > 0 ? "Double.POSITIVE_INFINITY" : "Double.NEGATIVE_INFINITY") : d + "D";
+        }
+        if (value instanceof Float) {
+            float f = (Float) value;
+            return Float.isNaN(f) ? "Float.NaN" : Float.isInfinite(f) ? (f > 0 ? "Float.POSITIVE_INFINITY" : "Float.NEGATIVE_INFINITY") : f + "F";
+        }
+        if (value instanceof Enum) {
+            String enumType = typeName(((Enum<?>) value).getDeclaringClass());
+            return enumType != null ? enumType + "." + ((Enum<?>) value).name() : null;
+        }
+        return null;
+    }
+
+    private static String quote(String value) {
+        return value == null ? "null" : "\"" + escape(value) + "\"";
+    }
+
+    private static String escape(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * beanName -> 合法的Java标识符，比如 org.xx.internalAutowiredAnnotationProcessor -> internalAutowiredAnnotationProcessor
+     */
+    private static String identifier(String beanName) {
+        String name = beanName.substring(beanName.lastIndexOf('.') + 1);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            sb.append(Character.isJavaIdentifierPart(c) ? c : '_');
+        }
+        if (sb.length() == 0 || !Character.isJavaIdentifierStart(sb.charAt(0))) {
+            sb.insert(0, "bean");
+        }
+        sb.setCharAt(0, Character.toLowerCase(sb.charAt(0)));
+        return sb.toString();
+    }
+
+    private static String constantName(String name) {
+        return name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase();
+    }
+}
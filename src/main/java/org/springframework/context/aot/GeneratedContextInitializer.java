@@ -0,0 +1,12 @@
+package org.springframework.context.aot;
+
+import org.springframework.beans.DefaultListableBeanFactory;
+
+/**
+ * AOT生成的类实现这个接口：把构建期确定下来的BeanDefinition直接注册到BeanFactory，
+ * 运行时不再需要解析XML、扫描classpath，见{@link ContextAotGenerator}、{@link AotApplicationContext}
+ */
+public interface GeneratedContextInitializer {
+
+    void initialize(DefaultListableBeanFactory beanFactory);
+}
@@ -0,0 +1,13 @@
+package org.springframework.context.event.event;
+
+/**
+ * 事件的属性，供{@link org.springframework.context.event.listener.ConditionalApplicationListener}的条件匹配使用。
+ * 事件发布器按属性值直接查索引，只调用条件匹配的监听器
+ */
+public interface EventAttributes {
+
+    /**
+     * 没有该属性时返回null
+     */
+    Object getAttribute(String name);
+}
@@ -0,0 +1,13 @@
+package org.springframework.context.event.event;
+
+/**
+ * 带分区键的事件，配合{@link org.springframework.context.event.multicaster.PartitionedTaskExecutor}使用：
+ * 分区键相同的事件（比如同一个账户的事件）按发布顺序依次处理，不同分区键的事件并发处理
+ */
+public interface PartitionedEvent {
+
+    /**
+     * 分区键，要求实现合理的hashCode/equals；返回null时固定分到第一条通道
+     */
+    Object getPartitionKey();
+}
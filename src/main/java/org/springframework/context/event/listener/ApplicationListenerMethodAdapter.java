@@ -0,0 +1,106 @@
+package org.springframework.context.event.listener;
+
+import org.springframework.context.event.event.ApplicationEvent;
+import org.springframework.core.exception.BeansException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * 把一个bean的{@link EventListener}方法适配成ApplicationListener。
+ * <p>
+ * 方法在解析时就转换成类型为(Object, Object)void的MethodHandle（与InjectionMetadata的做法一样），
+ * 调用时invokeExact，JIT能把它内联成直接调用，不像Method.invoke那样每次都要做参数检查和装箱。
+ * 解析结果{@link ListenerMethod}按类缓存，同一个类的所有bean共用；每个bean只多一个很小的适配器对象
+ */
+public class ApplicationListenerMethodAdapter implements GenericApplicationListener {
+
+    private final Object bean;
+
+    private final ListenerMethod listenerMethod;
+
+    public ApplicationListenerMethodAdapter(Object bean, ListenerMethod listenerMethod) {
+        this.bean = bean;
+        this.listenerMethod = listenerMethod;
+    }
+
+    @Override
+    public boolean supportsEventType(Class<?> eventType) {
+        for (Class<?> declaredEventType : listenerMethod.eventTypes) {
+            if (declaredEventType.isAssignableFrom(eventType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationEvent event) {
+        try {
+            listenerMethod.invoker.invokeExact(bean, (Object) event);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new BeansException("Failed to invoke event listener method: " + listenerMethod.method, ex);
+        }
+    }
+
+    public Object getBean() {
+        return bean;
+    }
+
+    public Method getMethod() {
+        return listenerMethod.method;
+    }
+
+    @Override
+    public String toString() {
+        return "ApplicationListenerMethodAdapter[" + listenerMethod.method + "]";
+    }
+
+    /**
+     * 解析好的监听方法：监听的事件类型 + 调用用的MethodHandle
+     */
+    public static final class ListenerMethod {
+
+        private final Method method;
+
+        private final Class<?>[] eventTypes;
+
+        private final MethodHandle invoker;
+
+        public ListenerMethod(Method method) throws BeansException {
+            if (method.getParameterCount() != 1) {
+                throw new BeansException("@EventListener method must have exactly one parameter: " + method);
+            }
+            Class<?> parameterType = method.getParameterTypes()[0];
+            EventListener annotation = method.getAnnotation(EventListener.class);
+            Class<?>[] eventTypes = annotation.value().length > 0 ? annotation.value() : new Class<?>[]{parameterType};
+            for (Class<?> eventType : eventTypes) {
+                if (!ApplicationEvent.class.isAssignableFrom(eventType) || !parameterType.isAssignableFrom(eventType)) {
+                    throw new BeansException("Event type [" + eventType.getName() + "] does not match @EventListener method: " + method);
+                }
+            }
+            this.method = method;
+            this.eventTypes = eventTypes;
+            try {
+                method.setAccessible(true);
+                MethodHandle handle = MethodHandles.lookup().unreflect(method);
+                this.invoker = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            } catch (IllegalAccessException | RuntimeException ex) {
+                throw new BeansException("Cannot access @EventListener method: " + method, ex);
+            }
+        }
+
+        public Method getMethod() {
+            return method;
+        }
+
+        public Class<?>[] getEventTypes() {
+            return Arrays.copyOf(eventTypes, eventTypes.length);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.springframework.context.event.listener;
+
+import org.springframework.context.event.event.ApplicationEvent;
+
+/**
+ * 带条件的事件监听器：只有事件（实现{@link org.springframework.context.event.event.EventAttributes}）的
+ * {@link #getConditionAttribute()}属性等于{@link #getConditionValue()}时才会被调用。
+ * <p>
+ * 条件在注册监听器时读取一次并建立索引，所以必须是不变的。比起在onApplicationEvent里自己过滤，
+ * 发布事件时不需要逐个调用再拒绝，监听器很多（比如每个账户一个）时差别很明显
+ *
+ * @param <E> 事件类型
+ */
+public interface ConditionalApplicationListener<E extends ApplicationEvent> extends ApplicationListener<E> {
+
+    String getConditionAttribute();
+
+    /**
+     * 按equals比较，不能为null
+     */
+    Object getConditionValue();
+}
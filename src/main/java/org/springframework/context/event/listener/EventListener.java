@@ -0,0 +1,24 @@
+package org.springframework.context.event.listener;
+
+import org.springframework.context.event.event.ApplicationEvent;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 把bean的方法标记为事件监听器，不需要整个类实现{@link ApplicationListener}，一个bean可以用多个方法处理多种事件。
+ * 方法必须只有一个参数，即事件本身；由{@link EventListenerMethodProcessor}在单例bean初始化之后注册
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@Documented
+public @interface EventListener {
+
+    /**
+     * 监听的事件类型，必须能赋值给方法参数。默认就是方法参数的类型
+     */
+    Class<? extends ApplicationEvent>[] value() default {};
+}
@@ -0,0 +1,125 @@
+package org.springframework.context.event.listener;
+
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.beans.processor.bean.BeanPostProcessor;
+import org.springframework.beans.processor.bean.DestructionAwareBeanPostProcessor;
+import org.springframework.beans.processor.bean.OverlayAwareBeanPostProcessor;
+import org.springframework.context.AbstractApplicationContext;
+import org.springframework.core.exception.BeansException;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * BeanPostProcessor：单例bean初始化之后，把它的{@link EventListener}方法注册成监听器。
+ * 原型bean不注册，否则每创建一个实例就多一个永远不会移除的监听器。
+ * <p>
+ * 在prepareBeanFactory阶段添加，比事件发布器初始化得早：
+ * 这之前创建的bean（比如BeanFactoryPostProcessor）的监听方法先暂存在上下文里，registerListeners时再注册。
+ * <p>
+ * 注册的适配器按bean名称记录，bean销毁时（增量刷新重建bean、destroySingleton、容器关闭）从事件发布器上移除，
+ * 否则已经销毁的实例还会继续收到事件。
+ * 处理器与上下文绑定，覆盖层（只是BeanFactory，没有自己的事件发布器）不使用它
+ */
+public class EventListenerMethodProcessor implements DestructionAwareBeanPostProcessor, OverlayAwareBeanPostProcessor {
+
+    /**
+     * 类 -> 监听方法，与bean实例、上下文无关，全局共享
+     */
+    private static final ClassValue<List<ApplicationListenerMethodAdapter.ListenerMethod>> LISTENER_METHODS =
+            new ClassValue<List<ApplicationListenerMethodAdapter.ListenerMethod>>() {
+                @Override
+                protected List<ApplicationListenerMethodAdapter.ListenerMethod> computeValue(Class<?> type) {
+                    return findListenerMethods(type);
+                }
+            };
+
+    private final AbstractApplicationContext applicationContext;
+
+    /**
+     * bean名称 -> 为它注册的适配器
+     */
+    private final Map<String, List<ApplicationListener<?>>> registeredListeners = new ConcurrentHashMap<>();
+
+    public EventListenerMethodProcessor(AbstractApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        List<ApplicationListenerMethodAdapter.ListenerMethod> listenerMethods = LISTENER_METHODS.get(bean.getClass());
+        if (listenerMethods.isEmpty() || !isSingleton(beanName)) {
+            return bean;
+        }
+        List<ApplicationListener<?>> adapters = new ArrayList<>(listenerMethods.size());
+        for (ApplicationListenerMethodAdapter.ListenerMethod listenerMethod : listenerMethods) {
+            adapters.add(new ApplicationListenerMethodAdapter(bean, listenerMethod));
+        }
+        // 同名bean重新创建时，先移除旧实例的适配器
+        removeListeners(registeredListeners.put(beanName, adapters));
+        for (ApplicationListener<?> adapter : adapters) {
+            applicationContext.addApplicationListener(adapter);
+        }
+        return bean;
+    }
+
+    @Override
+    public boolean requiresDestruction(Object bean) {
+        return !LISTENER_METHODS.get(bean.getClass()).isEmpty();
+    }
+
+    @Override
+    public void postProcessBeforeDestruction(Object bean, String beanName) throws BeansException {
+        List<ApplicationListener<?>> adapters = registeredListeners.get(beanName);
+        // 只移除属于这个实例的适配器
+        if (adapters != null && !adapters.isEmpty()
+                && ((ApplicationListenerMethodAdapter) adapters.get(0)).getBean() == bean
+                && registeredListeners.remove(beanName, adapters)) {
+            removeListeners(adapters);
+        }
+    }
+
+    @Override
+    public BeanPostProcessor forOverlay(DefaultListableBeanFactory overlay) {
+        return null;
+    }
+
+    private void removeListeners(List<ApplicationListener<?>> adapters) {
+        if (adapters != null) {
+            for (ApplicationListener<?> adapter : adapters) {
+                applicationContext.removeApplicationListener(adapter);
+            }
+        }
+    }
+
+    private boolean isSingleton(String beanName) {
+        DefaultListableBeanFactory beanFactory = applicationContext.getBeanFactory();
+        return !beanFactory.containsBeanDefinition(beanName) || beanFactory.getBeanDefinition(beanName).isSingleton();
+    }
+
+    /**
+     * 当前类和父类中标注了@EventListener的方法。子类重写的方法只算一次（MethodHandle调用时本来就会分派到子类的实现）
+     */
+    private static List<ApplicationListenerMethodAdapter.ListenerMethod> findListenerMethods(Class<?> type) {
+        List<ApplicationListenerMethodAdapter.ListenerMethod> listenerMethods = new ArrayList<>();
+        Set<String> signatures = new HashSet<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Method method : current.getDeclaredMethods()) {
+                if (method.isBridge() || method.isSynthetic() || !method.isAnnotationPresent(EventListener.class)) {
+                    continue;
+                }
+                if (signatures.add(method.getName() + Arrays.toString(method.getParameterTypes()))) {
+                    listenerMethods.add(new ApplicationListenerMethodAdapter.ListenerMethod(method));
+                }
+            }
+        }
+        return listenerMethods.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(listenerMethods);
+    }
+}
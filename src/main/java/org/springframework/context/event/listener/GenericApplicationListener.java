@@ -0,0 +1,12 @@
+package org.springframework.context.event.listener;
+
+import org.springframework.context.event.event.ApplicationEvent;
+
+/**
+ * 自己声明支持哪些事件类型的监听器，事件发布器不再从泛型参数解析事件类型。
+ * 适合泛型参数表达不了的情况，比如{@link ApplicationListenerMethodAdapter}：所有实例是同一个类，但监听的事件类型各不相同
+ */
+public interface GenericApplicationListener extends ApplicationListener<ApplicationEvent> {
+
+    boolean supportsEventType(Class<?> eventType);
+}
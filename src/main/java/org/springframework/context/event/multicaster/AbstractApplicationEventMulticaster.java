@@ -5,58 +5,145 @@ import org.springframework.beans.BeanFactory;
 import org.springframework.beans.DefaultListableBeanFactory;
 import org.springframework.beans.aware.BeanFactoryAware;
 import org.springframework.context.event.event.ApplicationEvent;
+import org.springframework.context.event.event.EventAttributes;
 import org.springframework.context.event.listener.ApplicationListener;
-import org.springframework.core.exception.BeansException;
+import org.springframework.context.event.listener.ConditionalApplicationListener;
+import org.springframework.context.event.listener.GenericApplicationListener;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class AbstractApplicationEventMulticaster implements ApplicationEventMulticaster, BeanFactoryAware {
 
-    public final Set<ApplicationListener<?>> applicationListeners = new LinkedHashSet<>();
+    /**
+     * 监听器泛型声明的事件类型，每个监听器类只解析一次
+     */
+    private static final ClassValue<Class<?>> LISTENER_EVENT_TYPES = new ClassValue<Class<?>>() {
+        @Override
+        protected Class<?> computeValue(Class<?> listenerClass) {
+            return resolveDeclaredEventType(listenerClass);
+        }
+    };
+
+    private final Set<ApplicationListener<?>> applicationListeners = new LinkedHashSet<>();
+
+    /**
+     * 事件类型 -> 感兴趣的监听器（带条件的监听器按条件建好索引）。增删监听器时整体清空
+     */
+    private final Map<Class<?>, ListenerRetriever> retrieverCache = new ConcurrentHashMap<>(64);
 
     // 目前没啥用，这里只是为了和Spring保持接口一致
     @Nullable
     private DefaultListableBeanFactory beanFactory;
 
+    private final MulticasterMetrics metrics = new MulticasterMetrics();
+
     @Override
     public void addApplicationListener(ApplicationListener<?> listener) {
-        applicationListeners.add(listener);
+        synchronized (applicationListeners) {
+            applicationListeners.add(listener);
+            retrieverCache.clear();
+        }
     }
 
     @Override
     public void removeApplicationListener(ApplicationListener<?> listener) {
-        applicationListeners.remove(listener);
+        synchronized (applicationListeners) {
+            applicationListeners.remove(listener);
+            retrieverCache.clear();
+        }
     }
 
+    /**
+     * 对该事件感兴趣的监听器，按注册顺序。
+     * 同一个事件类型第一次发布时遍历所有监听器建立{@link ListenerRetriever}，之后只查缓存和条件索引
+     */
     protected Collection<ApplicationListener<?>> getApplicationListeners(ApplicationEvent event) {
-        if (applicationListeners.isEmpty()) {
-            return Collections.emptySet();
+        Class<?> eventType = event.getClass();
+        ListenerRetriever retriever = retrieverCache.get(eventType);
+        if (retriever == null) {
+            // 在锁里构建并放入缓存，保证不会把增删监听器之前的结果放进清空之后的缓存
+            synchronized (applicationListeners) {
+                retriever = retrieverCache.get(eventType);
+                if (retriever == null) {
+                    retriever = new ListenerRetriever();
+                    int position = 0;
+                    for (ApplicationListener<?> listener : applicationListeners) {
+                        if (supportsEvent(listener, eventType)) {
+                            retriever.add(listener, position);
+                        }
+                        position++;
+                    }
+                    retriever.seal();
+                    retrieverCache.put(eventType, retriever);
+                }
+            }
+        }
+        return retriever.getListeners(event);
+    }
+
+    /**
+     * 监听器是否对该类型的事件感兴趣
+     */
+    protected boolean supportsEvent(ApplicationListener<?> applicationListener, Class<?> eventType) {
+        if (applicationListener instanceof GenericApplicationListener) {
+            return ((GenericApplicationListener) applicationListener).supportsEventType(eventType);
         }
-        return applicationListeners.stream()
-                .filter(listener -> supportsEvent(listener, event))
-                .collect(Collectors.toSet());
+        return LISTENER_EVENT_TYPES.get(applicationListener.getClass()).isAssignableFrom(eventType);
     }
 
     /**
-     * 监听器是否对该事件感兴趣
+     * 解析监听器类实现的ApplicationListener&lt;E&gt;中的E，沿着父类和父接口查找
+     * （比如ConditionalApplicationListener&lt;E&gt;，约定第一个类型参数就是事件类型）。
+     * 解析不出来时（lambda、泛型参数由子类决定）当作监听所有事件，
+     * 类型不对的事件在调用时因为强制转换失败被跳过（见SimpleApplicationEventMulticaster#invokeListener）
      */
-    protected boolean supportsEvent(ApplicationListener<?> applicationListener, ApplicationEvent event) {
-        Type type = applicationListener.getClass().getGenericInterfaces()[0];
-        Type actualTypeArgument = ((ParameterizedType) type).getActualTypeArguments()[0];
-        String className = actualTypeArgument.getTypeName();
-        Class<?> eventClassName;
-        try {
-            eventClassName = Class.forName(className);
-        } catch (ClassNotFoundException e) {
-            throw new BeansException("wrong event class name: " + className);
+    static Class<?> resolveDeclaredEventType(Class<?> listenerClass) {
+        for (Class<?> current = listenerClass; current != null && current != Object.class; current = current.getSuperclass()) {
+            Class<?> eventType = resolveDeclaredEventType(current.getGenericInterfaces());
+            if (eventType != null) {
+                return eventType;
+            }
+        }
+        return ApplicationEvent.class;
+    }
+
+    @Nullable
+    private static Class<?> resolveDeclaredEventType(Type[] interfaces) {
+        for (Type type : interfaces) {
+            if (type instanceof ParameterizedType) {
+                ParameterizedType parameterizedType = (ParameterizedType) type;
+                if (ApplicationListener.class.isAssignableFrom((Class<?>) parameterizedType.getRawType())) {
+                    Type argument = parameterizedType.getActualTypeArguments()[0];
+                    if (argument instanceof Class) {
+                        return (Class<?>) argument;
+                    }
+                    if (argument instanceof ParameterizedType) {
+                        return (Class<?>) ((ParameterizedType) argument).getRawType();
+                    }
+                }
+            } else if (type instanceof Class && ApplicationListener.class.isAssignableFrom((Class<?>) type)) {
+                Class<?> eventType = resolveDeclaredEventType(((Class<?>) type).getGenericInterfaces());
+                if (eventType != null) {
+                    return eventType;
+                }
+            }
         }
-        return eventClassName.isAssignableFrom(event.getClass());
+        return null;
+    }
+
+    public MulticasterMetrics getMetrics() {
+        return metrics;
     }
 
     @Override
@@ -66,4 +153,81 @@ public abstract class AbstractApplicationEventMulticaster implements Application
         }
         this.beanFactory = (DefaultListableBeanFactory) beanFactory;
     }
+
+    /**
+     * 某个事件类型的监听器：
+     * - 无条件的监听器，每次都调用；
+     * - 带条件的监听器，按 属性名 -> 属性值 -> 监听器 建立索引，发布时每个属性只查一次Map
+     */
+    private static final class ListenerRetriever {
+
+        private final List<PositionedListener> unconditional = new ArrayList<>();
+
+        private final Map<String, Map<Object, List<PositionedListener>>> conditional = new HashMap<>();
+
+        private List<ApplicationListener<?>> unconditionalListeners = Collections.emptyList();
+
+        void add(ApplicationListener<?> listener, int position) {
+            PositionedListener positioned = new PositionedListener(listener, position);
+            if (listener instanceof ConditionalApplicationListener) {
+                ConditionalApplicationListener<?> conditionalListener = (ConditionalApplicationListener<?>) listener;
+                conditional.computeIfAbsent(conditionalListener.getConditionAttribute(), name -> new HashMap<>())
+                        .computeIfAbsent(conditionalListener.getConditionValue(), value -> new ArrayList<>(1))
+                        .add(positioned);
+            } else {
+                unconditional.add(positioned);
+            }
+        }
+
+        /**
+         * 构建完成，之后只读
+         */
+        void seal() {
+            List<ApplicationListener<?>> listeners = new ArrayList<>(unconditional.size());
+            for (PositionedListener each : unconditional) {
+                listeners.add(each.listener);
+            }
+            unconditionalListeners = Collections.unmodifiableList(listeners);
+        }
+
+        Collection<ApplicationListener<?>> getListeners(ApplicationEvent event) {
+            if (conditional.isEmpty() || !(event instanceof EventAttributes)) {
+                return unconditionalListeners;
+            }
+            EventAttributes attributes = (EventAttributes) event;
+            List<PositionedListener> matched = null;
+            for (Map.Entry<String, Map<Object, List<PositionedListener>>> entry : conditional.entrySet()) {
+                Object value = attributes.getAttribute(entry.getKey());
+                List<PositionedListener> listeners = value != null ? entry.getValue().get(value) : null;
+                if (listeners != null) {
+                    if (matched == null) {
+                        matched = new ArrayList<>(unconditional);
+                    }
+                    matched.addAll(listeners);
+                }
+            }
+            if (matched == null) {
+                return unconditionalListeners;
+            }
+            // 恢复注册顺序
+            matched.sort(Comparator.comparingInt(each -> each.position));
+            List<ApplicationListener<?>> result = new ArrayList<>(matched.size());
+            for (PositionedListener each : matched) {
+                result.add(each.listener);
+            }
+            return result;
+        }
+    }
+
+    private static final class PositionedListener {
+
+        private final ApplicationListener<?> listener;
+
+        private final int position;
+
+        PositionedListener(ApplicationListener<?> listener, int position) {
+            this.listener = listener;
+            this.position = position;
+        }
+    }
 }
@@ -4,6 +4,8 @@ package org.springframework.context.event.multicaster;
 import org.springframework.context.event.event.ApplicationEvent;
 import org.springframework.context.event.listener.ApplicationListener;
 
+import java.util.Collection;
+
 /**
  * 事件发布器
  */
@@ -16,4 +18,13 @@ public interface ApplicationEventMulticaster {
 
     void multicastEvent(ApplicationEvent event);
 
+    /**
+     * 按顺序发布一批事件（refresh期间缓存的事件、批量发布作用域提交的事件）
+     */
+    default void multicastEvents(Collection<? extends ApplicationEvent> events) {
+        for (ApplicationEvent event : events) {
+            multicastEvent(event);
+        }
+    }
+
 }
@@ -0,0 +1,64 @@
+package org.springframework.context.event.multicaster;
+
+import org.springframework.beans.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 事件发布器的运行指标：发布了多少事件、调用了多少次监听器、监听器抛了多少次异常，以及监听器的耗时分布
+ */
+public class MulticasterMetrics {
+
+    private final LongAdder eventsMulticast = new LongAdder();
+
+    private final LongAdder eventsWithoutListeners = new LongAdder();
+
+    private final LongAdder listenerInvocations = new LongAdder();
+
+    private final LongAdder listenerFailures = new LongAdder();
+
+    private final LatencyHistogram listenerTimes = new LatencyHistogram();
+
+    public void recordMulticast(int matchedListeners) {
+        eventsMulticast.increment();
+        if (matchedListeners == 0) {
+            eventsWithoutListeners.increment();
+        }
+    }
+
+    public void recordListenerInvocation(long nanos, boolean failed) {
+        listenerInvocations.increment();
+        if (failed) {
+            listenerFailures.increment();
+        }
+        listenerTimes.record(nanos);
+    }
+
+    public long getEventsMulticast() {
+        return eventsMulticast.sum();
+    }
+
+    public long getEventsWithoutListeners() {
+        return eventsWithoutListeners.sum();
+    }
+
+    public long getListenerInvocations() {
+        return listenerInvocations.sum();
+    }
+
+    public long getListenerFailures() {
+        return listenerFailures.sum();
+    }
+
+    public LatencyHistogram getListenerTimes() {
+        return listenerTimes;
+    }
+
+    public void reset() {
+        eventsMulticast.reset();
+        eventsWithoutListeners.reset();
+        listenerInvocations.reset();
+        listenerFailures.reset();
+        listenerTimes.reset();
+    }
+}
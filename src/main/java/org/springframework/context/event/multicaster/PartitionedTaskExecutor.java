@@ -0,0 +1,98 @@
+package org.springframework.context.event.multicaster;
+
+import org.springframework.beans.lifecycle.DisposableBean;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按分区键派发任务的线程池：固定数量的通道（lane），每条通道是一个单线程的线程池。
+ * 同一个分区键总是落在同一条通道上，所以同一个键的任务按提交顺序执行；不同的键分散在各个通道上并发执行。
+ * <p>
+ * 通道数量固定，任务队列无界：某个键的监听器很慢时，只会拖慢和它落在同一条通道上的键。
+ * 没有分区键的任务按轮询分配到各个通道，不保证顺序。
+ * <p>
+ * 注册成bean时容器关闭会调用{@link #destroy()}，否则需要自己调用{@link #shutdown()}
+ */
+public class PartitionedTaskExecutor implements DisposableBean {
+
+    private final ExecutorService[] lanes;
+
+    private final AtomicInteger nextLane = new AtomicInteger();
+
+    public PartitionedTaskExecutor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public PartitionedTaskExecutor(int laneCount) {
+        if (laneCount <= 0) {
+            throw new IllegalArgumentException("laneCount must be positive: " + laneCount);
+        }
+        this.lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String threadName = "event-lane-" + i;
+            this.lanes[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * 在分区键对应的通道上执行任务
+     */
+    public void execute(Object partitionKey, Runnable task) {
+        lanes[laneFor(partitionKey)].execute(task);
+    }
+
+    /**
+     * 没有分区键的任务，轮询分配通道
+     */
+    public void execute(Runnable task) {
+        lanes[Math.floorMod(nextLane.getAndIncrement(), lanes.length)].execute(task);
+    }
+
+    public int laneFor(Object partitionKey) {
+        if (partitionKey == null) {
+            return 0;
+        }
+        // 和HashMap一样把高位混进来，避免键的hashCode只有高位不同时全部落到同一条通道
+        int h = partitionKey.hashCode();
+        h ^= (h >>> 16);
+        return Math.floorMod(h, lanes.length);
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * 不再接收新任务，已经提交的任务会执行完
+     */
+    public void shutdown() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+    }
+
+    /**
+     * 等待已经提交的任务执行完，超时返回false
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (ExecutorService lane : lanes) {
+            if (!lane.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void destroy() {
+        shutdown();
+    }
+}
@@ -3,9 +3,15 @@ package org.springframework.context.event.multicaster;
 import org.springframework.core.common.Nullable;
 import org.springframework.beans.BeanFactory;
 import org.springframework.context.event.event.ApplicationEvent;
+import org.springframework.context.event.event.PartitionedEvent;
 import org.springframework.context.event.listener.ApplicationListener;
+import org.springframework.core.jfr.ContainerFlightRecorder;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executor;
 
 
@@ -14,15 +20,28 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 	@Nullable
 	private Executor taskExecutor;
 
+	@Nullable
+	private PartitionedTaskExecutor partitionedTaskExecutor;
+
 	public SimpleApplicationEventMulticaster(BeanFactory beanFactory) {
 		setBeanFactory(beanFactory);
 	}
 
 	@Override
 	public void multicastEvent(ApplicationEvent event) {
+		Object jfrEvent = ContainerFlightRecorder.beginMulticast();
 		Collection<ApplicationListener<?>> matchedListeners = getApplicationListeners(event);
+		getMetrics().recordMulticast(matchedListeners.size());
+		PartitionedTaskExecutor partitionedExecutor = getPartitionedTaskExecutor();
+		if (partitionedExecutor != null && event instanceof PartitionedEvent) {
+			// 分区派发：一个事件的所有监听器作为一个任务提交到分区键对应的通道，
+			// 同一个键的事件依次处理，同一个事件的监听器也按注册顺序调用
+			partitionedExecutor.execute(((PartitionedEvent) event).getPartitionKey(), () -> invokeListeners(matchedListeners, event));
+			ContainerFlightRecorder.commitMulticast(jfrEvent, event.getClass(), matchedListeners.size(), true);
+			return;
+		}
+		Executor executor = getTaskExecutor();
 		for (ApplicationListener<?> listener : matchedListeners) {
-			Executor executor = getTaskExecutor();
 			if (executor != null) {
 				// 如果外界设置了线程池，则变为异步事件
 				executor.execute(() -> invokeListener(listener, event));
@@ -31,11 +50,81 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 				invokeListener(listener, event);
 			}
 		}
+		ContainerFlightRecorder.commitMulticast(jfrEvent, event.getClass(), matchedListeners.size(), executor != null);
+	}
+
+	/**
+	 * 批量发布：分区派发时，同一个分区键的所有事件合并成一个任务提交到它的通道，而不是每个事件一个任务
+	 */
+	@Override
+	public void multicastEvents(Collection<? extends ApplicationEvent> events) {
+		PartitionedTaskExecutor partitionedExecutor = getPartitionedTaskExecutor();
+		Map<Object, List<Runnable>> tasksByKey = new LinkedHashMap<>();
+		for (ApplicationEvent event : events) {
+			if (partitionedExecutor == null || !(event instanceof PartitionedEvent)) {
+				multicastEvent(event);
+				continue;
+			}
+			Object jfrEvent = ContainerFlightRecorder.beginMulticast();
+			Collection<ApplicationListener<?>> matchedListeners = getApplicationListeners(event);
+			getMetrics().recordMulticast(matchedListeners.size());
+			tasksByKey.computeIfAbsent(((PartitionedEvent) event).getPartitionKey(), key -> new ArrayList<>())
+					.add(() -> invokeListeners(matchedListeners, event));
+			ContainerFlightRecorder.commitMulticast(jfrEvent, event.getClass(), matchedListeners.size(), true);
+		}
+		for (Map.Entry<Object, List<Runnable>> entry : tasksByKey.entrySet()) {
+			List<Runnable> tasks = entry.getValue();
+			partitionedExecutor.execute(entry.getKey(), () -> tasks.forEach(Runnable::run));
+		}
+	}
+
+	private void invokeListeners(Collection<ApplicationListener<?>> listeners, ApplicationEvent event) {
+		for (ApplicationListener<?> listener : listeners) {
+			try {
+				invokeListener(listener, event);
+			} catch (RuntimeException ex) {
+				// 和普通异步派发一样，一个监听器失败不影响其他监听器，也不能让通道停下来；失败次数记在指标里
+			}
+		}
 	}
 
 	@SuppressWarnings({"unchecked", "rawtypes"})
 	private void invokeListener(ApplicationListener listener, ApplicationEvent event) {
-		listener.onApplicationEvent(event);
+		Object jfrEvent = ContainerFlightRecorder.beginListenerInvocation();
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			listener.onApplicationEvent(event);
+			failed = false;
+		} catch (ClassCastException ex) {
+			// lambda监听器的事件类型解析不出来，会收到所有事件，类型不对时在lambda内部的强制转换处失败：当作不监听该事件
+			if (!matchesClassCastMessage(ex.getMessage(), event.getClass())) {
+				throw ex;
+			}
+			failed = false;
+		} finally {
+			getMetrics().recordListenerInvocation(System.nanoTime() - start, failed);
+			ContainerFlightRecorder.commitListenerInvocation(jfrEvent, event.getClass(), listener.getClass(), failed);
+		}
+	}
+
+	/**
+	 * 异常信息是否说明是事件类本身转换失败（而不是监听器内部其他地方的转换失败），不同JDK版本的格式不同：
+	 * Java 8："com.example.Event cannot be cast to ..."；Java 11+："class com.example.Event cannot be cast to ..."，
+	 * 模块中的类还会带上模块名前缀
+	 */
+	private static boolean matchesClassCastMessage(@Nullable String classCastMessage, Class<?> eventClass) {
+		if (classCastMessage == null) {
+			return false;
+		}
+		if (classCastMessage.startsWith(eventClass.getName())) {
+			return true;
+		}
+		if (classCastMessage.startsWith(eventClass.toString())) {
+			return true;
+		}
+		int moduleSeparatorIndex = classCastMessage.indexOf('/');
+		return moduleSeparatorIndex != -1 && classCastMessage.startsWith(eventClass.getName(), moduleSeparatorIndex + 1);
 	}
 
 	@Nullable
@@ -46,4 +135,16 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 	public void setTaskExecutor(@Nullable Executor executor) {
 		this.taskExecutor = executor;
 	}
+
+	@Nullable
+	protected PartitionedTaskExecutor getPartitionedTaskExecutor() {
+		return this.partitionedTaskExecutor;
+	}
+
+	/**
+	 * 设置后{@link PartitionedEvent}按分区键派发（优先于{@link #setTaskExecutor}），其他事件不受影响
+	 */
+	public void setPartitionedTaskExecutor(@Nullable PartitionedTaskExecutor partitionedTaskExecutor) {
+		this.partitionedTaskExecutor = partitionedTaskExecutor;
+	}
 }
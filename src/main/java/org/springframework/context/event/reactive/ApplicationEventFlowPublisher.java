@@ -0,0 +1,266 @@
+package org.springframework.context.event.reactive;
+
+import org.springframework.context.event.event.ApplicationEvent;
+import org.springframework.context.event.listener.GenericApplicationListener;
+import org.springframework.context.event.multicaster.ApplicationEventMulticaster;
+
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 把事件发布器上某一类事件包装成{@link Flow.Publisher}，订阅者按自己的节奏（request）拉取事件，而不是被onApplicationEvent阻塞式地推送。
+ * <p>
+ * 每个订阅者对应一个监听器注册在事件发布器上，并有自己的有界缓冲区：
+ * - 事件到达时先放进缓冲区，订阅者有需求（request过）时再投递；
+ * - 缓冲区满了按{@link OverflowStrategy}处理，慢订阅者不会拖垮发布者，也不会无限占用内存；
+ * - cancel时从事件发布器上移除监听器，之后不会再收到任何事件。
+ * 事件在发布事件的线程（或者request的线程）上投递，同一个订阅者的回调串行执行；
+ * 需要异步时给事件发布器设置taskExecutor或PartitionedTaskExecutor
+ */
+public class ApplicationEventFlowPublisher<E extends ApplicationEvent> implements Flow.Publisher<E> {
+
+    private final ApplicationEventMulticaster multicaster;
+
+    private final Class<E> eventType;
+
+    private final int bufferSize;
+
+    private final OverflowStrategy overflowStrategy;
+
+    private final Set<EventSubscription> subscriptions = new CopyOnWriteArraySet<>();
+
+    private volatile boolean closed;
+
+    public ApplicationEventFlowPublisher(ApplicationEventMulticaster multicaster, Class<E> eventType,
+                                         int bufferSize, OverflowStrategy overflowStrategy) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+        }
+        this.multicaster = multicaster;
+        this.eventType = eventType;
+        this.bufferSize = bufferSize;
+        this.overflowStrategy = overflowStrategy;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super E> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        EventSubscription subscription = new EventSubscription(subscriber);
+        subscriptions.add(subscription);
+        multicaster.addApplicationListener(subscription);
+        // 规范1.9：onSubscribe必须是第一个信号。onSubscribe返回之前到达的事件、并发的close只记录下来，激活之后才投递
+        subscriber.onSubscribe(subscription);
+        subscription.activate();
+        // 在add之前就已经close的情况，close遍历不到这个订阅者
+        if (closed) {
+            subscription.complete();
+        }
+    }
+
+    /**
+     * 不再接收新事件：所有订阅者的缓冲区投递完之后收到onComplete。容器关闭前调用
+     */
+    public void close() {
+        closed = true;
+        for (EventSubscription subscription : subscriptions) {
+            subscription.complete();
+        }
+    }
+
+    /**
+     * 当前的订阅者个数
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * 一个订阅者：既是注册在事件发布器上的监听器，也是交给订阅者的Subscription。
+     * 投递用常见的"work-in-progress"计数保证同一时刻只有一个线程在drain，
+     * 订阅者在onNext里调用request也不会递归
+     */
+    private final class EventSubscription implements GenericApplicationListener, Flow.Subscription {
+
+        private final Flow.Subscriber<? super E> subscriber;
+
+        /**
+         * 以下字段由this保护
+         */
+        private final ArrayDeque<E> buffer = new ArrayDeque<>();
+
+        private long demand;
+
+        private boolean cancelled;
+
+        private boolean done;
+
+        private Throwable error;
+
+        /**
+         * onSubscribe返回之后才为true，之前不投递任何信号
+         */
+        private boolean active;
+
+        private final AtomicInteger wip = new AtomicInteger();
+
+        EventSubscription(Flow.Subscriber<? super E> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public boolean supportsEventType(Class<?> type) {
+            return eventType.isAssignableFrom(type);
+        }
+
+        @Override
+        public void onApplicationEvent(ApplicationEvent event) {
+            boolean overflowed = false;
+            synchronized (this) {
+                if (cancelled || done) {
+                    return;
+                }
+                if (buffer.size() >= bufferSize) {
+                    switch (overflowStrategy) {
+                        case DROP_OLDEST:
+                            buffer.poll();
+                            break;
+                        case DROP_LATEST:
+                            return;
+                        default:
+                            overflowed = true;
+                            break;
+                    }
+                }
+                if (overflowed) {
+                    done = true;
+                    error = new IllegalStateException("Subscriber buffer of " + bufferSize + " events overflowed: " + subscriber);
+                } else {
+                    buffer.offer(eventType.cast(event));
+                }
+            }
+            if (overflowed) {
+                unregister();
+            }
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            boolean invalid = n <= 0;
+            synchronized (this) {
+                if (cancelled) {
+                    // 已经终止，按规范忽略
+                    return;
+                }
+                if (invalid) {
+                    // 规范3.9：非正数的request要以onError结束订阅
+                    done = true;
+                    buffer.clear();
+                    error = new IllegalArgumentException("Non-positive request: " + n);
+                } else {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+            }
+            if (invalid) {
+                unregister();
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                buffer.clear();
+            }
+            unregister();
+        }
+
+        void activate() {
+            synchronized (this) {
+                active = true;
+            }
+            drain();
+        }
+
+        void complete() {
+            synchronized (this) {
+                if (cancelled || done) {
+                    return;
+                }
+                done = true;
+            }
+            unregister();
+            drain();
+        }
+
+        private void unregister() {
+            if (subscriptions.remove(this)) {
+                multicaster.removeApplicationListener(this);
+            }
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                while (true) {
+                    E next;
+                    Throwable terminalError = null;
+                    boolean terminate = false;
+                    synchronized (this) {
+                        if (cancelled) {
+                            return;
+                        }
+                        if (!active) {
+                            next = null;
+                        } else if (demand > 0 && !buffer.isEmpty()) {
+                            next = buffer.poll();
+                            if (demand != Long.MAX_VALUE) {
+                                demand--;
+                            }
+                        } else {
+                            next = null;
+                            if (done && buffer.isEmpty()) {
+                                // 终止信号只发一次
+                                cancelled = true;
+                                terminate = true;
+                                terminalError = error;
+                            }
+                        }
+                    }
+                    if (terminate) {
+                        if (terminalError != null) {
+                            subscriber.onError(terminalError);
+                        } else {
+                            subscriber.onComplete();
+                        }
+                        return;
+                    }
+                    if (next == null) {
+                        break;
+                    }
+                    try {
+                        subscriber.onNext(next);
+                    } catch (Throwable ex) {
+                        // 规范2.13：onNext抛异常视为订阅者已经失效，取消订阅
+                        cancel();
+                        return;
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        @Override
+        public String toString() {
+            return "ApplicationEventFlowPublisher.Subscription[" + eventType.getName() + " -> " + subscriber + "]";
+        }
+    }
+}
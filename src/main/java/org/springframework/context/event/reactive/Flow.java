@@ -0,0 +1,44 @@
+package org.springframework.context.event.reactive;
+
+/**
+ * 与JDK 9的java.util.concurrent.Flow（以及Reactive Streams规范）形状完全一致的接口。
+ * 项目以Java 8为编译目标，用不了JDK里的Flow，所以在这里定义一份；
+ * 在Java 9+或者Reactor、RxJava里使用时，写一个方法签名一一对应的适配器即可
+ */
+public final class Flow {
+
+    private Flow() {
+    }
+
+    /**
+     * 数据的生产者，每个订阅者独立订阅
+     */
+    public interface Publisher<T> {
+
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    /**
+     * 数据的消费者。同一个订阅者的回调不会并发调用
+     */
+    public interface Subscriber<T> {
+
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T item);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+    }
+
+    /**
+     * 订阅关系：订阅者通过request声明还能处理多少个元素（背压），通过cancel取消订阅
+     */
+    public interface Subscription {
+
+        void request(long n);
+
+        void cancel();
+    }
+}
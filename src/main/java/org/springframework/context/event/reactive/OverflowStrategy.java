@@ -0,0 +1,22 @@
+package org.springframework.context.event.reactive;
+
+/**
+ * 订阅者的缓冲区满了（事件发布得比订阅者request得快）时的处理方式
+ */
+public enum OverflowStrategy {
+
+    /**
+     * 丢弃缓冲区里最旧的事件，放入新事件，适合只关心最新状态的场景
+     */
+    DROP_OLDEST,
+
+    /**
+     * 丢弃新事件
+     */
+    DROP_LATEST,
+
+    /**
+     * 取消订阅，缓冲区里的事件投递完之后通过onError通知订阅者
+     */
+    ERROR
+}
@@ -0,0 +1,139 @@
+package org.springframework.context.metrics;
+
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.beans.metrics.BeanFactoryMetrics;
+import org.springframework.beans.metrics.LatencyHistogram;
+import org.springframework.context.AbstractApplicationContext;
+import org.springframework.context.event.multicaster.MulticasterMetrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 汇总容器的运行指标：BeanFactory的{@link BeanFactoryMetrics} + 事件发布器的{@link MulticasterMetrics}。
+ * <p>
+ * 每次读取都从ApplicationContext拿当前的BeanFactory和事件发布器，
+ * 所以完整refresh换了一个新的BeanFactory之后，读到的就是新BeanFactory的指标（计数从0开始）。
+ * <p>
+ * 既可以直接通过{@link AbstractApplicationContext#getMetrics()}编程访问，也会被注册成JMX MBean。
+ */
+public class ApplicationContextMetrics implements ApplicationContextMetricsMBean {
+
+    private static final BeanFactoryMetrics EMPTY_BEAN_FACTORY_METRICS = new BeanFactoryMetrics();
+
+    private static final MulticasterMetrics EMPTY_MULTICASTER_METRICS = new MulticasterMetrics();
+
+    private final AbstractApplicationContext applicationContext;
+
+    public ApplicationContextMetrics(AbstractApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * 当前BeanFactory的指标；refresh之前返回一份空指标
+     */
+    public BeanFactoryMetrics getBeanFactoryMetrics() {
+        DefaultListableBeanFactory beanFactory = applicationContext.getBeanFactory();
+        return beanFactory != null ? beanFactory.getMetrics() : EMPTY_BEAN_FACTORY_METRICS;
+    }
+
+    /**
+     * 事件发布器的指标；事件发布器初始化之前返回一份空指标
+     */
+    public MulticasterMetrics getMulticasterMetrics() {
+        MulticasterMetrics metrics = applicationContext.getMulticasterMetrics();
+        return metrics != null ? metrics : EMPTY_MULTICASTER_METRICS;
+    }
+
+    @Override
+    public long getSingletonHits() {
+        return getBeanFactoryMetrics().getSingletonHits();
+    }
+
+    @Override
+    public long getSingletonCreations() {
+        return getBeanFactoryMetrics().getSingletonCreations();
+    }
+
+    @Override
+    public long getPrototypeCreations() {
+        return getBeanFactoryMetrics().getPrototypeCreations();
+    }
+
+    @Override
+    public long getScopedBeanRequests() {
+        return getBeanFactoryMetrics().getScopedBeanRequests();
+    }
+
+    @Override
+    public long getScopedBeanCreations() {
+        return getBeanFactoryMetrics().getScopedBeanCreations();
+    }
+
+    @Override
+    public long getByTypeLookups() {
+        return getBeanFactoryMetrics().getByTypeLookups();
+    }
+
+    @Override
+    public long getCreationFailures() {
+        return getBeanFactoryMetrics().getCreationFailures();
+    }
+
+    @Override
+    public double getPostProcessorTimeMillis() {
+        return getBeanFactoryMetrics().getPostProcessorNanos() / 1_000_000.0;
+    }
+
+    @Override
+    public String[] getBeanCreationTimes() {
+        return format(getBeanFactoryMetrics().getCreationTimes());
+    }
+
+    @Override
+    public String[] getPostProcessorTimes() {
+        return format(getBeanFactoryMetrics().getPostProcessorTimes());
+    }
+
+    @Override
+    public long getEventsMulticast() {
+        return getMulticasterMetrics().getEventsMulticast();
+    }
+
+    @Override
+    public long getEventsWithoutListeners() {
+        return getMulticasterMetrics().getEventsWithoutListeners();
+    }
+
+    @Override
+    public long getListenerInvocations() {
+        return getMulticasterMetrics().getListenerInvocations();
+    }
+
+    @Override
+    public long getListenerFailures() {
+        return getMulticasterMetrics().getListenerFailures();
+    }
+
+    @Override
+    public String getListenerTimes() {
+        return getMulticasterMetrics().getListenerTimes().toString();
+    }
+
+    @Override
+    public void reset() {
+        getBeanFactoryMetrics().reset();
+        getMulticasterMetrics().reset();
+    }
+
+    private static String[] format(Map<String, LatencyHistogram> histograms) {
+        // 按名称排序，JConsole里看起来更整齐
+        Map<String, LatencyHistogram> sorted = new TreeMap<>(histograms);
+        String[] result = new String[sorted.size()];
+        int i = 0;
+        for (Map.Entry<String, LatencyHistogram> entry : sorted.entrySet()) {
+            result[i++] = entry.getKey() + ": " + entry.getValue();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,48 @@
+package org.springframework.context.metrics;
+
+/**
+ * JMX标准MBean接口（接口名必须是实现类名+MBean），getter会作为只读属性出现在JConsole/VisualVM中
+ */
+public interface ApplicationContextMetricsMBean {
+
+    long getSingletonHits();
+
+    long getSingletonCreations();
+
+    long getPrototypeCreations();
+
+    long getScopedBeanRequests();
+
+    long getScopedBeanCreations();
+
+    long getByTypeLookups();
+
+    long getCreationFailures();
+
+    double getPostProcessorTimeMillis();
+
+    /**
+     * 每个bean的创建耗时，格式：beanName: count=.., mean=..ms, max=..ms, buckets={..}
+     */
+    String[] getBeanCreationTimes();
+
+    /**
+     * 每个BeanPostProcessor的耗时，格式同上
+     */
+    String[] getPostProcessorTimes();
+
+    long getEventsMulticast();
+
+    long getEventsWithoutListeners();
+
+    long getListenerInvocations();
+
+    long getListenerFailures();
+
+    String getListenerTimes();
+
+    /**
+     * 清零所有指标
+     */
+    void reset();
+}
@@ -0,0 +1,38 @@
+package org.springframework.core;
+
+import org.springframework.core.annotation.Order;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 按{@link Ordered}接口或{@link Order}注解排序，两者都没有的排在最后（排序是稳定的，同优先级保持原有顺序）
+ */
+public class OrderComparator implements Comparator<Object> {
+
+    public static final OrderComparator INSTANCE = new OrderComparator();
+
+    @Override
+    public int compare(Object o1, Object o2) {
+        return Integer.compare(getOrder(o1), getOrder(o2));
+    }
+
+    public int getOrder(Object obj) {
+        if (obj instanceof Ordered) {
+            return ((Ordered) obj).getOrder();
+        }
+        if (obj != null) {
+            Order order = obj.getClass().getAnnotation(Order.class);
+            if (order != null) {
+                return order.value();
+            }
+        }
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    public static void sort(List<?> list) {
+        if (list.size() > 1) {
+            list.sort(INSTANCE);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.springframework.core;
+
+/**
+ * 排序接口：值越小优先级越高，比如注入List<T>时排在前面
+ */
+public interface Ordered {
+
+    int HIGHEST_PRECEDENCE = Integer.MIN_VALUE;
+
+    int LOWEST_PRECEDENCE = Integer.MAX_VALUE;
+
+    int getOrder();
+}
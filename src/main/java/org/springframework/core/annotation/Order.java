@@ -0,0 +1,20 @@
+package org.springframework.core.annotation;
+
+import org.springframework.core.Ordered;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 注解形式的{@link Ordered}，实现了Ordered接口时以接口返回值为准
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD, ElementType.FIELD})
+@Documented
+public @interface Order {
+
+    int value() default Ordered.LOWEST_PRECEDENCE;
+}
@@ -0,0 +1,17 @@
+package org.springframework.core.convert;
+
+import org.springframework.core.exception.BeansException;
+
+/**
+ * 类型转换失败
+ */
+public class ConversionFailedException extends BeansException {
+
+    public ConversionFailedException(String msg) {
+        super(msg);
+    }
+
+    public ConversionFailedException(String msg, Throwable cause) {
+        super(msg, cause);
+    }
+}
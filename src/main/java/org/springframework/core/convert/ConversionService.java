@@ -0,0 +1,32 @@
+package org.springframework.core.convert;
+
+import java.lang.reflect.Type;
+
+/**
+ * 类型转换服务：把XML中的字符串、@Value解析出来的字符串等转换成属性/参数需要的类型
+ * <p>
+ * 另外提供了int、long、double的转换方法，调用方可以直接拿到基本类型，避免装箱
+ */
+public interface ConversionService {
+
+    boolean canConvert(Class<?> sourceType, Class<?> targetType);
+
+    <T> T convert(Object source, Class<T> targetType) throws ConversionFailedException;
+
+    /**
+     * @param genericTargetType 目标的泛型类型，比如List<Integer>，用于确定集合元素的类型
+     */
+    Object convert(Object source, Class<?> targetType, Type genericTargetType) throws ConversionFailedException;
+
+    default int convertToInt(Object source) throws ConversionFailedException {
+        return convert(source, Integer.class);
+    }
+
+    default long convertToLong(Object source) throws ConversionFailedException {
+        return convert(source, Long.class);
+    }
+
+    default double convertToDouble(Object source) throws ConversionFailedException {
+        return convert(source, Double.class);
+    }
+}
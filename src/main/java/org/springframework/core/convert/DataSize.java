@@ -0,0 +1,108 @@
+package org.springframework.core.convert;
+
+import java.io.Serializable;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 数据大小，比如"10MB"、"512KB"，单位按1024进制换算；只有数字时单位为字节
+ */
+public final class DataSize implements Comparable<DataSize>, Serializable {
+
+    private static final Pattern PATTERN = Pattern.compile("^([+-]?\\d+)\\s*([a-zA-Z]{0,2})$");
+
+    private static final long BYTES_PER_KB = 1024;
+
+    private static final long BYTES_PER_MB = BYTES_PER_KB * 1024;
+
+    private static final long BYTES_PER_GB = BYTES_PER_MB * 1024;
+
+    private static final long BYTES_PER_TB = BYTES_PER_GB * 1024;
+
+    private final long bytes;
+
+    private DataSize(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public static DataSize ofBytes(long bytes) {
+        return new DataSize(bytes);
+    }
+
+    public static DataSize ofKilobytes(long kilobytes) {
+        return new DataSize(Math.multiplyExact(kilobytes, BYTES_PER_KB));
+    }
+
+    public static DataSize ofMegabytes(long megabytes) {
+        return new DataSize(Math.multiplyExact(megabytes, BYTES_PER_MB));
+    }
+
+    public static DataSize ofGigabytes(long gigabytes) {
+        return new DataSize(Math.multiplyExact(gigabytes, BYTES_PER_GB));
+    }
+
+    /**
+     * 解析"10MB"、"512KB"、"1GB"、"100B"、"100"这样的字符串，单位不区分大小写
+     */
+    public static DataSize parse(CharSequence text) {
+        Matcher matcher = PATTERN.matcher(text.toString().trim());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("'" + text + "' is not a valid data size");
+        }
+        long amount = Long.parseLong(matcher.group(1));
+        String unit = matcher.group(2).toUpperCase();
+        switch (unit) {
+            case "":
+            case "B":
+                return ofBytes(amount);
+            case "KB":
+                return ofKilobytes(amount);
+            case "MB":
+                return ofMegabytes(amount);
+            case "GB":
+                return ofGigabytes(amount);
+            case "TB":
+                return new DataSize(Math.multiplyExact(amount, BYTES_PER_TB));
+            default:
+                throw new IllegalArgumentException("Unknown data unit '" + unit + "' in '" + text + "'");
+        }
+    }
+
+    public long toBytes() {
+        return bytes;
+    }
+
+    public long toKilobytes() {
+        return bytes / BYTES_PER_KB;
+    }
+
+    public long toMegabytes() {
+        return bytes / BYTES_PER_MB;
+    }
+
+    public long toGigabytes() {
+        return bytes / BYTES_PER_GB;
+    }
+
+    @Override
+    public int compareTo(DataSize other) {
+        return Long.compare(bytes, other.bytes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return bytes == ((DataSize) o).bytes;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(bytes);
+    }
+
+    @Override
+    public String toString() {
+        return bytes + "B";
+    }
+}
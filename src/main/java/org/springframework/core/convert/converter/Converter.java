@@ -0,0 +1,10 @@
+package org.springframework.core.convert.converter;
+
+/**
+ * 把S类型的值转换成T类型
+ */
+@FunctionalInterface
+public interface Converter<S, T> {
+
+    T convert(S source);
+}
@@ -0,0 +1,9 @@
+package org.springframework.core.convert.converter;
+
+/**
+ * 注册自定义的Converter
+ */
+public interface ConverterRegistry {
+
+    <S, T> void addConverter(Class<S> sourceType, Class<T> targetType, Converter<? super S, ? extends T> converter);
+}
@@ -0,0 +1,329 @@
+package org.springframework.core.convert.support;
+
+import cn.hutool.core.convert.BasicType;
+import org.springframework.core.convert.ConversionFailedException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.DataSize;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.convert.converter.ConverterRegistry;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 默认的类型转换服务
+ * <p>
+ * - 内置字符串到数字、布尔、字符、枚举、{@link Duration}、{@link DataSize}的转换，数字之间的转换，任意对象到字符串的转换；
+ * - 逗号分隔的字符串可以转换成数组、List、Set，元素类型由数组类型或泛型决定；
+ * - 按（源类型, 目标类型）缓存查找结果，查找时沿源类型的父类和接口向上找，同一对类型只查找一次，之后两次Map读取即可命中；
+ * - convertToInt/Long/Double直接解析字符串，不经过装箱。
+ */
+public class DefaultConversionService implements ConversionService, ConverterRegistry {
+
+    private static final Pattern SIMPLE_DURATION = Pattern.compile("^([+-]?\\d+)(ns|us|ms|s|m|h|d)?$");
+
+    /**
+     * 表示找不到Converter，也会被缓存，避免重复查找
+     */
+    private static final Converter<Object, Object> NO_MATCH = source -> null;
+
+    /**
+     * 注册的Converter：源类型 -> 目标类型 -> Converter
+     */
+    private final Map<Class<?>, Map<Class<?>, Converter<Object, Object>>> converters = new ConcurrentHashMap<>(32);
+
+    /**
+     * 查找结果缓存：源类型 -> 目标类型 -> Converter（或NO_MATCH）
+     */
+    private final Map<Class<?>, Map<Class<?>, Converter<Object, Object>>> converterCache = new ConcurrentHashMap<>(32);
+
+    public DefaultConversionService() {
+        addDefaultConverters();
+    }
+
+    private void addDefaultConverters() {
+        addConverter(String.class, Integer.class, source -> Integer.valueOf(source.trim()));
+        addConverter(String.class, Long.class, source -> Long.valueOf(source.trim()));
+        addConverter(String.class, Double.class, source -> Double.valueOf(source.trim()));
+        addConverter(String.class, Float.class, source -> Float.valueOf(source.trim()));
+        addConverter(String.class, Short.class, source -> Short.valueOf(source.trim()));
+        addConverter(String.class, Byte.class, source -> Byte.valueOf(source.trim()));
+        addConverter(String.class, BigDecimal.class, source -> new BigDecimal(source.trim()));
+        addConverter(String.class, BigInteger.class, source -> new BigInteger(source.trim()));
+        addConverter(String.class, Boolean.class, DefaultConversionService::parseBoolean);
+        addConverter(String.class, Character.class, source -> {
+            if (source.length() != 1) {
+                throw new IllegalArgumentException("Can only convert a String with length of 1 to a Character");
+            }
+            return source.charAt(0);
+        });
+        addConverter(String.class, Duration.class, DefaultConversionService::parseDuration);
+        addConverter(String.class, DataSize.class, DataSize::parse);
+        addConverter(Number.class, Integer.class, Number::intValue);
+        addConverter(Number.class, Long.class, Number::longValue);
+        addConverter(Number.class, Double.class, Number::doubleValue);
+        addConverter(Number.class, Float.class, Number::floatValue);
+        addConverter(Object.class, String.class, Object::toString);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <S, T> void addConverter(Class<S> sourceType, Class<T> targetType, Converter<? super S, ? extends T> converter) {
+        this.converters.computeIfAbsent(sourceType, k -> new ConcurrentHashMap<>(8))
+                .put(targetType, (Converter<Object, Object>) converter);
+        this.converterCache.clear();
+    }
+
+    @Override
+    public boolean canConvert(Class<?> sourceType, Class<?> targetType) {
+        Class<?> target = BasicType.wrap(targetType);
+        if (target.isAssignableFrom(sourceType)) {
+            return true;
+        }
+        if (sourceType == String.class && (target.isArray() || isCollectionType(target) || target.isEnum())) {
+            return true;
+        }
+        return getConverter(sourceType, target) != NO_MATCH;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T convert(Object source, Class<T> targetType) throws ConversionFailedException {
+        return (T) convert(source, targetType, targetType);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Override
+    public Object convert(Object source, Class<?> targetType, Type genericTargetType) throws ConversionFailedException {
+        if (source == null) {
+            if (targetType.isPrimitive()) {
+                throw new ConversionFailedException("Cannot convert null to primitive type " + targetType.getName());
+            }
+            return null;
+        }
+        Class<?> target = BasicType.wrap(targetType);
+        if (target.isInstance(source)) {
+            return source;
+        }
+        if (source instanceof String) {
+            String text = (String) source;
+            if (target.isArray()) {
+                return toArray(text, target.getComponentType());
+            }
+            if (isCollectionType(target)) {
+                return toCollection(text, target, genericTargetType);
+            }
+            if (target.isEnum()) {
+                try {
+                    return Enum.valueOf((Class<? extends Enum>) target, text.trim());
+                } catch (IllegalArgumentException ex) {
+                    throw failed(source, targetType, ex);
+                }
+            }
+        }
+        Converter<Object, Object> converter = getConverter(source.getClass(), target);
+        if (converter == NO_MATCH) {
+            throw new ConversionFailedException("No converter found capable of converting from type ["
+                    + source.getClass().getName() + "] to type [" + targetType.getName() + "]");
+        }
+        try {
+            return converter.convert(source);
+        } catch (ConversionFailedException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            throw failed(source, targetType, ex);
+        }
+    }
+
+    @Override
+    public int convertToInt(Object source) throws ConversionFailedException {
+        if (source instanceof String) {
+            try {
+                return Integer.parseInt(((String) source).trim());
+            } catch (NumberFormatException ex) {
+                throw failed(source, int.class, ex);
+            }
+        }
+        if (source instanceof Number) {
+            return ((Number) source).intValue();
+        }
+        return convert(source, Integer.class);
+    }
+
+    @Override
+    public long convertToLong(Object source) throws ConversionFailedException {
+        if (source instanceof String) {
+            try {
+                return Long.parseLong(((String) source).trim());
+            } catch (NumberFormatException ex) {
+                throw failed(source, long.class, ex);
+            }
+        }
+        if (source instanceof Number) {
+            return ((Number) source).longValue();
+        }
+        return convert(source, Long.class);
+    }
+
+    @Override
+    public double convertToDouble(Object source) throws ConversionFailedException {
+        if (source instanceof String) {
+            try {
+                return Double.parseDouble(((String) source).trim());
+            } catch (NumberFormatException ex) {
+                throw failed(source, double.class, ex);
+            }
+        }
+        if (source instanceof Number) {
+            return ((Number) source).doubleValue();
+        }
+        return convert(source, Double.class);
+    }
+
+    /**
+     * 先查缓存，未命中时沿源类型的继承体系查找注册的Converter
+     */
+    private Converter<Object, Object> getConverter(Class<?> sourceType, Class<?> targetType) {
+        Map<Class<?>, Converter<Object, Object>> byTarget = this.converterCache.get(sourceType);
+        if (byTarget != null) {
+            Converter<Object, Object> converter = byTarget.get(targetType);
+            if (converter != null) {
+                return converter;
+            }
+        }
+        Converter<Object, Object> converter = findConverter(sourceType, targetType);
+        this.converterCache.computeIfAbsent(sourceType, k -> new ConcurrentHashMap<>(8)).put(targetType, converter);
+        return converter;
+    }
+
+    private Converter<Object, Object> findConverter(Class<?> sourceType, Class<?> targetType) {
+        Set<Class<?>> visited = new LinkedHashSet<>();
+        Deque<Class<?>> queue = new ArrayDeque<>();
+        queue.add(sourceType);
+        while (!queue.isEmpty()) {
+            Class<?> candidate = queue.poll();
+            if (!visited.add(candidate)) {
+                continue;
+            }
+            Map<Class<?>, Converter<Object, Object>> byTarget = this.converters.get(candidate);
+            if (byTarget != null && byTarget.containsKey(targetType)) {
+                return byTarget.get(targetType);
+            }
+            if (candidate.getSuperclass() != null) {
+                queue.add(candidate.getSuperclass());
+            }
+            Collections.addAll(queue, candidate.getInterfaces());
+        }
+        return NO_MATCH;
+    }
+
+    private static boolean isCollectionType(Class<?> type) {
+        return type == List.class || type == Collection.class || type == Set.class;
+    }
+
+    private Object toArray(String text, Class<?> componentType) {
+        String[] elements = splitCommaDelimited(text);
+        Object array = Array.newInstance(componentType, elements.length);
+        for (int i = 0; i < elements.length; i++) {
+            Array.set(array, i, convert(elements[i], componentType, componentType));
+        }
+        return array;
+    }
+
+    private Object toCollection(String text, Class<?> collectionType, Type genericType) {
+        Class<?> elementType = String.class;
+        if (genericType instanceof ParameterizedType) {
+            Type argument = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+            if (argument instanceof Class) {
+                elementType = (Class<?>) argument;
+            }
+        }
+        String[] elements = splitCommaDelimited(text);
+        Collection<Object> result = collectionType == Set.class ? new LinkedHashSet<>() : new ArrayList<>(elements.length);
+        for (String element : elements) {
+            result.add(convert(element, elementType, elementType));
+        }
+        return result;
+    }
+
+    private static String[] splitCommaDelimited(String text) {
+        if (text.trim().isEmpty()) {
+            return new String[0];
+        }
+        String[] elements = text.split(",");
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = elements[i].trim();
+        }
+        return elements;
+    }
+
+    private static Boolean parseBoolean(String source) {
+        switch (source.trim().toLowerCase()) {
+            case "true":
+            case "on":
+            case "yes":
+            case "1":
+                return Boolean.TRUE;
+            case "false":
+            case "off":
+            case "no":
+            case "0":
+                return Boolean.FALSE;
+            default:
+                throw new IllegalArgumentException("Invalid boolean value '" + source + "'");
+        }
+    }
+
+    /**
+     * 支持ISO-8601格式（PT10S）以及10s、500ms、5m、2h、1d这样的简写，没有单位时按毫秒处理
+     */
+    private static Duration parseDuration(String source) {
+        String text = source.trim();
+        if (text.startsWith("P") || text.startsWith("-P") || text.startsWith("+P")) {
+            return Duration.parse(text);
+        }
+        Matcher matcher = SIMPLE_DURATION.matcher(text.toLowerCase());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("'" + source + "' is not a valid duration");
+        }
+        long amount = Long.parseLong(matcher.group(1));
+        String unit = matcher.group(2) == null ? "ms" : matcher.group(2);
+        switch (unit) {
+            case "ns":
+                return Duration.ofNanos(amount);
+            case "us":
+                return Duration.ofNanos(Math.multiplyExact(amount, 1000L));
+            case "s":
+                return Duration.ofSeconds(amount);
+            case "m":
+                return Duration.ofMinutes(amount);
+            case "h":
+                return Duration.ofHours(amount);
+            case "d":
+                return Duration.ofDays(amount);
+            default:
+                return Duration.ofMillis(amount);
+        }
+    }
+
+    private static ConversionFailedException failed(Object source, Class<?> targetType, Throwable cause) {
+        return new ConversionFailedException("Failed to convert value '" + source + "' from type ["
+                + source.getClass().getName() + "] to type [" + targetType.getName() + "]", cause);
+    }
+}
@@ -0,0 +1,43 @@
+package org.springframework.core.env;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于Map的属性源，常用于内存中的配置
+ */
+public class MapPropertySource extends PropertySource<Map<String, Object>> {
+
+    public MapPropertySource(String name, Map<String, Object> source) {
+        super(name, source);
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        return source.get(name);
+    }
+
+    @Override
+    public Set<String> getPropertyNames() {
+        return source.keySet();
+    }
+
+    @Override
+    public boolean containsProperty(String name) {
+        return source.containsKey(name);
+    }
+
+    /**
+     * 修改属性并通知索引失效
+     */
+    public void setProperty(String name, Object value) {
+        source.put(name, value);
+        markChanged();
+    }
+
+    public void removeProperty(String name) {
+        if (source.remove(name) != null) {
+            markChanged();
+        }
+    }
+}
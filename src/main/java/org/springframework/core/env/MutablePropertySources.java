@@ -0,0 +1,90 @@
+package org.springframework.core.env;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 有序的属性源栈，越靠前优先级越高
+ * <p>
+ * 每次增删属性源、或者某个属性源内容变化，都会递增{@link #getVersion()}，
+ * {@link PropertySourcesPropertyResolver}据此判断索引是否需要重建。
+ */
+public class MutablePropertySources implements Iterable<PropertySource<?>> {
+
+    private final List<PropertySource<?>> propertySourceList = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final Runnable changeListener = version::incrementAndGet;
+
+    /**
+     * 添加到栈顶（优先级最高）
+     */
+    public void addFirst(PropertySource<?> propertySource) {
+        removeIfPresent(propertySource.getName());
+        propertySourceList.add(0, propertySource);
+        attach(propertySource);
+    }
+
+    /**
+     * 添加到栈底（优先级最低）
+     */
+    public void addLast(PropertySource<?> propertySource) {
+        removeIfPresent(propertySource.getName());
+        propertySourceList.add(propertySource);
+        attach(propertySource);
+    }
+
+    public PropertySource<?> get(String name) {
+        for (PropertySource<?> propertySource : propertySourceList) {
+            if (propertySource.getName().equals(name)) {
+                return propertySource;
+            }
+        }
+        return null;
+    }
+
+    public boolean contains(String name) {
+        return get(name) != null;
+    }
+
+    public PropertySource<?> remove(String name) {
+        PropertySource<?> removed = removeIfPresent(name);
+        if (removed != null) {
+            version.incrementAndGet();
+        }
+        return removed;
+    }
+
+    public int size() {
+        return propertySourceList.size();
+    }
+
+    /**
+     * 结构或内容每变化一次，版本号加一
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    @Override
+    public Iterator<PropertySource<?>> iterator() {
+        return propertySourceList.iterator();
+    }
+
+    private void attach(PropertySource<?> propertySource) {
+        propertySource.addChangeListener(changeListener);
+        version.incrementAndGet();
+    }
+
+    private PropertySource<?> removeIfPresent(String name) {
+        PropertySource<?> existing = get(name);
+        if (existing != null) {
+            propertySourceList.remove(existing);
+            existing.removeChangeListener(changeListener);
+        }
+        return existing;
+    }
+}
@@ -0,0 +1,46 @@
+package org.springframework.core.env;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * 基于{@link Properties}的属性源，比如系统属性、properties文件
+ */
+public class PropertiesPropertySource extends MapPropertySource {
+
+    public static final String SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME = "systemProperties";
+
+    /**
+     * 内容是否会在外部变化（不经过{@link #setProperty}）
+     */
+    private final boolean live;
+
+    public PropertiesPropertySource(String name, Properties source) {
+        this(name, source, false);
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private PropertiesPropertySource(String name, Properties source, boolean live) {
+        super(name, (Map) source);
+        this.live = live;
+    }
+
+    /**
+     * 系统属性的属性源。System.setProperty无法被感知，所以不合并进索引，每次查找都读取当前值
+     */
+    public static PropertiesPropertySource forSystemProperties() {
+        return new PropertiesPropertySource(SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME, System.getProperties(), true);
+    }
+
+    @Override
+    public boolean isIndexable() {
+        return !live;
+    }
+
+    @Override
+    public Set<String> getPropertyNames() {
+        // Properties可能被其他线程修改（比如System.setProperty），这里取一份快照
+        return ((Properties) (Object) source).stringPropertyNames();
+    }
+}
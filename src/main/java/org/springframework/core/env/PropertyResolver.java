@@ -0,0 +1,25 @@
+package org.springframework.core.env;
+
+import org.springframework.core.exception.BeansException;
+
+/**
+ * 属性解析器：按key查找属性，或者把文本中的${}占位符替换成实际值
+ */
+public interface PropertyResolver {
+
+    boolean containsProperty(String key);
+
+    String getProperty(String key);
+
+    String getProperty(String key, String defaultValue);
+
+    /**
+     * 解析文本中的${}占位符，无法解析的占位符原样保留
+     */
+    String resolvePlaceholders(String text);
+
+    /**
+     * 解析文本中的${}占位符，无法解析时抛出异常
+     */
+    String resolveRequiredPlaceholders(String text) throws BeansException;
+}
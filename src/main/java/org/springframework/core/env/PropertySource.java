@@ -0,0 +1,85 @@
+package org.springframework.core.env;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 属性源的抽象：一个有名字的key-value集合，比如properties文件、系统属性、环境变量、内存中的Map
+ * <p>
+ * 多个PropertySource按优先级组成{@link MutablePropertySources}，再由{@link PropertySourcesPropertyResolver}
+ * 合并成一张扁平的索引表，解析占位符时只需一次哈希查找。
+ * 属性源内容变化时调用{@link #markChanged()}，通知持有它的属性源栈重建索引。
+ *
+ * @param <T> 底层数据源类型
+ */
+public abstract class PropertySource<T> {
+
+    protected final String name;
+
+    protected final T source;
+
+    /**
+     * 内容变化时的回调，一般是持有该属性源的MutablePropertySources
+     */
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+
+    public PropertySource(String name, T source) {
+        this.name = Objects.requireNonNull(name, "Property source name must not be null");
+        this.source = Objects.requireNonNull(source, "Property source must not be null");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public T getSource() {
+        return source;
+    }
+
+    /**
+     * 获取属性值，不存在时返回null
+     */
+    public abstract Object getProperty(String name);
+
+    /**
+     * 返回全部属性名，用于把属性源合并成索引
+     */
+    public abstract Set<String> getPropertyNames();
+
+    public boolean containsProperty(String name) {
+        return getProperty(name) != null;
+    }
+
+    /**
+     * 是否可以合并进索引。以下两种属性源要返回false，解析器会在查找时直接调用{@link #getProperty}：
+     * - getProperty能查到getPropertyNames之外的名字（比如环境变量的宽松匹配）
+     * - 内容会在外部变化且不会调用{@link #markChanged()}（比如System.getProperties()）
+     */
+    public boolean isIndexable() {
+        return true;
+    }
+
+    /**
+     * 属性源内容发生变化，持有它的属性源栈会在下一次查找时重建索引
+     */
+    public void markChanged() {
+        for (Runnable listener : changeListeners) {
+            listener.run();
+        }
+    }
+
+    void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    void removeChangeListener(Runnable listener) {
+        changeListeners.remove(listener);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " {name='" + name + "'}";
+    }
+}
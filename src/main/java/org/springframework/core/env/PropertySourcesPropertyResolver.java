@@ -0,0 +1,201 @@
+package org.springframework.core.env;
+
+import org.springframework.core.exception.BeansException;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于{@link MutablePropertySources}的属性解析器
+ * <p>
+ * 朴素的实现是每次查找都从栈顶到栈底逐个询问属性源，属性源一多、占位符一多，开销就上来了。
+ * 这里把整个属性源栈合并成一张扁平、不可变的索引表（高优先级覆盖低优先级），查找时只需一次哈希查找。
+ * 只有当属性源栈的版本号变化时（增删属性源或属性源内容变化），才会重建索引。
+ * <p>
+ * 不能合并的属性源（{@link PropertySource#isIndexable()}为false，比如环境变量、系统属性）把栈分成几层：
+ * 相邻的可合并属性源合并成一张表，不能合并的属性源保持原样，查找时按优先级逐层询问。
+ */
+public class PropertySourcesPropertyResolver implements PropertyResolver {
+
+    public static final String PLACEHOLDER_PREFIX = "${";
+
+    public static final String PLACEHOLDER_SUFFIX = "}";
+
+    public static final String VALUE_SEPARATOR = ":";
+
+    private final MutablePropertySources propertySources;
+
+    /**
+     * 合并后的索引，连同构建时的版本号一起替换，保证读到的总是一份完整的快照
+     */
+    private volatile PropertyIndex index;
+
+    public PropertySourcesPropertyResolver(MutablePropertySources propertySources) {
+        this.propertySources = propertySources;
+    }
+
+    public MutablePropertySources getPropertySources() {
+        return propertySources;
+    }
+
+    /**
+     * 立即（重新）构建索引，一般在容器refresh时调用
+     */
+    public void buildIndex() {
+        this.index = createIndex();
+    }
+
+    @Override
+    public boolean containsProperty(String key) {
+        return getIndex().get(key) != null;
+    }
+
+    @Override
+    public String getProperty(String key) {
+        return getIndex().get(key);
+    }
+
+    @Override
+    public String getProperty(String key, String defaultValue) {
+        String value = getProperty(key);
+        return value != null ? value : defaultValue;
+    }
+
+    @Override
+    public String resolvePlaceholders(String text) {
+        return doResolvePlaceholders(text, true);
+    }
+
+    @Override
+    public String resolveRequiredPlaceholders(String text) throws BeansException {
+        return doResolvePlaceholders(text, false);
+    }
+
+    private PropertyIndex getIndex() {
+        PropertyIndex current = this.index;
+        if (current == null || current.version != propertySources.getVersion()) {
+            current = createIndex();
+            this.index = current;
+        }
+        return current;
+    }
+
+    private PropertyIndex createIndex() {
+        // 先读版本号再合并：合并过程中如果属性源又变了，下一次查找会发现版本不一致并再次重建
+        long version = propertySources.getVersion();
+        List<PropertySource<?>> sources = new ArrayList<>();
+        for (PropertySource<?> propertySource : propertySources) {
+            sources.add(propertySource);
+        }
+        // 从高优先级到低优先级，相邻的可合并属性源合并成一层
+        List<Object> layers = new ArrayList<>();
+        int i = 0;
+        while (i < sources.size()) {
+            if (!sources.get(i).isIndexable()) {
+                layers.add(sources.get(i++));
+                continue;
+            }
+            int end = i;
+            while (end < sources.size() && sources.get(end).isIndexable()) {
+                end++;
+            }
+            Map<String, String> values = new HashMap<>();
+            // 从低优先级到高优先级依次覆盖
+            for (int j = end - 1; j >= i; j--) {
+                PropertySource<?> propertySource = sources.get(j);
+                for (String name : propertySource.getPropertyNames()) {
+                    Object value = propertySource.getProperty(name);
+                    if (value != null) {
+                        values.put(name, value.toString());
+                    }
+                }
+            }
+            layers.add(Collections.unmodifiableMap(values));
+            i = end;
+        }
+        return new PropertyIndex(version, layers.toArray());
+    }
+
+    private String doResolvePlaceholders(String text, boolean ignoreUnresolvable) {
+        if (text == null || !text.contains(PLACEHOLDER_PREFIX)) {
+            return text;
+        }
+        return parseStringValue(text, getIndex(), ignoreUnresolvable, new HashSet<>());
+    }
+
+    /**
+     * 解析占位符，支持：
+     * - 多个占位符：${host}:${port}
+     * - 默认值：${port:8080}
+     * - 属性值中继续引用其他属性：a=${b}
+     */
+    private String parseStringValue(String value, PropertyIndex index, boolean ignoreUnresolvable, Set<String> visitedPlaceholders) {
+        StringBuilder result = new StringBuilder(value);
+        int startIndex = result.indexOf(PLACEHOLDER_PREFIX);
+        while (startIndex != -1) {
+            int endIndex = result.indexOf(PLACEHOLDER_SUFFIX, startIndex + PLACEHOLDER_PREFIX.length());
+            if (endIndex == -1) {
+                break;
+            }
+            String placeholder = result.substring(startIndex + PLACEHOLDER_PREFIX.length(), endIndex);
+            if (!visitedPlaceholders.add(placeholder)) {
+                throw new BeansException("Circular placeholder reference '" + placeholder + "' in property definitions");
+            }
+            String key = placeholder;
+            String defaultValue = null;
+            int separatorIndex = placeholder.indexOf(VALUE_SEPARATOR);
+            if (separatorIndex != -1) {
+                key = placeholder.substring(0, separatorIndex);
+                defaultValue = placeholder.substring(separatorIndex + VALUE_SEPARATOR.length());
+            }
+            String propVal = index.get(key);
+            if (propVal == null) {
+                propVal = defaultValue;
+            }
+            if (propVal != null) {
+                // 属性值本身也可能包含占位符
+                propVal = parseStringValue(propVal, index, ignoreUnresolvable, visitedPlaceholders);
+                result.replace(startIndex, endIndex + PLACEHOLDER_SUFFIX.length(), propVal);
+                startIndex = result.indexOf(PLACEHOLDER_PREFIX, startIndex + propVal.length());
+            } else if (ignoreUnresolvable) {
+                startIndex = result.indexOf(PLACEHOLDER_PREFIX, endIndex + PLACEHOLDER_SUFFIX.length());
+            } else {
+                throw new BeansException("Could not resolve placeholder '" + placeholder + "' in value \"" + value + "\"");
+            }
+            visitedPlaceholders.remove(placeholder);
+        }
+        return result.toString();
+    }
+
+    private static final class PropertyIndex {
+
+        private final long version;
+
+        /**
+         * 按优先级排列，元素是合并后的Map或者不能合并的PropertySource
+         */
+        private final Object[] layers;
+
+        private PropertyIndex(long version, Object[] layers) {
+            this.version = version;
+            this.layers = layers;
+        }
+
+        @SuppressWarnings("unchecked")
+        String get(String key) {
+            for (Object layer : layers) {
+                Object value = layer instanceof Map
+                        ? ((Map<String, String>) layer).get(key) : ((PropertySource<?>) layer).getProperty(key);
+                if (value != null) {
+                    return value.toString();
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.springframework.core.env;
+
+import org.springframework.core.exception.BeansException;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * 从properties文件加载的属性源，比如classpath:additional-config.properties
+ * <p>
+ * 文件只在创建时读取一次，文件修改后调用{@link #reload()}重新读取
+ */
+public class ResourcePropertySource extends PropertiesPropertySource {
+
+    private final Resource resource;
+
+    public ResourcePropertySource(String location) {
+        this(location, new DefaultResourceLoader());
+    }
+
+    public ResourcePropertySource(String location, ResourceLoader resourceLoader) {
+        this(location, resourceLoader.getResource(location));
+    }
+
+    private ResourcePropertySource(String location, Resource resource) {
+        super(location, loadProperties(resource, location));
+        this.resource = resource;
+    }
+
+    /**
+     * 重新读取文件，内容有变化时通知索引失效
+     */
+    public void reload() {
+        Properties properties = loadProperties(resource, name);
+        if (properties.equals(source)) {
+            return;
+        }
+        source.keySet().retainAll(properties.keySet());
+        for (String key : properties.stringPropertyNames()) {
+            source.put(key, properties.getProperty(key));
+        }
+        markChanged();
+    }
+
+    private static Properties loadProperties(Resource resource, String location) {
+        Properties properties = new Properties();
+        try (InputStream inputStream = resource.getInputStream()) {
+            properties.load(inputStream);
+        } catch (IOException e) {
+            throw new BeansException("Could not load properties from " + location, e);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,46 @@
+package org.springframework.core.env;
+
+import java.util.Map;
+
+/**
+ * 环境变量属性源
+ * <p>
+ * 环境变量通常写成大写加下划线，因此查找foo.bar时，还会依次尝试foo_bar、FOO.BAR、FOO_BAR。
+ * 宽松匹配的名字无法从环境变量名反推出来，所以不合并进索引，每次查找时直接询问
+ */
+public class SystemEnvironmentPropertySource extends MapPropertySource {
+
+    public static final String SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME = "systemEnvironment";
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public SystemEnvironmentPropertySource() {
+        this(SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME, (Map) System.getenv());
+    }
+
+    public SystemEnvironmentPropertySource(String name, Map<String, Object> source) {
+        super(name, source);
+    }
+
+    @Override
+    public boolean isIndexable() {
+        return false;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        Object value = source.get(name);
+        if (value != null) {
+            return value;
+        }
+        String underscored = name.replace('.', '_');
+        value = source.get(underscored);
+        if (value != null) {
+            return value;
+        }
+        value = source.get(name.toUpperCase());
+        if (value != null) {
+            return value;
+        }
+        return source.get(underscored.toUpperCase());
+    }
+}
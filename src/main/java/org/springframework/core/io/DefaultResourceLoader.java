@@ -4,11 +4,16 @@ public class DefaultResourceLoader implements ResourceLoader {
 
 	public static final String CLASSPATH_URL_PREFIX = "classpath:";
 
+	public static final String FILE_URL_PREFIX = "file:";
+
 	@Override
 	public Resource getResource(String location) {
 		if (location.startsWith(CLASSPATH_URL_PREFIX)) {
 			// classpath下的资源
 			return new ClassPathResource(location.substring(CLASSPATH_URL_PREFIX.length()));
+		} else if (location.startsWith(FILE_URL_PREFIX)) {
+			// 文件系统中的资源，修改后可以被重新加载（比如增量刷新）
+			return new FileSystemResource(location.substring(FILE_URL_PREFIX.length()));
 		} else {
 			throw new RuntimeException("only supports xml resource");
 		}
@@ -0,0 +1,28 @@
+package org.springframework.core.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 文件系统中的资源
+ */
+public class FileSystemResource implements Resource {
+
+    private final File file;
+
+    public FileSystemResource(String path) {
+        this.file = new File(path);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return new FileInputStream(this.file);
+    }
+
+    @Override
+    public String toString() {
+        return "file [" + this.file.getAbsolutePath() + "]";
+    }
+}
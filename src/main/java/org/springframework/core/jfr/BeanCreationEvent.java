@@ -0,0 +1,46 @@
+package org.springframework.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 一次doCreateBean：事件本身的持续时间是整个创建过程，另外分别记录实例化、属性填充、初始化三个阶段的耗时。
+ * 线程由JFR自动记录（eventThread）
+ */
+@Name("dummyioc.BeanCreation")
+@Label("Bean Creation")
+@Category({"dummy-ioc", "Beans"})
+@Description("Creation of a bean instance by DefaultListableBeanFactory")
+@Enabled(false)
+@StackTrace(false)
+class BeanCreationEvent extends jdk.jfr.Event {
+
+    @Label("Bean Name")
+    String beanName;
+
+    @Label("Bean Class")
+    Class<?> beanClass;
+
+    @Label("Scope")
+    String scope;
+
+    @Label("Instantiation")
+    @Timespan(Timespan.NANOSECONDS)
+    long instantiationTime;
+
+    @Label("Population")
+    @Timespan(Timespan.NANOSECONDS)
+    long populationTime;
+
+    @Label("Initialization")
+    @Timespan(Timespan.NANOSECONDS)
+    long initializationTime;
+
+    @Label("Failed")
+    boolean failed;
+}
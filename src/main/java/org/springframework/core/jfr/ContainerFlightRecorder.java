@@ -0,0 +1,88 @@
+package org.springframework.core.jfr;
+
+/**
+ * 容器的JFR（JDK Flight Recorder）埋点入口。
+ * <p>
+ * 会产生4种事件，全部默认关闭（@Enabled(false)），不会出现在默认的default/profile录制里：
+ * - dummyioc.BeanCreation：每次doCreateBean，带beanName、scope以及实例化/属性填充/初始化三个阶段的耗时
+ * - dummyioc.RefreshPhase：refresh()的每个阶段
+ * - dummyioc.EventMulticast：每次multicastEvent
+ * - dummyioc.ListenerInvocation：每次监听器调用
+ * <p>
+ * 开启方式，比如启动参数：-XX:StartFlightRecording=settings=dummy-ioc.jfc（在jfc里把上述事件enabled=true），
+ * 或者编程方式：recording.enable("dummyioc.BeanCreation")。
+ * 这样容器的活动就和GC、锁竞争等JVM事件出现在同一份录制里，可以对着时间轴一起看。
+ * <p>
+ * 用法是begin/commit成对调用，中间的token对调用方是不透明的：
+ * <pre>
+ * Object event = ContainerFlightRecorder.beginRefreshPhase();
+ * ...
+ * ContainerFlightRecorder.commitRefreshPhase(event, contextName, "finishRefresh", false);
+ * </pre>
+ * 事件关闭（或者JDK没有JFR）时begin返回null，commit什么都不做，开销只是一次静态字段读取。
+ * 调用方只在token不为null时才去计算额外的数据（比如阶段耗时）。
+ */
+public final class ContainerFlightRecorder {
+
+    /**
+     * 运行的JDK是否有JFR。jdk.jfr相关的类都隔离在{@link JfrEvents}里，这里只在类初始化时探测一次
+     */
+    private static final boolean AVAILABLE = detectAvailability();
+
+    private ContainerFlightRecorder() {
+    }
+
+    private static boolean detectAvailability() {
+        try {
+            Class.forName("jdk.jfr.Event", false, ContainerFlightRecorder.class.getClassLoader());
+            return JfrEvents.isAvailable();
+        } catch (Throwable ex) {
+            return false;
+        }
+    }
+
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    public static Object beginBeanCreation() {
+        return AVAILABLE ? JfrEvents.beginBeanCreation() : null;
+    }
+
+    public static void commitBeanCreation(Object token, String beanName, Class<?> beanClass, String scope,
+                                          long instantiationNanos, long populationNanos, long initializationNanos, boolean failed) {
+        if (token != null) {
+            JfrEvents.commitBeanCreation(token, beanName, beanClass, scope, instantiationNanos, populationNanos, initializationNanos, failed);
+        }
+    }
+
+    public static Object beginRefreshPhase() {
+        return AVAILABLE ? JfrEvents.beginRefreshPhase() : null;
+    }
+
+    public static void commitRefreshPhase(Object token, String context, String phase, boolean failed) {
+        if (token != null) {
+            JfrEvents.commitRefreshPhase(token, context, phase, failed);
+        }
+    }
+
+    public static Object beginMulticast() {
+        return AVAILABLE ? JfrEvents.beginMulticast() : null;
+    }
+
+    public static void commitMulticast(Object token, Class<?> eventType, int listenerCount, boolean async) {
+        if (token != null) {
+            JfrEvents.commitMulticast(token, eventType, listenerCount, async);
+        }
+    }
+
+    public static Object beginListenerInvocation() {
+        return AVAILABLE ? JfrEvents.beginListenerInvocation() : null;
+    }
+
+    public static void commitListenerInvocation(Object token, Class<?> eventType, Class<?> listenerClass, boolean failed) {
+        if (token != null) {
+            JfrEvents.commitListenerInvocation(token, eventType, listenerClass, failed);
+        }
+    }
+}
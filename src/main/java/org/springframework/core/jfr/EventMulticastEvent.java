@@ -0,0 +1,29 @@
+package org.springframework.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一次multicastEvent：同步发布时包含所有监听器的执行时间，异步发布时只是提交任务的时间
+ */
+@Name("dummyioc.EventMulticast")
+@Label("Event Multicast")
+@Category({"dummy-ioc", "Events"})
+@Description("Multicast of an ApplicationEvent to the matching listeners")
+@Enabled(false)
+@StackTrace(false)
+class EventMulticastEvent extends jdk.jfr.Event {
+
+    @Label("Event Type")
+    Class<?> eventType;
+
+    @Label("Listener Count")
+    int listenerCount;
+
+    @Label("Async")
+    boolean async;
+}
@@ -0,0 +1,114 @@
+package org.springframework.core.jfr;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * 真正引用jdk.jfr的地方。只有在{@link ContainerFlightRecorder}确认JFR可用之后才会被加载，
+ * 所以运行在没有JFR的JDK上也不会出现NoClassDefFoundError
+ */
+final class JfrEvents {
+
+    /**
+     * 只用来判断事件是否开启：isEnabled()读的是事件类型上的静态状态，和实例无关，所以可以共享一个实例，
+     * 事件关闭时不用每次都new一个事件对象
+     */
+    private static final BeanCreationEvent BEAN_CREATION_PROBE = new BeanCreationEvent();
+
+    private static final RefreshPhaseEvent REFRESH_PHASE_PROBE = new RefreshPhaseEvent();
+
+    private static final EventMulticastEvent EVENT_MULTICAST_PROBE = new EventMulticastEvent();
+
+    private static final ListenerInvocationEvent LISTENER_INVOCATION_PROBE = new ListenerInvocationEvent();
+
+    private JfrEvents() {
+    }
+
+    static boolean isAvailable() {
+        return FlightRecorder.isAvailable();
+    }
+
+    static Object beginBeanCreation() {
+        if (!BEAN_CREATION_PROBE.isEnabled()) {
+            return null;
+        }
+        BeanCreationEvent event = new BeanCreationEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitBeanCreation(Object token, String beanName, Class<?> beanClass, String scope,
+                                   long instantiationTime, long populationTime, long initializationTime, boolean failed) {
+        BeanCreationEvent event = (BeanCreationEvent) token;
+        event.end();
+        if (event.shouldCommit()) {
+            event.beanName = beanName;
+            event.beanClass = beanClass;
+            event.scope = scope;
+            event.instantiationTime = instantiationTime;
+            event.populationTime = populationTime;
+            event.initializationTime = initializationTime;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+
+    static Object beginRefreshPhase() {
+        if (!REFRESH_PHASE_PROBE.isEnabled()) {
+            return null;
+        }
+        RefreshPhaseEvent event = new RefreshPhaseEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitRefreshPhase(Object token, String context, String phase, boolean failed) {
+        RefreshPhaseEvent event = (RefreshPhaseEvent) token;
+        event.end();
+        if (event.shouldCommit()) {
+            event.context = context;
+            event.phase = phase;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+
+    static Object beginMulticast() {
+        if (!EVENT_MULTICAST_PROBE.isEnabled()) {
+            return null;
+        }
+        EventMulticastEvent event = new EventMulticastEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitMulticast(Object token, Class<?> eventType, int listenerCount, boolean async) {
+        EventMulticastEvent event = (EventMulticastEvent) token;
+        event.end();
+        if (event.shouldCommit()) {
+            event.eventType = eventType;
+            event.listenerCount = listenerCount;
+            event.async = async;
+            event.commit();
+        }
+    }
+
+    static Object beginListenerInvocation() {
+        if (!LISTENER_INVOCATION_PROBE.isEnabled()) {
+            return null;
+        }
+        ListenerInvocationEvent event = new ListenerInvocationEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitListenerInvocation(Object token, Class<?> eventType, Class<?> listenerClass, boolean failed) {
+        ListenerInvocationEvent event = (ListenerInvocationEvent) token;
+        event.end();
+        if (event.shouldCommit()) {
+            event.eventType = eventType;
+            event.listenerClass = listenerClass;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.springframework.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一次监听器调用，异步发布时记录在执行监听器的线程上
+ */
+@Name("dummyioc.ListenerInvocation")
+@Label("Listener Invocation")
+@Category({"dummy-ioc", "Events"})
+@Description("Invocation of an ApplicationListener")
+@Enabled(false)
+@StackTrace(false)
+class ListenerInvocationEvent extends jdk.jfr.Event {
+
+    @Label("Event Type")
+    Class<?> eventType;
+
+    @Label("Listener Class")
+    Class<?> listenerClass;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,29 @@
+package org.springframework.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * AbstractApplicationContext#refresh()的一个阶段，比如invokeBeanFactoryPostProcessors、finishBeanFactoryInitialization
+ */
+@Name("dummyioc.RefreshPhase")
+@Label("Refresh Phase")
+@Category({"dummy-ioc", "Context"})
+@Description("A phase of ApplicationContext refresh")
+@Enabled(false)
+@StackTrace(false)
+class RefreshPhaseEvent extends jdk.jfr.Event {
+
+    @Label("Context")
+    String context;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,76 @@
+package org.springframework.test.beans.beandefinition;
+
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.beans.beandefinition.definition.BeanDefinition;
+import org.springframework.beans.beandefinition.definition.PropertyValue;
+import org.springframework.beans.beandefinition.definition.PropertyValues;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 注册100万个BeanDefinition的内存基准（不是单元测试，直接运行main方法）：
+ * <pre>
+ * java -Xmx2g -cp target/classes:target/test-classes:<hutool、dom4j> \
+ *     org.springframework.test.beans.beandefinition.BeanDefinitionMemoryBenchmark [count]
+ * </pre>
+ * 每个BeanDefinition有2个属性，其中1/10是原型、1/5带initMethod，模拟真实注册表里高度重复的属性名/作用域/方法名。
+ * 输出注册耗时、冻结耗时，以及每个BeanDefinition平均占用的堆内存（包括beanDefinitionMap的Entry和beanName）。
+ */
+public class BeanDefinitionMemoryBenchmark {
+
+    private static final int COUNT = 1_000_000;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : COUNT;
+        long baseline = usedMemory();
+
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            PropertyValues propertyValues = new PropertyValues();
+            propertyValues.addPropertyValue(new PropertyValue("name", "bean" + (i % 1000)));
+            propertyValues.addPropertyValue(new PropertyValue("order", i % 10));
+            BeanDefinition beanDefinition = new BeanDefinition(Object.class, propertyValues);
+            if (i % 10 == 0) {
+                beanDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+            }
+            if (i % 5 == 0) {
+                beanDefinition.setInitMethodName("init");
+            }
+            beanDefinition.setLazyInit(true);
+            beanFactory.registerBeanDefinition("bean" + i, beanDefinition);
+        }
+        long registered = System.nanoTime();
+        long afterRegister = usedMemory();
+
+        beanFactory.freezeConfiguration();
+        long frozen = System.nanoTime();
+        long afterFreeze = usedMemory();
+
+        System.out.printf("definitions:        %,d%n", count);
+        System.out.printf("register:           %,d ms%n", TimeUnit.NANOSECONDS.toMillis(registered - start));
+        System.out.printf("freeze:             %,d ms%n", TimeUnit.NANOSECONDS.toMillis(frozen - registered));
+        System.out.printf("heap after register: %,d MB (%,d bytes/definition)%n",
+                (afterRegister - baseline) >> 20, (afterRegister - baseline) / count);
+        System.out.printf("heap after freeze:   %,d MB (%,d bytes/definition)%n",
+                (afterFreeze - baseline) >> 20, (afterFreeze - baseline) / count);
+
+        // 防止beanFactory在测量前被回收
+        if (beanFactory.getBeanDefinition("bean0") == null) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,113 @@
+package org.springframework.test.beans.beandefinition;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.beans.beandefinition.definition.BeanDefinition;
+import org.springframework.beans.beandefinition.reader.XmlBeanDefinitionReader;
+import org.springframework.context.ClassPathXmlApplicationContext;
+import org.springframework.core.exception.BeansException;
+import org.springframework.test.beans.beandefinition.deferred.InitializationTracker;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BeanDefinition只记录类名：解析配置时不加载类，用到时才加载，创建实例时才执行静态初始化
+ */
+public class DeferredClassLoadingTest {
+
+    @Test
+    public void testDeferredClassLoading() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        new XmlBeanDefinitionReader(beanFactory).loadBeanDefinitions("classpath:8_deferred_class_loading.xml");
+
+        Assert.assertFalse(beanFactory.getBeanDefinition("eagerBean").hasBeanClass());
+        Assert.assertFalse(beanFactory.getBeanDefinition("lazyBean").hasBeanClass());
+        Assert.assertEquals("org.springframework.test.beans.beandefinition.deferred.LazyBean",
+                beanFactory.getBeanDefinition("lazyBean").getBeanClassName());
+
+        // 预加载只处理非懒加载的bean，而且只加载不初始化
+        Assert.assertEquals(1, beanFactory.preloadBeanClasses());
+        Assert.assertTrue(beanFactory.getBeanDefinition("eagerBean").hasBeanClass());
+        Assert.assertFalse(beanFactory.getBeanDefinition("lazyBean").hasBeanClass());
+        Assert.assertFalse(InitializationTracker.INITIALIZED.contains("EagerBean"));
+
+        // 按类型查找需要类，但不会初始化；类不存在的bean被跳过
+        Assert.assertArrayEquals(new String[]{"eagerBean", "lazyBean"}, sortedNames(beanFactory.getBeanNamesForType(Object.class)));
+        Assert.assertFalse(InitializationTracker.INITIALIZED.contains("LazyBean"));
+
+        beanFactory.getBean("lazyBean");
+        Assert.assertTrue(InitializationTracker.INITIALIZED.contains("LazyBean"));
+
+        // 直到真正创建时才报告类不存在
+        try {
+            beanFactory.getBean("optionalBean");
+            Assert.fail();
+        } catch (BeansException ex) {
+            Assert.assertTrue(ex.getMessage().contains("NotOnClasspath"));
+        }
+    }
+
+    @Test
+    public void testContextRefreshDoesNotLoadLazyClasses() {
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:8_deferred_class_loading_context.xml");
+        DefaultListableBeanFactory beanFactory = applicationContext.getBeanFactory();
+        // refresh时按类型查找后置处理器、监听器，构建依赖图，都不会加载懒加载bean的类，类不存在也不影响
+        Assert.assertTrue(beanFactory.getBeanDefinition("person").hasBeanClass());
+        Assert.assertFalse(beanFactory.getBeanDefinition("lazyBean").hasBeanClass());
+        Assert.assertFalse(beanFactory.getBeanDefinition("optionalBean").hasBeanClass());
+
+        // 这里不getBean("lazyBean")：静态初始化记录是全局的，会影响另一个测试
+        try {
+            applicationContext.getBean("optionalBean");
+            Assert.fail();
+        } catch (BeansException ex) {
+            Assert.assertTrue(ex.getMessage().contains("NotOnClasspath"));
+        }
+        applicationContext.close();
+    }
+
+    @Test
+    public void testClassNameChangedWhileLoading() throws Exception {
+        BeanDefinition beanDefinition = new BeanDefinition("java.lang.String");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        // 第一次加载卡在类加载器里，期间BeanFactoryPostProcessor修改了类名
+        ClassLoader blockingClassLoader = new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                loading.countDown();
+                try {
+                    proceed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.loadClass(name, resolve);
+            }
+        };
+        CompletableFuture<Class<?>> resolved = CompletableFuture.supplyAsync(() -> beanDefinition.resolveBeanClass(blockingClassLoader));
+        loading.await();
+        beanDefinition.setBeanClassName("java.lang.Integer");
+        proceed.countDown();
+
+        // 加载完成时类名已经变了，旧的类不会覆盖新的类名
+        Assert.assertEquals(Integer.class, resolved.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(Integer.class, beanDefinition.getBeanClass());
+    }
+
+    @Test
+    public void testCancelledPreloadLoadsNothing() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("text", new BeanDefinition("java.lang.String"));
+        Assert.assertEquals(0, beanFactory.preloadBeanClasses(() -> true));
+        Assert.assertFalse(beanFactory.getBeanDefinition("text").hasBeanClass());
+    }
+
+    private static String[] sortedNames(String[] names) {
+        Arrays.sort(names);
+        return names;
+    }
+}
@@ -0,0 +1,93 @@
+package org.springframework.test.beans.beandefinition;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.beandefinition.definition.BeanDefinition;
+import org.springframework.beans.beandefinition.definition.PropertyValue;
+import org.springframework.beans.beandefinition.definition.PropertyValues;
+import org.springframework.core.exception.BeansException;
+
+/**
+ * PropertyValues是数组存储 + 写时复制 + 冻结后不可变；BeanDefinition的scope/lazyInit/autowireMode打包在一个int里
+ */
+public class PropertyValuesTest {
+
+    @Test
+    public void testAddAndOverride() {
+        PropertyValues pvs = new PropertyValues();
+        Assert.assertTrue(pvs.isEmpty());
+        // 超过8个属性后会建索引，行为不变
+        for (int i = 0; i < 20; i++) {
+            pvs.addPropertyValue(new PropertyValue("p" + i, i));
+        }
+        pvs.addPropertyValue(new PropertyValue(new String("p3"), "three"));
+        pvs.addPropertyValue(new PropertyValue("p15", "fifteen"));
+        Assert.assertEquals(20, pvs.size());
+        Assert.assertEquals("three", pvs.getPropertyValue("p3").getValue());
+        Assert.assertEquals("fifteen", pvs.get(15).getValue());
+        Assert.assertEquals(19, pvs.getPropertyValue("p19").getValue());
+        Assert.assertNull(pvs.getPropertyValue("p20"));
+        Assert.assertEquals(20, pvs.asList().size());
+        Assert.assertSame(pvs.asList(), pvs.asList());
+    }
+
+    @Test
+    public void testCopyOnWrite() {
+        PropertyValues original = new PropertyValues();
+        original.addPropertyValue(new PropertyValue("name", "bravo"));
+        original.addPropertyValue(new PropertyValue("age", 18));
+
+        PropertyValues copy = new PropertyValues(original);
+        copy.addPropertyValue(new PropertyValue("age", 19));
+        copy.addPropertyValue(new PropertyValue("city", "hz"));
+        Assert.assertEquals(18, original.getPropertyValue("age").getValue());
+        Assert.assertEquals(2, original.size());
+        Assert.assertEquals(19, copy.getPropertyValue("age").getValue());
+        Assert.assertEquals(3, copy.size());
+
+        // 原件后续的修改也不会影响副本
+        PropertyValues anotherCopy = new PropertyValues(original);
+        original.addPropertyValue(new PropertyValue("name", "jack"));
+        Assert.assertEquals("bravo", anotherCopy.getPropertyValue("name").getValue());
+        Assert.assertEquals(original, new PropertyValues(original));
+    }
+
+    @Test
+    public void testFreeze() {
+        PropertyValues pvs = new PropertyValues();
+        pvs.addPropertyValue(new PropertyValue("name", "bravo"));
+        pvs.freeze();
+        Assert.assertTrue(pvs.isFrozen());
+        try {
+            pvs.addPropertyValue(new PropertyValue("name", "jack"));
+            Assert.fail("frozen");
+        } catch (BeansException expected) {
+        }
+        // 冻结后仍然可以拿一份可修改的副本
+        PropertyValues copy = new PropertyValues(pvs);
+        copy.addPropertyValue(new PropertyValue("name", "jack"));
+        Assert.assertEquals("bravo", pvs.getPropertyValue("name").getValue());
+        Assert.assertEquals("jack", copy.getPropertyValue("name").getValue());
+    }
+
+    @Test
+    public void testPackedFlags() {
+        BeanDefinition beanDefinition = new BeanDefinition(Object.class);
+        Assert.assertTrue(beanDefinition.isSingleton());
+        Assert.assertFalse(beanDefinition.hasConstructorArgumentValues());
+
+        beanDefinition.setAutowireMode(BeanDefinition.AUTOWIRE_BY_TYPE);
+        beanDefinition.setLazyInit(true);
+        beanDefinition.setScope("thread");
+        Assert.assertFalse(beanDefinition.isSingleton());
+        Assert.assertFalse(beanDefinition.isPrototype());
+        Assert.assertTrue(beanDefinition.isLazyInit());
+        Assert.assertEquals(BeanDefinition.AUTOWIRE_BY_TYPE, beanDefinition.getAutowireMode());
+
+        beanDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanDefinition.setLazyInit(false);
+        Assert.assertTrue(beanDefinition.isPrototype());
+        Assert.assertFalse(beanDefinition.isLazyInit());
+        Assert.assertEquals(BeanDefinition.AUTOWIRE_BY_TYPE, beanDefinition.getAutowireMode());
+    }
+}
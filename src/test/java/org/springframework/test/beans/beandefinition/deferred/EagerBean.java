@@ -0,0 +1,8 @@
+package org.springframework.test.beans.beandefinition.deferred;
+
+public class EagerBean {
+
+    static {
+        InitializationTracker.INITIALIZED.add("EagerBean");
+    }
+}
@@ -0,0 +1,12 @@
+package org.springframework.test.beans.beandefinition.deferred;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 记录哪些类执行过静态初始化。单独放一个类里，测试读取它时不会顺带初始化被观察的类
+ */
+public class InitializationTracker {
+
+    public static final Set<String> INITIALIZED = ConcurrentHashMap.newKeySet();
+}
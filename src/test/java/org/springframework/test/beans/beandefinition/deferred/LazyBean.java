@@ -0,0 +1,8 @@
+package org.springframework.test.beans.beandefinition.deferred;
+
+public class LazyBean {
+
+    static {
+        InitializationTracker.INITIALIZED.add("LazyBean");
+    }
+}
@@ -0,0 +1,57 @@
+package org.springframework.test.beans.beanfactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.beans.beandefinition.definition.BeanDefinition;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * 匹配的bean都是单例时，getBeansOfType直接返回缓存的不可变Map；注册BeanDefinition、注册/销毁单例后缓存失效
+ */
+public class BeansOfTypeCacheTest {
+
+    @Test
+    public void testBeansOfTypeCache() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("first", new BeanDefinition(ArrayList.class));
+        beanFactory.registerBeanDefinition("second", new BeanDefinition(ArrayList.class));
+        beanFactory.preInstantiateSingletons();
+
+        Map<String, ArrayList> lists = beanFactory.getBeansOfType(ArrayList.class);
+        Assert.assertEquals(2, lists.size());
+        Assert.assertSame(lists, beanFactory.getBeansOfType(ArrayList.class));
+        try {
+            lists.remove("first");
+            Assert.fail("unmodifiable");
+        } catch (UnsupportedOperationException expected) {
+        }
+
+        // 注册新的BeanDefinition：缓存失效
+        beanFactory.registerBeanDefinition("third", new BeanDefinition(ArrayList.class));
+        Map<String, ArrayList> afterRegister = beanFactory.getBeansOfType(ArrayList.class);
+        Assert.assertEquals(3, afterRegister.size());
+        Assert.assertSame(lists.get("first"), afterRegister.get("first"));
+
+        // 销毁单例后重新创建：结果里是新实例
+        Object oldSecond = beanFactory.getBean("second");
+        beanFactory.destroySingleton("second");
+        Map<String, ArrayList> afterDestroy = beanFactory.getBeansOfType(ArrayList.class);
+        Assert.assertNotSame(oldSecond, afterDestroy.get("second"));
+        Assert.assertSame(afterDestroy, beanFactory.getBeansOfType(ArrayList.class));
+
+        // 替换单例：缓存失效
+        beanFactory.addSingleton("first", new ArrayList<>());
+        Assert.assertNotSame(afterDestroy, beanFactory.getBeansOfType(ArrayList.class));
+
+        // 有原型bean时不缓存，每次都创建新实例
+        BeanDefinition prototype = new BeanDefinition(ArrayList.class);
+        prototype.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("prototype", prototype);
+        Map<String, ArrayList> withPrototype = beanFactory.getBeansOfType(ArrayList.class);
+        Assert.assertNotSame(withPrototype, beanFactory.getBeansOfType(ArrayList.class));
+        Assert.assertNotSame(withPrototype.get("prototype"), beanFactory.getBeansOfType(ArrayList.class).get("prototype"));
+    }
+}
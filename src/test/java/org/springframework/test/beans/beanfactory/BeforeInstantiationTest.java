@@ -0,0 +1,135 @@
+package org.springframework.test.beans.beanfactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.beans.beandefinition.definition.BeanDefinition;
+import org.springframework.beans.beandefinition.definition.BeanReference;
+import org.springframework.beans.beandefinition.definition.ConstructorArgumentValues;
+import org.springframework.beans.processor.bean.BeanPostProcessor;
+import org.springframework.beans.processor.bean.InstantiationAwareBeanPostProcessor;
+import org.springframework.core.exception.BeansException;
+import org.springframework.test.beans.dependency.constructor.Car;
+import org.springframework.test.beans.dependency.constructor.Engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 后置处理器在实例化之前直接提供bean：跳过实例化和属性填充，但初始化后置处理和单例缓存照常
+ */
+public class BeforeInstantiationTest {
+
+    @Test
+    public void testProcessorSuppliesPooledInstance() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanDefinition engineDefinition = new BeanDefinition(Engine.class);
+        // 没有配置构造器参数，Engine也没有无参构造器，只能由EnginePool提供
+        engineDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("engine", engineDefinition);
+        BeanDefinition carDefinition = new BeanDefinition(Car.class);
+        carDefinition.getConstructorArgumentValues().addIndexedArgumentValue(0, new ConstructorArgumentValues.ValueHolder(new BeanReference("engine")));
+        beanFactory.registerBeanDefinition("car", carDefinition);
+
+        EnginePool enginePool = new EnginePool();
+        List<String> initialized = new ArrayList<>();
+        beanFactory.addBeanPostProcessor(enginePool);
+        beanFactory.addBeanPostProcessor(new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                initialized.add(beanName);
+                return bean;
+            }
+        });
+
+        // 原型bean每次都从池里取，取到的是池里的实例
+        Engine first = beanFactory.getBean("engine", Engine.class);
+        Engine second = beanFactory.getBean("engine", Engine.class);
+        Assert.assertSame(enginePool.engines.get(0), first);
+        Assert.assertSame(enginePool.engines.get(1), second);
+        // 初始化后置处理照常执行
+        Assert.assertEquals(2, initialized.size());
+
+        // car不归EnginePool处理，正常实例化，只询问了一次支持的类型
+        Car car = beanFactory.getBean("car", Car.class);
+        Assert.assertSame(enginePool.engines.get(2), car.getEngine());
+        Assert.assertEquals(3, enginePool.instantiations);
+        // 每个类型只询问一次，结果被缓存
+        Assert.assertEquals(1, countOf(enginePool.checkedTypes, Car.class));
+        Assert.assertEquals(1, countOf(enginePool.checkedTypes, Engine.class));
+    }
+
+    @Test
+    public void testSingletonCached() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("engine", new BeanDefinition(Engine.class));
+        EnginePool enginePool = new EnginePool();
+        beanFactory.addBeanPostProcessor(enginePool);
+
+        Engine engine = beanFactory.getBean("engine", Engine.class);
+        Assert.assertSame(engine, beanFactory.getBean("engine"));
+        Assert.assertEquals(1, enginePool.instantiations);
+    }
+
+    @Test
+    public void testProcessorsOptIn() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("engine", new BeanDefinition(Engine.class));
+        // 只覆盖postProcessBeforeInstantiation，没有声明支持的类型，不会被调用
+        beanFactory.addBeanPostProcessor(new InstantiationAwareBeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) throws BeansException {
+                throw new IllegalStateException("not opted in");
+            }
+        });
+        EnginePool enginePool = new EnginePool();
+        beanFactory.addBeanPostProcessor(enginePool);
+        Assert.assertSame(enginePool.engines.get(0), beanFactory.getBean("engine"));
+
+        // 处理器列表只读，只能通过addBeanPostProcessor修改，按类型缓存的处理器不会过期
+        try {
+            beanFactory.getBeanPostProcessors().clear();
+            Assert.fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+
+    private static int countOf(List<Class<?>> types, Class<?> type) {
+        int count = 0;
+        for (Class<?> each : types) {
+            if (each == type) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 只处理Engine类型：从预先创建好的池里取实例
+     */
+    public static class EnginePool implements InstantiationAwareBeanPostProcessor {
+
+        private final List<Engine> engines = new ArrayList<>();
+
+        private final List<Class<?>> checkedTypes = new ArrayList<>();
+
+        private int instantiations;
+
+        public EnginePool() {
+            for (int i = 0; i < 4; i++) {
+                engines.add(new Engine("pooled-" + i, 8));
+            }
+        }
+
+        @Override
+        public boolean supportsBeforeInstantiation(Class<?> beanClass) {
+            checkedTypes.add(beanClass);
+            return Engine.class.isAssignableFrom(beanClass);
+        }
+
+        @Override
+        public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) throws BeansException {
+            return engines.get(instantiations++);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.springframework.test.beans.beanfactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.beans.beandefinition.definition.BeanDefinition;
+import org.springframework.context.ClassPathXmlApplicationContext;
+import org.springframework.core.exception.BeansException;
+
+/**
+ * refresh完成后BeanDefinition不会再变化，BeanFactory会冻结配置：名称、BeanDefinition、单例编译成完美哈希表，
+ * getBean(String)只需一次探测。冻结后不允许再注册BeanDefinition或新的单例
+ */
+public class FrozenConfigurationTest {
+
+    @Test
+    public void testFrozenLookup() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        for (int i = 0; i < 2000; i++) {
+            beanFactory.registerBeanDefinition("bean" + i, new BeanDefinition(Object.class));
+        }
+        // "Aa"和"BB"的hashCode相同，完美哈希无法区分，走溢出区
+        Assert.assertEquals("Aa".hashCode(), "BB".hashCode());
+        beanFactory.registerBeanDefinition("Aa", new BeanDefinition(Object.class));
+        beanFactory.registerBeanDefinition("BB", new BeanDefinition(Object.class));
+        BeanDefinition lazyDefinition = new BeanDefinition(Object.class);
+        lazyDefinition.setLazyInit(true);
+        beanFactory.registerBeanDefinition("lazyBean", lazyDefinition);
+        beanFactory.addSingleton("externalSingleton", "external");
+
+        beanFactory.preInstantiateSingletons();
+        Object bean42 = beanFactory.getBean("bean42");
+        beanFactory.freezeConfiguration();
+        Assert.assertTrue(beanFactory.isConfigurationFrozen());
+
+        Assert.assertSame(bean42, beanFactory.getBean("bean42"));
+        for (int i = 0; i < 2000; i++) {
+            Assert.assertNotNull(beanFactory.getBean("bean" + i));
+        }
+        Assert.assertNotSame(beanFactory.getBean("Aa"), beanFactory.getBean("BB"));
+        Assert.assertEquals("external", beanFactory.getBean("externalSingleton"));
+        Assert.assertTrue(beanFactory.containsBeanDefinition("lazyBean"));
+        Assert.assertFalse(beanFactory.containsBeanDefinition("externalSingleton"));
+
+        // 懒加载的单例在冻结之后创建，同样缓存在冻结表中
+        Assert.assertNull(beanFactory.getSingleton("lazyBean"));
+        Object lazyBean = beanFactory.getBean("lazyBean");
+        Assert.assertSame(lazyBean, beanFactory.getBean("lazyBean"));
+
+        try {
+            beanFactory.getBean("missing");
+            Assert.fail("unknown bean");
+        } catch (BeansException expected) {
+            Assert.assertEquals("No bean named 'missing' is defined", expected.getMessage());
+        }
+        try {
+            beanFactory.registerBeanDefinition("late", new BeanDefinition(Object.class));
+            Assert.fail("configuration is frozen");
+        } catch (BeansException expected) {
+            Assert.assertTrue(expected.getMessage().contains("frozen"));
+        }
+        try {
+            beanFactory.addSingleton("lateSingleton", new Object());
+            Assert.fail("configuration is frozen");
+        } catch (BeansException expected) {
+            Assert.assertTrue(expected.getMessage().contains("frozen"));
+        }
+
+        // 解除冻结后可以继续注册
+        beanFactory.unfreezeConfiguration();
+        beanFactory.registerBeanDefinition("late", new BeanDefinition(Object.class));
+        Assert.assertNotNull(beanFactory.getBean("late"));
+    }
+
+    @Test
+    public void testApplicationContextFreezesAfterRefresh() {
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:5_application_context.xml");
+        Assert.assertTrue(applicationContext.getBeanFactory().isConfigurationFrozen());
+        Assert.assertNotNull(applicationContext.getBean("writer"));
+        applicationContext.close();
+        Assert.assertFalse(applicationContext.getBeanFactory().isConfigurationFrozen());
+    }
+}
@@ -0,0 +1,99 @@
+package org.springframework.test.beans.beanfactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.beans.beandefinition.definition.BeanDefinition;
+import org.springframework.beans.beandefinition.definition.ConstructorArgumentValues;
+import org.springframework.beans.beandefinition.reader.XmlBeanDefinitionReader;
+import org.springframework.beans.processor.bean.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.beans.processor.bean.BeanPostProcessor;
+import org.springframework.core.exception.BeansException;
+import org.springframework.test.beans.dependency.constructor.Car;
+import org.springframework.test.beans.dependency.constructor.Driver;
+import org.springframework.test.beans.dependency.constructor.Engine;
+import org.springframework.test.beans.dependency.constructor.Garage;
+
+/**
+ * 覆盖层：共享模板的BeanDefinition，只存放自己覆盖的定义和创建的bean
+ */
+public class OverlayBeanFactoryTest {
+
+    @Test
+    public void testOverlayOverridesDefinitions() {
+        DefaultListableBeanFactory template = createTemplate();
+
+        DefaultListableBeanFactory tenantA = template.createOverlay();
+        DefaultListableBeanFactory tenantB = template.createOverlay();
+        Assert.assertTrue(tenantA.isOverlay());
+        // 租户B只覆盖engine
+        BeanDefinition engineDefinition = new BeanDefinition(Engine.class);
+        engineDefinition.getConstructorArgumentValues().addIndexedArgumentValue(0, new ConstructorArgumentValues.ValueHolder("V12"));
+        engineDefinition.getConstructorArgumentValues().addIndexedArgumentValue(1, new ConstructorArgumentValues.ValueHolder("12"));
+        tenantB.registerBeanDefinition("engine", engineDefinition);
+
+        // 没有覆盖的BeanDefinition是同一个对象
+        Assert.assertSame(template.getBeanDefinition("car"), tenantA.getBeanDefinition("car"));
+        Assert.assertSame(template.getBeanDefinition("car"), tenantB.getBeanDefinition("car"));
+        Assert.assertArrayEquals(new String[]{"engine"}, tenantB.getBeanNamesForType(Engine.class));
+        Assert.assertEquals(template.getBeanDefinitionNames().length, tenantB.getBeanDefinitionNames().length);
+
+        // bean是各自的实例，依赖被覆盖bean的car也用上了租户自己的engine
+        Car carA = tenantA.getBean("car", Car.class);
+        Car carB = tenantB.getBean("car", Car.class);
+        Assert.assertNotSame(carA, carB);
+        Assert.assertEquals("V8", carA.getEngine().getModel());
+        Assert.assertEquals("V12", carB.getEngine().getModel());
+        Assert.assertEquals(12, carB.getEngine().getCylinders());
+        Assert.assertNotSame(template.getBean("car"), carA);
+
+        // 模板里作为bean注册的后置处理器，每个覆盖层有自己的实例，@Autowired构造器照常工作
+        Garage garage = tenantB.getBean("garage", Garage.class);
+        Assert.assertSame(carB, garage.getCar());
+        Assert.assertSame(tenantB.getBean("engine"), garage.getDriver().getEngine());
+        BeanPostProcessor processorA = tenantA.getBean("autowiredAnnotationProcessor", BeanPostProcessor.class);
+        Assert.assertNotSame(template.getBean("autowiredAnnotationProcessor"), processorA);
+        Assert.assertTrue(tenantA.getBeanPostProcessors().contains(processorA));
+
+        // 模板不受影响
+        Assert.assertEquals("V8", template.getBean("car", Car.class).getEngine().getModel());
+    }
+
+    @Test
+    public void testOverlayRestrictions() {
+        DefaultListableBeanFactory template = new DefaultListableBeanFactory();
+        template.registerBeanDefinition("engine", new BeanDefinition(Object.class));
+        try {
+            template.createOverlay();
+            Assert.fail();
+        } catch (BeansException ex) {
+            // 模板必须先冻结
+        }
+
+        template.freezeConfiguration();
+        DefaultListableBeanFactory overlay = template.createOverlay();
+        try {
+            overlay.removeBeanDefinition("engine");
+            Assert.fail();
+        } catch (BeansException ex) {
+            Assert.assertTrue(ex.getMessage().contains("override"));
+        }
+        // 覆盖之后可以移除覆盖的定义，回到模板的定义
+        BeanDefinition override = new BeanDefinition(String.class);
+        overlay.registerBeanDefinition("engine", override);
+        Assert.assertSame(override, overlay.getBeanDefinition("engine"));
+        overlay.removeBeanDefinition("engine");
+        Assert.assertSame(template.getBeanDefinition("engine"), overlay.getBeanDefinition("engine"));
+    }
+
+    private DefaultListableBeanFactory createTemplate() {
+        DefaultListableBeanFactory template = new DefaultListableBeanFactory();
+        new XmlBeanDefinitionReader(template).loadBeanDefinitions("classpath:7_constructor_arg.xml");
+        template.registerBeanDefinition("driver", new BeanDefinition(Driver.class));
+        template.registerBeanDefinition("garage", new BeanDefinition(Garage.class));
+        template.registerBeanDefinition("autowiredAnnotationProcessor", new BeanDefinition(AutowiredAnnotationBeanPostProcessor.class));
+        template.addBeanPostProcessor(template.getBean("autowiredAnnotationProcessor", BeanPostProcessor.class));
+        template.freezeConfiguration();
+        return template;
+    }
+}
@@ -0,0 +1,119 @@
+package org.springframework.test.beans.beanfactory;
+
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.beans.beandefinition.definition.BeanDefinition;
+import org.springframework.beans.beandefinition.definition.BeanReference;
+import org.springframework.beans.beandefinition.definition.ConstructorArgumentValues;
+import org.springframework.beans.processor.bean.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.beans.processor.bean.BeanPostProcessor;
+import org.springframework.test.beans.dependency.constructor.Car;
+import org.springframework.test.beans.dependency.constructor.Engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 创建1万个租户BeanFactory的基准（不是单元测试，直接运行main方法）：
+ * <pre>
+ * java -Xmx2g -cp target/classes:target/test-classes:<hutool、dom4j> \
+ *     org.springframework.test.beans.beanfactory.OverlayBenchmark [tenants] [definitions]
+ * </pre>
+ * 模板有200个BeanDefinition（100个engine、100个引用engine的car）和一个@Autowired后置处理器。每个租户覆盖1个engine，再获取依赖它的car。
+ * 对比两种方式：
+ * - full：每个租户一个完整的BeanFactory，重新注册所有BeanDefinition（相当于每个租户重新解析一遍XML）；
+ * - overlay：每个租户一个覆盖层，共享模板的BeanDefinition。
+ * 输出总耗时和每个租户平均占用的堆内存。
+ */
+public class OverlayBenchmark {
+
+    private static final int TENANTS = 10_000;
+
+    private static final int DEFINITIONS = 200;
+
+    public static void main(String[] args) {
+        int tenants = args.length > 0 ? Integer.parseInt(args[0]) : TENANTS;
+        int definitions = args.length > 1 ? Integer.parseInt(args[1]) : DEFINITIONS;
+
+        DefaultListableBeanFactory template = new DefaultListableBeanFactory();
+        registerDefinitions(template, definitions);
+        template.registerBeanDefinition("autowiredAnnotationProcessor", new BeanDefinition(AutowiredAnnotationBeanPostProcessor.class));
+        template.addBeanPostProcessor(template.getBean("autowiredAnnotationProcessor", BeanPostProcessor.class));
+        template.freezeConfiguration();
+
+        run("full", tenants, () -> {
+            DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+            registerDefinitions(beanFactory, definitions);
+            beanFactory.registerBeanDefinition("autowiredAnnotationProcessor", new BeanDefinition(AutowiredAnnotationBeanPostProcessor.class));
+            beanFactory.addBeanPostProcessor(beanFactory.getBean("autowiredAnnotationProcessor", BeanPostProcessor.class));
+            return customize(beanFactory);
+        });
+        run("overlay", tenants, () -> customize(template.createOverlay()));
+    }
+
+    private static void run(String name, int tenants, TenantFactory tenantFactory) {
+        // 预热
+        for (int i = 0; i < Math.min(tenants, 1000); i++) {
+            tenantFactory.create();
+        }
+        long baseline = usedMemory();
+        List<DefaultListableBeanFactory> retained = new ArrayList<>(tenants);
+        long start = System.nanoTime();
+        for (int i = 0; i < tenants; i++) {
+            retained.add(tenantFactory.create());
+        }
+        long elapsed = System.nanoTime() - start;
+        long used = usedMemory() - baseline;
+        System.out.printf("%-8s tenants: %,d  time: %,d ms (%,d us/tenant)  heap: %,d MB (%,d bytes/tenant)%n",
+                name, retained.size(), TimeUnit.NANOSECONDS.toMillis(elapsed), TimeUnit.NANOSECONDS.toMicros(elapsed) / tenants,
+                used >> 20, used / tenants);
+    }
+
+    /**
+     * 租户定制：覆盖一个engine，并获取依赖它的car
+     */
+    private static DefaultListableBeanFactory customize(DefaultListableBeanFactory beanFactory) {
+        beanFactory.registerBeanDefinition("engine0", engineDefinition("tenant-V12", 12));
+        if (beanFactory.getBean("car0", Car.class).getEngine().getCylinders() != 12) {
+            throw new IllegalStateException();
+        }
+        return beanFactory;
+    }
+
+    private static void registerDefinitions(DefaultListableBeanFactory beanFactory, int definitions) {
+        for (int i = 0; i < definitions / 2; i++) {
+            beanFactory.registerBeanDefinition("engine" + i, engineDefinition("V" + i, i % 12 + 1));
+            BeanDefinition carDefinition = new BeanDefinition(Car.class);
+            carDefinition.getConstructorArgumentValues().addIndexedArgumentValue(0, new ConstructorArgumentValues.ValueHolder("car" + i));
+            carDefinition.getConstructorArgumentValues().addIndexedArgumentValue(1, new ConstructorArgumentValues.ValueHolder(new BeanReference("engine" + i)));
+            carDefinition.setLazyInit(true);
+            beanFactory.registerBeanDefinition("car" + i, carDefinition);
+        }
+    }
+
+    private static BeanDefinition engineDefinition(String model, int cylinders) {
+        BeanDefinition engineDefinition = new BeanDefinition(Engine.class);
+        engineDefinition.getConstructorArgumentValues().addIndexedArgumentValue(0, new ConstructorArgumentValues.ValueHolder(model));
+        engineDefinition.getConstructorArgumentValues().addIndexedArgumentValue(1, new ConstructorArgumentValues.ValueHolder(String.valueOf(cylinders)));
+        engineDefinition.setLazyInit(true);
+        return engineDefinition;
+    }
+
+    private interface TenantFactory {
+
+        DefaultListableBeanFactory create();
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
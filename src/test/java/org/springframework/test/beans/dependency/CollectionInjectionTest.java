@@ -0,0 +1,82 @@
+package org.springframework.test.beans.dependency;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.beans.DependencyDescriptor;
+import org.springframework.beans.beandefinition.definition.BeanDefinition;
+import org.springframework.beans.processor.bean.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.test.beans.dependency.collection.AuditHandler;
+import org.springframework.test.beans.dependency.collection.FallbackHandler;
+import org.springframework.test.beans.dependency.collection.Handler;
+import org.springframework.test.beans.dependency.collection.HandlerRegistry;
+import org.springframework.test.beans.dependency.collection.LogHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 注入某个类型的所有bean：List<T>、T[]、Map<String, T>，按Ordered接口或@Order注解排序。
+ * 候选bean都是单例时，同一个注入点只解析一次
+ */
+public class CollectionInjectionTest {
+
+    @Test
+    public void testInjectAllBeansOfType() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("fallbackHandler", new BeanDefinition(FallbackHandler.class));
+        beanFactory.registerBeanDefinition("auditHandler", new BeanDefinition(AuditHandler.class));
+        beanFactory.registerBeanDefinition("logHandler", new BeanDefinition(LogHandler.class));
+        BeanDefinition registryDefinition = new BeanDefinition(HandlerRegistry.class);
+        registryDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("handlerRegistry", registryDefinition);
+
+        AutowiredAnnotationBeanPostProcessor processor = new AutowiredAnnotationBeanPostProcessor();
+        processor.setBeanFactory(beanFactory);
+        beanFactory.addBeanPostProcessor(processor);
+
+        HandlerRegistry registry = beanFactory.getBean("handlerRegistry", HandlerRegistry.class);
+        // 构造器注入List，排序：LogHandler(1) -> AuditHandler(2) -> FallbackHandler(无)
+        Assert.assertEquals("log:hi;audit:hi;fallback:hi;", registry.handle("hi"));
+        Assert.assertEquals(Arrays.asList("logHandler", "auditHandler", "fallbackHandler"),
+                new ArrayList<>(registry.getHandlerMap().keySet()));
+        Assert.assertEquals(registry.getHandlers(), Arrays.asList(registry.getHandlerArray()));
+        try {
+            registry.getHandlers().add(new LogHandler());
+            Assert.fail("injected list is shared and must be immutable");
+        } catch (UnsupportedOperationException expected) {
+        }
+
+        // 同一个注入点复用已解析的结果，数组每次复制一份
+        HandlerRegistry another = beanFactory.getBean("handlerRegistry", HandlerRegistry.class);
+        Assert.assertSame(registry.getHandlers(), another.getHandlers());
+        Assert.assertSame(registry.getHandlerMap(), another.getHandlerMap());
+        Assert.assertNotSame(registry.getHandlerArray(), another.getHandlerArray());
+
+        // 新注册的Handler使缓存失效
+        beanFactory.registerBeanDefinition("anotherLogHandler", new BeanDefinition(LogHandler.class));
+        List<Handler> handlers = beanFactory.getBean("handlerRegistry", HandlerRegistry.class).getHandlers();
+        Assert.assertEquals(4, handlers.size());
+        Assert.assertTrue(beanFactory.getDependencyGraph().getDependencies("handlerRegistry").contains("anotherLogHandler"));
+    }
+
+    @Test
+    public void testCachedCandidatesDependOnRequestingBean() throws Exception {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("logHandler", new BeanDefinition(LogHandler.class));
+        beanFactory.registerBeanDefinition("auditHandler", new BeanDefinition(AuditHandler.class));
+        DependencyDescriptor descriptor = new DependencyDescriptor(Map.class,
+                HandlerRegistry.class.getDeclaredField("handlerMap").getGenericType(), null, null, "handlerMap");
+
+        // 请求的bean自己不是候选bean，同一个注入点被不同的bean请求时结果不同
+        Map<?, ?> forLogHandler = (Map<?, ?>) beanFactory.resolveDependency(descriptor, "logHandler");
+        Assert.assertEquals(Arrays.asList("auditHandler"), new ArrayList<>(forLogHandler.keySet()));
+        Map<?, ?> forAuditHandler = (Map<?, ?>) beanFactory.resolveDependency(descriptor, "auditHandler");
+        Assert.assertEquals(Arrays.asList("logHandler"), new ArrayList<>(forAuditHandler.keySet()));
+        Map<?, ?> withoutRequester = (Map<?, ?>) beanFactory.resolveDependency(descriptor, null);
+        Assert.assertEquals(2, withoutRequester.size());
+        Assert.assertSame(forLogHandler, beanFactory.resolveDependency(descriptor, "logHandler"));
+    }
+}
@@ -0,0 +1,92 @@
+package org.springframework.test.beans.dependency;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.beans.beandefinition.definition.BeanDefinition;
+import org.springframework.beans.beandefinition.definition.ConstructorArgumentValues;
+import org.springframework.beans.beandefinition.reader.XmlBeanDefinitionReader;
+import org.springframework.beans.processor.bean.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.test.beans.dependency.constructor.Car;
+import org.springframework.test.beans.dependency.constructor.Driver;
+import org.springframework.test.beans.dependency.constructor.Engine;
+import org.springframework.test.beans.dependency.constructor.Garage;
+import org.springframework.test.beans.dependency.constructor.Route;
+
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+
+/**
+ * 构造器注入：依赖在实例化时一次性传入，bean的字段可以是final的。
+ * 构造器和参数描述只在第一次创建bean时解析，之后缓存在BeanDefinition中
+ */
+public class ConstructorInjectionTest {
+
+    @Test
+    public void testConstructorArg() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(beanFactory);
+        reader.loadBeanDefinitions("classpath:7_constructor_arg.xml");
+
+        Engine engine = beanFactory.getBean("engine", Engine.class);
+        Assert.assertEquals("V8", engine.getModel());
+        Assert.assertEquals(8, engine.getCylinders());
+
+        Car car = beanFactory.getBean("car", Car.class);
+        Assert.assertEquals("porsche", car.getBrand());
+        Assert.assertSame(engine, car.getEngine());
+        // 构造器参数也会进入依赖图
+        Assert.assertTrue(beanFactory.getDependencyGraph().getDependencies("car").contains("engine"));
+
+        // 同一个BeanDefinition只解析一次构造器
+        Car sportsCar = beanFactory.getBean("sportsCar", Car.class);
+        BeanDefinition beanDefinition = beanFactory.getBeanDefinition("sportsCar");
+        Constructor<?> resolvedConstructor = beanDefinition.getResolvedConstructor();
+        Assert.assertEquals(1, resolvedConstructor.getParameterCount());
+        Assert.assertEquals(String.class, resolvedConstructor.getParameterTypes()[0]);
+        Car anotherSportsCar = beanFactory.getBean("sportsCar", Car.class);
+        Assert.assertNotSame(sportsCar, anotherSportsCar);
+        Assert.assertEquals("911", anotherSportsCar.getBrand());
+        Assert.assertSame(resolvedConstructor, beanDefinition.getResolvedConstructor());
+    }
+
+    @Test
+    public void testAutowiredConstructor() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(beanFactory);
+        reader.loadBeanDefinitions("classpath:7_constructor_arg.xml");
+        beanFactory.registerBeanDefinition("driver", new BeanDefinition(Driver.class));
+        beanFactory.registerBeanDefinition("garage", new BeanDefinition(Garage.class));
+
+        AutowiredAnnotationBeanPostProcessor processor = new AutowiredAnnotationBeanPostProcessor();
+        processor.setBeanFactory(beanFactory);
+        beanFactory.addBeanPostProcessor(processor);
+
+        Garage garage = beanFactory.getBean("garage", Garage.class);
+        // 有两个Car类型的bean，通过@Qualifier指定
+        Assert.assertSame(beanFactory.getBean("car"), garage.getCar());
+        // Driver只有一个带参构造器，按类型注入Engine
+        Assert.assertSame(beanFactory.getBean("engine"), garage.getDriver().getEngine());
+        Assert.assertEquals(2, garage.getCapacity());
+        Assert.assertTrue(Arrays.asList(beanFactory.getDependentBeans("driver")).contains("garage"));
+    }
+
+    @Test
+    public void testMutableLiteralArgumentsNotShared() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanDefinition beanDefinition = new BeanDefinition(Route.class);
+        beanDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanDefinition.getConstructorArgumentValues().addIndexedArgumentValue(0, new ConstructorArgumentValues.ValueHolder("a,b"));
+        beanDefinition.getConstructorArgumentValues().addIndexedArgumentValue(1, new ConstructorArgumentValues.ValueHolder("x,y"));
+        beanFactory.registerBeanDefinition("route", beanDefinition);
+
+        // 字面量转换出的集合、数组每个实例各一份，修改一个实例不影响另一个
+        Route first = beanFactory.getBean("route", Route.class);
+        Route second = beanFactory.getBean("route", Route.class);
+        Assert.assertEquals(Arrays.asList("a", "b"), second.getStops());
+        Assert.assertNotSame(first.getStops(), second.getStops());
+        Assert.assertNotSame(first.getTags(), second.getTags());
+        first.getTags()[0] = "changed";
+        Assert.assertEquals("x", second.getTags()[0]);
+    }
+}
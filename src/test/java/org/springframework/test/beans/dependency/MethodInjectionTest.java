@@ -0,0 +1,55 @@
+package org.springframework.test.beans.dependency;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.beans.beandefinition.definition.BeanDefinition;
+import org.springframework.beans.beandefinition.reader.XmlBeanDefinitionReader;
+import org.springframework.beans.processor.bean.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.test.beans.dependency.constructor.Car;
+import org.springframework.test.beans.dependency.constructor.Engine;
+import org.springframework.test.beans.dependency.method.Mechanic;
+
+import java.util.Set;
+
+/**
+ * @Autowired除了标注在字段上，还可以标注在setter或任意方法上，方法参数可以各自指定@Qualifier、@Value。
+ * 每个类的注入点只解析一次，之后同类型的bean共用
+ */
+public class MethodInjectionTest {
+
+    @Test
+    public void testAutowiredMethods() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(beanFactory);
+        reader.loadBeanDefinitions("classpath:7_constructor_arg.xml");
+        BeanDefinition beanDefinition = new BeanDefinition(Mechanic.class);
+        beanDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("mechanic", beanDefinition);
+
+        AutowiredAnnotationBeanPostProcessor processor = new AutowiredAnnotationBeanPostProcessor();
+        processor.setBeanFactory(beanFactory);
+        beanFactory.addBeanPostProcessor(processor);
+
+        Mechanic mechanic = beanFactory.getBean("mechanic", Mechanic.class);
+        Engine engine = beanFactory.getBean("engine", Engine.class);
+        Assert.assertEquals("Tony", mechanic.getName());
+        Assert.assertSame(beanFactory.getBean("car", Car.class), mechanic.getCar());
+        Assert.assertSame(engine, mechanic.getSpareEngine());
+        Assert.assertEquals(3, mechanic.getLevel());
+        // 父类中的@Autowired字段
+        Assert.assertSame(engine, mechanic.getEngine());
+
+        // 方法参数也会进入依赖图
+        Set<String> dependencies = beanFactory.getDependencyGraph().getDependencies("mechanic");
+        Assert.assertTrue(dependencies.contains("car"));
+        Assert.assertTrue(dependencies.contains("engine"));
+
+        // 注入点按类缓存
+        Assert.assertSame(processor.findInjectionMetadata(Mechanic.class), processor.findInjectionMetadata(Mechanic.class));
+        Assert.assertEquals(4, processor.findInjectionMetadata(Mechanic.class).getInjectedElements().size());
+        Mechanic another = beanFactory.getBean("mechanic", Mechanic.class);
+        Assert.assertNotSame(mechanic, another);
+        Assert.assertSame(mechanic.getCar(), another.getCar());
+    }
+}
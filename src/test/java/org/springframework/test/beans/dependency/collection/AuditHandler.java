@@ -0,0 +1,12 @@
+package org.springframework.test.beans.dependency.collection;
+
+import org.springframework.core.annotation.Order;
+
+@Order(2)
+public class AuditHandler implements Handler {
+
+    @Override
+    public String handle(String message) {
+        return "audit:" + message;
+    }
+}
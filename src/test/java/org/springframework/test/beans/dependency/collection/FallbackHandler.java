@@ -0,0 +1,12 @@
+package org.springframework.test.beans.dependency.collection;
+
+/**
+ * 没有指定顺序，排在最后
+ */
+public class FallbackHandler implements Handler {
+
+    @Override
+    public String handle(String message) {
+        return "fallback:" + message;
+    }
+}
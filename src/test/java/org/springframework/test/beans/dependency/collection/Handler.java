@@ -0,0 +1,6 @@
+package org.springframework.test.beans.dependency.collection;
+
+public interface Handler {
+
+    String handle(String message);
+}
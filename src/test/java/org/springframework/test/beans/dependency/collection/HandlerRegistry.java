@@ -0,0 +1,45 @@
+package org.springframework.test.beans.dependency.collection;
+
+import org.springframework.beans.annotation.Autowired;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 注入所有Handler。HandlerRegistry本身也是Handler，但不会注入自己
+ */
+public class HandlerRegistry implements Handler {
+
+    private final List<Handler> handlers;
+
+    @Autowired
+    private Handler[] handlerArray;
+
+    @Autowired
+    private Map<String, Handler> handlerMap;
+
+    public HandlerRegistry(List<Handler> handlers) {
+        this.handlers = handlers;
+    }
+
+    @Override
+    public String handle(String message) {
+        StringBuilder result = new StringBuilder();
+        for (Handler handler : handlers) {
+            result.append(handler.handle(message)).append(';');
+        }
+        return result.toString();
+    }
+
+    public List<Handler> getHandlers() {
+        return handlers;
+    }
+
+    public Handler[] getHandlerArray() {
+        return handlerArray;
+    }
+
+    public Map<String, Handler> getHandlerMap() {
+        return handlerMap;
+    }
+}
@@ -0,0 +1,16 @@
+package org.springframework.test.beans.dependency.collection;
+
+import org.springframework.core.Ordered;
+
+public class LogHandler implements Handler, Ordered {
+
+    @Override
+    public String handle(String message) {
+        return "log:" + message;
+    }
+
+    @Override
+    public int getOrder() {
+        return 1;
+    }
+}
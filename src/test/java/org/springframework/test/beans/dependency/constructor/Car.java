@@ -0,0 +1,29 @@
+package org.springframework.test.beans.dependency.constructor;
+
+public class Car {
+
+    private final String brand;
+
+    private final Engine engine;
+
+    public Car(String brand) {
+        this(brand, null);
+    }
+
+    public Car(Engine engine) {
+        this("unknown", engine);
+    }
+
+    public Car(String brand, Engine engine) {
+        this.brand = brand;
+        this.engine = engine;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+}
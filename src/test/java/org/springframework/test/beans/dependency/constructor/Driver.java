@@ -0,0 +1,17 @@
+package org.springframework.test.beans.dependency.constructor;
+
+/**
+ * 只有一个带参构造器，不需要@Autowired也会按类型注入
+ */
+public class Driver {
+
+    private final Engine engine;
+
+    public Driver(Engine engine) {
+        this.engine = engine;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+}
@@ -0,0 +1,21 @@
+package org.springframework.test.beans.dependency.constructor;
+
+public class Engine {
+
+    private final String model;
+
+    private final int cylinders;
+
+    public Engine(String model, int cylinders) {
+        this.model = model;
+        this.cylinders = cylinders;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public int getCylinders() {
+        return cylinders;
+    }
+}
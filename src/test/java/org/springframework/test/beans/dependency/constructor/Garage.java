@@ -0,0 +1,37 @@
+package org.springframework.test.beans.dependency.constructor;
+
+import org.springframework.beans.annotation.Autowired;
+import org.springframework.beans.annotation.Qualifier;
+import org.springframework.beans.annotation.Value;
+
+public class Garage {
+
+    private final Car car;
+
+    private final Driver driver;
+
+    private final int capacity;
+
+    public Garage() {
+        this(null, null, 0);
+    }
+
+    @Autowired
+    public Garage(@Qualifier("car") Car car, Driver driver, @Value("2") int capacity) {
+        this.car = car;
+        this.driver = driver;
+        this.capacity = capacity;
+    }
+
+    public Car getCar() {
+        return car;
+    }
+
+    public Driver getDriver() {
+        return driver;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
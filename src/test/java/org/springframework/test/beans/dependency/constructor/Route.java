@@ -0,0 +1,23 @@
+package org.springframework.test.beans.dependency.constructor;
+
+import java.util.List;
+
+public class Route {
+
+    private final List<String> stops;
+
+    private final String[] tags;
+
+    public Route(List<String> stops, String[] tags) {
+        this.stops = stops;
+        this.tags = tags;
+    }
+
+    public List<String> getStops() {
+        return stops;
+    }
+
+    public String[] getTags() {
+        return tags;
+    }
+}
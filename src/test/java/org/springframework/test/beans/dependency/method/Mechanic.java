@@ -0,0 +1,53 @@
+package org.springframework.test.beans.dependency.method;
+
+import org.springframework.beans.annotation.Autowired;
+import org.springframework.beans.annotation.Qualifier;
+import org.springframework.beans.annotation.Value;
+import org.springframework.test.beans.dependency.constructor.Car;
+import org.springframework.test.beans.dependency.constructor.Engine;
+
+/**
+ * 通过方法注入依赖：setter、多参数方法、方法上的@Value
+ */
+public class Mechanic extends Worker {
+
+    private String name;
+
+    private Car car;
+
+    private Engine spareEngine;
+
+    private int level;
+
+    @Value("Tony")
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @Autowired
+    public void setCar(@Qualifier("car") Car car) {
+        this.car = car;
+    }
+
+    @Autowired
+    private void prepare(Engine spareEngine, @Value("3") int level) {
+        this.spareEngine = spareEngine;
+        this.level = level;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Car getCar() {
+        return car;
+    }
+
+    public Engine getSpareEngine() {
+        return spareEngine;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+}
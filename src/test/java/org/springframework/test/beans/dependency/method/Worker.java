@@ -0,0 +1,14 @@
+package org.springframework.test.beans.dependency.method;
+
+import org.springframework.beans.annotation.Autowired;
+import org.springframework.test.beans.dependency.constructor.Engine;
+
+public class Worker {
+
+    @Autowired
+    private Engine engine;
+
+    public Engine getEngine() {
+        return engine;
+    }
+}
@@ -0,0 +1,98 @@
+package org.springframework.test.beans.graph;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.beans.annotation.Autowired;
+import org.springframework.beans.beandefinition.definition.BeanDefinition;
+import org.springframework.beans.beandefinition.reader.XmlBeanDefinitionReader;
+import org.springframework.beans.graph.DependencyGraph;
+import org.springframework.beans.processor.bean.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.core.exception.BeansException;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 依赖图：BeanFactory根据BeanDefinition中的引用、@Autowired字段以及运行时记录的依赖，构建bean之间的依赖关系。
+ * 借助依赖图，可以在创建bean之前发现循环依赖，并按拓扑序创建、销毁bean。
+ */
+public class DependencyGraphTest {
+
+    @Test
+    public void testDependencyGraph() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(beanFactory);
+        reader.loadBeanDefinitions("classpath:3_autowire_mode.xml");
+
+        DependencyGraph graph = beanFactory.getDependencyGraph();
+        // company开启了autowire="byName"，会解析ref="department"；department没有开启，不依赖employee
+        Assert.assertEquals(Arrays.asList("department"), Arrays.asList(graph.getDependencies("company").toArray()));
+        Assert.assertTrue(graph.getDependencies("department").isEmpty());
+        Assert.assertTrue(graph.getDependents("department").contains("company"));
+
+        List<String> creationOrder = graph.getCreationOrder();
+        Assert.assertTrue(creationOrder.indexOf("department") < creationOrder.indexOf("company"));
+        List<String> destructionOrder = graph.getDestructionOrder();
+        Assert.assertTrue(destructionOrder.indexOf("company") < destructionOrder.indexOf("department"));
+    }
+
+    @Test
+    public void testCircularDependencyDetectedUpFront() {
+        DefaultListableBeanFactory beanFactory = createCircularBeanFactory();
+        try {
+            beanFactory.preInstantiateSingletons();
+            Assert.fail("circular dependency should be detected");
+        } catch (BeansException ex) {
+            Assert.assertTrue(ex.getMessage(), ex.getMessage().startsWith("Circular dependency detected: "));
+            Assert.assertTrue(ex.getMessage(), ex.getMessage().contains("chicken -> egg -> chicken") || ex.getMessage().contains("egg -> chicken -> egg"));
+        }
+        Assert.assertFalse(beanFactory.containsSingleton("chicken"));
+    }
+
+    @Test
+    public void testCircularDependencyDetectedAtRuntime() {
+        DefaultListableBeanFactory beanFactory = createCircularBeanFactory();
+        try {
+            beanFactory.getBean("chicken");
+            Assert.fail("circular dependency should be detected");
+        } catch (BeansException ex) {
+            Throwable rootCause = ex;
+            while (rootCause.getCause() != null) {
+                rootCause = rootCause.getCause();
+            }
+            // 不再是StackOverflowError，而是给出完整的依赖路径
+            Assert.assertEquals("Circular dependency detected: chicken -> egg -> chicken", rootCause.getMessage());
+        }
+    }
+
+    private DefaultListableBeanFactory createCircularBeanFactory() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("chicken", new BeanDefinition(Chicken.class));
+        beanFactory.registerBeanDefinition("egg", new BeanDefinition(Egg.class));
+        AutowiredAnnotationBeanPostProcessor processor = new AutowiredAnnotationBeanPostProcessor();
+        processor.setBeanFactory(beanFactory);
+        beanFactory.addBeanPostProcessor(processor);
+        return beanFactory;
+    }
+
+    public static class Chicken {
+
+        @Autowired
+        private Egg egg;
+
+        public void setEgg(Egg egg) {
+            this.egg = egg;
+        }
+    }
+
+    public static class Egg {
+
+        @Autowired
+        private Chicken chicken;
+
+        public void setChicken(Chicken chicken) {
+            this.chicken = chicken;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package org.springframework.test.beans.lifecycle;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.beans.beandefinition.definition.BeanDefinition;
+import org.springframework.beans.graph.DependencyGraph;
+import org.springframework.beans.lifecycle.DisposableBean;
+import org.springframework.beans.lifecycle.SingletonDestroyer;
+import org.springframework.beans.processor.bean.InstantiationAwareBeanPostProcessor;
+import org.springframework.beans.scope.ObjectFactory;
+import org.springframework.beans.scope.Scope;
+import org.springframework.core.exception.BeansException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 容器关闭时按依赖关系的逆序销毁单例：依赖方先销毁，互不依赖的bean并行销毁，
+ * 单个bean失败或超时不影响其他bean，所有失败最后统一抛出
+ */
+public class SingletonDestroyerTest {
+
+    @Test
+    public void testDestroyInReverseDependencyOrder() {
+        // controller -> service -> dao，logger独立
+        DependencyGraph graph = DependencyGraph.builder()
+                .addDependency("controller", "service")
+                .addDependency("service", "dao")
+                .addBean("logger")
+                .build();
+        List<String> destroyed = Collections.synchronizedList(new ArrayList<>());
+        Map<String, DisposableBean> disposableBeans = new LinkedHashMap<>();
+        for (String beanName : new String[]{"dao", "service", "controller", "logger"}) {
+            disposableBeans.put(beanName, () -> destroyed.add(beanName));
+        }
+
+        new SingletonDestroyer(4, 0, 0).destroy(disposableBeans, graph);
+
+        Assert.assertEquals(4, destroyed.size());
+        Assert.assertTrue(destroyed.indexOf("controller") < destroyed.indexOf("service"));
+        Assert.assertTrue(destroyed.indexOf("service") < destroyed.indexOf("dao"));
+    }
+
+    @Test
+    public void testIndependentBeansDestroyedInParallel() {
+        // 两个bean互相等待对方开始销毁，只有并行执行才能都在超时前完成
+        CountDownLatch latch = new CountDownLatch(2);
+        Map<String, DisposableBean> disposableBeans = new LinkedHashMap<>();
+        for (String beanName : new String[]{"a", "b"}) {
+            disposableBeans.put(beanName, () -> {
+                latch.countDown();
+                if (!latch.await(5, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException(beanName + " was not destroyed in parallel");
+                }
+            });
+        }
+
+        new SingletonDestroyer(2, 0, 0).destroy(disposableBeans, null);
+    }
+
+    @Test
+    public void testAllFailuresCollected() {
+        List<String> destroyed = Collections.synchronizedList(new ArrayList<>());
+        Map<String, DisposableBean> disposableBeans = new LinkedHashMap<>();
+        disposableBeans.put("first", () -> {
+            throw new IllegalStateException("first failed");
+        });
+        disposableBeans.put("healthy", () -> destroyed.add("healthy"));
+        disposableBeans.put("second", () -> {
+            throw new IllegalStateException("second failed");
+        });
+
+        try {
+            new SingletonDestroyer(1, 0, 0).destroy(disposableBeans, null);
+            Assert.fail("destroy failures should be reported");
+        } catch (BeansException ex) {
+            Assert.assertTrue(ex.getMessage(), ex.getMessage().startsWith("2 beans failed to destroy"));
+            Assert.assertEquals("first failed", ex.getCause().getMessage());
+            Assert.assertEquals(1, ex.getSuppressed().length);
+            Assert.assertEquals("second failed", ex.getSuppressed()[0].getMessage());
+        }
+        // 失败的bean不影响其他bean的销毁
+        Assert.assertEquals(Collections.singletonList("healthy"), destroyed);
+    }
+
+    @Test
+    public void testSlowBeanTimesOut() {
+        // slow依赖dao：slow超时后，dao仍然会被销毁
+        DependencyGraph graph = DependencyGraph.builder().addDependency("slow", "dao").build();
+        List<String> destroyed = Collections.synchronizedList(new ArrayList<>());
+        Map<String, DisposableBean> disposableBeans = new LinkedHashMap<>();
+        disposableBeans.put("slow", () -> Thread.sleep(10_000));
+        disposableBeans.put("dao", () -> destroyed.add("dao"));
+
+        long start = System.currentTimeMillis();
+        try {
+            new SingletonDestroyer(2, 100, 0).destroy(disposableBeans, graph);
+            Assert.fail("slow bean should time out");
+        } catch (BeansException ex) {
+            Assert.assertTrue(ex.getCause() instanceof TimeoutException);
+            Assert.assertTrue(ex.getMessage(), ex.getMessage().contains("'slow'"));
+        }
+        Assert.assertTrue(System.currentTimeMillis() - start < 5_000);
+        Assert.assertEquals(Collections.singletonList("dao"), destroyed);
+    }
+
+    @Test
+    public void testBeanFactoryDestroySingletons() throws Exception {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setDestroyParallelism(4);
+        beanFactory.setDestroyTimeoutMillis(1_000);
+        List<String> destroyed = Collections.synchronizedList(new ArrayList<>());
+        beanFactory.registerDependentBean("dao", "service");
+        beanFactory.addSingleton("service", new Object());
+        beanFactory.addSingleton("dao", new Object());
+        beanFactory.registerDisposableBean("service", () -> destroyed.add("service"));
+        beanFactory.registerDisposableBean("dao", () -> destroyed.add("dao"));
+
+        beanFactory.destroySingletons();
+
+        Assert.assertEquals(2, destroyed.size());
+        Assert.assertTrue(destroyed.indexOf("service") < destroyed.indexOf("dao"));
+        Assert.assertFalse(beanFactory.containsSingleton("service"));
+    }
+
+    @Test
+    public void testGraphAndScopeFailuresDoNotStopDestruction() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("service", new BeanDefinition(Object.class));
+        // 预测依赖时抛异常，依赖图构建失败
+        beanFactory.addBeanPostProcessor(new InstantiationAwareBeanPostProcessor() {
+            @Override
+            public String[] predictDependencies(Class<?> beanClass, String beanName) throws BeansException {
+                throw new BeansException("Cannot predict dependencies of " + beanName);
+            }
+        });
+        List<String> destroyed = Collections.synchronizedList(new ArrayList<>());
+        beanFactory.addSingleton("service", new Object());
+        beanFactory.registerDisposableBean("service", () -> destroyed.add("service"));
+        beanFactory.registerScope("first", new FailingScope("first", destroyed));
+        beanFactory.registerScope("second", new FailingScope("second", destroyed));
+
+        try {
+            beanFactory.destroySingletons();
+            Assert.fail();
+        } catch (BeansException ex) {
+            // 依赖图的失败在前，两个作用域的失败都作为suppressed异常保留
+            Assert.assertTrue(ex.getMessage().contains("Cannot predict dependencies"));
+            Assert.assertEquals(2, ex.getSuppressed().length);
+        }
+        // 依赖图构建失败后不分先后地销毁，所有bean和作用域都执行了销毁
+        Assert.assertTrue(destroyed.containsAll(Arrays.asList("service", "first", "second")));
+        Assert.assertFalse(beanFactory.containsSingleton("service"));
+    }
+
+    private static class FailingScope implements Scope, DisposableBean {
+
+        private final String name;
+
+        private final List<String> destroyed;
+
+        FailingScope(String name, List<String> destroyed) {
+            this.name = name;
+            this.destroyed = destroyed;
+        }
+
+        @Override
+        public Object get(String name, ObjectFactory<?> objectFactory) {
+            return objectFactory.getObject();
+        }
+
+        @Override
+        public Object remove(String name) {
+            return null;
+        }
+
+        @Override
+        public void registerDestructionCallback(String name, Runnable callback) {
+        }
+
+        @Override
+        public void destroy() {
+            destroyed.add(name);
+            throw new IllegalStateException("scope " + name + " failed");
+        }
+    }
+}
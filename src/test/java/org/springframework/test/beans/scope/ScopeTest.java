@@ -0,0 +1,203 @@
+package org.springframework.test.beans.scope;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.beans.beandefinition.definition.BeanDefinition;
+import org.springframework.beans.lifecycle.DisposableBean;
+import org.springframework.beans.scope.PooledBean;
+import org.springframework.beans.scope.PooledScope;
+import org.springframework.beans.scope.ThreadScope;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 除了内置的singleton和prototype，BeanFactory还可以通过{@link org.springframework.beans.scope.Scope}扩展作用域。
+ * 这里演示默认注册的两个作用域：
+ * - thread：同一线程内共享一个实例，不同线程各自一份
+ * - pooled：实例池，借出使用后归还，池满时驱逐并销毁
+ */
+public class ScopeTest {
+
+    @Test
+    public void testThreadScope() throws InterruptedException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("formatter", threadScopedDefinition());
+
+        Formatter formatter = beanFactory.getBean("formatter", Formatter.class);
+        Assert.assertSame(formatter, beanFactory.getBean("formatter", Formatter.class));
+
+        AtomicReference<Formatter> otherThreadFormatter = new AtomicReference<>();
+        Thread thread = new Thread(() -> otherThreadFormatter.set(beanFactory.getBean("formatter", Formatter.class)));
+        thread.start();
+        thread.join();
+        Assert.assertNotNull(otherThreadFormatter.get());
+        Assert.assertNotSame(formatter, otherThreadFormatter.get());
+
+        // 线程结束后，清理时执行销毁回调
+        int destroyedBefore = Formatter.DESTROYED.get();
+        ((ThreadScope) beanFactory.getRegisteredScope(ThreadScope.SCOPE_NAME)).purgeTerminatedThreads();
+        Assert.assertEquals(destroyedBefore + 1, Formatter.DESTROYED.get());
+
+        // 容器关闭时，仍然存活的线程持有的实例也会被销毁
+        beanFactory.destroySingletons();
+        Assert.assertEquals(destroyedBefore + 2, Formatter.DESTROYED.get());
+    }
+
+    @Test
+    public void testThreadScopeRecycling() throws InterruptedException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        // 回收模式：线程结束后实例放回空闲队列，后来的短命线程直接复用
+        ThreadScope threadScope = new ThreadScope(true, 4);
+        beanFactory.registerScope(ThreadScope.SCOPE_NAME, threadScope);
+        beanFactory.registerBeanDefinition("formatter", threadScopedDefinition());
+
+        AtomicReference<Formatter> first = new AtomicReference<>();
+        Thread firstThread = new Thread(() -> first.set(beanFactory.getBean("formatter", Formatter.class)));
+        firstThread.start();
+        firstThread.join();
+        threadScope.purgeTerminatedThreads();
+
+        AtomicReference<Formatter> second = new AtomicReference<>();
+        Thread secondThread = new Thread(() -> second.set(beanFactory.getBean("formatter", Formatter.class)));
+        secondThread.start();
+        secondThread.join();
+        Assert.assertSame(first.get(), second.get());
+    }
+
+    @Test
+    public void testThreadScopeReleasesTerminatedThreadsAndInvalidatesOnDestroy() throws InterruptedException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        ThreadScope threadScope = new ThreadScope();
+        beanFactory.registerScope(ThreadScope.SCOPE_NAME, threadScope);
+        beanFactory.registerBeanDefinition("formatter", threadScopedDefinition());
+        // 当前线程没有持有实例，remove不会登记当前线程
+        Assert.assertNull(threadScope.remove("formatter"));
+
+        // 已结束线程的实例在下一个线程登记时释放，不需要主动清理
+        int destroyedBefore = Formatter.DESTROYED.get();
+        Thread shortLived = new Thread(() -> beanFactory.getBean("formatter"));
+        shortLived.start();
+        shortLived.join();
+        CountDownLatch obtained = new CountDownLatch(1);
+        CountDownLatch destroyed = new CountDownLatch(1);
+        AtomicReference<Formatter> beforeDestroy = new AtomicReference<>();
+        AtomicReference<Formatter> afterDestroy = new AtomicReference<>();
+        Thread worker = new Thread(() -> {
+            beforeDestroy.set(beanFactory.getBean("formatter", Formatter.class));
+            obtained.countDown();
+            try {
+                destroyed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            afterDestroy.set(beanFactory.getBean("formatter", Formatter.class));
+        });
+        worker.start();
+        obtained.await();
+        Assert.assertEquals(destroyedBefore + 1, Formatter.DESTROYED.get());
+
+        // 作用域销毁后，仍然存活的线程不会再拿到已经销毁的实例
+        threadScope.destroy();
+        Assert.assertEquals(destroyedBefore + 2, Formatter.DESTROYED.get());
+        destroyed.countDown();
+        worker.join();
+        Assert.assertNotNull(afterDestroy.get());
+        Assert.assertNotSame(beforeDestroy.get(), afterDestroy.get());
+        threadScope.destroy();
+    }
+
+    @Test
+    public void testPooledScope() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        // 预热2个实例，最多保留2个空闲实例
+        PooledScope pooledScope = new PooledScope(2, 2);
+        beanFactory.registerScope(PooledScope.SCOPE_NAME, pooledScope);
+        BeanDefinition beanDefinition = new BeanDefinition(Parser.class);
+        beanDefinition.setScope(PooledScope.SCOPE_NAME);
+        beanFactory.registerBeanDefinition("parser", beanDefinition);
+
+        beanFactory.preInstantiateSingletons();
+        Assert.assertEquals(2, pooledScope.getIdleCount("parser"));
+
+        Parser borrowed;
+        try (PooledBean<Parser> parser = beanFactory.borrowBean("parser", Parser.class)) {
+            borrowed = parser.get();
+            Assert.assertEquals(1, pooledScope.getIdleCount("parser"));
+        }
+        // 归还后可以再次借出同一个实例
+        Assert.assertEquals(2, pooledScope.getIdleCount("parser"));
+
+        // 借空池子后再借一个，会创建新实例；全部归还时池已满，多出的实例被驱逐并销毁
+        Parser first = beanFactory.getBean("parser", Parser.class);
+        Parser second = beanFactory.getBean("parser", Parser.class);
+        Parser third = beanFactory.getBean("parser", Parser.class);
+        Assert.assertTrue(first == borrowed || second == borrowed);
+        int destroyedBefore = Parser.DESTROYED.get();
+        beanFactory.releaseBean("parser", first);
+        beanFactory.releaseBean("parser", second);
+        beanFactory.releaseBean("parser", third);
+        Assert.assertEquals(destroyedBefore + 1, Parser.DESTROYED.get());
+
+        // 容器关闭时驱逐所有空闲实例
+        beanFactory.destroySingletons();
+        Assert.assertEquals(destroyedBefore + 3, Parser.DESTROYED.get());
+    }
+
+    @Test
+    public void testPooledScopePerBeanPoolSize() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        PooledScope pooledScope = (PooledScope) beanFactory.getRegisteredScope(PooledScope.SCOPE_NAME);
+        // 默认不预热；单独为parser配置预热3个实例，最多保留3个
+        pooledScope.setPoolSize("parser", 3, 3);
+        for (String name : new String[]{"parser", "otherParser"}) {
+            BeanDefinition beanDefinition = new BeanDefinition(Parser.class);
+            beanDefinition.setScope(PooledScope.SCOPE_NAME);
+            beanFactory.registerBeanDefinition(name, beanDefinition);
+        }
+
+        beanFactory.preInstantiateSingletons();
+        Assert.assertEquals(3, pooledScope.getIdleCount("parser"));
+        Assert.assertEquals(0, pooledScope.getIdleCount("otherParser"));
+
+        // 归还时重新生成销毁回调，被驱逐的实例照常销毁
+        Parser parser = beanFactory.getBean("otherParser", Parser.class);
+        pooledScope.destroy();
+        int destroyedBefore = Parser.DESTROYED.get();
+        beanFactory.releaseBean("otherParser", parser);
+        Assert.assertEquals(destroyedBefore + 1, Parser.DESTROYED.get());
+        try {
+            pooledScope.setPoolSize("parser", 1, 1);
+            Assert.fail();
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    private BeanDefinition threadScopedDefinition() {
+        BeanDefinition beanDefinition = new BeanDefinition(Formatter.class);
+        beanDefinition.setScope(ThreadScope.SCOPE_NAME);
+        return beanDefinition;
+    }
+
+    public static class Formatter implements DisposableBean {
+
+        static final AtomicInteger DESTROYED = new AtomicInteger();
+
+        @Override
+        public void destroy() {
+            DESTROYED.incrementAndGet();
+        }
+    }
+
+    public static class Parser implements DisposableBean {
+
+        static final AtomicInteger DESTROYED = new AtomicInteger();
+
+        @Override
+        public void destroy() {
+            DESTROYED.incrementAndGet();
+        }
+    }
+}
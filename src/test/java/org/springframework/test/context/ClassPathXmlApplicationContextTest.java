@@ -5,6 +5,7 @@ import org.junit.Test;
 import org.springframework.beans.annotation.Autowired;
 import org.springframework.beans.annotation.Qualifier;
 import org.springframework.beans.annotation.Value;
+import org.springframework.beans.processor.beanfactory.PropertyPlaceholderConfigurer;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ClassPathXmlApplicationContext;
 import org.springframework.context.annotation.Component;
@@ -14,6 +15,14 @@ import org.springframework.context.event.event.ContextRefreshedEvent;
 import org.springframework.context.event.listener.ApplicationListener;
 import org.springframework.core.exception.BeansException;
 import org.springframework.test.beans.dependency.BeanDependencyInjectTest;
+import org.springframework.test.beans.dependency.autowire.Company;
+import org.springframework.test.beans.dependency.autowire.Department;
+import org.springframework.test.beans.dependency.autowire.Employee;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 
 /**
@@ -57,6 +66,91 @@ public class ClassPathXmlApplicationContextTest {
         orderService.cancelOrder("123456", "24681012141618");
     }
 
+    /**
+     * 开启增量刷新后，再次refresh只会重建发生变化的bean以及依赖它们的bean
+     */
+    @Test
+    public void testIncrementalRefresh() throws IOException {
+        File configFile = File.createTempFile("incremental-refresh", ".xml");
+        configFile.deleteOnExit();
+        writeCompanyConfig(configFile, "人力资源部");
+
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("file:" + configFile.getAbsolutePath());
+        applicationContext.setIncrementalRefresh(true);
+        Company company = applicationContext.getBean("company", Company.class);
+        Department department = applicationContext.getBean("department", Department.class);
+        Employee employee = applicationContext.getBean("employee", Employee.class);
+        Assert.assertSame(department, company.getDepartment());
+
+        // 配置没变，什么都不做
+        applicationContext.refresh();
+        Assert.assertSame(company, applicationContext.getBean("company", Company.class));
+
+        // 修改department：department和依赖它的company被重建，employee保持不变
+        writeCompanyConfig(configFile, "研发部");
+        applicationContext.refresh();
+        Company refreshedCompany = applicationContext.getBean("company", Company.class);
+        Department refreshedDepartment = applicationContext.getBean("department", Department.class);
+        Assert.assertNotSame(company, refreshedCompany);
+        Assert.assertNotSame(department, refreshedDepartment);
+        Assert.assertEquals("研发部", refreshedDepartment.getName());
+        Assert.assertSame(refreshedDepartment, refreshedCompany.getDepartment());
+        Assert.assertSame(employee, applicationContext.getBean("employee", Employee.class));
+        applicationContext.close();
+    }
+
+    /**
+     * 只修改了${}占位符背后的properties文件，XML没有变化，受影响的bean同样会被重建
+     */
+    @Test
+    public void testIncrementalRefreshAfterPropertiesChange() throws IOException {
+        File propertiesFile = File.createTempFile("incremental-refresh", ".properties");
+        propertiesFile.deleteOnExit();
+        Files.write(propertiesFile.toPath(), "department.name=HR\n".getBytes(StandardCharsets.ISO_8859_1));
+        File configFile = File.createTempFile("incremental-refresh", ".xml");
+        configFile.deleteOnExit();
+        writeCompanyConfig(configFile, "${department.name}", "<bean id=\"placeholderConfigurer\" class=\""
+                + PropertyPlaceholderConfigurer.class.getName() + "\">\n"
+                + "        <property name=\"location\" value=\"file:" + propertiesFile.getAbsolutePath() + "\"/>\n"
+                + "    </bean>\n");
+
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("file:" + configFile.getAbsolutePath());
+        applicationContext.setIncrementalRefresh(true);
+        Company company = applicationContext.getBean("company", Company.class);
+        Employee employee = applicationContext.getBean("employee", Employee.class);
+        Assert.assertEquals("HR", company.getDepartment().getName());
+
+        Files.write(propertiesFile.toPath(), "department.name=R&D\n".getBytes(StandardCharsets.ISO_8859_1));
+        applicationContext.refresh();
+        Company refreshedCompany = applicationContext.getBean("company", Company.class);
+        Assert.assertNotSame(company, refreshedCompany);
+        Assert.assertEquals("R&D", refreshedCompany.getDepartment().getName());
+        Assert.assertSame(employee, applicationContext.getBean("employee", Employee.class));
+        applicationContext.close();
+    }
+
+    private void writeCompanyConfig(File configFile, String departmentName) throws IOException {
+        writeCompanyConfig(configFile, departmentName, "");
+    }
+
+    private void writeCompanyConfig(File configFile, String departmentName, String extraBeans) throws IOException {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<beans>\n"
+                + "    <bean id=\"company\" class=\"" + Company.class.getName() + "\" autowire=\"byName\">\n"
+                + "        <property name=\"name\" value=\"org.spring\"/>\n"
+                + "        <property name=\"department\" ref=\"department\"/>\n"
+                + "    </bean>\n"
+                + "    <bean id=\"department\" class=\"" + Department.class.getName() + "\">\n"
+                + "        <property name=\"name\" value=\"" + departmentName + "\"/>\n"
+                + "    </bean>\n"
+                + "    <bean id=\"employee\" class=\"" + Employee.class.getName() + "\">\n"
+                + "        <property name=\"name\" value=\"打工人\"/>\n"
+                + "    </bean>\n"
+                + "    " + extraBeans
+                + "</beans>\n";
+        Files.write(configFile.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+    }
+
     @Component
     public static class OrderMqHandler implements ApplicationListener<OrderCancelledEvent> {
 
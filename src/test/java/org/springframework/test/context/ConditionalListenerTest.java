@@ -0,0 +1,131 @@
+package org.springframework.test.context;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.context.event.event.ApplicationEvent;
+import org.springframework.context.event.event.EventAttributes;
+import org.springframework.context.event.listener.ApplicationListener;
+import org.springframework.context.event.listener.ConditionalApplicationListener;
+import org.springframework.context.event.multicaster.SimpleApplicationEventMulticaster;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 带条件的监听器：发布器按事件属性查索引，只调用条件匹配的监听器
+ */
+public class ConditionalListenerTest {
+
+    @Test
+    public void testOnlyMatchingListenersInvoked() {
+        SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster(new DefaultListableBeanFactory());
+        List<String> received = new ArrayList<>();
+        multicaster.addApplicationListener(new AuditListener(received));
+        // 每个账户一个监听器
+        for (int i = 0; i < 1000; i++) {
+            multicaster.addApplicationListener(new AccountListener("account-" + i, received));
+        }
+        multicaster.addApplicationListener(new AuditListener(received));
+
+        multicaster.multicastEvent(new AccountEvent("account-7"));
+        // 只调用了两个无条件的监听器和account-7的监听器，按注册顺序
+        Assert.assertEquals(3, multicaster.getMetrics().getListenerInvocations());
+        Assert.assertEquals("audit:account-7", received.get(0));
+        Assert.assertEquals("account-7:account-7", received.get(1));
+        Assert.assertEquals("audit:account-7", received.get(2));
+
+        // 没有匹配的条件监听器
+        multicaster.multicastEvent(new AccountEvent("unknown"));
+        Assert.assertEquals(5, multicaster.getMetrics().getListenerInvocations());
+
+        // 增删监听器后缓存失效
+        AccountListener another = new AccountListener("account-7", received);
+        multicaster.addApplicationListener(another);
+        received.clear();
+        multicaster.multicastEvent(new AccountEvent("account-7"));
+        Assert.assertEquals(4, received.size());
+        multicaster.removeApplicationListener(another);
+        received.clear();
+        multicaster.multicastEvent(new AccountEvent("account-7"));
+        Assert.assertEquals(3, received.size());
+    }
+
+    @Test
+    public void testEventTypeResolution() {
+        SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster(new DefaultListableBeanFactory());
+        List<String> received = new ArrayList<>();
+        // 通过父类实现ApplicationListener的监听器
+        multicaster.addApplicationListener(new SubclassAuditListener(received));
+        // lambda解析不出事件类型，当作监听所有事件
+        multicaster.addApplicationListener((ApplicationListener<ApplicationEvent>) event -> received.add("lambda"));
+
+        multicaster.multicastEvent(new AccountEvent("account-1"));
+        multicaster.multicastEvent(new ApplicationEvent(this) {
+        });
+        Assert.assertEquals(3, received.size());
+        Assert.assertEquals("audit:account-1", received.get(0));
+        Assert.assertEquals("lambda", received.get(1));
+        Assert.assertEquals("lambda", received.get(2));
+    }
+
+    public static class AccountEvent extends ApplicationEvent implements EventAttributes {
+
+        public AccountEvent(String account) {
+            super(account);
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            return "account".equals(name) ? getSource() : null;
+        }
+    }
+
+    public static class AccountListener implements ConditionalApplicationListener<AccountEvent> {
+
+        private final String account;
+
+        private final List<String> received;
+
+        public AccountListener(String account, List<String> received) {
+            this.account = account;
+            this.received = received;
+        }
+
+        @Override
+        public String getConditionAttribute() {
+            return "account";
+        }
+
+        @Override
+        public Object getConditionValue() {
+            return account;
+        }
+
+        @Override
+        public void onApplicationEvent(AccountEvent event) {
+            received.add(account + ":" + event.getSource());
+        }
+    }
+
+    public static class AuditListener implements ApplicationListener<AccountEvent> {
+
+        private final List<String> received;
+
+        public AuditListener(List<String> received) {
+            this.received = received;
+        }
+
+        @Override
+        public void onApplicationEvent(AccountEvent event) {
+            received.add("audit:" + event.getSource());
+        }
+    }
+
+    public static class SubclassAuditListener extends AuditListener {
+
+        public SubclassAuditListener(List<String> received) {
+            super(received);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.springframework.test.context;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.metrics.BeanFactoryMetrics;
+import org.springframework.beans.metrics.LatencyHistogram;
+import org.springframework.context.ClassPathXmlApplicationContext;
+import org.springframework.context.event.event.ApplicationEvent;
+import org.springframework.context.metrics.ApplicationContextMetrics;
+import org.springframework.test.beans.dependency.constructor.Car;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * 容器指标：既可以通过ApplicationContext#getMetrics()直接读，也可以通过JMX（JConsole、VisualVM）看
+ */
+public class ContextMetricsTest {
+
+    @Test
+    public void testMetrics() throws Exception {
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:7_constructor_arg.xml");
+        ApplicationContextMetrics metrics = applicationContext.getMetrics();
+        BeanFactoryMetrics beanFactoryMetrics = metrics.getBeanFactoryMetrics();
+
+        // refresh时创建了engine和car两个单例，sportsCar是原型，不会提前创建
+        Assert.assertEquals(2, metrics.getSingletonCreations());
+        Assert.assertEquals(0, metrics.getPrototypeCreations());
+        LatencyHistogram engineCreation = beanFactoryMetrics.getCreationTimes().get("engine");
+        Assert.assertEquals(1, engineCreation.getCount());
+        Assert.assertTrue(engineCreation.getMaxNanos() > 0);
+        // ApplicationContextAwareProcessor每个bean都会调用
+        Assert.assertFalse(beanFactoryMetrics.getPostProcessorTimes().isEmpty());
+        // ContextRefreshedEvent
+        Assert.assertEquals(1, metrics.getEventsMulticast());
+
+        long hits = metrics.getSingletonHits();
+        applicationContext.getBean("car");
+        applicationContext.getBean(Car.class.getSimpleName().toLowerCase());
+        Assert.assertEquals(hits + 2, metrics.getSingletonHits());
+
+        applicationContext.getBean("sportsCar");
+        applicationContext.getBean("sportsCar");
+        Assert.assertEquals(2, metrics.getPrototypeCreations());
+        Assert.assertEquals(2, beanFactoryMetrics.getCreationTimes().get("sportsCar").getCount());
+
+        // getBeansOfType会把原型bean再创建一次
+        long byTypeLookups = metrics.getByTypeLookups();
+        applicationContext.getBeansOfType(Car.class);
+        Assert.assertEquals(byTypeLookups + 1, metrics.getByTypeLookups());
+        Assert.assertEquals(3, metrics.getPrototypeCreations());
+
+        applicationContext.publishEvent(new ApplicationEvent(this) {
+        });
+        Assert.assertEquals(2, metrics.getEventsMulticast());
+
+        // 同样的指标通过JMX也能读到
+        ObjectName objectName = applicationContext.getMetricsObjectName();
+        Assert.assertNotNull(objectName);
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        Assert.assertEquals(3L, mBeanServer.getAttribute(objectName, "PrototypeCreations"));
+        String[] creationTimes = (String[]) mBeanServer.getAttribute(objectName, "BeanCreationTimes");
+        Assert.assertTrue(creationTimes[0].startsWith("car: count=1"));
+
+        mBeanServer.invoke(objectName, "reset", null, null);
+        Assert.assertEquals(0, metrics.getPrototypeCreations());
+
+        // 关闭容器时注销MBean
+        applicationContext.close();
+        Assert.assertFalse(mBeanServer.isRegistered(objectName));
+    }
+}
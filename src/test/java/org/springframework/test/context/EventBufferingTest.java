@@ -0,0 +1,114 @@
+package org.springframework.test.context;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ClassPathXmlApplicationContext;
+import org.springframework.context.EventBatch;
+import org.springframework.context.aware.ApplicationContextAware;
+import org.springframework.context.event.event.ApplicationEvent;
+import org.springframework.context.event.event.ContextRefreshedEvent;
+import org.springframework.context.event.listener.EventListener;
+import org.springframework.core.exception.BeansException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 事件缓存：refresh期间发布的事件在finishRefresh时统一发布；批量发布作用域提交后才发布，回滚则丢弃
+ */
+public class EventBufferingTest {
+
+    @Test
+    public void testEarlyEventsBufferedUntilRefreshFinishes() {
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:11_early_events.xml");
+        RecordingListener listener = applicationContext.getBean("recordingListener", RecordingListener.class);
+        // warmUpService初始化时发布的事件，比recordingListener创建得早，但它依然收到了，而且在刷新完成事件之前
+        Assert.assertEquals(2, listener.received.size());
+        Assert.assertEquals("warm-up", listener.received.get(0));
+        Assert.assertEquals("refreshed", listener.received.get(1));
+
+        // refresh完成之后不再缓存
+        applicationContext.publishEvent(new BusinessEvent("after"));
+        Assert.assertEquals("after", listener.received.get(2));
+        applicationContext.close();
+    }
+
+    @Test
+    public void testEventBatch() {
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:11_early_events.xml");
+        RecordingListener listener = applicationContext.getBean("recordingListener", RecordingListener.class);
+        listener.received.clear();
+
+        try (EventBatch batch = applicationContext.beginEventBatch()) {
+            applicationContext.publishEvent(new BusinessEvent("order-created"));
+            // 内层回滚，它的事件被丢弃
+            try (EventBatch inner = applicationContext.beginEventBatch()) {
+                applicationContext.publishEvent(new BusinessEvent("rolled-back"));
+                Assert.assertEquals(1, inner.size());
+            }
+            // 内层提交，事件并入外层
+            try (EventBatch inner = applicationContext.beginEventBatch()) {
+                applicationContext.publishEvent(new BusinessEvent("item-added"));
+                inner.commit();
+            }
+            Assert.assertTrue(listener.received.isEmpty());
+            Assert.assertEquals(2, batch.size());
+            batch.commit();
+        }
+        Assert.assertEquals(2, listener.received.size());
+        Assert.assertEquals("order-created", listener.received.get(0));
+        Assert.assertEquals("item-added", listener.received.get(1));
+
+        // 没有提交就关闭（比如抛了异常），事件全部丢弃
+        try (EventBatch ignored = applicationContext.beginEventBatch()) {
+            applicationContext.publishEvent(new BusinessEvent("failed-order"));
+        }
+        Assert.assertEquals(2, listener.received.size());
+
+        // 必须按打开的相反顺序关闭
+        EventBatch outer = applicationContext.beginEventBatch();
+        EventBatch inner = applicationContext.beginEventBatch();
+        try {
+            outer.close();
+            Assert.fail();
+        } catch (IllegalStateException ex) {
+            // 期望的异常
+        }
+        inner.close();
+        outer.close();
+        applicationContext.publishEvent(new BusinessEvent("unbatched"));
+        Assert.assertEquals("unbatched", listener.received.get(2));
+        applicationContext.close();
+    }
+
+    public static class BusinessEvent extends ApplicationEvent {
+
+        public BusinessEvent(Object source) {
+            super(source);
+        }
+    }
+
+    public static class WarmUpService implements ApplicationContextAware {
+
+        @Override
+        public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+            applicationContext.publishEvent(new BusinessEvent("warm-up"));
+        }
+    }
+
+    public static class RecordingListener {
+
+        private final List<String> received = new ArrayList<>();
+
+        @EventListener
+        public void onBusinessEvent(BusinessEvent event) {
+            received.add((String) event.getSource());
+        }
+
+        @EventListener
+        public void onRefreshed(ContextRefreshedEvent event) {
+            received.add("refreshed");
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package org.springframework.test.context;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.context.ClassPathXmlApplicationContext;
+import org.springframework.context.event.event.ApplicationEvent;
+import org.springframework.context.event.reactive.ApplicationEventFlowPublisher;
+import org.springframework.context.event.reactive.Flow;
+import org.springframework.context.event.reactive.OverflowStrategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 事件的Flow.Publisher视图：按需投递、有界缓冲区、取消订阅后移除监听器
+ */
+public class EventFlowPublisherTest {
+
+    @Test
+    public void testDemandDrivenDelivery() {
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:9_parent_context.xml");
+        ApplicationEventFlowPublisher<PriceEvent> publisher = applicationContext.getEventFlowPublisher(PriceEvent.class, 10, OverflowStrategy.ERROR);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+
+        subscriber.subscription.request(2);
+        publish(applicationContext, 5);
+        // 只投递request过的个数，其余的留在缓冲区
+        Assert.assertEquals(list(0, 1), subscriber.received);
+        subscriber.subscription.request(10);
+        Assert.assertEquals(list(0, 1, 2, 3, 4), subscriber.received);
+        // 还有剩余的需求，新事件直接投递
+        applicationContext.publishEvent(new PriceEvent(5));
+        Assert.assertEquals(6, subscriber.received.size());
+        // 其他类型的事件不会投递
+        applicationContext.publishEvent(new ApplicationEvent(this) {
+        });
+        Assert.assertEquals(6, subscriber.received.size());
+
+        // 取消订阅后监听器被移除
+        Assert.assertEquals(1, publisher.getSubscriberCount());
+        subscriber.subscription.cancel();
+        Assert.assertEquals(0, publisher.getSubscriberCount());
+        publish(applicationContext, 3);
+        Assert.assertEquals(6, subscriber.received.size());
+        applicationContext.close();
+        Assert.assertFalse(subscriber.completed);
+    }
+
+    @Test
+    public void testOverflowStrategies() {
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:9_parent_context.xml");
+        RecordingSubscriber dropOldest = subscribe(applicationContext, OverflowStrategy.DROP_OLDEST);
+        RecordingSubscriber dropLatest = subscribe(applicationContext, OverflowStrategy.DROP_LATEST);
+        RecordingSubscriber error = subscribe(applicationContext, OverflowStrategy.ERROR);
+
+        // 缓冲区大小为2，订阅者还没有request
+        publish(applicationContext, 5);
+        dropOldest.subscription.request(10);
+        dropLatest.subscription.request(10);
+        error.subscription.request(10);
+
+        Assert.assertEquals(list(3, 4), dropOldest.received);
+        Assert.assertEquals(list(0, 1), dropLatest.received);
+        // 缓冲区里的事件先投递，然后onError
+        Assert.assertEquals(list(0, 1), error.received);
+        Assert.assertTrue(error.error instanceof IllegalStateException);
+
+        // 容器关闭时其余订阅者收到onComplete
+        applicationContext.close();
+        Assert.assertTrue(dropOldest.completed);
+        Assert.assertTrue(dropLatest.completed);
+        Assert.assertFalse(error.completed);
+    }
+
+    @Test
+    public void testRequestFromOnNext() {
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:9_parent_context.xml");
+        ApplicationEventFlowPublisher<PriceEvent> publisher = applicationContext.getEventFlowPublisher(PriceEvent.class, 100, OverflowStrategy.ERROR);
+        // 每处理一个再要一个，不会递归
+        RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onNext(PriceEvent item) {
+                super.onNext(item);
+                subscription.request(1);
+            }
+        };
+        publisher.subscribe(subscriber);
+        publish(applicationContext, 50);
+        subscriber.subscription.request(1);
+        Assert.assertEquals(50, subscriber.received.size());
+
+        // 非正数的request以onError结束
+        subscriber.subscription.request(0);
+        Assert.assertTrue(subscriber.error instanceof IllegalArgumentException);
+        Assert.assertEquals(0, publisher.getSubscriberCount());
+        applicationContext.close();
+    }
+
+    @Test
+    public void testNoSignalsBeforeOnSubscribeReturns() {
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:9_parent_context.xml");
+        ApplicationEventFlowPublisher<PriceEvent> publisher = applicationContext.getEventFlowPublisher(PriceEvent.class, 10, OverflowStrategy.ERROR);
+        List<String> signals = new ArrayList<>();
+        // onSubscribe执行期间有事件到达、发布器被关闭（模拟与其他线程并发），这些信号都要等onSubscribe返回之后才投递
+        publisher.subscribe(new Flow.Subscriber<PriceEvent>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(5);
+                applicationContext.publishEvent(new PriceEvent(7));
+                publisher.close();
+                signals.add("subscribed");
+            }
+
+            @Override
+            public void onNext(PriceEvent item) {
+                signals.add("next:" + item.getSource());
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                signals.add("error");
+            }
+
+            @Override
+            public void onComplete() {
+                signals.add("complete");
+            }
+        });
+        Assert.assertEquals(Arrays.asList("subscribed", "next:7", "complete"), signals);
+        applicationContext.close();
+    }
+
+    private static RecordingSubscriber subscribe(ClassPathXmlApplicationContext applicationContext, OverflowStrategy overflowStrategy) {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        applicationContext.getEventFlowPublisher(PriceEvent.class, 2, overflowStrategy).subscribe(subscriber);
+        return subscriber;
+    }
+
+    private static void publish(ClassPathXmlApplicationContext applicationContext, int count) {
+        for (int i = 0; i < count; i++) {
+            applicationContext.publishEvent(new PriceEvent(i));
+        }
+    }
+
+    private static List<Integer> list(Integer... values) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    public static class PriceEvent extends ApplicationEvent {
+
+        public PriceEvent(Integer price) {
+            super(price);
+        }
+    }
+
+    public static class RecordingSubscriber implements Flow.Subscriber<PriceEvent> {
+
+        protected Flow.Subscription subscription;
+
+        private final List<Integer> received = new ArrayList<>();
+
+        private Throwable error;
+
+        private boolean completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(PriceEvent item) {
+            received.add((Integer) item.getSource());
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed = true;
+        }
+    }
+}
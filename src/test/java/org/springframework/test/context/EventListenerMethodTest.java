@@ -0,0 +1,213 @@
+package org.springframework.test.context;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.context.ClassPathXmlApplicationContext;
+import org.springframework.context.event.event.ApplicationEvent;
+import org.springframework.context.event.event.ContextClosedEvent;
+import org.springframework.context.event.event.ContextRefreshedEvent;
+import org.springframework.context.event.listener.ApplicationListener;
+import org.springframework.context.event.listener.EventListener;
+import org.springframework.context.event.listener.EventListenerMethodProcessor;
+import org.springframework.core.exception.BeansException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @EventListener方法：一个普通的bean用多个方法处理不同的事件
+ */
+public class EventListenerMethodTest {
+
+    @Test
+    public void testEventListenerMethods() {
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:10_event_listener.xml");
+        OrderService orderService = applicationContext.getBean("orderService", OrderService.class);
+        // refresh完成事件也能收到
+        Assert.assertEquals("refreshed", orderService.received.get(0));
+
+        applicationContext.publishEvent(new OrderPlacedEvent("order-1"));
+        applicationContext.publishEvent(new OrderCancelledEvent("order-2"));
+        // 同一个bean的多个方法之间的顺序取决于getDeclaredMethods，不做保证
+        Assert.assertTrue(orderService.received.subList(1, 3).contains("placed:order-1"));
+        Assert.assertTrue(orderService.received.subList(1, 3).contains("order:order-1"));
+        Assert.assertEquals("order:order-2", orderService.received.get(3));
+        Assert.assertEquals(4, orderService.received.size());
+
+        // 原型bean的方法没有注册
+        OrderDraft draft = applicationContext.getBean("orderDraft", OrderDraft.class);
+        applicationContext.publishEvent(new OrderPlacedEvent("order-3"));
+        Assert.assertTrue(draft.received.isEmpty());
+        applicationContext.close();
+    }
+
+    @Test
+    public void testLambdaListenerSkipsOtherEvents() {
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:10_event_listener.xml");
+        List<ApplicationEvent> closedEvents = new ArrayList<>();
+        // lambda的事件类型解析不出来，会收到所有事件；其他类型的事件在lambda内部转换失败时跳过
+        ApplicationListener<ContextClosedEvent> listener = closedEvents::add;
+        applicationContext.addApplicationListener(listener);
+        applicationContext.publishEvent(new ContextRefreshedEvent(applicationContext));
+        Assert.assertTrue(closedEvents.isEmpty());
+
+        // 监听器内部其他地方的转换失败照常抛出
+        ApplicationListener<OrderPlacedEvent> failing = event -> {
+            Object orderId = event.getSource();
+            ((List<?>) orderId).size();
+        };
+        applicationContext.addApplicationListener(failing);
+        try {
+            applicationContext.publishEvent(new OrderPlacedEvent("order-1"));
+            Assert.fail();
+        } catch (ClassCastException expected) {
+        }
+        applicationContext.removeApplicationListener(failing);
+
+        applicationContext.publishEvent(new ContextClosedEvent(applicationContext));
+        Assert.assertEquals(1, closedEvents.size());
+        applicationContext.close();
+    }
+
+    @Test
+    public void testExceptionPropagates() {
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:10_event_listener.xml");
+        try {
+            applicationContext.publishEvent(new OrderPlacedEvent("fail"));
+            Assert.fail();
+        } catch (BeansException ex) {
+            Assert.assertTrue(ex.getCause() instanceof Exception);
+            Assert.assertEquals("checked", ex.getCause().getMessage());
+        }
+        applicationContext.close();
+    }
+
+    @Test
+    public void testListenersRemovedWhenBeanDestroyed() throws IOException {
+        File configFile = File.createTempFile("event-listener", ".xml");
+        configFile.deleteOnExit();
+        writeNamedListenerConfig(configFile, "v1");
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("file:" + configFile.getAbsolutePath());
+        applicationContext.setIncrementalRefresh(true);
+
+        // 增量刷新重建了bean，旧实例的监听方法不能再收到事件
+        writeNamedListenerConfig(configFile, "v2");
+        applicationContext.refresh();
+        List<String> names = new ArrayList<>();
+        applicationContext.publishEvent(new NameCollectingEvent(names));
+        Assert.assertEquals(1, names.size());
+        Assert.assertEquals("v2", names.get(0));
+
+        // 销毁单例也会移除监听方法
+        applicationContext.getBeanFactory().destroySingleton("namedListener");
+        names.clear();
+        applicationContext.publishEvent(new NameCollectingEvent(names));
+        Assert.assertTrue(names.isEmpty());
+        applicationContext.close();
+    }
+
+    @Test
+    public void testOverlayDoesNotRegisterOnTemplateContext() {
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:10_event_listener.xml");
+        DefaultListableBeanFactory overlay = applicationContext.getBeanFactory().createOverlay();
+        for (Object beanPostProcessor : overlay.getBeanPostProcessors()) {
+            Assert.assertFalse(beanPostProcessor instanceof EventListenerMethodProcessor);
+        }
+        OrderService overlayService = overlay.getBean("orderService", OrderService.class);
+        Assert.assertNotSame(applicationContext.getBean("orderService"), overlayService);
+
+        // 覆盖层的bean没有注册到模板上下文的事件发布器上
+        applicationContext.publishEvent(new OrderPlacedEvent("order-1"));
+        Assert.assertTrue(overlayService.received.isEmpty());
+        Assert.assertTrue(applicationContext.getBean("orderService", OrderService.class).received.contains("placed:order-1"));
+        applicationContext.close();
+    }
+
+    private void writeNamedListenerConfig(File configFile, String name) throws IOException {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<beans>\n"
+                + "    <bean id=\"namedListener\" class=\"" + NamedListener.class.getName() + "\">\n"
+                + "        <property name=\"name\" value=\"" + name + "\"/>\n"
+                + "    </bean>\n"
+                + "</beans>\n";
+        Files.write(configFile.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static class NameCollectingEvent extends ApplicationEvent {
+
+        public NameCollectingEvent(List<String> names) {
+            super(names);
+        }
+    }
+
+    public static class NamedListener {
+
+        private String name;
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        @EventListener
+        @SuppressWarnings("unchecked")
+        public void onEvent(NameCollectingEvent event) {
+            ((List<String>) event.getSource()).add(name);
+        }
+    }
+
+    public static class OrderPlacedEvent extends ApplicationEvent {
+
+        public OrderPlacedEvent(Object source) {
+            super(source);
+        }
+    }
+
+    public static class OrderCancelledEvent extends ApplicationEvent {
+
+        public OrderCancelledEvent(Object source) {
+            super(source);
+        }
+    }
+
+    public static class OrderService {
+
+        private final List<String> received = new ArrayList<>();
+
+        @EventListener
+        public void onRefreshed(ContextRefreshedEvent event) {
+            received.add("refreshed");
+        }
+
+        @EventListener
+        public void onPlaced(OrderPlacedEvent event) throws Exception {
+            if ("fail".equals(event.getSource())) {
+                throw new Exception("checked");
+            }
+            received.add("placed:" + event.getSource());
+        }
+
+        /**
+         * 一个方法处理多种事件，返回值被忽略
+         */
+        @EventListener({OrderPlacedEvent.class, OrderCancelledEvent.class})
+        String onOrderEvent(ApplicationEvent event) {
+            received.add("order:" + event.getSource());
+            return "ignored";
+        }
+    }
+
+    public static class OrderDraft {
+
+        private final List<String> received = new ArrayList<>();
+
+        @EventListener
+        public void onPlaced(OrderPlacedEvent event) {
+            received.add("placed:" + event.getSource());
+        }
+    }
+}
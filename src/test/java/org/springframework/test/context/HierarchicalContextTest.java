@@ -0,0 +1,97 @@
+package org.springframework.test.context;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.context.ClassPathXmlApplicationContext;
+import org.springframework.context.event.event.ApplicationEvent;
+import org.springframework.context.event.listener.ApplicationListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 父子上下文：子上下文找不到的bean到父上下文查找，基础设施bean只创建一份；子上下文的事件会传给父上下文
+ */
+public class HierarchicalContextTest {
+
+    @Test
+    public void testBeanLookupFallsThroughToParent() {
+        ClassPathXmlApplicationContext parent = new ClassPathXmlApplicationContext("classpath:9_parent_context.xml");
+        ClassPathXmlApplicationContext tenantA = new ClassPathXmlApplicationContext("classpath:9_child_context.xml", parent);
+        ClassPathXmlApplicationContext tenantB = new ClassPathXmlApplicationContext("classpath:9_child_context.xml", parent);
+
+        SharedCodec codec = parent.getBean("codec", SharedCodec.class);
+        // 按名称、按类型都能找到父上下文的bean
+        Assert.assertSame(codec, tenantA.getBean("codec"));
+        Assert.assertSame(codec, tenantB.getBean(SharedCodec.class));
+        Assert.assertTrue(tenantA.containsBean("codec"));
+        Assert.assertFalse(tenantA.getBeanFactory().containsLocalBean("codec"));
+
+        // 业务bean各自一份，但共享同一个codec
+        TenantService serviceA = tenantA.getBean("tenantService", TenantService.class);
+        TenantService serviceB = tenantB.getBean("tenantService", TenantService.class);
+        Assert.assertNotSame(serviceA, serviceB);
+        Assert.assertSame(codec, serviceA.getCodec());
+        Assert.assertSame(codec, serviceB.getCodec());
+
+        // 父上下文看不到子上下文的bean
+        Assert.assertFalse(parent.containsBean("tenantService"));
+        Assert.assertSame(parent, tenantA.getParent());
+
+        // 关闭子上下文不影响父上下文的bean
+        tenantA.close();
+        Assert.assertSame(codec, tenantB.getBean("codec"));
+        tenantB.close();
+        parent.close();
+    }
+
+    @Test
+    public void testEventPropagatesToParent() {
+        ClassPathXmlApplicationContext parent = new ClassPathXmlApplicationContext("classpath:9_parent_context.xml");
+        AuditListener auditListener = parent.getBean("auditListener", AuditListener.class);
+        ClassPathXmlApplicationContext tenant = new ClassPathXmlApplicationContext("classpath:9_child_context.xml", parent);
+
+        tenant.publishEvent(new TenantEvent("tenant-a"));
+        Assert.assertEquals(1, auditListener.events.size());
+        Assert.assertEquals("tenant-a", auditListener.events.get(0).getSource());
+
+        // 事件只向上传播：父上下文自己发布的事件只投递给它自己的监听器一次
+        parent.publishEvent(new TenantEvent("parent"));
+        Assert.assertEquals(2, auditListener.events.size());
+        tenant.close();
+        parent.close();
+    }
+
+    public static class SharedCodec {
+    }
+
+    public static class TenantService {
+
+        private SharedCodec codec;
+
+        public SharedCodec getCodec() {
+            return codec;
+        }
+
+        public void setCodec(SharedCodec codec) {
+            this.codec = codec;
+        }
+    }
+
+    public static class TenantEvent extends ApplicationEvent {
+
+        public TenantEvent(Object source) {
+            super(source);
+        }
+    }
+
+    public static class AuditListener implements ApplicationListener<TenantEvent> {
+
+        private final List<TenantEvent> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onApplicationEvent(TenantEvent event) {
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.springframework.test.context;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.context.event.event.ApplicationEvent;
+import org.springframework.context.event.event.PartitionedEvent;
+import org.springframework.context.event.listener.ApplicationListener;
+import org.springframework.context.event.multicaster.PartitionedTaskExecutor;
+import org.springframework.context.event.multicaster.SimpleApplicationEventMulticaster;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分区派发：同一个账户的事件按发布顺序处理，不同账户的事件在不同通道上并发处理
+ */
+public class PartitionedEventDispatchTest {
+
+    @Test
+    public void testSameKeyInOrderDifferentKeysConcurrently() throws Exception {
+        SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster(new DefaultListableBeanFactory());
+        PartitionedTaskExecutor executor = new PartitionedTaskExecutor(4);
+        multicaster.setPartitionedTaskExecutor(executor);
+        AccountListener listener = new AccountListener();
+        multicaster.addApplicationListener(listener);
+
+        int accounts = 8;
+        int eventsPerAccount = 100;
+        for (int sequence = 0; sequence < eventsPerAccount; sequence++) {
+            for (int account = 0; account < accounts; account++) {
+                multicaster.multicastEvent(new AccountEvent("account-" + account, sequence));
+            }
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // 每个账户的事件都按发布顺序收到
+        Assert.assertEquals(accounts, listener.sequences.size());
+        for (List<Integer> sequences : listener.sequences.values()) {
+            Assert.assertEquals(eventsPerAccount, sequences.size());
+            for (int i = 0; i < eventsPerAccount; i++) {
+                Assert.assertEquals(i, sequences.get(i).intValue());
+            }
+        }
+        // 同一个账户只在一条通道上处理，不同账户分散在多条通道上
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        for (Set<String> accountThreads : listener.threads.values()) {
+            Assert.assertEquals(1, accountThreads.size());
+            threads.addAll(accountThreads);
+        }
+        Assert.assertTrue(threads.size() > 1);
+        Assert.assertEquals(accounts * eventsPerAccount, multicaster.getMetrics().getListenerInvocations());
+    }
+
+    @Test
+    public void testFailingListenerDoesNotStopLane() throws Exception {
+        SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster(new DefaultListableBeanFactory());
+        PartitionedTaskExecutor executor = new PartitionedTaskExecutor(1);
+        multicaster.setPartitionedTaskExecutor(executor);
+        AccountListener listener = new AccountListener();
+        multicaster.addApplicationListener(new FailingListener());
+        multicaster.addApplicationListener(listener);
+
+        multicaster.multicastEvent(new AccountEvent("account", 0));
+        multicaster.multicastEvent(new AccountEvent("account", 1));
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Assert.assertEquals(2, listener.sequences.get("account").size());
+        Assert.assertEquals(2, multicaster.getMetrics().getListenerFailures());
+    }
+
+    public static class AccountEvent extends ApplicationEvent implements PartitionedEvent {
+
+        private final int sequence;
+
+        public AccountEvent(String account, int sequence) {
+            super(account);
+            this.sequence = sequence;
+        }
+
+        @Override
+        public Object getPartitionKey() {
+            return getSource();
+        }
+    }
+
+    public static class AccountListener implements ApplicationListener<AccountEvent> {
+
+        private final Map<Object, List<Integer>> sequences = new ConcurrentHashMap<>();
+
+        private final Map<Object, Set<String>> threads = new ConcurrentHashMap<>();
+
+        @Override
+        public void onApplicationEvent(AccountEvent event) {
+            // 同一个键只会在一条通道上处理，这里的ArrayList不需要同步
+            sequences.computeIfAbsent(event.getSource(), key -> new ArrayList<>()).add(event.sequence);
+            threads.computeIfAbsent(event.getSource(), key -> ConcurrentHashMap.newKeySet()).add(Thread.currentThread().getName());
+            if (event.sequence % 10 == 0) {
+                Thread.yield();
+            }
+        }
+    }
+
+    public static class FailingListener implements ApplicationListener<AccountEvent> {
+
+        @Override
+        public void onApplicationEvent(AccountEvent event) {
+            throw new IllegalStateException("boom");
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.springframework.test.context.aot;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.beans.beandefinition.definition.BeanDefinition;
+import org.springframework.context.aot.AotApplicationContext;
+import org.springframework.context.aot.ContextAotGenerator;
+import org.springframework.context.aot.GeneratedContextInitializer;
+import org.springframework.test.beans.dependency.autowire.Company;
+import org.springframework.test.beans.dependency.autowire.Department;
+import org.springframework.test.beans.dependency.constructor.Car;
+import org.springframework.test.beans.dependency.constructor.Engine;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+
+/**
+ * AOT：构建期把XML生成Java代码，运行时直接调用构造器和setter，装配结果与解析XML相同
+ */
+public class ContextAotGeneratorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testConstructorInjection() throws Exception {
+        String source = new ContextAotGenerator("aot.generated.CarContextInitializer", "classpath:7_constructor_arg.xml").generateSource();
+        // 构造器参数在构建期就确定了：字面量直接写进代码，ref变成getBean
+        Assert.assertTrue(source.contains("new org.springframework.test.beans.dependency.constructor.Engine(\"V8\", 8)"));
+        Assert.assertTrue(source.contains("beanFactory.getBean(\"engine\")"));
+
+        AotApplicationContext context = new AotApplicationContext(compile("aot.generated.CarContextInitializer",
+                "classpath:7_constructor_arg.xml"));
+
+        Engine engine = context.getBean("engine", Engine.class);
+        Assert.assertEquals("V8", engine.getModel());
+        Assert.assertEquals(8, engine.getCylinders());
+        Car car = context.getBean("car", Car.class);
+        Assert.assertEquals("porsche", car.getBrand());
+        Assert.assertSame(engine, car.getEngine());
+
+        // prototype每次都调用生成的InstanceSupplier
+        Car sportsCar = context.getBean("sportsCar", Car.class);
+        Assert.assertEquals("911", sportsCar.getBrand());
+        Assert.assertNotSame(sportsCar, context.getBean("sportsCar", Car.class));
+
+        BeanDefinition carDefinition = context.getBeanFactory().getBeanDefinition("car");
+        Assert.assertNotNull(carDefinition.getInstanceSupplier());
+        // 不再需要反射解析构造器
+        Assert.assertNull(carDefinition.getResolvedConstructor());
+        Assert.assertArrayEquals(new String[]{"engine"}, carDefinition.getDependsOn());
+        // 依赖关系依然记录下来，销毁顺序不变
+        Assert.assertTrue(context.getBeanFactory().getDependencyGraph().getDependencies("car").contains("engine"));
+        context.close();
+    }
+
+    @Test
+    public void testPropertyInjection() throws Exception {
+        AotApplicationContext context = new AotApplicationContext(compile("aot.generated.CompanyContextInitializer",
+                "classpath:3_autowire_mode.xml"));
+
+        Company company = context.getBean("company", Company.class);
+        // 占位符在构建期已经被替换
+        Assert.assertEquals("org.spring", company.getName());
+        Department department = context.getBean("department", Department.class);
+        Assert.assertSame(department, company.getDepartment());
+        Assert.assertEquals("10086", department.getCode());
+        // department没有autowire="byName"，ref不会注入，与解析XML时的行为一致
+        Assert.assertNull(department.getEmployee());
+
+        BeanDefinition companyDefinition = context.getBeanFactory().getBeanDefinition("company");
+        Assert.assertNotNull(companyDefinition.getPropertyPopulator());
+        // 能直接调用setter的属性不再留在BeanDefinition里
+        Assert.assertTrue(companyDefinition.getPropertyValues().isEmpty());
+        context.close();
+    }
+
+    /**
+     * 生成源码，用javac编译到临时目录，再加载生成的类
+     */
+    private GeneratedContextInitializer compile(String className, String... configLocations) throws Exception {
+        File outputDir = temporaryFolder.newFolder();
+        Path file = new ContextAotGenerator(className, configLocations).generate(outputDir.toPath());
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        Assert.assertNotNull("需要JDK运行测试", compiler);
+        int result = compiler.run(null, null, null, "-encoding", "UTF-8", "-classpath", System.getProperty("java.class.path"),
+                "-d", outputDir.getAbsolutePath(), file.toString());
+        Assert.assertEquals(0, result);
+
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{outputDir.toURI().toURL()}, getClass().getClassLoader());
+        return (GeneratedContextInitializer) classLoader.loadClass(className).getDeclaredConstructor().newInstance();
+    }
+}
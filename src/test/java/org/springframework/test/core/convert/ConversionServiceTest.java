@@ -0,0 +1,94 @@
+package org.springframework.test.core.convert;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.beans.beandefinition.definition.BeanDefinition;
+import org.springframework.beans.beandefinition.definition.PropertyValue;
+import org.springframework.beans.beandefinition.definition.PropertyValues;
+import org.springframework.beans.processor.bean.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.core.convert.ConversionFailedException;
+import org.springframework.core.convert.DataSize;
+import org.springframework.core.convert.support.DefaultConversionService;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * XML中的属性值和@Value都是字符串，由ConversionService转换成属性需要的类型
+ */
+public class ConversionServiceTest {
+
+    @Test
+    public void testDefaultConverters() {
+        DefaultConversionService conversionService = new DefaultConversionService();
+        Assert.assertEquals(Integer.valueOf(42), conversionService.convert(" 42 ", int.class));
+        Assert.assertEquals(42, conversionService.convertToInt("42"));
+        Assert.assertEquals(42L, conversionService.convertToLong(42));
+        Assert.assertEquals(0.5, conversionService.convertToDouble("0.5"), 0);
+        Assert.assertEquals(Boolean.TRUE, conversionService.convert("yes", Boolean.class));
+        Assert.assertEquals(TimeUnit.SECONDS, conversionService.convert("SECONDS", TimeUnit.class));
+        Assert.assertEquals("42", conversionService.convert(42, String.class));
+
+        Assert.assertEquals(Duration.ofSeconds(10), conversionService.convert("10s", Duration.class));
+        Assert.assertEquals(Duration.ofMillis(500), conversionService.convert("500", Duration.class));
+        Assert.assertEquals(Duration.ofMinutes(2), conversionService.convert("PT2M", Duration.class));
+        Assert.assertEquals(DataSize.ofMegabytes(10), conversionService.convert("10MB", DataSize.class));
+        Assert.assertEquals(1024, conversionService.convert("1kb", DataSize.class).toBytes());
+
+        Assert.assertArrayEquals(new int[]{1, 2, 3}, conversionService.convert("1, 2,3", int[].class));
+        Assert.assertArrayEquals(new String[]{"a", "b"}, conversionService.convert("a,b", String[].class));
+
+        try {
+            conversionService.convert("abc", int.class);
+            Assert.fail("abc is not an int");
+        } catch (ConversionFailedException expected) {
+        }
+        try {
+            conversionService.convert("abc", Thread.class);
+            Assert.fail("no converter");
+        } catch (ConversionFailedException expected) {
+            Assert.assertTrue(expected.getMessage().startsWith("No converter found"));
+        }
+
+        // 自定义Converter
+        conversionService.addConverter(String.class, StringBuilder.class, StringBuilder::new);
+        Assert.assertTrue(conversionService.canConvert(String.class, StringBuilder.class));
+        Assert.assertEquals("custom", conversionService.convert("custom", StringBuilder.class).toString());
+    }
+
+    @Test
+    public void testPropertyAndValueInjection() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        PropertyValues propertyValues = new PropertyValues();
+        propertyValues.addPropertyValue(new PropertyValue("port", "8080"));
+        propertyValues.addPropertyValue(new PropertyValue("maxConnections", "10000000000"));
+        propertyValues.addPropertyValue(new PropertyValue("loadFactor", "0.9"));
+        propertyValues.addPropertyValue(new PropertyValue("timeout", "5m"));
+        propertyValues.addPropertyValue(new PropertyValue("maxUploadSize", "2GB"));
+        propertyValues.addPropertyValue(new PropertyValue("retryDelays", "100, 200, 400"));
+        propertyValues.addPropertyValue(new PropertyValue("hosts", "a.example.com,b.example.com"));
+        propertyValues.addPropertyValue(new PropertyValue("secure", "true"));
+        // 不存在的属性忽略
+        propertyValues.addPropertyValue(new PropertyValue("unknown", "ignored"));
+        beanFactory.registerBeanDefinition("serverConfig", new BeanDefinition(ServerConfig.class, propertyValues));
+        AutowiredAnnotationBeanPostProcessor processor = new AutowiredAnnotationBeanPostProcessor();
+        processor.setBeanFactory(beanFactory);
+        beanFactory.addBeanPostProcessor(processor);
+
+        ServerConfig config = beanFactory.getBean("serverConfig", ServerConfig.class);
+        Assert.assertEquals(8080, config.getPort());
+        Assert.assertEquals(10_000_000_000L, config.getMaxConnections());
+        Assert.assertEquals(0.9, config.getLoadFactor(), 0);
+        Assert.assertEquals(Duration.ofMinutes(5), config.getTimeout());
+        Assert.assertEquals(DataSize.ofGigabytes(2), config.getMaxUploadSize());
+        Assert.assertEquals(Arrays.asList(100, 200, 400), config.getRetryDelays());
+        Assert.assertArrayEquals(new String[]{"a.example.com", "b.example.com"}, config.getHosts());
+        Assert.assertTrue(config.isSecure());
+
+        Assert.assertEquals(8, config.getWorkerThreads());
+        Assert.assertEquals(0.75, config.getThreshold(), 0);
+        Assert.assertEquals(Duration.ofSeconds(30), config.getIdleTimeout());
+    }
+}
@@ -0,0 +1,111 @@
+package org.springframework.test.core.convert;
+
+import org.springframework.beans.annotation.Value;
+import org.springframework.core.convert.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+public class ServerConfig {
+
+    private int port;
+
+    private long maxConnections;
+
+    private double loadFactor;
+
+    private Duration timeout;
+
+    private DataSize maxUploadSize;
+
+    private List<Integer> retryDelays;
+
+    private String[] hosts;
+
+    private boolean secure;
+
+    @Value("8")
+    private int workerThreads;
+
+    @Value("0.75")
+    private double threshold;
+
+    @Value("30s")
+    private Duration idleTimeout;
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public long getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(long maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public double getLoadFactor() {
+        return loadFactor;
+    }
+
+    public void setLoadFactor(double loadFactor) {
+        this.loadFactor = loadFactor;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public DataSize getMaxUploadSize() {
+        return maxUploadSize;
+    }
+
+    public void setMaxUploadSize(DataSize maxUploadSize) {
+        this.maxUploadSize = maxUploadSize;
+    }
+
+    public List<Integer> getRetryDelays() {
+        return retryDelays;
+    }
+
+    public void setRetryDelays(List<Integer> retryDelays) {
+        this.retryDelays = retryDelays;
+    }
+
+    public String[] getHosts() {
+        return hosts;
+    }
+
+    public void setHosts(String[] hosts) {
+        this.hosts = hosts;
+    }
+
+    public boolean isSecure() {
+        return secure;
+    }
+
+    public void setSecure(boolean secure) {
+        this.secure = secure;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+}
@@ -0,0 +1,107 @@
+package org.springframework.test.core.env;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.DefaultListableBeanFactory;
+import org.springframework.beans.processor.beanfactory.PropertyPlaceholderConfigurer;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySourcesPropertyResolver;
+import org.springframework.core.env.ResourcePropertySource;
+import org.springframework.core.env.SystemEnvironmentPropertySource;
+import org.springframework.core.exception.BeansException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 占位符的值来自一个有序的属性源栈（系统属性、环境变量、properties文件、内存Map……），
+ * 解析时属性源栈被合并成一张索引表，属性源变化后索引自动重建。
+ */
+public class PropertySourcesTest {
+
+    @Test
+    public void testPropertySourcePriority() {
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("author", "Juergen Hoeller");
+        MutablePropertySources propertySources = new MutablePropertySources();
+        propertySources.addLast(new ResourcePropertySource("classpath:additional-config.properties"));
+        // 栈顶的属性源优先级最高
+        propertySources.addFirst(new MapPropertySource("overrides", overrides));
+
+        PropertySourcesPropertyResolver resolver = new PropertySourcesPropertyResolver(propertySources);
+        Assert.assertEquals("Juergen Hoeller", resolver.getProperty("author"));
+        Assert.assertEquals("three body", resolver.getProperty("articleTitle"));
+        Assert.assertEquals("liu wrote three body", resolver.resolvePlaceholders("${writerName} wrote ${articleTitle}"));
+        Assert.assertEquals("8080", resolver.resolvePlaceholders("${port:8080}"));
+        Assert.assertEquals("${missing}", resolver.resolvePlaceholders("${missing}"));
+    }
+
+    @Test
+    public void testIndexRebuiltWhenSourceChanges() {
+        MapPropertySource memory = new MapPropertySource("memory", new HashMap<>());
+        MutablePropertySources propertySources = new MutablePropertySources();
+        propertySources.addLast(memory);
+        PropertySourcesPropertyResolver resolver = new PropertySourcesPropertyResolver(propertySources);
+        resolver.buildIndex();
+        Assert.assertNull(resolver.getProperty("greeting"));
+
+        // 属性源内容变化，索引在下一次查找时重建
+        memory.setProperty("greeting", "hello");
+        Assert.assertEquals("hello", resolver.getProperty("greeting"));
+
+        // 增加属性源同样会触发重建
+        Map<String, Object> top = new HashMap<>();
+        top.put("greeting", "hi");
+        propertySources.addFirst(new MapPropertySource("top", top));
+        Assert.assertEquals("hi", resolver.getProperty("greeting"));
+    }
+
+    @Test(expected = BeansException.class)
+    public void testUnresolvablePlaceholder() {
+        PropertySourcesPropertyResolver resolver = new PropertySourcesPropertyResolver(new MutablePropertySources());
+        resolver.resolveRequiredPlaceholders("${missing}");
+    }
+
+    @Test
+    public void testEmbeddedValueResolution() {
+        Properties properties = new Properties();
+        properties.setProperty("author", "Juergen Hoeller");
+        PropertyPlaceholderConfigurer configurer = new PropertyPlaceholderConfigurer();
+        configurer.setLocations(new String[]{"classpath:additional-config.properties"});
+        configurer.setProperties(properties);
+
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        configurer.postProcessBeanFactory(beanFactory);
+        // 内存中的properties优先于properties文件
+        Assert.assertEquals("Juergen Hoeller", beanFactory.resolveEmbeddedValue("${author}"));
+        Assert.assertEquals("Peeking University", beanFactory.resolveEmbeddedValue("${schoolName}"));
+
+        System.setProperty("dummy.ioc.test.profile", "dev");
+        try {
+            // 系统属性作为兜底，不合并进索引，System.setProperty之后直接可见
+            Assert.assertEquals("dev", beanFactory.resolveEmbeddedValue("${dummy.ioc.test.profile}"));
+        } finally {
+            System.clearProperty("dummy.ioc.test.profile");
+        }
+    }
+
+    @Test
+    public void testRelaxedEnvironmentNames() {
+        Map<String, Object> environment = new HashMap<>();
+        environment.put("SERVER_PORT", "9090");
+        Map<String, Object> defaults = new HashMap<>();
+        defaults.put("server.port", "8080");
+        defaults.put("server.host", "localhost");
+        MutablePropertySources propertySources = new MutablePropertySources();
+        propertySources.addLast(new SystemEnvironmentPropertySource("environment", environment));
+        propertySources.addLast(new MapPropertySource("defaults", defaults));
+
+        // 环境变量优先级更高，server.port按宽松规则匹配到SERVER_PORT
+        PropertySourcesPropertyResolver resolver = new PropertySourcesPropertyResolver(propertySources);
+        Assert.assertEquals("9090", resolver.getProperty("server.port"));
+        Assert.assertEquals("localhost:9090", resolver.resolvePlaceholders("${server.host}:${server.port}"));
+        Assert.assertTrue(resolver.containsProperty("server.port"));
+    }
+}
@@ -0,0 +1,78 @@
+package org.springframework.test.core.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.springframework.context.ClassPathXmlApplicationContext;
+import org.springframework.core.jfr.ContainerFlightRecorder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 容器的JFR事件默认关闭，在录制里开启后才会产生
+ */
+public class FlightRecorderTest {
+
+    @Test
+    public void testDisabledByDefault() {
+        Assume.assumeTrue(ContainerFlightRecorder.isAvailable());
+        // 没有任何录制开启这些事件时，begin返回null，commit什么都不做
+        Assert.assertNull(ContainerFlightRecorder.beginBeanCreation());
+        Assert.assertNull(ContainerFlightRecorder.beginRefreshPhase());
+        Assert.assertNull(ContainerFlightRecorder.beginMulticast());
+        Assert.assertNull(ContainerFlightRecorder.beginListenerInvocation());
+    }
+
+    @Test
+    public void testRecording() throws Exception {
+        Assume.assumeTrue(ContainerFlightRecorder.isAvailable());
+        Path dump = Files.createTempFile("dummy-ioc", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("dummyioc.BeanCreation");
+            recording.enable("dummyioc.RefreshPhase");
+            recording.enable("dummyioc.EventMulticast");
+            recording.enable("dummyioc.ListenerInvocation");
+            recording.start();
+
+            ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:7_constructor_arg.xml");
+            applicationContext.getBean("sportsCar");
+            applicationContext.close();
+
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        new File(dump.toString()).delete();
+
+        List<RecordedEvent> beanCreations = events.stream()
+                .filter(event -> event.getEventType().getName().equals("dummyioc.BeanCreation"))
+                .collect(Collectors.toList());
+        RecordedEvent engine = beanCreations.stream()
+                .filter(event -> "engine".equals(event.getString("beanName")))
+                .findFirst().orElseThrow(AssertionError::new);
+        Assert.assertEquals("singleton", engine.getString("scope"));
+        Assert.assertFalse(engine.getBoolean("failed"));
+        Assert.assertNotNull(engine.getThread());
+        Assert.assertTrue(beanCreations.stream()
+                .anyMatch(event -> "sportsCar".equals(event.getString("beanName")) && "prototype".equals(event.getString("scope"))));
+
+        List<String> phases = events.stream()
+                .filter(event -> event.getEventType().getName().equals("dummyioc.RefreshPhase"))
+                .map(event -> event.getString("phase"))
+                .collect(Collectors.toList());
+        Assert.assertTrue(phases.contains("obtainFreshBeanFactory"));
+        Assert.assertTrue(phases.contains("finishBeanFactoryInitialization"));
+        Assert.assertTrue(phases.contains("finishRefresh"));
+
+        // ContextRefreshedEvent
+        Assert.assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("dummyioc.EventMulticast")));
+    }
+}